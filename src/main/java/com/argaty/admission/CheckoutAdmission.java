@@ -0,0 +1,334 @@
+package com.argaty.admission;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+
+/**
+ * Phòng chờ cho checkout (app.checkout.admission.enabled)
+ * - Tối đa max-concurrent request được tạo đơn cùng lúc (permit pool)
+ * - Vượt quá thì xếp hàng FIFO, client cầm token và poll vị trí (chỉ đọc map, không đụng DB)
+ * - Hàng đợi đầy thì từ chối ngay, không để thread Tomcat chờ lock tồn kho
+ * - Giới hạn số lượt vào / giây cho từng sản phẩm (product-rate-per-second, 0 = tắt)
+ * Lượt được gọi mà không submit trong admit-window-ms, hoặc ngừng poll quá abandon-after-ms, sẽ bị hủy
+ */
+@Component
+public class CheckoutAdmission {
+
+    private final boolean enabled;
+    private final int maxQueue;
+    private final long admitWindowMs;
+    private final long abandonAfterMs;
+
+    private final Semaphore permits;
+    private final ProductRateLimiter rateLimiter;
+
+    // Hàng đợi chỉ sửa trong synchronized (this); tickets cho phép poll không cần lock
+    private final ArrayDeque<Ticket> queue = new ArrayDeque<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Map<Long, Ticket> ticketsByUser = new ConcurrentHashMap<>();
+    private long nextSeq = 1;
+    private volatile long admittedSeq;
+    private volatile int queueDepth;
+
+    private final LongAdder direct = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder totalWaitMs = new LongAdder();
+    private final LongAccumulator maxWaitMs = new LongAccumulator(Math::max, 0);
+
+    public CheckoutAdmission(@Value("${app.checkout.admission.enabled:false}") boolean enabled,
+                             @Value("${app.checkout.admission.max-concurrent:20}") int maxConcurrent,
+                             @Value("${app.checkout.admission.max-queue:2000}") int maxQueue,
+                             @Value("${app.checkout.admission.product-rate-per-second:0}") double productRatePerSecond,
+                             @Value("${app.checkout.admission.admit-window-ms:30000}") long admitWindowMs,
+                             @Value("${app.checkout.admission.abandon-after-ms:15000}") long abandonAfterMs) {
+        this.enabled = enabled;
+        this.maxQueue = maxQueue;
+        this.admitWindowMs = admitWindowMs;
+        this.abandonAfterMs = abandonAfterMs;
+        this.permits = new Semaphore(maxConcurrent);
+        this.rateLimiter = new ProductRateLimiter(productRatePerSecond);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ========== ENTER ==========
+
+    /**
+     * Xin vào checkout: GRANTED (giữ permit, phải close), QUEUED (kèm token) hoặc REJECTED
+     * Chỉ vào thẳng khi hàng đợi trống, để không chen ngang người đang chờ
+     */
+    public Decision tryEnter(Long userId, List<Long> productIds) {
+        if (!enabled) {
+            return Decision.granted(null);
+        }
+        synchronized (this) {
+            Ticket existing = ticketsByUser.get(userId);
+            if (existing != null) {
+                existing.touch();
+                return Decision.queued(existing.token);
+            }
+            if (queue.isEmpty() && permits.tryAcquire()) {
+                if (rateLimiter.tryAcquire(productIds)) {
+                    direct.increment();
+                    return Decision.granted(this);
+                }
+                permits.release();
+            }
+            if (queue.size() >= maxQueue) {
+                shed.increment();
+                return Decision.rejected();
+            }
+            Ticket ticket = new Ticket(UUID.randomUUID().toString(), nextSeq++, userId, productIds);
+            queue.addLast(ticket);
+            queueDepth = queue.size();
+            tickets.put(ticket.token, ticket);
+            ticketsByUser.put(userId, ticket);
+            return Decision.queued(ticket.token);
+        }
+    }
+
+    /**
+     * Nhận lượt đã được gọi: GRANTED nếu token đã tới lượt, QUEUED nếu còn chờ, REJECTED nếu token hết hạn
+     */
+    public Decision claim(String token, Long userId) {
+        if (!enabled) {
+            return Decision.granted(null);
+        }
+        Ticket ticket = token != null ? tickets.get(token) : null;
+        if (ticket == null || !ticket.userId.equals(userId)) {
+            return Decision.rejected();
+        }
+        if (!ticket.admitted) {
+            ticket.touch();
+            return Decision.queued(token);
+        }
+        // Permit đã được giữ sẵn cho ticket lúc gọi lượt, chỉ chuyển sang Decision
+        if (forget(ticket)) {
+            return Decision.granted(this);
+        }
+        return Decision.rejected();
+    }
+
+    /**
+     * Trạng thái cho client poll - O(1), không lock
+     */
+    public Status status(String token) {
+        Ticket ticket = token != null ? tickets.get(token) : null;
+        if (ticket == null) {
+            return Status.EXPIRED;
+        }
+        ticket.touch();
+        if (ticket.admitted) {
+            return Status.ADMITTED;
+        }
+        return new Status(Status.WAITING.state, Math.max(1, ticket.seq - admittedSeq), queueDepth);
+    }
+
+    private boolean forget(Ticket ticket) {
+        if (!tickets.remove(ticket.token, ticket)) {
+            return false;
+        }
+        ticketsByUser.remove(ticket.userId, ticket);
+        return true;
+    }
+
+    // ========== PUMP ==========
+
+    private void release() {
+        permits.release();
+        admitNext();
+    }
+
+    /**
+     * Gọi lượt cho đầu hàng đợi khi còn permit
+     * Đầu hàng bị giới hạn tốc độ sản phẩm thì dừng lại chờ tick sau (giữ FIFO)
+     */
+    private synchronized void admitNext() {
+        long now = System.currentTimeMillis();
+        while (!queue.isEmpty()) {
+            Ticket head = queue.peekFirst();
+            if (now - head.lastSeenAt > abandonAfterMs) {
+                dropHead(head);
+                continue;
+            }
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            if (!rateLimiter.tryAcquire(head.productIds)) {
+                permits.release();
+                return;
+            }
+            queue.pollFirst();
+            queueDepth = queue.size();
+            admittedSeq = head.seq;
+            head.admittedAt = now;
+            head.admitted = true;
+
+            long waited = now - head.enqueuedAt;
+            totalWaitMs.add(waited);
+            maxWaitMs.accumulate(waited);
+            admitted.increment();
+        }
+    }
+
+    private void dropHead(Ticket head) {
+        queue.pollFirst();
+        queueDepth = queue.size();
+        admittedSeq = head.seq;
+        forget(head);
+        abandoned.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.checkout.admission.pump-interval-ms:100}")
+    public void pump() {
+        if (!enabled) {
+            return;
+        }
+        expireUnclaimed();
+        admitNext();
+    }
+
+    /**
+     * Trả permit của các lượt đã gọi nhưng client không submit
+     */
+    private void expireUnclaimed() {
+        long now = System.currentTimeMillis();
+        for (Ticket ticket : tickets.values()) {
+            if (ticket.admitted && now - ticket.admittedAt > admitWindowMs && forget(ticket)) {
+                abandoned.increment();
+                permits.release();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void pruneRateBuckets() {
+        if (enabled && rateLimiter.isEnabled()) {
+            rateLimiter.prune();
+        }
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        long admittedCount = admitted.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("availablePermits", permits.availablePermits());
+        stats.put("queueDepth", queueDepth);
+        stats.put("awaitingClaim", tickets.values().stream().filter(t -> t.admitted).count());
+        stats.put("direct", direct.sum());
+        stats.put("admittedFromQueue", admittedCount);
+        stats.put("shed", shed.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("avgWaitMs", admittedCount > 0 ? totalWaitMs.sum() / admittedCount : 0);
+        stats.put("maxWaitMs", maxWaitMs.get());
+        return stats;
+    }
+
+    // ========== INTERNAL ==========
+
+    private static final class Ticket {
+        private final String token;
+        private final long seq;
+        private final Long userId;
+        private final List<Long> productIds;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private volatile long lastSeenAt = enqueuedAt;
+        private volatile boolean admitted;
+        private volatile long admittedAt;
+
+        Ticket(String token, long seq, Long userId, List<Long> productIds) {
+            this.token = token;
+            this.seq = seq;
+            this.userId = userId;
+            this.productIds = productIds;
+        }
+
+        void touch() {
+            lastSeenAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Trạng thái lượt chờ trả cho client
+     */
+    @Getter
+    public static final class Status {
+        public static final Status ADMITTED = new Status("ADMITTED", 0, 0);
+        public static final Status EXPIRED = new Status("EXPIRED", 0, 0);
+        static final Status WAITING = new Status("WAITING", 0, 0);
+
+        private final String state;
+        private final long position;
+        private final int queueDepth;
+
+        Status(String state, long position, int queueDepth) {
+            this.state = state;
+            this.position = position;
+            this.queueDepth = queueDepth;
+        }
+    }
+
+    /**
+     * Kết quả xin vào; GRANTED giữ 1 permit cho tới khi close()
+     */
+    public static final class Decision implements AutoCloseable {
+
+        public enum Outcome { GRANTED, QUEUED, REJECTED }
+
+        @Getter
+        private final Outcome outcome;
+        @Getter
+        private final String token;
+        private final CheckoutAdmission owner;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Decision(Outcome outcome, String token, CheckoutAdmission owner) {
+            this.outcome = outcome;
+            this.token = token;
+            this.owner = owner;
+        }
+
+        static Decision granted(CheckoutAdmission owner) {
+            return new Decision(Outcome.GRANTED, null, owner);
+        }
+
+        static Decision queued(String token) {
+            return new Decision(Outcome.QUEUED, token, null);
+        }
+
+        static Decision rejected() {
+            return new Decision(Outcome.REJECTED, null, null);
+        }
+
+        public boolean isGranted() {
+            return outcome == Outcome.GRANTED;
+        }
+
+        @Override
+        public void close() {
+            if (owner != null && closed.compareAndSet(false, true)) {
+                owner.release();
+            }
+        }
+    }
+}
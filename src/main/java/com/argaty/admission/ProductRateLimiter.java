@@ -0,0 +1,68 @@
+package com.argaty.admission;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token bucket theo sản phẩm: mỗi sản phẩm nhận tối đa ratePerSecond lượt đặt hàng / giây (burst = 1 giây)
+ * Một đơn chỉ được nhận khi mọi sản phẩm trong đơn còn token, khi đó mỗi sản phẩm trừ 1 token
+ */
+class ProductRateLimiter {
+
+    private final double ratePerSecond;
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+
+    ProductRateLimiter(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    boolean isEnabled() {
+        return ratePerSecond > 0;
+    }
+
+    synchronized boolean tryAcquire(Collection<Long> productIds) {
+        if (!isEnabled() || productIds.isEmpty()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        for (Long productId : productIds) {
+            Bucket bucket = buckets.computeIfAbsent(productId, id -> new Bucket(ratePerSecond, now));
+            bucket.refill(now, ratePerSecond);
+            if (bucket.tokens < 1) {
+                return false;
+            }
+        }
+        for (Long productId : productIds) {
+            buckets.get(productId).tokens -= 1;
+        }
+        return true;
+    }
+
+    /**
+     * Bỏ bucket đã đầy (không dùng gần đây) để map không phình ra
+     */
+    synchronized void prune() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> {
+            bucket.refill(now, ratePerSecond);
+            return bucket.tokens >= ratePerSecond;
+        });
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        void refill(long now, double ratePerSecond) {
+            double elapsedSeconds = (now - refilledAt) / 1_000_000_000.0;
+            tokens = Math.min(Math.max(ratePerSecond, 1), tokens + elapsedSeconds * ratePerSecond);
+            refilledAt = now;
+        }
+    }
+}
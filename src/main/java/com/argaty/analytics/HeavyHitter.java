@@ -0,0 +1,21 @@
+package com.argaty.analytics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 1 dòng trong bảng xếp hạng top-K
+ * - count: ước lượng (số lượng bán / số tiền chi tiêu) cộng từ các bucket còn theo dõi key
+ * - error: phần có thể bị đếm thừa, giá trị thật >= count - error
+ * - events: số đơn góp vào count kể từ khi key được theo dõi
+ */
+@Getter
+@RequiredArgsConstructor
+public class HeavyHitter {
+
+    private final long key;
+    private final String label;
+    private final long count;
+    private final long error;
+    private final long events;
+}
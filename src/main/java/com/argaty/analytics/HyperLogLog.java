@@ -0,0 +1,90 @@
+package com.argaty.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog (Flajolet et al.) ước lượng số phần tử khác nhau, 2^PRECISION register 1 byte (1 KB)
+ * - Sai số chuẩn ~1.04 / sqrt(1024) ≈ 3.3%
+ * - Gộp 2 sketch = lấy max từng register, nên sketch lưu DB có thể gộp dần qua nhiều lần ghi / nhiều instance
+ * Các hàm tự đồng bộ trên chính sketch (tranh chấp thấp: mỗi sản phẩm 1 sketch)
+ */
+final class HyperLogLog {
+
+    static final int PRECISION = 10;
+    static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    /**
+     * Dựng lại từ bytes đã lưu; bytes sai kích thước thì bỏ qua (sketch rỗng)
+     */
+    static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes != null && bytes.length == REGISTERS) {
+            System.arraycopy(bytes, 0, sketch.registers, 0, REGISTERS);
+        }
+        return sketch;
+    }
+
+    synchronized void offer(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Bit 1 sentinel: rank tối đa = 64 - PRECISION + 1
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    synchronized void merge(HyperLogLog other) {
+        byte[] theirs = other.toBytes();
+        for (int i = 0; i < REGISTERS; i++) {
+            if (theirs[i] > registers[i]) {
+                registers[i] = theirs[i];
+            }
+        }
+    }
+
+    synchronized long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Hiệu chỉnh vùng nhỏ (linear counting)
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    synchronized byte[] toBytes() {
+        return Arrays.copyOf(registers, REGISTERS);
+    }
+
+    // FNV-1a 64 bit + bước trộn cuối của MurmurHash3 để phân bố đều các bit cao
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,312 @@
+package com.argaty.analytics;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.argaty.event.TrendingProductsChangedEvent;
+import com.argaty.repository.ProductViewRepository;
+import com.argaty.repository.ProductViewRepository.ViewDelta;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thu thập lượt xem sản phẩm và tính điểm xu hướng (trending)
+ * - Request chỉ tăng LongAdder (bộ đếm phân mảnh, không khóa) và cập nhật sketch HyperLogLog người xem
+ * - Job nền gộp lượt xem theo sản phẩm rồi ghi DB theo lô (product_view_daily_stats)
+ * - Điểm trending giảm theo hàm mũ với chu kỳ bán rã cấu hình: score = score × 2^(-Δt / halfLife) + lượt xem mới
+ * - Khởi động: dựng lại điểm từ số liệu theo ngày trong DB
+ * Lượt xem trong khoảng flush cuối của ngày được tính cho ngày đó; dừng app mất tối đa 1 chu kỳ nếu flush lỗi
+ */
+@Slf4j
+@Component
+public class ProductViewTracker {
+
+    public static final String TRENDING_SORT = "trending";
+
+    // Chặn map pending / viewers phình ra khi bị gọi với id rác (viewers chỉ reset khi sang ngày)
+    private static final int MAX_PENDING_PRODUCTS = 20_000;
+    private static final int MAX_VIEWER_SKETCHES = 20_000;
+    // Điểm thấp hơn ngưỡng này bị bỏ khỏi bảng trending
+    private static final double MIN_SCORE = 0.01;
+    // Số sản phẩm đầu bảng dùng để phát hiện thay đổi cho trang chủ
+    private static final int TOP_WATCH_SIZE = 16;
+
+    private final ProductViewRepository productViewRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long halfLifeMillis;
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Long, HyperLogLog> viewers = new ConcurrentHashMap<>();
+    private volatile LocalDate viewerDay = LocalDate.now();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedViewers = new LongAdder();
+
+    // Chỉ đọc / ghi trong flush() (đồng bộ); request đọc bản snapshot bên dưới
+    private final Map<Long, Double> scores = new HashMap<>();
+    private long lastDecayMillis = System.currentTimeMillis();
+
+    private volatile Map<Long, Double> trendingScores = Map.of();
+    private volatile List<Long> trendingIds = List.of();
+    private volatile boolean ready = false;
+    private volatile long lastFlushMillis = 0;
+    private volatile long lastFlushedViews = 0;
+    private volatile LocalDateTime lastFlushedAt;
+
+    public ProductViewTracker(ProductViewRepository productViewRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.product-views.half-life-hours:24}") long halfLifeHours) {
+        this.productViewRepository = productViewRepository;
+        this.eventPublisher = eventPublisher;
+        this.halfLifeMillis = Duration.ofHours(halfLifeHours).toMillis();
+    }
+
+    // ========== RECORD ==========
+
+    /**
+     * Ghi nhận 1 lượt xem (không chạm DB)
+     *
+     * @param viewerKey định danh người xem cho ước lượng người xem khác nhau, null = chỉ đếm lượt xem
+     */
+    public void recordView(Long productId, String viewerKey) {
+        if (productId == null) {
+            return;
+        }
+        LongAdder counter = pending.get(productId);
+        if (counter == null) {
+            if (pending.size() >= MAX_PENDING_PRODUCTS) {
+                dropped.increment();
+                return;
+            }
+            counter = pending.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        counter.increment();
+        if (viewerKey != null) {
+            HyperLogLog sketch = viewers.get(productId);
+            if (sketch == null) {
+                if (viewers.size() >= MAX_VIEWER_SKETCHES) {
+                    // Vẫn đếm lượt xem, chỉ bỏ ước lượng người xem khác nhau
+                    droppedViewers.increment();
+                    return;
+                }
+                sketch = viewers.computeIfAbsent(productId, id -> new HyperLogLog());
+            }
+            sketch.offer(viewerKey);
+        }
+    }
+
+    /**
+     * Định danh người xem: user đăng nhập, session sẵn có, hoặc IP + User-Agent (không tạo session mới)
+     */
+    public static String viewerKey(Optional<Long> userId, HttpServletRequest request) {
+        if (userId.isPresent()) {
+            return "u:" + userId.get();
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "s:" + session.getId();
+        }
+        return "a:" + request.getRemoteAddr() + "|" + request.getHeader("User-Agent");
+    }
+
+    // ========== FLUSH ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        try {
+            long now = System.currentTimeMillis();
+            LocalDate from = LocalDate.now().minusDays(Math.min(30, Math.max(1, 5 * halfLifeMillis / Duration.ofDays(1).toMillis())));
+            LocalDateTime nowTime = LocalDateTime.now();
+            for (Object[] row : productViewRepository.findViewsSince(from)) {
+                LocalDate day = (LocalDate) row[1];
+                // Lượt xem của 1 ngày coi như xảy ra giữa ngày (hôm nay: thời điểm hiện tại)
+                LocalDateTime at = day.equals(nowTime.toLocalDate()) ? nowTime : day.atTime(LocalTime.NOON);
+                long ageMillis = Math.max(0, Duration.between(at, nowTime).toMillis());
+                scores.merge((Long) row[0], ((Number) row[2]).longValue() * decay(ageMillis), Double::sum);
+            }
+            lastDecayMillis = now;
+            publishSnapshot();
+            ready = true;
+            log.info("Loaded trending scores for {} products", trendingScores.size());
+        } catch (Exception e) {
+            log.error("Failed to load product view history: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.product-views.flush-interval-ms:10000}",
+               initialDelayString = "${app.product-views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        long start = System.currentTimeMillis();
+        LocalDate day = viewerDay;
+        Map<Long, HyperLogLog> daySketches = viewers;
+        if (!day.equals(LocalDate.now())) {
+            // Sang ngày mới: sketch cũ ghi lần cuối trong lượt này
+            viewers = new ConcurrentHashMap<>();
+            viewerDay = LocalDate.now();
+        }
+
+        Map<Long, Long> views = drain();
+        if (!views.isEmpty()) {
+            try {
+                Map<Long, byte[]> stored = productViewRepository.findViewerSketches(day, views.keySet());
+                List<ViewDelta> deltas = new ArrayList<>(views.size());
+                for (Map.Entry<Long, Long> entry : views.entrySet()) {
+                    HyperLogLog sketch = daySketches.get(entry.getKey());
+                    byte[] bytes = null;
+                    if (sketch != null) {
+                        // Gộp sketch đã lưu (instance khác / lần flush trước khi khởi động lại) vào sketch trong bộ nhớ
+                        sketch.merge(HyperLogLog.fromBytes(stored.get(entry.getKey())));
+                        bytes = sketch.toBytes();
+                    }
+                    deltas.add(new ViewDelta(entry.getKey(), entry.getValue(), bytes));
+                }
+                productViewRepository.addViews(day, deltas);
+            } catch (Exception e) {
+                // Trả lượt xem về hàng đợi, lần flush sau ghi lại
+                views.forEach((id, count) -> pending.computeIfAbsent(id, key -> new LongAdder()).add(count));
+                log.warn("Failed to flush product views: {}", e.getMessage());
+                return;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        double factor = decay(now - lastDecayMillis);
+        lastDecayMillis = now;
+        scores.replaceAll((id, score) -> score * factor);
+        views.forEach((id, count) -> scores.merge(id, (double) count, Double::sum));
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        publishSnapshot();
+
+        long total = 0;
+        for (long count : views.values()) {
+            total += count;
+        }
+        lastFlushedViews = total;
+        lastFlushMillis = System.currentTimeMillis() - start;
+        lastFlushedAt = LocalDateTime.now();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ========== QUERY ==========
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Id sản phẩm theo điểm trending giảm dần
+     */
+    public List<Long> getTrendingIds(int limit) {
+        List<Long> ids = trendingIds;
+        return ids.size() > limit ? ids.subList(0, limit) : ids;
+    }
+
+    /**
+     * Điểm trending hiện tại (bất biến, cập nhật mỗi lần flush)
+     */
+    public Map<Long, Double> getTrendingScores() {
+        return trendingScores;
+    }
+
+    /**
+     * Lượt xem và số người xem khác nhau (ước lượng) của 1 sản phẩm trong days ngày gần nhất,
+     * gồm cả phần chưa ghi DB
+     */
+    public Map<String, Object> getProductStats(Long productId, int days) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(1, days) - 1L);
+        long views = 0;
+        HyperLogLog unique = new HyperLogLog();
+        for (Object[] row : productViewRepository.findProductDays(productId, from)) {
+            views += ((Number) row[1]).longValue();
+            unique.merge(HyperLogLog.fromBytes((byte[]) row[2]));
+        }
+        LongAdder counter = pending.get(productId);
+        if (counter != null) {
+            views += counter.sum();
+        }
+        HyperLogLog today = viewers.get(productId);
+        if (today != null) {
+            unique.merge(today);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("productId", productId);
+        stats.put("days", Math.max(1, days));
+        stats.put("views", views);
+        stats.put("uniqueViewers", unique.estimate());
+        stats.put("trendingScore", trendingScores.getOrDefault(productId, 0.0));
+        return stats;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("halfLifeHours", Duration.ofMillis(halfLifeMillis).toHours());
+        stats.put("pendingProducts", pending.size());
+        stats.put("viewerSketches", viewers.size());
+        stats.put("droppedViews", dropped.sum());
+        stats.put("droppedViewerSketches", droppedViewers.sum());
+        stats.put("trendingProducts", trendingIds.size());
+        stats.put("lastFlushedViews", lastFlushedViews);
+        stats.put("lastFlushMillis", lastFlushMillis);
+        stats.put("lastFlushedAt", lastFlushedAt);
+        return stats;
+    }
+
+    // ========== HELPERS ==========
+
+    private Map<Long, Long> drain() {
+        Map<Long, Long> views = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                views.put(entry.getKey(), count);
+            } else {
+                // Không có lượt xem từ lần flush trước: bỏ bộ đếm để map không giữ mãi mọi sản phẩm
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return views;
+    }
+
+    private double decay(long elapsedMillis) {
+        return Math.pow(2, -(double) elapsedMillis / halfLifeMillis);
+    }
+
+    private void publishSnapshot() {
+        List<Long> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort((a, b) -> Double.compare(scores.get(b), scores.get(a)));
+        List<Long> previousTop = getTrendingIds(TOP_WATCH_SIZE);
+
+        trendingScores = Collections.unmodifiableMap(new HashMap<>(scores));
+        trendingIds = Collections.unmodifiableList(ranked);
+
+        if (!previousTop.equals(getTrendingIds(TOP_WATCH_SIZE))) {
+            eventPublisher.publishEvent(new TrendingProductsChangedEvent());
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.argaty.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.enums.OrderStatus;
+import com.argaty.event.OrderStatusChangedEvent;
+import com.argaty.repository.OrderItemRepository;
+import com.argaty.repository.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bảng xếp hạng bán chạy in-memory (sản phẩm, danh mục theo số lượng; khách hàng theo số tiền)
+ * trên các cửa sổ trượt 1 giờ / 24 giờ / 7 ngày / 30 ngày, bộ nhớ cố định nhờ Space-Saving
+ * - Cộng khi đơn được đặt, trừ khi đơn bị hủy / đổi trả (theo ngày tạo đơn, nếu còn trong cửa sổ)
+ * - Khởi động và định kỳ: nạp lại đơn 30 ngày gần nhất (trừ đơn đã hủy / đổi trả) rồi thay state,
+ *   sửa lệch do đơn đặt / hủy ở instance khác hoặc event trùng lúc nạp
+ * Trước khi nạp xong isReady() = false, bên gọi dùng query cũ
+ */
+@Slf4j
+@Component
+public class SalesHeavyHitters {
+
+    private static final Set<OrderStatus> EXCLUDED = Set.of(OrderStatus.CANCELLED, OrderStatus.RETURNED);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final int capacity;
+    private final SalesWindow bestSellerWindow;
+
+    // Toàn bộ state dưới đây được bảo vệ bởi lock của bean
+    private Map<SalesWindow, SlidingTopK> products;
+    private Map<SalesWindow, SlidingTopK> categories;
+    private Map<SalesWindow, SlidingTopK> customers;
+
+    private volatile boolean ready = false;
+    private volatile long lastLoadMillis = 0;
+    private volatile long loadedOrders = 0;
+
+    public SalesHeavyHitters(OrderRepository orderRepository,
+                             OrderItemRepository orderItemRepository,
+                             @Value("${app.heavy-hitters.capacity:100}") int capacity,
+                             @Value("${app.heavy-hitters.best-seller-window:DAYS_7}") SalesWindow bestSellerWindow) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.capacity = capacity;
+        this.bestSellerWindow = bestSellerWindow;
+        this.products = windows(capacity);
+        this.categories = windows(capacity);
+        this.customers = windows(capacity);
+    }
+
+    // ========== LOAD ==========
+
+    /**
+     * Chạy trước khi trang chủ build snapshot để danh sách bán chạy có số liệu ngay từ đầu
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Nạp lại từ DB rồi thay state; event chỉ cập nhật phần của instance này nên cần nạp định kỳ
+     */
+    @Scheduled(fixedDelayString = "${app.heavy-hitters.reload-interval-ms:900000}",
+               initialDelayString = "${app.heavy-hitters.reload-interval-ms:900000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        try {
+            long now = start;
+            LocalDateTime from = LocalDateTime.now().minus(SalesWindow.DAYS_30.getSpan());
+            Map<SalesWindow, SlidingTopK> loadedProducts = windows(capacity);
+            Map<SalesWindow, SlidingTopK> loadedCategories = windows(capacity);
+            Map<SalesWindow, SlidingTopK> loadedCustomers = windows(capacity);
+
+            for (Object[] row : orderItemRepository.findSaleRowsSince(from, EXCLUDED)) {
+                long time = toMillis((LocalDateTime) row[0]);
+                long quantity = ((Number) row[4]).longValue();
+                add(loadedProducts, (Long) row[1], (String) row[3], quantity, time, now);
+                if (row[2] != null) {
+                    add(loadedCategories, (Long) row[2], null, quantity, time, now);
+                }
+            }
+            long orders = 0;
+            for (Object[] row : orderRepository.findCustomerSaleRowsSince(from, EXCLUDED)) {
+                add(loadedCustomers, (Long) row[1], null, spent((BigDecimal) row[2]), toMillis((LocalDateTime) row[0]), now);
+                orders++;
+            }
+
+            synchronized (this) {
+                products = loadedProducts;
+                categories = loadedCategories;
+                customers = loadedCustomers;
+                ready = true;
+            }
+            loadedOrders = orders;
+            lastLoadMillis = System.currentTimeMillis() - start;
+            log.info("Loaded sales heavy hitters from {} orders in {} ms", orders, lastLoadMillis);
+        } catch (Exception e) {
+            log.error("Failed to load sales heavy hitters: {}", e.getMessage());
+        }
+    }
+
+    // ========== EVENTS ==========
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        boolean placed = event.isCreated();
+        boolean reverted = !placed && EXCLUDED.contains(event.getNewStatus())
+                && !EXCLUDED.contains(event.getOldStatus());
+        if (!placed && !reverted) {
+            return;
+        }
+        LocalDateTime createdAt = event.getOrderCreatedAt() != null ? event.getOrderCreatedAt() : LocalDateTime.now();
+        if (createdAt.isBefore(LocalDateTime.now().minus(SalesWindow.DAYS_30.getSpan()))) {
+            return;
+        }
+
+        List<Object[]> items = orderItemRepository.findSaleRowsByOrderId(event.getOrderId());
+        Optional<Long> userId = orderRepository.findUserIdById(event.getOrderId());
+        long time = toMillis(createdAt);
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            for (Object[] row : items) {
+                long quantity = ((Number) row[3]).longValue();
+                if (placed) {
+                    add(products, (Long) row[0], (String) row[2], quantity, time, now);
+                    if (row[1] != null) {
+                        add(categories, (Long) row[1], null, quantity, time, now);
+                    }
+                } else {
+                    subtract(products, (Long) row[0], quantity, time, now);
+                    if (row[1] != null) {
+                        subtract(categories, (Long) row[1], quantity, time, now);
+                    }
+                }
+            }
+            if (userId.isPresent()) {
+                long spent = spent(event.getTotalAmount());
+                if (placed) {
+                    add(customers, userId.get(), null, spent, time, now);
+                } else {
+                    subtract(customers, userId.get(), spent, time, now);
+                }
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== QUERY ==========
+
+    public synchronized List<HeavyHitter> topProducts(SalesWindow window, int limit) {
+        return products.get(window).top(limit, System.currentTimeMillis());
+    }
+
+    public synchronized List<HeavyHitter> topCategories(SalesWindow window, int limit) {
+        return categories.get(window).top(limit, System.currentTimeMillis());
+    }
+
+    public synchronized List<HeavyHitter> topCustomers(SalesWindow window, int limit) {
+        return customers.get(window).top(limit, System.currentTimeMillis());
+    }
+
+    /**
+     * Id sản phẩm bán chạy nhất trong cửa sổ cấu hình cho danh sách bán chạy tự động
+     */
+    public List<Long> bestSellerIds(int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        for (HeavyHitter hit : topProducts(bestSellerWindow, limit)) {
+            ids.add(hit.getKey());
+        }
+        return ids;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("capacity", capacity);
+        stats.put("bestSellerWindow", bestSellerWindow);
+        synchronized (this) {
+            stats.put("productCounters", counterCount(products));
+            stats.put("categoryCounters", counterCount(categories));
+            stats.put("customerCounters", counterCount(customers));
+        }
+        stats.put("loadedOrders", loadedOrders);
+        stats.put("lastLoadMillis", lastLoadMillis);
+        return stats;
+    }
+
+    // ========== HELPERS ==========
+
+    private static Map<SalesWindow, SlidingTopK> windows(int capacity) {
+        Map<SalesWindow, SlidingTopK> windows = new EnumMap<>(SalesWindow.class);
+        for (SalesWindow window : SalesWindow.values()) {
+            windows.put(window, new SlidingTopK(window, capacity));
+        }
+        return windows;
+    }
+
+    private static void add(Map<SalesWindow, SlidingTopK> windows, long key, String label,
+                            long weight, long time, long now) {
+        for (SlidingTopK topK : windows.values()) {
+            topK.add(key, label, weight, time, now);
+        }
+    }
+
+    private static void subtract(Map<SalesWindow, SlidingTopK> windows, long key, long weight, long time, long now) {
+        for (SlidingTopK topK : windows.values()) {
+            topK.subtract(key, weight, time, now);
+        }
+    }
+
+    private static int counterCount(Map<SalesWindow, SlidingTopK> windows) {
+        int count = 0;
+        for (SlidingTopK topK : windows.values()) {
+            count += topK.counterCount();
+        }
+        return count;
+    }
+
+    private static long spent(BigDecimal amount) {
+        return amount != null ? amount.longValue() : 0;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,34 @@
+package com.argaty.analytics;
+
+import java.time.Duration;
+
+/**
+ * Cửa sổ trượt của bảng xếp hạng bán chạy
+ * Mỗi cửa sổ chia thành bucketCount bucket, cửa sổ trượt theo từng bucket (độ trễ tối đa 1 bucket)
+ */
+public enum SalesWindow {
+    HOUR_1(Duration.ofMinutes(5), 12),
+    DAY_1(Duration.ofHours(1), 24),
+    DAYS_7(Duration.ofHours(6), 28),
+    DAYS_30(Duration.ofDays(1), 30);
+
+    private final Duration bucket;
+    private final int bucketCount;
+
+    SalesWindow(Duration bucket, int bucketCount) {
+        this.bucket = bucket;
+        this.bucketCount = bucketCount;
+    }
+
+    public Duration getBucket() {
+        return bucket;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public Duration getSpan() {
+        return bucket.multipliedBy(bucketCount);
+    }
+}
@@ -0,0 +1,101 @@
+package com.argaty.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top-K trên cửa sổ trượt: vòng bucket theo thời gian, mỗi bucket là 1 SpaceSaving
+ * - Ghi vào bucket của thời điểm phát sinh (ngày tạo đơn), bucket quá cũ được tái sử dụng
+ * - Đọc: cộng dồn counter của các bucket còn trong cửa sổ rồi xếp hạng
+ * Bộ nhớ tối đa bucketCount × capacity counter
+ * Không thread-safe, bên gọi tự đồng bộ
+ */
+final class SlidingTopK {
+
+    private final long bucketMillis;
+    private final int capacity;
+    private final SpaceSaving[] buckets;
+    private final long[] epochs;
+
+    SlidingTopK(SalesWindow window, int capacity) {
+        this.bucketMillis = window.getBucket().toMillis();
+        this.capacity = capacity;
+        this.buckets = new SpaceSaving[window.getBucketCount()];
+        this.epochs = new long[window.getBucketCount()];
+        Arrays.fill(epochs, -1);
+    }
+
+    void add(long key, String label, long weight, long timeMillis, long nowMillis) {
+        SpaceSaving bucket = bucket(timeMillis, nowMillis, true);
+        if (bucket != null) {
+            bucket.add(key, label, weight);
+        }
+    }
+
+    void subtract(long key, long weight, long timeMillis, long nowMillis) {
+        SpaceSaving bucket = bucket(timeMillis, nowMillis, false);
+        if (bucket != null) {
+            bucket.subtract(key, weight);
+        }
+    }
+
+    List<HeavyHitter> top(int limit, long nowMillis) {
+        long oldest = oldestEpoch(nowMillis);
+        Map<Long, HeavyHitter> merged = new HashMap<>();
+        for (int slot = 0; slot < buckets.length; slot++) {
+            if (buckets[slot] == null || epochs[slot] < oldest) {
+                continue;
+            }
+            for (SpaceSaving.Counter c : buckets[slot].counters()) {
+                if (c.count == 0) {
+                    // Counter đã bị trừ hết, chỉ còn giữ chỗ trong bucket
+                    continue;
+                }
+                HeavyHitter prev = merged.get(c.key);
+                merged.put(c.key, prev == null
+                        ? new HeavyHitter(c.key, c.label, c.count, c.error, c.events)
+                        : new HeavyHitter(c.key, c.label != null ? c.label : prev.getLabel(),
+                                prev.getCount() + c.count, prev.getError() + c.error, prev.getEvents() + c.events));
+            }
+        }
+
+        List<HeavyHitter> ranked = new ArrayList<>(merged.values());
+        ranked.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed()
+                .thenComparingLong(HeavyHitter::getKey));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    int counterCount() {
+        int count = 0;
+        for (SpaceSaving bucket : buckets) {
+            if (bucket != null) {
+                count += bucket.size();
+            }
+        }
+        return count;
+    }
+
+    private SpaceSaving bucket(long timeMillis, long nowMillis, boolean create) {
+        long epoch = Math.min(timeMillis, nowMillis) / bucketMillis;
+        if (epoch < oldestEpoch(nowMillis)) {
+            return null;
+        }
+        int slot = (int) (epoch % buckets.length);
+        if (epochs[slot] != epoch) {
+            if (!create) {
+                return null;
+            }
+            buckets[slot] = new SpaceSaving(capacity);
+            epochs[slot] = epoch;
+        }
+        return buckets[slot];
+    }
+
+    private long oldestEpoch(long nowMillis) {
+        return nowMillis / bucketMillis - buckets.length + 1;
+    }
+}
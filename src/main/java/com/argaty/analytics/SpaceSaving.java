@@ -0,0 +1,99 @@
+package com.argaty.analytics;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Thuật toán Space-Saving (Metwally et al.) có trọng số: theo dõi tối đa capacity key nặng nhất
+ * - Key mới khi đã đầy thay counter nhỏ nhất và kế thừa giá trị của nó làm sai số (error)
+ * - count luôn >= giá trị thật, count - error <= giá trị thật
+ * - Trừ (đơn bị hủy) chỉ áp dụng khi key còn được theo dõi; counter về 0 vẫn giữ chỗ (bị thay đầu tiên)
+ * - Trừ có thể làm count nhỏ nhất giảm, nên giữ thêm mức sàn = count lớn nhất từng bị thay:
+ *   key bị thay có giá trị thật không vượt mức này, key vào sau kế thừa ít nhất mức này
+ * Không thread-safe, bên gọi tự đồng bộ
+ */
+final class SpaceSaving {
+
+    private static final Comparator<Counter> BY_COUNT =
+            Comparator.comparingLong((Counter c) -> c.count).thenComparingLong(c -> c.key);
+
+    private final int capacity;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+    private long evictedFloor = 0;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(long key, String label, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(key, 0);
+            counters.put(key, counter);
+        } else {
+            Counter evicted = byCount.pollFirst();
+            counters.remove(evicted.key);
+            evictedFloor = Math.max(evictedFloor, evicted.count);
+            counter = new Counter(key, evictedFloor);
+            counters.put(key, counter);
+        }
+        counter.count += weight;
+        counter.events++;
+        if (label != null) {
+            counter.label = label;
+        }
+        byCount.add(counter);
+    }
+
+    void subtract(long key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            return;
+        }
+        byCount.remove(counter);
+        counter.count = Math.max(0, counter.count - weight);
+        counter.error = Math.min(counter.error, counter.count);
+        counter.events = Math.max(0, counter.events - 1);
+        byCount.add(counter);
+    }
+
+    /**
+     * Giá trị tối đa của 1 key không được theo dõi (0 khi chưa đầy)
+     */
+    long getMinCount() {
+        if (counters.size() < capacity || byCount.isEmpty()) {
+            return evictedFloor;
+        }
+        return Math.max(evictedFloor, byCount.first().count);
+    }
+
+    Collection<Counter> counters() {
+        return counters.values();
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    static final class Counter {
+        final long key;
+        String label;
+        long count;
+        long error;
+        long events;
+
+        private Counter(long key, long inherited) {
+            this.key = key;
+            this.count = inherited;
+            this.error = inherited;
+        }
+    }
+}
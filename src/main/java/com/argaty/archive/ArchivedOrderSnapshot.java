@@ -0,0 +1,262 @@
+package com.argaty.archive;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.argaty.entity.Order;
+import com.argaty.entity.OrderItem;
+import com.argaty.entity.OrderStatusHistory;
+import com.argaty.entity.Product;
+import com.argaty.entity.ProductVariant;
+import com.argaty.entity.User;
+import com.argaty.enums.OrderStatus;
+import com.argaty.enums.PaymentMethod;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bản chụp đầy đủ 1 đơn hàng để lưu trữ (JSON nén trong archived_orders.snapshot)
+ * Quan hệ chỉ giữ id + vài trường hiển thị, dựng lại thành Order detached (chỉ đọc)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderSnapshot {
+
+    private Long id;
+    private String orderCode;
+    private Long userId;
+
+    private String receiverName;
+    private String receiverPhone;
+    private String receiverEmail;
+    private String shippingAddress;
+    private String city;
+    private String district;
+    private String ward;
+
+    private PaymentMethod paymentMethod;
+    private Boolean isPaid;
+    private LocalDateTime paidAt;
+    private String paymentTransactionId;
+
+    private BigDecimal subtotal;
+    private BigDecimal shippingFee;
+    private BigDecimal discountAmount;
+    private BigDecimal totalAmount;
+    private String voucherCode;
+
+    private OrderStatus status;
+    private String note;
+    private String adminNote;
+    private String cancelReason;
+    private String returnReason;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime confirmedAt;
+    private LocalDateTime shippedAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime cancelledAt;
+
+    private List<Item> items;
+    private List<History> history;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private Long productId;
+        private String productSlug;
+        private Long variantId;
+        private String productName;
+        private String productImage;
+        private String variantName;
+        private String sku;
+        private BigDecimal unitPrice;
+        private Integer quantity;
+        private BigDecimal subtotal;
+        private Boolean isReviewed;
+        private LocalDateTime createdAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class History {
+        private OrderStatus status;
+        private String note;
+        private Long changedById;
+        private String changedByName;
+        private LocalDateTime createdAt;
+    }
+
+    /**
+     * Chụp đơn hàng; items + product phải được load sẵn, lịch sử truyền riêng (đã fetch changedBy)
+     */
+    public static ArchivedOrderSnapshot from(Order order, List<OrderStatusHistory> statusHistory) {
+        List<Item> items = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            items.add(Item.builder()
+                    .id(item.getId())
+                    .productId(item.getProduct().getId())
+                    .productSlug(item.getProduct().getSlug())
+                    .variantId(item.getVariant() != null ? item.getVariant().getId() : null)
+                    .productName(item.getProductName())
+                    .productImage(item.getProductImage())
+                    .variantName(item.getVariantName())
+                    .sku(item.getSku())
+                    .unitPrice(item.getUnitPrice())
+                    .quantity(item.getQuantity())
+                    .subtotal(item.getSubtotal())
+                    .isReviewed(item.getIsReviewed())
+                    .createdAt(item.getCreatedAt())
+                    .build());
+        }
+        List<History> history = new ArrayList<>(statusHistory.size());
+        for (OrderStatusHistory h : statusHistory) {
+            history.add(History.builder()
+                    .status(h.getStatus())
+                    .note(h.getNote())
+                    .changedById(h.getChangedBy() != null ? h.getChangedBy().getId() : null)
+                    .changedByName(h.getChangedBy() != null ? h.getChangedBy().getFullName() : null)
+                    .createdAt(h.getCreatedAt())
+                    .build());
+        }
+
+        return ArchivedOrderSnapshot.builder()
+                .id(order.getId())
+                .orderCode(order.getOrderCode())
+                .userId(order.getUser().getId())
+                .receiverName(order.getReceiverName())
+                .receiverPhone(order.getReceiverPhone())
+                .receiverEmail(order.getReceiverEmail())
+                .shippingAddress(order.getShippingAddress())
+                .city(order.getCity())
+                .district(order.getDistrict())
+                .ward(order.getWard())
+                .paymentMethod(order.getPaymentMethod())
+                .isPaid(order.getIsPaid())
+                .paidAt(order.getPaidAt())
+                .paymentTransactionId(order.getPaymentTransactionId())
+                .subtotal(order.getSubtotal())
+                .shippingFee(order.getShippingFee())
+                .discountAmount(order.getDiscountAmount())
+                .totalAmount(order.getTotalAmount())
+                .voucherCode(order.getVoucherCode())
+                .status(order.getStatus())
+                .note(order.getNote())
+                .adminNote(order.getAdminNote())
+                .cancelReason(order.getCancelReason())
+                .returnReason(order.getReturnReason())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .confirmedAt(order.getConfirmedAt())
+                .shippedAt(order.getShippedAt())
+                .deliveredAt(order.getDeliveredAt())
+                .completedAt(order.getCompletedAt())
+                .cancelledAt(order.getCancelledAt())
+                .items(items)
+                .history(history)
+                .build();
+    }
+
+    /**
+     * Dựng lại Order detached để dùng chung DtoMapper / template với đơn còn trong bảng orders
+     * Không được save: không còn dòng tương ứng trong DB
+     */
+    public Order toOrder() {
+        User user = new User();
+        user.setId(userId);
+
+        Order order = Order.builder()
+                .orderCode(orderCode)
+                .user(user)
+                .receiverName(receiverName)
+                .receiverPhone(receiverPhone)
+                .receiverEmail(receiverEmail)
+                .shippingAddress(shippingAddress)
+                .city(city)
+                .district(district)
+                .ward(ward)
+                .paymentMethod(paymentMethod)
+                .isPaid(isPaid)
+                .paidAt(paidAt)
+                .paymentTransactionId(paymentTransactionId)
+                .subtotal(subtotal)
+                .shippingFee(shippingFee)
+                .discountAmount(discountAmount)
+                .totalAmount(totalAmount)
+                .voucherCode(voucherCode)
+                .status(status)
+                .note(note)
+                .adminNote(adminNote)
+                .cancelReason(cancelReason)
+                .returnReason(returnReason)
+                .confirmedAt(confirmedAt)
+                .shippedAt(shippedAt)
+                .deliveredAt(deliveredAt)
+                .completedAt(completedAt)
+                .cancelledAt(cancelledAt)
+                .build();
+        order.setId(id);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+
+        if (items != null) {
+            for (Item item : items) {
+                Product product = new Product();
+                product.setId(item.getProductId());
+                product.setSlug(item.getProductSlug());
+                ProductVariant variant = null;
+                if (item.getVariantId() != null) {
+                    variant = new ProductVariant();
+                    variant.setId(item.getVariantId());
+                }
+                order.getItems().add(OrderItem.builder()
+                        .id(item.getId())
+                        .order(order)
+                        .product(product)
+                        .variant(variant)
+                        .productName(item.getProductName())
+                        .productImage(item.getProductImage())
+                        .variantName(item.getVariantName())
+                        .sku(item.getSku())
+                        .unitPrice(item.getUnitPrice())
+                        .quantity(item.getQuantity())
+                        .subtotal(item.getSubtotal())
+                        .isReviewed(item.getIsReviewed())
+                        .createdAt(item.getCreatedAt())
+                        .build());
+            }
+        }
+        if (history != null) {
+            for (History h : history) {
+                User changedBy = null;
+                if (h.getChangedById() != null) {
+                    changedBy = new User();
+                    changedBy.setId(h.getChangedById());
+                    changedBy.setFullName(h.getChangedByName());
+                }
+                order.getStatusHistory().add(OrderStatusHistory.builder()
+                        .order(order)
+                        .status(h.getStatus())
+                        .note(h.getNote())
+                        .changedBy(changedBy)
+                        .createdAt(h.getCreatedAt())
+                        .build());
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,89 @@
+package com.argaty.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.argaty.entity.ArchivedOrder;
+import com.argaty.entity.Order;
+import com.argaty.repository.ArchivedOrderRepository;
+
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Đọc đơn hàng đã lưu trữ (archived_orders) và mã hóa / giải mã snapshot
+ * Đơn trả về là Order detached dựng từ snapshot, chỉ dùng để hiển thị
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderArchive {
+
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final JsonMapper jsonMapper;
+
+    public Optional<Order> findByOrderCode(String orderCode) {
+        return archivedOrderRepository.findByOrderCode(orderCode).map(this::toOrder);
+    }
+
+    public Optional<Order> findByOrderCodeAndUserId(String orderCode, Long userId) {
+        return archivedOrderRepository.findByOrderCodeAndUserId(orderCode, userId).map(this::toOrder);
+    }
+
+    public long countByUserId(Long userId) {
+        return archivedOrderRepository.countByUserId(userId);
+    }
+
+    /**
+     * Đơn lưu trữ của user, mới nhất trước
+     */
+    public List<Order> findByUserId(Long userId, long offset, int limit) {
+        return archivedOrderRepository.findPageByUserId(userId, offset, limit).stream()
+                .map(this::toOrder)
+                .toList();
+    }
+
+    public BigDecimal getTotalRevenue() {
+        BigDecimal revenue = archivedOrderRepository.getTotalRevenue();
+        return revenue != null ? revenue : BigDecimal.ZERO;
+    }
+
+    public BigDecimal getTotalSpentByUser(Long userId) {
+        BigDecimal spent = archivedOrderRepository.getTotalSpentByUser(userId);
+        return spent != null ? spent : BigDecimal.ZERO;
+    }
+
+    // ========== CODEC ==========
+
+    public byte[] encode(ArchivedOrderSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            jsonMapper.writeValue(out, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public ArchivedOrderSnapshot decode(byte[] data) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return jsonMapper.readValue(in, ArchivedOrderSnapshot.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Order toOrder(ArchivedOrder archived) {
+        return decode(archived.getSnapshot()).toOrder();
+    }
+}
@@ -0,0 +1,167 @@
+package com.argaty.archive;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.entity.ArchivedOrder;
+import com.argaty.entity.Order;
+import com.argaty.entity.OrderStatusHistory;
+import com.argaty.enums.OrderStatus;
+import com.argaty.event.OrderChangedEvent;
+import com.argaty.repository.OrderBatchRepository;
+import com.argaty.repository.OrderRepository;
+import com.argaty.repository.OrderStatusHistoryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Job chuyển đơn đã kết thúc (hoàn thành / hủy / đã đổi trả) cũ hơn min-age-days sang archived_orders
+ * - Mỗi batch 1 transaction: chụp snapshot nén, insert archive, xóa history / items / orders
+ * - Đơn đổi trạng thái giữa lúc đọc và xóa thì rollback cả batch, lần chạy sau thử lại
+ * - Review / voucher_usage của đơn không mất liên kết: id chuyển sang reviews.archived_order_item_id
+ *   và voucher_usage.archived_order_id (trỏ vào snapshot trong archived_orders)
+ * Đơn đã lưu trữ vẫn đọc được qua OrderService (theo mã đơn, lịch sử đơn của user) nhờ OrderArchive
+ */
+@Slf4j
+@Component
+public class OrderArchiver {
+
+    private static final Set<OrderStatus> ARCHIVABLE = EnumSet.of(
+            OrderStatus.COMPLETED, OrderStatus.CANCELLED, OrderStatus.RETURNED);
+
+    private final OrderRepository orderRepository;
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final OrderArchive orderArchive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+
+    private final boolean enabled;
+    private final long minAgeDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder rolledBack = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         OrderStatusHistoryRepository orderStatusHistoryRepository,
+                         OrderBatchRepository orderBatchRepository,
+                         OrderArchive orderArchive,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.order-archive.enabled:false}") boolean enabled,
+                         @Value("${app.order-archive.min-age-days:365}") long minAgeDays,
+                         @Value("${app.order-archive.batch-size:200}") int batchSize,
+                         @Value("${app.order-archive.max-batches-per-run:500}") int maxBatchesPerRun) {
+        this.orderRepository = orderRepository;
+        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
+        this.orderBatchRepository = orderBatchRepository;
+        this.orderArchive = orderArchive;
+        this.eventPublisher = eventPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${app.order-archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(minAgeDays);
+            int total = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer moved = tx.execute(status -> archiveBatch(before));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                total += moved;
+            }
+            lastRunAt = LocalDateTime.now();
+            if (total > 0) {
+                log.info("Archived {} orders created before {}", total, before);
+            }
+        } catch (Exception e) {
+            log.error("Order archive run failed: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<Long> ids = orderRepository.findArchivableIds(ARCHIVABLE, before, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<OrderStatusHistory>> history = orderStatusHistoryRepository.findByOrderIdInWithChangedBy(ids)
+                .stream()
+                .collect(Collectors.groupingBy(h -> h.getOrder().getId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> rows = new ArrayList<>(ids.size());
+        for (Order order : orderRepository.findForArchive(ids)) {
+            byte[] snapshot = orderArchive.encode(
+                    ArchivedOrderSnapshot.from(order, history.getOrDefault(order.getId(), List.of())));
+            compressedBytes.add(snapshot.length);
+            rows.add(ArchivedOrder.builder()
+                    .id(order.getId())
+                    .orderCode(order.getOrderCode())
+                    .userId(order.getUser().getId())
+                    .status(order.getStatus())
+                    .totalAmount(order.getTotalAmount())
+                    .createdAt(order.getCreatedAt())
+                    .archivedAt(now)
+                    .snapshot(snapshot)
+                    .build());
+        }
+
+        orderBatchRepository.insertArchivedOrders(rows);
+        int deleted = orderBatchRepository.deleteArchivedOrders(ids, ARCHIVABLE);
+        if (deleted != ids.size()) {
+            rolledBack.increment();
+            throw new IllegalStateException("Orders changed while archiving, batch rolled back");
+        }
+        archived.add(deleted);
+        for (Long id : ids) {
+            eventPublisher.publishEvent(OrderChangedEvent.deleted(id));
+        }
+        return deleted;
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        long count = archived.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("minAgeDays", minAgeDays);
+        stats.put("archived", count);
+        stats.put("rolledBackBatches", rolledBack.sum());
+        stats.put("avgSnapshotBytes", count > 0 ? compressedBytes.sum() / count : 0);
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+}
@@ -0,0 +1,185 @@
+package com.argaty.cluster;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.repository.ClusterNodeRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cấp node id (0..MAX_NODE_ID) duy nhất cho mỗi instance đang chạy, dùng bảng cluster_nodes làm lease
+ * - Khởi động: lấy lại node id có heartbeat quá hạn, không có thì insert id mới
+ * - Chạy: gia hạn heartbeat định kỳ; nếu bị instance khác chiếm (vd. GC pause quá lâu) thì xin id mới
+ * - Heartbeat chạy trên thread riêng: job @Scheduled chạy lâu (lưu trữ đơn, rebuild index) không làm lỡ lease
+ * - Quá hạn lease mà chưa gia hạn được thì getLeasedNodeId() từ chối, tránh cấp mã trùng với node vừa chiếm id
+ * Có thể cố định bằng app.cluster.node-id (>= 0) khi không muốn dùng DB
+ */
+@Slf4j
+@Component
+public class NodeIdAllocator {
+
+    public static final int NODE_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final int MAX_ATTEMPTS = 20;
+    // Trừ hao lệch đồng hồ giữa các máy khi tính hạn lease
+    private static final long LEASE_SAFETY_MS = 5_000;
+
+    private final ClusterNodeRepository clusterNodeRepository;
+    private final TransactionTemplate tx;
+
+    private final int configuredNodeId;
+    private final long leaseSeconds;
+    private final long heartbeatMs;
+    private final String instanceId;
+
+    private volatile int nodeId = -1;
+    // Hạn lease theo System.nanoTime(), tính từ lúc gửi lần gia hạn thành công gần nhất
+    private volatile long leaseDeadlineNanos;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    public NodeIdAllocator(ClusterNodeRepository clusterNodeRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.cluster.node-id:-1}") int configuredNodeId,
+                           @Value("${app.cluster.node-lease-seconds:60}") long leaseSeconds,
+                           @Value("${app.cluster.heartbeat-ms:15000}") long heartbeatMs) {
+        this.clusterNodeRepository = clusterNodeRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.configuredNodeId = configuredNodeId;
+        this.leaseSeconds = leaseSeconds;
+        this.heartbeatMs = heartbeatMs;
+        this.instanceId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Node id hiện tại, ném IllegalStateException nếu lease đã quá hạn mà chưa gia hạn được
+     * (instance khác có thể đã chiếm id này)
+     */
+    public int getLeasedNodeId() {
+        if (configuredNodeId < 0 && System.nanoTime() - leaseDeadlineNanos > 0) {
+            throw new IllegalStateException("Node id " + nodeId + " lease expired, refusing to issue ids");
+        }
+        return nodeId;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > MAX_NODE_ID) {
+                throw new IllegalStateException("app.cluster.node-id must be between 0 and " + MAX_NODE_ID);
+            }
+            nodeId = configuredNodeId;
+            log.info("Using configured node id {}", nodeId);
+            return;
+        }
+        nodeId = allocate();
+        log.info("Allocated node id {} for instance {}", nodeId, instanceId);
+
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "node-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+    }
+
+    private int allocate() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Integer allocated = tryAllocate();
+            if (allocated != null) {
+                return allocated;
+            }
+        }
+        throw new IllegalStateException("Unable to allocate a node id from cluster_nodes");
+    }
+
+    private Integer tryAllocate() {
+        long sentAt = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusSeconds(leaseSeconds);
+
+        List<Integer> stale = clusterNodeRepository.findStaleNodeIds(staleBefore, Limit.of(1));
+        if (!stale.isEmpty()) {
+            Integer candidate = stale.get(0);
+            Integer updated = tx.execute(status ->
+                    clusterNodeRepository.takeOver(candidate, instanceId, now, staleBefore));
+            if (updated == null || updated != 1) {
+                return null;
+            }
+            extendLease(sentAt);
+            return candidate;
+        }
+
+        Integer max = clusterNodeRepository.findMaxNodeId();
+        int candidate = max != null ? max + 1 : 0;
+        if (candidate > MAX_NODE_ID) {
+            throw new IllegalStateException("All " + (MAX_NODE_ID + 1) + " node ids are leased");
+        }
+        try {
+            tx.executeWithoutResult(status -> clusterNodeRepository.insertNode(candidate, instanceId, now));
+            extendLease(sentAt);
+            return candidate;
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa insert cùng id, thử lại
+            return null;
+        }
+    }
+
+    void heartbeat() {
+        if (configuredNodeId >= 0 || nodeId < 0) {
+            return;
+        }
+        try {
+            long sentAt = System.nanoTime();
+            Integer renewed = tx.execute(status ->
+                    clusterNodeRepository.heartbeat(nodeId, instanceId, LocalDateTime.now()));
+            if (renewed != null && renewed == 1) {
+                extendLease(sentAt);
+            } else if (renewed != null && renewed == 0) {
+                int lost = nodeId;
+                nodeId = allocate();
+                log.warn("Node id {} was taken over by another instance, switched to {}", lost, nodeId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to renew node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void extendLease(long sentAtNanos) {
+        leaseDeadlineNanos = sentAtNanos + TimeUnit.SECONDS.toNanos(leaseSeconds) - TimeUnit.MILLISECONDS.toNanos(LEASE_SAFETY_MS);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
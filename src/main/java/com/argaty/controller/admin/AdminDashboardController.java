@@ -1,17 +1,39 @@
 package com.argaty.controller.admin;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.argaty.admission.CheckoutAdmission;
+import com.argaty.analytics.ProductViewTracker;
+import com.argaty.analytics.SalesHeavyHitters;
+import com.argaty.analytics.SalesWindow;
+import com.argaty.archive.OrderArchiver;
+import com.argaty.dto.response.ApiResponse;
 import com.argaty.dto.response.DashboardStatsResponse;
 import com.argaty.enums.OrderStatus;
 import com.argaty.enums.Role;
+import com.argaty.export.ExportJobService;
+import com.argaty.idempotency.IdempotencyStore;
+import com.argaty.inventory.CartHoldRegistry;
+import com.argaty.inventory.StockLedger;
+import com.argaty.inventory.StockStateTracker;
+import com.argaty.outbox.OutboxDispatcher;
+import com.argaty.readmodel.DashboardMetricsStore;
+import com.argaty.readmodel.SalesRollupUpdater;
+import com.argaty.readmodel.SingleFlightLoader;
+import com.argaty.search.AdminSearchIndex;
+import com.argaty.search.ProductSuggestionIndex;
 import com.argaty.service.OrderService;
 import com.argaty.service.ProductService;
 import com.argaty.service.UserService;
@@ -29,6 +51,21 @@ public class AdminDashboardController {
     private final OrderService orderService;
     private final ProductService productService;
     private final UserService userService;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final SingleFlightLoader singleFlightLoader;
+    private final OutboxDispatcher outboxDispatcher;
+    private final StockLedger stockLedger;
+    private final CartHoldRegistry cartHoldRegistry;
+    private final StockStateTracker stockStateTracker;
+    private final CheckoutAdmission checkoutAdmission;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderArchiver orderArchiver;
+    private final AdminSearchIndex adminSearchIndex;
+    private final DashboardMetricsStore dashboardMetricsStore;
+    private final SalesRollupUpdater salesRollupUpdater;
+    private final SalesHeavyHitters salesHeavyHitters;
+    private final ProductViewTracker productViewTracker;
+    private final ExportJobService exportJobService;
 
     @GetMapping({"", "/", "/dashboard"})
     public String dashboard(Model model) {
@@ -52,6 +89,7 @@ public class AdminDashboardController {
                 // Products
                 .totalProducts(productService.countActiveProducts())
                 .outOfStockProducts(productService.countOutOfStockProducts())
+                .lowStockProducts(productService.countLowStockProducts())
                 
                 // Users
                 .totalUsers(userService.countByRole(Role.USER))
@@ -100,4 +138,145 @@ public class AdminDashboardController {
         
         return "admin/dashboard";
     }
-}
\ No newline at end of file
+
+    /**
+     * Thông số của index gợi ý tìm kiếm (thời gian build, bộ nhớ ước lượng)
+     */
+    @GetMapping("/dashboard/search-index")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> searchIndexStats() {
+        return ResponseEntity.ok(ApiResponse.success(productSuggestionIndex.getStats()));
+    }
+
+    /**
+     * Thống kê gộp request (single-flight): số lần gọi / thực thi / được gộp theo từng nhóm
+     */
+    @GetMapping("/dashboard/single-flight")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> singleFlightStats() {
+        return ResponseEntity.ok(ApiResponse.success(singleFlightLoader.getStats()));
+    }
+
+    /**
+     * Trạng thái outbox: số event chờ / lỗi, độ đầy queue và số lần thử lại của worker
+     */
+    @GetMapping("/dashboard/outbox")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> outboxStats() {
+        return ResponseEntity.ok(ApiResponse.success(outboxDispatcher.getStats()));
+    }
+
+    /**
+     * Sổ giữ hàng in-memory: số lần giữ / từ chối / rollback và số entry đã ghi về DB
+     */
+    @GetMapping("/dashboard/stock-ledger")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> stockLedgerStats() {
+        return ResponseEntity.ok(ApiResponse.success(stockLedger.getStats()));
+    }
+
+    /**
+     * Giữ hàng trong giỏ: số hold đang hoạt động, số lần từ chối và số hold hết hạn
+     */
+    @GetMapping("/dashboard/cart-holds")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> cartHoldStats() {
+        return ResponseEntity.ok(ApiResponse.success(cartHoldRegistry.getStats()));
+    }
+
+    /**
+     * Số sản phẩm / biến thể sắp hết và hết hàng theo StockStateTracker
+     */
+    @GetMapping("/dashboard/stock-state")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> stockStateStats() {
+        return ResponseEntity.ok(ApiResponse.success(stockStateTracker.getStats()));
+    }
+
+    /**
+     * Phòng chờ checkout: permit còn trống, độ dài hàng đợi, thời gian chờ, số request bị từ chối
+     */
+    @GetMapping("/dashboard/checkout-admission")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> checkoutAdmissionStats() {
+        return ResponseEntity.ok(ApiResponse.success(checkoutAdmission.getStats()));
+    }
+
+    /**
+     * Idempotency-Key: số request chạy thật, phát lại, chờ request đang chạy và đọc lại từ DB
+     */
+    @GetMapping("/dashboard/idempotency")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> idempotencyStats() {
+        return ResponseEntity.ok(ApiResponse.success(idempotencyStore.getStats()));
+    }
+
+    @GetMapping("/dashboard/order-archive")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> orderArchiveStats() {
+        return ResponseEntity.ok(ApiResponse.success(orderArchiver.getStats()));
+    }
+
+    @GetMapping("/dashboard/admin-search")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> adminSearchStats() {
+        return ResponseEntity.ok(ApiResponse.success(adminSearchIndex.getStats()));
+    }
+
+    @GetMapping("/dashboard/metrics-store")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> metricsStoreStats() {
+        return ResponseEntity.ok(ApiResponse.success(dashboardMetricsStore.getStats()));
+    }
+
+    @GetMapping("/dashboard/sales-rollup")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> salesRollupStats() {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupUpdater.getStats()));
+    }
+
+    /**
+     * Top sản phẩm / danh mục / khách hàng theo cửa sổ trượt (HOUR_1, DAY_1, DAYS_7, DAYS_30)
+     */
+    @GetMapping("/dashboard/heavy-hitters")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> heavyHitters(
+            @RequestParam(defaultValue = "DAY_1") SalesWindow window,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, 50));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("window", window);
+        result.put("products", salesHeavyHitters.topProducts(window, size));
+        result.put("categories", salesHeavyHitters.topCategories(window, size));
+        result.put("customers", salesHeavyHitters.topCustomers(window, size));
+        result.put("stats", salesHeavyHitters.getStats());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    /**
+     * Lượt xem / người xem khác nhau của 1 sản phẩm, hoặc thông số bộ thu thập và top trending
+     */
+    @GetMapping("/dashboard/product-views")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> productViews(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(defaultValue = "7") int days) {
+        if (productId != null) {
+            return ResponseEntity.ok(ApiResponse.success(productViewTracker.getProductStats(productId, Math.min(days, 90))));
+        }
+        Map<String, Object> result = new LinkedHashMap<>(productViewTracker.getStats());
+        Map<Long, Double> scores = productViewTracker.getTrendingScores();
+        Map<Long, Double> top = new LinkedHashMap<>();
+        for (Long id : productViewTracker.getTrendingIds(10)) {
+            top.put(id, scores.get(id));
+        }
+        result.put("top", top);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @GetMapping("/dashboard/exports")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> exportStats() {
+        return ResponseEntity.ok(ApiResponse.success(exportJobService.getStats()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.argaty.controller.admin;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.argaty.dto.response.ApiResponse;
+import com.argaty.exception.BadRequestException;
+import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.export.ExportJobService;
+import com.argaty.export.ExportJobService.ExportJob;
+import com.argaty.export.ReportExporter;
+import com.argaty.export.ReportFormat;
+import com.argaty.export.ReportType;
+
+/**
+ * Xuất báo cáo CSV / XLSX cho admin
+ * - Khoảng ngày nhỏ: ghi thẳng ra response theo từng chunk (không Content-Length)
+ * - Khoảng ngày lớn: tạo job nền rồi tải file khi xong
+ */
+@Controller
+@RequestMapping("/admin/exports")
+public class AdminExportController {
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final ReportExporter reportExporter;
+    private final ExportJobService exportJobService;
+    private final long maxSyncDays;
+
+    public AdminExportController(ReportExporter reportExporter,
+                                 ExportJobService exportJobService,
+                                 @Value("${app.export.max-sync-days:93}") long maxSyncDays) {
+        this.reportExporter = reportExporter;
+        this.exportJobService = exportJobService;
+        this.maxSyncDays = maxSyncDays;
+    }
+
+    // --- XUẤT TRỰC TIẾP ---
+    @GetMapping("/{type}")
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable String type,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        ReportType reportType = ReportType.fromSlug(type);
+        ReportFormat reportFormat = ReportFormat.fromName(format);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        validateRange(start, end);
+        if (reportType.isRanged() && ChronoUnit.DAYS.between(start, end) + 1 > maxSyncDays) {
+            throw new BadRequestException("Khoảng thời gian quá " + maxSyncDays
+                    + " ngày, vui lòng dùng chức năng xuất nền");
+        }
+
+        String fileName = reportType.fileName(reportFormat, start, end);
+        StreamingResponseBody body = out -> reportExporter.export(reportType, reportFormat, start, end, out, null);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .contentType(MediaType.parseMediaType(reportFormat.getContentType()))
+                .body(body);
+    }
+
+    // --- XUẤT NỀN ---
+    @PostMapping("/jobs")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> submitJob(
+            @RequestParam String type,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        validateRange(from, to);
+        ExportJob job = exportJobService.submit(ReportType.fromSlug(type), ReportFormat.fromName(format), from, to);
+        return ResponseEntity.ok(ApiResponse.success("Đã tạo yêu cầu xuất báo cáo", job.toMap()));
+    }
+
+    @GetMapping("/jobs")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> listJobs() {
+        return ResponseEntity.ok(ApiResponse.success(
+                exportJobService.findAll().stream().map(ExportJob::toMap).toList()));
+    }
+
+    @GetMapping("/jobs/{id}")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> jobStatus(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success(findJob(id).toMap()));
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<FileSystemResource> downloadJob(@PathVariable String id) {
+        ExportJob job = findJob(id);
+        if (job.getStatus() != ExportJob.Status.DONE || job.getFile() == null) {
+            throw new BadRequestException("Báo cáo chưa xuất xong");
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .body(new FileSystemResource(job.getFile()));
+    }
+
+    // ========== HELPERS ==========
+
+    private ExportJob findJob(String id) {
+        return exportJobService.find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy yêu cầu xuất báo cáo"));
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Ngày bắt đầu phải trước ngày kết thúc");
+        }
+    }
+}
@@ -5,23 +5,32 @@ import java.security.Principal;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.argaty.dto.request.BulkOrderStatusRequest;
 import com.argaty.dto.request.UpdateOrderStatusRequest;
+import com.argaty.dto.response.ApiResponse;
+import com.argaty.dto.response.BulkOrderStatusResponse;
+import com.argaty.dto.response.CursorPageResponse;
+import com.argaty.dto.response.OrderResponse;
 import com.argaty.entity.Order;
 import com.argaty.entity.User;
 import com.argaty.enums.OrderStatus;
 import com.argaty.service.OrderService;
 import com.argaty.service.UserService;
+import com.argaty.util.CursorCodec;
 import com.argaty.util.DtoMapper;
 
 import jakarta.validation.Valid;
@@ -69,6 +78,19 @@ public class AdminOrderController {
         return "admin/orders/list";
     }
 
+    // --- DANH SÁCH THEO CURSOR (tải thêm, không COUNT) ---
+    @GetMapping("/scroll")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<CursorPageResponse<OrderResponse>>> scroll(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Window<Order> orders = orderService.scroll(status, CursorCodec.decode(cursor), Math.min(size, 100));
+        return ResponseEntity.ok(ApiResponse.success(
+                CursorPageResponse.of(orders, DtoMapper.toOrderResponseList(orders.getContent()))));
+    }
+
     // --- CHI TIẾT ĐƠN HÀNG ---
     @GetMapping("/{id}")
     public String detail(@PathVariable Long id, Model model) {
@@ -101,6 +123,19 @@ public class AdminOrderController {
         return "redirect:/admin/orders/" + id;
     }
 
+    // --- CẬP NHẬT TRẠNG THÁI HÀNG LOẠT ---
+    @PostMapping("/bulk-status")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<BulkOrderStatusResponse>> bulkUpdateStatus(
+            @Valid @RequestBody BulkOrderStatusRequest request,
+            Principal principal) {
+        User admin = userService.findByEmail(principal.getName()).orElseThrow();
+        BulkOrderStatusResponse result = orderService.bulkUpdateStatus(
+                request.getOrderIds(), request.getStatus(), admin, request.getNote());
+        return ResponseEntity.ok(ApiResponse.success(
+                "Đã cập nhật " + result.getSucceeded() + "/" + (result.getSucceeded() + result.getFailed()) + " đơn hàng", result));
+    }
+
     // --- MARK PAID (ĐÁNH DẤU ĐÃ THANH TOÁN) ---
     @PostMapping("/{id}/mark-paid")
     public String markPaid(@PathVariable Long id, Principal principal, RedirectAttributes redirectAttributes) {
@@ -1,25 +1,15 @@
 package com.argaty.controller.advice;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
-
 import org.springframework.security.core.Authentication;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
-import com.argaty.dto.response.MiniCartItemResponse;
-import com.argaty.entity.Cart;
-import com.argaty.entity.CartItem;
-import com.argaty.entity.Product;
-import com.argaty.entity.ProductImage;
-import com.argaty.entity.User;
+import com.argaty.dto.response.MiniCartSummary;
+import com.argaty.security.UserIdentity;
 import com.argaty.service.CartService;
 import com.argaty.service.UserService;
+import com.argaty.util.CartSessionUtil;
 
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
@@ -33,72 +23,40 @@ public class GlobalControllerAdvice {
 
     @ModelAttribute
     public void addGlobalAttributes(Model model, Authentication authentication, HttpSession session) {
-        Cart cart = null;
-
-        // 1. Xác định User hay Guest
+        String email = null;
         if (authentication != null && authentication.isAuthenticated() && !authentication.getName().equals("anonymousUser")) {
-            User user = userService.findByEmail(authentication.getName()).orElse(null);
-            if (user != null) {
-                cart = cartService.getOrCreateCart(user.getId());
-                session.setAttribute("currentUserAvatar", user.getAvatar());
-                session.setAttribute("currentUserName", user.getFullName());
-            }
-        } else {
-            String sessionId = (String) session.getAttribute("CART_SESSION_ID");
-            if (sessionId == null) {
-                sessionId = UUID.randomUUID().toString();
-                session.setAttribute("CART_SESSION_ID", sessionId);
-            }
-            cart = cartService.getOrCreateCartBySession(sessionId);
+            email = authentication.getName();
         }
 
-        // 2. Xử lý dữ liệu giỏ hàng
-        if (cart != null) {
-            session.setAttribute("cartItemCount", cart.getTotalItemCount());
-            session.setAttribute("cartTotal", cart.getTotalAmount());
-
-            List<CartItem> items = cart.getItems();
-            if (items == null) items = new ArrayList<>();
+        // 1. Xác định giỏ hàng 1 lần / session (không tạo giỏ cho khách chỉ xem hàng)
+        if (!CartSessionUtil.isResolved(session, email)) {
+            resolveCart(email, session);
+        }
 
-            // --- MAP SANG DTO (ĐÃ FIX LỖI) ---
-            List<MiniCartItemResponse> miniItems = items.stream()
-                .map(item -> {
-                    Product product = item.getProduct();
-                    
-                    // --- FIX LỖI 1: Xử lý lấy ảnh từ Set ---
-                    String imgUrl = "/images/no-image.png";
-                    if (product.getImages() != null && !product.getImages().isEmpty()) {
-                        // Dùng stream().findFirst() vì Set không có .get(0)
-                        Optional<ProductImage> firstImg = product.getImages().stream().findFirst();
-                        if (firstImg.isPresent()) {
-                            imgUrl = firstImg.get().getImageUrl();
-                        }
-                    }
+        // 2. Mini-cart lấy từ cache, chỉ query lại khi giỏ thay đổi
+        Long cartId = CartSessionUtil.getCartId(session, email);
+        MiniCartSummary miniCart = cartId != null ? cartService.getMiniCart(cartId) : MiniCartSummary.EMPTY;
 
-                    // --- FIX LỖI 2: Lấy giá ---
-                    // Ưu tiên lấy giá của Variant (nếu có), nếu không lấy giá Product
-                    BigDecimal price = product.getPrice();
-                    if (item.getVariant() != null) {
-                        // Giả sử variant có giá riêng, nếu không có thì fallback về product price
-                        // Nếu VariantEntity của bạn chưa có getPrice, dùng product.getPrice()
-                        // Ở đây mình dùng an toàn là lấy từ Product trước
-                        price = product.getPrice(); 
-                    }
+        session.setAttribute("cartItemCount", miniCart.getItemCount());
+        session.setAttribute("cartTotal", miniCart.getTotal());
+        session.setAttribute("miniCartItems", miniCart.getItems());
+    }
 
-                    return MiniCartItemResponse.builder()
-                        .name(product.getName())
-                        .slug(product.getSlug())
-                        .imageUrl(imgUrl)
-                        .quantity(item.getQuantity())
-                        .price(price) // Đã sửa lỗi item.getPrice()
-                        .build();
-                })
-                .collect(Collectors.toList());
+    private void resolveCart(String email, HttpSession session) {
+        if (email == null) {
+            String sessionId = (String) session.getAttribute(CartSessionUtil.CART_SESSION_ID);
+            Long cartId = sessionId != null
+                    ? cartService.findBySessionId(sessionId).map(cart -> cart.getId()).orElse(null)
+                    : null;
+            CartSessionUtil.remember(session, null, cartId);
+            return;
+        }
 
-            session.setAttribute("miniCartItems", miniItems);
-        } else {
-            session.setAttribute("cartItemCount", 0);
-            session.setAttribute("miniCartItems", new ArrayList<>());
+        UserIdentity user = userService.findIdentityByEmail(email).orElse(null);
+        if (user != null) {
+            CartSessionUtil.remember(session, email, cartService.getOrCreateCart(user.getId()).getId());
+            session.setAttribute("currentUserAvatar", user.getAvatar());
+            session.setAttribute("currentUserName", user.getFullName());
         }
     }
-}
\ No newline at end of file
+}
@@ -17,11 +17,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.argaty.dto.request.AddressRequest;
 import com.argaty.dto.response.ApiResponse;
 import com.argaty.dto.response.UserAddressResponse;
-import com.argaty.entity.User;
 import com.argaty.entity.UserAddress;
 import com.argaty.exception.BadRequestException;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.UserAddressService;
-import com.argaty.service.UserService;
 import com.argaty.util.DtoMapper;
 
 import jakarta.validation.Valid;
@@ -36,15 +35,15 @@ import lombok.RequiredArgsConstructor;
 public class AddressApiController {
 
     private final UserAddressService userAddressService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Lấy danh sách địa chỉ
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<UserAddressResponse>>> getAddresses(Principal principal) {
-        User user = getCurrentUser(principal);
-        List<UserAddress> addresses = userAddressService.findByUserId(user.getId());
+        Long userId = getCurrentUserId(principal);
+        List<UserAddress> addresses = userAddressService.findByUserId(userId);
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toUserAddressResponseList(addresses)));
     }
 
@@ -53,8 +52,8 @@ public class AddressApiController {
      */
     @GetMapping("/default")
     public ResponseEntity<ApiResponse<UserAddressResponse>> getDefaultAddress(Principal principal) {
-        User user = getCurrentUser(principal);
-        UserAddress address = userAddressService.findDefaultAddress(user.getId()).orElse(null);
+        Long userId = getCurrentUserId(principal);
+        UserAddress address = userAddressService.findDefaultAddress(userId).orElse(null);
         
         if (address == null) {
             return ResponseEntity.ok(ApiResponse.success(null));
@@ -70,8 +69,8 @@ public class AddressApiController {
             @PathVariable Long id,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        UserAddress address = userAddressService.findByIdAndUserId(id, user.getId())
+        Long userId = getCurrentUserId(principal);
+        UserAddress address = userAddressService.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("Address", "id", id));
 
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toUserAddressResponse(address)));
@@ -85,11 +84,11 @@ public class AddressApiController {
             @Valid @RequestBody AddressRequest request,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
         try {
             UserAddress address = userAddressService.create(
-                    user.getId(),
+                    userId,
                     request.getReceiverName(),
                     request.getPhone(),
                     request.getAddress(),
@@ -114,12 +113,12 @@ public class AddressApiController {
             @Valid @RequestBody AddressRequest request,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
         try {
             UserAddress address = userAddressService.update(
                     id,
-                    user.getId(),
+                    userId,
                     request.getReceiverName(),
                     request.getPhone(),
                     request.getAddress(),
@@ -143,10 +142,10 @@ public class AddressApiController {
             @PathVariable Long id,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
         try {
-            userAddressService.deleteById(id, user.getId());
+            userAddressService.deleteById(id, userId);
             return ResponseEntity.ok(ApiResponse.success("Đã xóa địa chỉ"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
@@ -161,16 +160,12 @@ public class AddressApiController {
             @PathVariable Long id,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        userAddressService.setDefaultAddress(user.getId(), id);
+        Long userId = getCurrentUserId(principal);
+        userAddressService.setDefaultAddress(userId, id);
         return ResponseEntity.ok(ApiResponse.success("Đã đặt làm địa chỉ mặc định"));
     }
 
-    private User getCurrentUser(Principal principal) {
-        if (principal == null) {
-            throw new com.argaty.exception.UnauthorizedException("Vui lòng đăng nhập");
-        }
-        return userService.findByEmail(principal.getName())
-                .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
+    private Long getCurrentUserId(Principal principal) {
+        return currentUserResolver.requireUserId(principal);
     }
 }
\ No newline at end of file
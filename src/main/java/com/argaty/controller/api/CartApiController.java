@@ -7,10 +7,11 @@ import com.argaty.dto.response.CartItemResponse;
 import com.argaty.dto.response.CartResponse;
 import com.argaty.entity.Cart;
 import com.argaty.entity.CartItem;
-import com.argaty.entity.User;
 import com.argaty.exception.BadRequestException;
+import com.argaty.idempotency.IdempotencyStore;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.CartService;
-import com.argaty.service.UserService;
+import com.argaty.util.CartSessionUtil;
 import com.argaty.util.DtoMapper;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
@@ -19,7 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
-import java.util.UUID;
+import java.util.Optional;
 
 /**
  * REST API Controller cho giỏ hàng
@@ -30,14 +31,16 @@ import java.util.UUID;
 public class CartApiController {
 
     private final CartService cartService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * Lấy giỏ hàng
      */
     @GetMapping
     public ResponseEntity<ApiResponse<CartResponse>> getCart(Principal principal, HttpSession session) {
-        Cart cart = getOrCreateCart(principal, session);
+        // Khách chưa thêm gì thì trả giỏ rỗng, không tạo bản ghi
+        Cart cart = findCart(principal, session).orElseGet(() -> Cart.builder().build());
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toCartResponse(cart)));
     }
 
@@ -46,8 +49,10 @@ public class CartApiController {
      */
     @GetMapping("/count")
     public ResponseEntity<ApiResponse<Integer>> getCartCount(Principal principal, HttpSession session) {
-        Cart cart = getOrCreateCart(principal, session);
-        return ResponseEntity.ok(ApiResponse.success(cart.getTotalItemCount()));
+        int count = findCart(principal, session)
+                .map(cart -> cartService.getMiniCart(cart.getId()).getItemCount())
+                .orElse(0);
+        return ResponseEntity.ok(ApiResponse.success(count));
     }
 
     /**
@@ -56,19 +61,22 @@ public class CartApiController {
     @PostMapping("/items")
     public ResponseEntity<ApiResponse<CartItemResponse>> addItem(
             @Valid @RequestBody CartItemRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             Principal principal,
             HttpSession session) {
 
         try {
-            Cart cart = getOrCreateCart(principal, session);
-            CartItem item = cartService.addItem(
-                    cart.getId(),
-                    request.getProductId(),
-                    request.getVariantId(),
-                    request.getQuantity()
-            );
-            return ResponseEntity.ok(ApiResponse.success("Đã thêm vào giỏ hàng", 
-                    DtoMapper.toCartItemResponse(item)));
+            String owner = principal != null ? principal.getName() : CartSessionUtil.getOrCreateGuestSessionId(session);
+            CartItemResponse item = idempotencyStore.execute("cart-add", owner, idempotencyKey, CartItemResponse.class, () -> {
+                Cart cart = getOrCreateCart(principal, session);
+                return DtoMapper.toCartItemResponse(cartService.addItem(
+                        cart.getId(),
+                        request.getProductId(),
+                        request.getVariantId(),
+                        request.getQuantity()
+                ));
+            });
+            return ResponseEntity.ok(ApiResponse.success("Đã thêm vào giỏ hàng", item));
         } catch (BadRequestException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -122,8 +130,7 @@ public class CartApiController {
             Principal principal,
             HttpSession session) {
 
-        Cart cart = getOrCreateCart(principal, session);
-        cartService.selectAllItems(cart.getId(), selected);
+        findCart(principal, session).ifPresent(cart -> cartService.selectAllItems(cart.getId(), selected));
         return ResponseEntity.ok(ApiResponse.success("Đã cập nhật"));
     }
 
@@ -132,26 +139,32 @@ public class CartApiController {
      */
     @DeleteMapping
     public ResponseEntity<ApiResponse<Void>> clearCart(Principal principal, HttpSession session) {
-        Cart cart = getOrCreateCart(principal, session);
-        cartService.clearCart(cart.getId());
+        findCart(principal, session).ifPresent(cart -> cartService.clearCart(cart.getId()));
         return ResponseEntity.ok(ApiResponse.success("Đã xóa giỏ hàng"));
     }
 
     /**
-     * Helper:  Lấy hoặc tạo giỏ hàng
+     * Helper:  Lấy hoặc tạo giỏ hàng (giỏ của khách chỉ được tạo ở lần thêm sản phẩm đầu tiên)
      */
     private Cart getOrCreateCart(Principal principal, HttpSession session) {
+        Cart cart;
         if (principal != null) {
-            User user = userService.findByEmail(principal.getName())
-                    .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
-            return cartService.getOrCreateCart(user.getId());
+            cart = cartService.getOrCreateCart(currentUserResolver.requireUserId(principal));
         } else {
-            String sessionId = (String) session.getAttribute("CART_SESSION_ID");
-            if (sessionId == null) {
-                sessionId = UUID.randomUUID().toString();
-                session.setAttribute("CART_SESSION_ID", sessionId);
-            }
-            return cartService.getOrCreateCartBySession(sessionId);
+            cart = cartService.getOrCreateCartBySession(CartSessionUtil.getOrCreateGuestSessionId(session));
+        }
+        CartSessionUtil.remember(session, principal != null ? principal.getName() : null, cart.getId());
+        return cart;
+    }
+
+    /**
+     * Helper:  Lấy giỏ hàng hiện có, không tạo mới cho khách
+     */
+    private Optional<Cart> findCart(Principal principal, HttpSession session) {
+        if (principal != null) {
+            return Optional.of(getOrCreateCart(principal, session));
         }
+        String sessionId = (String) session.getAttribute(CartSessionUtil.CART_SESSION_ID);
+        return sessionId != null ? cartService.findBySessionId(sessionId) : Optional.empty();
     }
 }
\ No newline at end of file
@@ -3,9 +3,8 @@ package com.argaty.controller.api;
 import com.argaty.dto.response.ApiResponse;
 import com.argaty.dto.response.NotificationResponse;
 import com.argaty.entity.Notification;
-import com.argaty.entity.User;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.NotificationService;
-import com.argaty.service.UserService;
 import com.argaty.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -25,15 +24,15 @@ import java.util.Map;
 public class NotificationApiController {
 
     private final NotificationService notificationService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Lấy danh sách thông báo gần đây
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<NotificationResponse>>> getNotifications(Principal principal) {
-        User user = getCurrentUser(principal);
-        List<Notification> notifications = notificationService.findRecentByUserId(user.getId(), 10);
+        Long userId = getCurrentUserId(principal);
+        List<Notification> notifications = notificationService.findRecentByUserId(userId, 10);
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toNotificationResponseList(notifications)));
     }
 
@@ -42,8 +41,8 @@ public class NotificationApiController {
      */
     @GetMapping("/unread")
     public ResponseEntity<ApiResponse<List<NotificationResponse>>> getUnreadNotifications(Principal principal) {
-        User user = getCurrentUser(principal);
-        List<Notification> notifications = notificationService.findUnreadByUserId(user.getId());
+        Long userId = getCurrentUserId(principal);
+        List<Notification> notifications = notificationService.findUnreadByUserId(userId);
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toNotificationResponseList(notifications)));
     }
 
@@ -52,8 +51,8 @@ public class NotificationApiController {
      */
     @GetMapping("/unread/count")
     public ResponseEntity<ApiResponse<Integer>> getUnreadCount(Principal principal) {
-        User user = getCurrentUser(principal);
-        int count = notificationService.countUnreadByUserId(user.getId());
+        Long userId = getCurrentUserId(principal);
+        int count = notificationService.countUnreadByUserId(userId);
         return ResponseEntity.ok(ApiResponse.success(count));
     }
 
@@ -62,10 +61,10 @@ public class NotificationApiController {
      */
     @GetMapping("/header")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getHeaderNotifications(Principal principal) {
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
-        List<Notification> notifications = notificationService.findRecentByUserId(user.getId(), 5);
-        int unreadCount = notificationService.countUnreadByUserId(user.getId());
+        List<Notification> notifications = notificationService.findRecentByUserId(userId, 5);
+        int unreadCount = notificationService.countUnreadByUserId(userId);
 
         Map<String, Object> data = new HashMap<>();
         data.put("notifications", DtoMapper.toNotificationResponseList(notifications));
@@ -79,7 +78,7 @@ public class NotificationApiController {
      */
     @PatchMapping("/{id}/read")
     public ResponseEntity<ApiResponse<Void>> markAsRead(@PathVariable Long id, Principal principal) {
-        getCurrentUser(principal); // Verify user
+        getCurrentUserId(principal); // Verify user
         notificationService.markAsRead(id);
         return ResponseEntity.ok(ApiResponse.success("Đã đánh dấu đã đọc"));
     }
@@ -89,16 +88,12 @@ public class NotificationApiController {
      */
     @PatchMapping("/read-all")
     public ResponseEntity<ApiResponse<Void>> markAllAsRead(Principal principal) {
-        User user = getCurrentUser(principal);
-        notificationService.markAllAsRead(user.getId());
+        Long userId = getCurrentUserId(principal);
+        notificationService.markAllAsRead(userId);
         return ResponseEntity.ok(ApiResponse.success("Đã đánh dấu tất cả đã đọc"));
     }
 
-    private User getCurrentUser(Principal principal) {
-        if (principal == null) {
-            throw new com.argaty.exception.UnauthorizedException("Vui lòng đăng nhập");
-        }
-        return userService.findByEmail(principal.getName())
-                .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
+    private Long getCurrentUserId(Principal principal) {
+        return currentUserResolver.requireUserId(principal);
     }
 }
\ No newline at end of file
@@ -1,20 +1,34 @@
 package com.argaty.controller.api;
 
+import com.argaty.analytics.ProductViewTracker;
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.dto.response.ApiResponse;
+import com.argaty.dto.response.CursorPageResponse;
 import com.argaty.dto.response.PageResponse;
 import com.argaty.dto.response.ProductResponse;
-import com.argaty.entity.Product;
+import com.argaty.dto.response.SearchSuggestionResponse;
+import com.argaty.search.FacetFilter;
+import com.argaty.search.FacetResult;
+import com.argaty.search.ProductSuggestionIndex;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.ProductService;
+import com.argaty.util.CursorCodec;
 import com.argaty.util.DtoMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * REST API Controller cho sản phẩm (public)
@@ -25,41 +39,87 @@ import java.util.List;
 public class ProductApiController {
 
     private final ProductService productService;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductViewTracker productViewTracker;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Lấy danh sách sản phẩm
      */
     @GetMapping
     public ResponseEntity<ApiResponse<PageResponse<ProductResponse>>> getProducts(
-            @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> brandId,
             @RequestParam(required = false) String q,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "false") boolean onSale,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
 
+        if (sort == null || sort.isEmpty()) {
+            sort = (q != null && !q.trim().isEmpty()) ? "relevance" : "newest";
+        }
+
         Sort sortOrder = createSort(sort);
         PageRequest pageRequest = PageRequest.of(page, size, sortOrder);
 
-        Page<Product> products;
-
-        if (q != null && !q.trim().isEmpty()) {
-            products = productService.search(q.trim(), pageRequest);
-        } else if (categoryId != null) {
-            products = productService.findByCategory(categoryId, pageRequest);
-        } else if (brandId != null) {
-            products = productService.findByBrand(brandId, pageRequest);
-        } else if (minPrice != null || maxPrice != null) {
-            BigDecimal min = minPrice != null ? minPrice : BigDecimal.ZERO;
-            BigDecimal max = maxPrice != null ? maxPrice : BigDecimal.valueOf(Long.MAX_VALUE);
-            products = productService.findByPriceRange(min, max, pageRequest);
-        } else {
-            products = productService.findActiveProducts(pageRequest);
-        }
+        FacetResult result = productService.filterByFacets(
+                buildFilter(categoryId, brandId, q, minPrice, maxPrice, inStock, onSale), pageRequest);
+
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardPageResponse(result.getPage())));
+    }
+
+    /**
+     * Lấy danh sách sản phẩm theo cursor (infinite scroll, không COUNT)
+     * Không hỗ trợ từ khóa / sắp xếp theo độ liên quan
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ProductResponse>>> scrollProducts(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> brandId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "false") boolean onSale,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size) {
+
+        Window<ProductCardView> window = productService.scrollActive(
+                buildFilter(categoryId, brandId, null, minPrice, maxPrice, inStock, onSale),
+                CursorCodec.decode(cursor), Math.min(size, 50), createSort(sort));
+
+        return ResponseEntity.ok(ApiResponse.success(
+                CursorPageResponse.of(window, DtoMapper.toProductCardResponseList(window.getContent()))));
+    }
+
+    /**
+     * Số lượng sản phẩm theo từng giá trị facet (dùng cho sidebar lọc)
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFacets(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> brandId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "false") boolean onSale) {
+
+        FacetResult result = productService.filterByFacets(
+                buildFilter(categoryId, brandId, q, minPrice, maxPrice, inStock, onSale), PageRequest.of(0, 1));
 
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductPageResponse(products)));
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("total", result.getPage().getTotalElements());
+        facets.put("categories", result.getCategoryCounts());
+        facets.put("brands", result.getBrandCounts());
+        facets.put("priceBuckets", result.getPriceBuckets());
+        facets.put("inStock", result.getInStockCount());
+        facets.put("onSale", result.getOnSaleCount());
+        return ResponseEntity.ok(ApiResponse.success(facets));
     }
 
     /**
@@ -69,8 +129,8 @@ public class ProductApiController {
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getFeaturedProducts(
             @RequestParam(defaultValue = "8") int limit) {
 
-        List<Product> products = productService.findFeaturedProducts(limit);
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductResponseList(products)));
+        List<ProductCardView> products = productService.findFeaturedCards(limit);
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardResponseList(products)));
     }
 
     /**
@@ -80,8 +140,8 @@ public class ProductApiController {
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getNewProducts(
             @RequestParam(defaultValue = "8") int limit) {
 
-        List<Product> products = productService.findNewProducts(limit);
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductResponseList(products)));
+        List<ProductCardView> products = productService.findNewCards(limit);
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardResponseList(products)));
     }
 
     /**
@@ -91,8 +151,36 @@ public class ProductApiController {
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getBestSellerProducts(
             @RequestParam(defaultValue = "8") int limit) {
 
-        List<Product> products = productService.findBestSellerProducts(limit);
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductResponseList(products)));
+        List<ProductCardView> products = productService.findBestSellerCards(limit);
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardResponseList(products)));
+    }
+
+    /**
+     * Lấy sản phẩm xu hướng (theo lượt xem gần đây)
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getTrendingProducts(
+            @RequestParam(defaultValue = "8") int limit) {
+
+        List<ProductCardView> products = productService.findTrendingCards(Math.min(limit, 50));
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardResponseList(products)));
+    }
+
+    /**
+     * Ghi nhận lượt xem từ client (xem nhanh, điều hướng phía client); chỉ tăng bộ đếm trong bộ nhớ
+     * Endpoint công khai: id không phải sản phẩm đang bán thì bỏ qua để không tạo bộ đếm / sketch / dòng DB rác
+     */
+    @PostMapping("/{productId}/views")
+    public ResponseEntity<ApiResponse<Void>> recordView(
+            @PathVariable Long productId,
+            Principal principal,
+            HttpServletRequest request) {
+
+        if (productService.isActiveProduct(productId)) {
+            productViewTracker.recordView(productId,
+                    ProductViewTracker.viewerKey(currentUserResolver.findUserId(principal), request));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Đã ghi nhận"));
     }
 
     /**
@@ -103,8 +191,8 @@ public class ProductApiController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
 
-        Page<Product> products = productService.findOnSale(PageRequest.of(page, size));
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductPageResponse(products)));
+        Page<ProductCardView> products = productService.findOnSaleCards(PageRequest.of(page, size));
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardPageResponse(products)));
     }
 
     /**
@@ -115,23 +203,56 @@ public class ProductApiController {
             @PathVariable Long productId,
             @RequestParam(defaultValue = "4") int limit) {
 
-        List<Product> products = productService.findRelatedProducts(productId, limit);
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductResponseList(products)));
+        List<ProductCardView> products = productService.findRelatedCards(productId, limit);
+        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductCardResponseList(products)));
     }
 
     /**
      * Tìm kiếm gợi ý (autocomplete)
      */
     @GetMapping("/search/suggestions")
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> searchSuggestions(
-            @RequestParam String q) {
+    public ResponseEntity<ApiResponse<List<SearchSuggestionResponse>>> searchSuggestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") int limit) {
 
         if (q == null || q.trim().length() < 2) {
             return ResponseEntity.ok(ApiResponse.success(List.of()));
         }
 
-        Page<Product> products = productService.search(q.trim(), PageRequest.of(0, 5));
-        return ResponseEntity.ok(ApiResponse.success(DtoMapper.toProductResponseList(products.getContent())));
+        int size = Math.min(limit, 10);
+        if (productSuggestionIndex.isReady()) {
+            return ResponseEntity.ok(ApiResponse.success(productSuggestionIndex.suggest(q, size)));
+        }
+
+        // Index chưa build xong: fallback về tìm kiếm thường
+        List<SearchSuggestionResponse> suggestions = productService.search(q.trim(), PageRequest.of(0, size))
+                .getContent().stream()
+                .map(product -> SearchSuggestionResponse.builder()
+                        .type("product")
+                        .id(product.getId())
+                        .name(product.getName())
+                        .slug(product.getSlug())
+                        .url("/products/" + product.getSlug())
+                        .mainImage(product.getMainImage())
+                        .price(product.getPrice())
+                        .salePrice(product.isOnSale() ? product.getSalePrice() : null)
+                        .build())
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+
+    private FacetFilter buildFilter(List<Long> categoryIds, List<Long> brandIds, String q,
+                                    BigDecimal minPrice, BigDecimal maxPrice,
+                                    boolean inStock, boolean onSale) {
+        return FacetFilter.builder()
+                .keyword(q != null && !q.trim().isEmpty() ? q.trim() : null)
+                .categoryIds(categoryIds != null ? categoryIds : List.of())
+                .brandIds(brandIds != null ? brandIds : List.of())
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .onSale(onSale)
+                .build();
     }
 
     private Sort createSort(String sort) {
@@ -142,6 +263,8 @@ public class ProductApiController {
             case "name-desc" -> Sort.by(Sort.Direction.DESC, "name");
             case "bestseller" -> Sort.by(Sort.Direction.DESC, "soldCount");
             case "rating" -> Sort.by(Sort.Direction.DESC, "rating");
+            case "trending" -> Sort.by(Sort.Direction.DESC, ProductViewTracker.TRENDING_SORT);
+            case "relevance" -> Sort.unsorted();
             default -> Sort.by(Sort.Direction.DESC, "createdAt");
         };
     }
@@ -2,19 +2,21 @@ package com.argaty.controller.api;
 
 import com.argaty.dto.request.ReviewRequest;
 import com.argaty.dto.response.ApiResponse;
+import com.argaty.dto.response.CursorPageResponse;
 import com.argaty.dto.response.PageResponse;
 import com.argaty.dto.response.ReviewResponse;
 import com.argaty.dto.response.ReviewStatsResponse;
 import com.argaty.entity.Review;
-import com.argaty.entity.User;
 import com.argaty.exception.BadRequestException;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.ReviewService;
-import com.argaty.service.UserService;
+import com.argaty.util.CursorCodec;
 import com.argaty.util.DtoMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -32,7 +34,7 @@ import java.util.Map;
 public class ReviewApiController {
 
     private final ReviewService reviewService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Lấy đánh giá của sản phẩm
@@ -54,6 +56,20 @@ public class ReviewApiController {
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toReviewPageResponse(reviews)));
     }
 
+    /**
+     * Lấy đánh giá của sản phẩm theo cursor (tải thêm, không COUNT)
+     */
+    @GetMapping("/product/{productId}/scroll")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ReviewResponse>>> scrollProductReviews(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Window<Review> reviews = reviewService.scrollByProductId(productId, CursorCodec.decode(cursor), Math.min(size, 50));
+        return ResponseEntity.ok(ApiResponse.success(
+                CursorPageResponse.of(reviews, DtoMapper.toReviewResponseList(reviews.getContent()))));
+    }
+
     /**
      * Lấy thống kê đánh giá của sản phẩm
      */
@@ -81,11 +97,11 @@ public class ReviewApiController {
             @Valid @RequestBody ReviewRequest request,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
         try {
             Review review = reviewService.createReview(
-                    user.getId(),
+                    userId,
                     request.getProductId(),
                     request.getOrderItemId(),
                     request.getRating(),
@@ -109,12 +125,12 @@ public class ReviewApiController {
             @Valid @RequestBody ReviewRequest request,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
         try {
             Review review = reviewService.updateReview(
                     reviewId,
-                    user.getId(),
+                    userId,
                     request.getRating(),
                     request.getTitle(),
                     request.getComment()
@@ -134,12 +150,12 @@ public class ReviewApiController {
             @PathVariable Long reviewId,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
         Review review = reviewService.findById(reviewId)
                 .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("Review", "id", reviewId));
 
         // Kiểm tra quyền
-        if (!review.getUser().getId().equals(user.getId())) {
+        if (!review.getUser().getId().equals(userId)) {
             return ResponseEntity.status(403).body(ApiResponse.error("Bạn không có quyền xóa đánh giá này"));
         }
 
@@ -155,16 +171,12 @@ public class ReviewApiController {
             @PathVariable Long productId,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        boolean canReview = reviewService.canUserReviewProduct(user.getId(), productId);
+        Long userId = getCurrentUserId(principal);
+        boolean canReview = reviewService.canUserReviewProduct(userId, productId);
         return ResponseEntity.ok(ApiResponse.success(canReview));
     }
 
-    private User getCurrentUser(Principal principal) {
-        if (principal == null) {
-            throw new com.argaty.exception.UnauthorizedException("Vui lòng đăng nhập");
-        }
-        return userService.findByEmail(principal.getName())
-                .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
+    private Long getCurrentUserId(Principal principal) {
+        return currentUserResolver.requireUserId(principal);
     }
 }
\ No newline at end of file
@@ -3,11 +3,10 @@ package com.argaty.controller.api;
 import com.argaty.dto.request.ApplyVoucherRequest;
 import com.argaty.dto.response.ApiResponse;
 import com.argaty.dto.response.VoucherResponse;
-import com.argaty.entity.User;
 import com.argaty.entity.Voucher;
 import com.argaty.exception.BadRequestException;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.CartService;
-import com.argaty.service.UserService;
 import com.argaty.service.VoucherService;
 import com.argaty.util.DtoMapper;
 import jakarta.validation.Valid;
@@ -30,7 +29,7 @@ import java.util.Map;
 public class VoucherApiController {
 
     private final VoucherService voucherService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
     private final CartService cartService;
 
     /**
@@ -41,16 +40,16 @@ public class VoucherApiController {
             @RequestParam(required = false) BigDecimal orderAmount,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
         
         BigDecimal amount = orderAmount;
         if (amount == null) {
             // Lấy từ giỏ hàng
-            var cart = cartService.findByUserId(user.getId());
+            var cart = cartService.findByUserId(userId);
             amount = cart.map(c -> c.getTotalAmount()).orElse(BigDecimal.ZERO);
         }
 
-        List<Voucher> vouchers = voucherService.findVouchersForUser(user.getId(), amount);
+        List<Voucher> vouchers = voucherService.findVouchersForUser(userId, amount);
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toVoucherResponseList(vouchers)));
     }
 
@@ -63,11 +62,11 @@ public class VoucherApiController {
             @RequestParam BigDecimal orderAmount,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
+        Long userId = getCurrentUserId(principal);
 
         try {
             // Kiểm tra voucher hợp lệ
-            if (!voucherService.canUserUseVoucher(request.getCode(), user.getId())) {
+            if (!voucherService.canUserUseVoucher(request.getCode(), userId)) {
                 return ResponseEntity.badRequest().body(
                         ApiResponse.error("Mã voucher không hợp lệ hoặc đã hết lượt sử dụng"));
             }
@@ -100,11 +99,7 @@ public class VoucherApiController {
         return ResponseEntity.ok(ApiResponse.success(VoucherResponse.fromEntity(voucher)));
     }
 
-    private User getCurrentUser(Principal principal) {
-        if (principal == null) {
-            throw new com.argaty.exception.UnauthorizedException("Vui lòng đăng nhập");
-        }
-        return userService.findByEmail(principal.getName())
-                .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
+    private Long getCurrentUserId(Principal principal) {
+        return currentUserResolver.requireUserId(principal);
     }
 }
\ No newline at end of file
@@ -2,9 +2,8 @@ package com.argaty.controller.api;
 
 import com.argaty.dto.response.ApiResponse;
 import com.argaty.dto.response.WishlistResponse;
-import com.argaty.entity.User;
 import com.argaty.entity.Wishlist;
-import com.argaty.service.UserService;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.WishlistService;
 import com.argaty.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
@@ -23,15 +22,15 @@ import java.util.List;
 public class WishlistApiController {
 
     private final WishlistService wishlistService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Lấy danh sách wishlist
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<WishlistResponse>>> getWishlist(Principal principal) {
-        User user = getCurrentUser(principal);
-        List<Wishlist> wishlists = wishlistService.findByUserIdWithProduct(user.getId());
+        Long userId = getCurrentUserId(principal);
+        List<Wishlist> wishlists = wishlistService.findByUserIdWithProduct(userId);
         return ResponseEntity.ok(ApiResponse.success(DtoMapper.toWishlistResponseList(wishlists)));
     }
 
@@ -40,8 +39,8 @@ public class WishlistApiController {
      */
     @GetMapping("/ids")
     public ResponseEntity<ApiResponse<List<Long>>> getWishlistIds(Principal principal) {
-        User user = getCurrentUser(principal);
-        List<Long> ids = wishlistService.getWishlistProductIds(user.getId());
+        Long userId = getCurrentUserId(principal);
+        List<Long> ids = wishlistService.getWishlistProductIds(userId);
         return ResponseEntity.ok(ApiResponse.success(ids));
     }
 
@@ -53,8 +52,8 @@ public class WishlistApiController {
             @PathVariable Long productId,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        Wishlist wishlist = wishlistService.addToWishlist(user.getId(), productId);
+        Long userId = getCurrentUserId(principal);
+        Wishlist wishlist = wishlistService.addToWishlist(userId, productId);
         return ResponseEntity.ok(ApiResponse.success("Đã thêm vào yêu thích", 
                 DtoMapper.toWishlistResponse(wishlist)));
     }
@@ -67,8 +66,8 @@ public class WishlistApiController {
             @PathVariable Long productId,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        wishlistService.removeFromWishlist(user.getId(), productId);
+        Long userId = getCurrentUserId(principal);
+        wishlistService.removeFromWishlist(userId, productId);
         return ResponseEntity.ok(ApiResponse.success("Đã xóa khỏi yêu thích"));
     }
 
@@ -80,9 +79,9 @@ public class WishlistApiController {
             @PathVariable Long productId,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        wishlistService.toggleWishlist(user.getId(), productId);
-        boolean isInWishlist = wishlistService.isInWishlist(user.getId(), productId);
+        Long userId = getCurrentUserId(principal);
+        wishlistService.toggleWishlist(userId, productId);
+        boolean isInWishlist = wishlistService.isInWishlist(userId, productId);
         
         String message = isInWishlist ?  "Đã thêm vào yêu thích" : "Đã xóa khỏi yêu thích";
         return ResponseEntity.ok(ApiResponse.success(message, isInWishlist));
@@ -96,8 +95,8 @@ public class WishlistApiController {
             @PathVariable Long productId,
             Principal principal) {
 
-        User user = getCurrentUser(principal);
-        boolean isInWishlist = wishlistService.isInWishlist(user.getId(), productId);
+        Long userId = getCurrentUserId(principal);
+        boolean isInWishlist = wishlistService.isInWishlist(userId, productId);
         return ResponseEntity.ok(ApiResponse.success(isInWishlist));
     }
 
@@ -106,16 +105,12 @@ public class WishlistApiController {
      */
     @GetMapping("/count")
     public ResponseEntity<ApiResponse<Integer>> countWishlist(Principal principal) {
-        User user = getCurrentUser(principal);
-        int count = wishlistService.countByUserId(user.getId());
+        Long userId = getCurrentUserId(principal);
+        int count = wishlistService.countByUserId(userId);
         return ResponseEntity.ok(ApiResponse.success(count));
     }
 
-    private User getCurrentUser(Principal principal) {
-        if (principal == null) {
-            throw new com.argaty.exception.UnauthorizedException("Vui lòng đăng nhập");
-        }
-        return userService.findByEmail(principal.getName())
-                .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
+    private Long getCurrentUserId(Principal principal) {
+        return currentUserResolver.requireUserId(principal);
     }
 }
\ No newline at end of file
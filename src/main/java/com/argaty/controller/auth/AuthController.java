@@ -19,6 +19,7 @@ import com.argaty.entity.User;
 import com.argaty.exception.BadRequestException;
 import com.argaty.service.CartService;
 import com.argaty.service.UserService;
+import com.argaty.util.CartSessionUtil;
 
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
@@ -121,6 +122,7 @@ public class AuthController {
             if (sessionId != null) {
                 cartService.mergeGuestCartToUser(sessionId, user.getId());
                 session.removeAttribute("CART_SESSION_ID");
+                CartSessionUtil.forget(session);
             }
 
             redirectAttributes.addFlashAttribute("success", 
@@ -3,7 +3,6 @@ package com.argaty.controller.user;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.util.List;
-import java.util.UUID;
 
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -12,11 +11,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.argaty.dto.response.CartResponse;
 import com.argaty.entity.Cart;
-import com.argaty.entity.User;
 import com.argaty.entity.Voucher;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.CartService;
-import com.argaty.service.UserService;
 import com.argaty.service.VoucherService;
+import com.argaty.util.CartSessionUtil;
 import com.argaty.util.DtoMapper;
 
 import jakarta.servlet.http.HttpSession;
@@ -31,7 +30,7 @@ import lombok.RequiredArgsConstructor;
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
     private final VoucherService voucherService;
 
     /**
@@ -43,18 +42,19 @@ public class CartController {
 
         if (principal != null) {
             // User đã đăng nhập
-            User user = userService.findByEmail(principal.getName())
-                    .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
-            cart = cartService.getOrCreateCart(user.getId());
+            Long userId = currentUserResolver.requireUserId(principal);
+            cart = cartService.getOrCreateCart(userId);
 
             // Lấy vouchers khả dụng
             BigDecimal cartTotal = cart.getTotalAmount();
-            List<Voucher> availableVouchers = voucherService.findVouchersForUser(user.getId(), cartTotal);
+            List<Voucher> availableVouchers = voucherService.findVouchersForUser(userId, cartTotal);
             model.addAttribute("availableVouchers", DtoMapper.toVoucherResponseList(availableVouchers));
         } else {
-            // Guest user - dùng session
-            String sessionId = getOrCreateSessionId(session);
-            cart = cartService.getOrCreateCartBySession(sessionId);
+            // Guest user - dùng session, chưa có giỏ thì hiển thị giỏ rỗng (không tạo bản ghi)
+            String sessionId = (String) session.getAttribute(CartSessionUtil.CART_SESSION_ID);
+            cart = sessionId != null
+                    ? cartService.findBySessionId(sessionId).orElseGet(() -> Cart.builder().build())
+                    : Cart.builder().build();
         }
 
         CartResponse cartResponse = DtoMapper.toCartResponse(cart);
@@ -69,18 +69,6 @@ public class CartController {
         return "user/cart";
     }
 
-    /**
-     * Lấy hoặc tạo session ID cho guest
-     */
-    private String getOrCreateSessionId(HttpSession session) {
-        String sessionId = (String) session.getAttribute("CART_SESSION_ID");
-        if (sessionId == null) {
-            sessionId = UUID.randomUUID().toString();
-            session.setAttribute("CART_SESSION_ID", sessionId);
-        }
-        return sessionId;
-    }
-
     /**
      * Tính phí ship
      */
@@ -3,18 +3,26 @@ package com.argaty.controller.user;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.WebUtils;
 
+import com.argaty.admission.CheckoutAdmission;
 import com.argaty.dto.request.CheckoutRequest;
+import com.argaty.dto.response.ApiResponse;
 import com.argaty.dto.response.CartResponse;
 import com.argaty.entity.Cart;
 import com.argaty.entity.Order;
@@ -23,6 +31,8 @@ import com.argaty.entity.UserAddress;
 import com.argaty.entity.Voucher;
 import com.argaty.enums.PaymentMethod;
 import com.argaty.exception.BadRequestException;
+import com.argaty.idempotency.IdempotencyStore;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.CartService;
 import com.argaty.service.OrderService;
 import com.argaty.service.ShippingFeeService;
@@ -31,6 +41,7 @@ import com.argaty.service.UserService;
 import com.argaty.service.VoucherService;
 import com.argaty.util.DtoMapper;
 
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -39,12 +50,18 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class CheckoutController {
 
+    private static final String QUEUE_TOKEN = "CHECKOUT_QUEUE_TOKEN";
+    private static final String PENDING_CHECKOUT = "CHECKOUT_PENDING_REQUEST";
+
     private final CartService cartService;
     private final OrderService orderService;
     private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
     private final UserAddressService userAddressService;
     private final VoucherService voucherService;
     private final ShippingFeeService shippingFeeService;
+    private final CheckoutAdmission checkoutAdmission;
+    private final IdempotencyStore idempotencyStore;
 
     // --- 1. TRANG THANH TOÁN ---
     @GetMapping
@@ -107,6 +124,7 @@ public class CheckoutController {
             checkoutRequest.setReceiverPhone(user.getPhone());
         }
         checkoutRequest.setReceiverEmail(user.getEmail());
+        checkoutRequest.setIdempotencyKey(UUID.randomUUID().toString());
         model.addAttribute("checkoutRequest", checkoutRequest);
 
         model.addAttribute("currentPage", "checkout");
@@ -118,7 +136,9 @@ public class CheckoutController {
     public String placeOrder(
             @Valid @ModelAttribute CheckoutRequest checkoutRequest,
             BindingResult bindingResult,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             Principal principal,
+            HttpSession session,
             RedirectAttributes redirectAttributes,
             Model model) {
 
@@ -126,6 +146,33 @@ public class CheckoutController {
             return "redirect:/auth/login?redirect=/checkout";
         }
 
+        if (idempotencyKey != null) {
+            checkoutRequest.setIdempotencyKey(idempotencyKey);
+        }
+
+        // Submit lặp (double click, retry) xử lý trước khi validate và xin lượt phòng chờ
+        // Khóa theo session: 2 submit cùng lúc của 1 trình duyệt không cùng xin lượt
+        Long userId = currentUserResolver.requireUserId(principal);
+        synchronized (WebUtils.getSessionMutex(session)) {
+            try {
+                String previous = idempotencyStore.find("checkout", String.valueOf(userId),
+                        checkoutRequest.getIdempotencyKey(), String.class).orElse(null);
+                if (previous != null) {
+                    return previous;
+                }
+            } catch (BadRequestException e) {
+                redirectAttributes.addFlashAttribute("error", e.getMessage());
+                return "redirect:/checkout";
+            }
+            if (isQueued(session, checkoutRequest.getIdempotencyKey())) {
+                return "redirect:/checkout/waiting";
+            }
+            return placeNewOrder(checkoutRequest, bindingResult, principal, session, redirectAttributes, model);
+        }
+    }
+
+    private String placeNewOrder(CheckoutRequest checkoutRequest, BindingResult bindingResult, Principal principal,
+                                 HttpSession session, RedirectAttributes redirectAttributes, Model model) {
         // --- [QUAN TRỌNG] PHẢI KHAI BÁO USER TRƯỚC KHI DÙNG ---
         User user = userService.findByEmail(principal.getName())
                 .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
@@ -171,27 +218,106 @@ public class CheckoutController {
             return reloadCheckoutPage(user, model, checkoutRequest);
         }
 
-        // --- D. TẠO ĐƠN HÀNG ---
-        try {
-            Order order = orderService.createOrder(
-                    user.getId(),
-                    checkoutRequest.getReceiverName(),
-                    checkoutRequest.getReceiverPhone(),
-                    checkoutRequest.getReceiverEmail(),
-                    checkoutRequest.getShippingAddress(),
-                    checkoutRequest.getCity(),
-                    checkoutRequest.getDistrict(),
-                    checkoutRequest.getWard(),
-                    checkoutRequest.getPaymentMethod(),
-                    checkoutRequest.getVoucherCode(),
-                    checkoutRequest.getNote()
-            );
-
-            if (order.getPaymentMethod() == PaymentMethod.COD) {
-                return "redirect:/checkout/success?orderCode=" + order.getOrderCode();
-            } else {
-                return "redirect:/checkout/payment?orderCode=" + order.getOrderCode();
+        // --- D. XIN LƯỢT (PHÒNG CHỜ) ---
+        List<Long> productIds = checkoutAdmission.isEnabled()
+                ? cartService.getSelectedProductIds(user.getId())
+                : List.of();
+        try (CheckoutAdmission.Decision decision = checkoutAdmission.tryEnter(user.getId(), productIds)) {
+            switch (decision.getOutcome()) {
+                case QUEUED:
+                    session.setAttribute(QUEUE_TOKEN, decision.getToken());
+                    session.setAttribute(PENDING_CHECKOUT, checkoutRequest);
+                    return "redirect:/checkout/waiting";
+                case REJECTED:
+                    redirectAttributes.addFlashAttribute("error", "Hệ thống đang quá tải, vui lòng thử lại sau ít phút");
+                    return "redirect:/checkout";
+                default:
+                    return submitOrder(user, checkoutRequest, redirectAttributes);
+            }
+        }
+    }
+
+    // --- E. PHÒNG CHỜ ---
+    @GetMapping("/waiting")
+    public String waiting(Principal principal, HttpSession session, Model model) {
+        if (principal == null) return "redirect:/auth/login";
+        String token = (String) session.getAttribute(QUEUE_TOKEN);
+        if (token == null) {
+            return "redirect:/checkout";
+        }
+        model.addAttribute("queueStatus", checkoutAdmission.status(token));
+        return "user/checkout-waiting";
+    }
+
+    /**
+     * Client poll vị trí trong hàng đợi (không đụng DB)
+     */
+    @GetMapping("/queue/status")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<Map<String, Object>>> queueStatus(HttpSession session) {
+        CheckoutAdmission.Status status = checkoutAdmission.status((String) session.getAttribute(QUEUE_TOKEN));
+        return ResponseEntity.ok(ApiResponse.success(Map.of(
+                "state", status.getState(),
+                "position", status.getPosition(),
+                "queueDepth", status.getQueueDepth())));
+    }
+
+    @PostMapping("/queue/submit")
+    public String submitQueued(Principal principal, HttpSession session, RedirectAttributes redirectAttributes) {
+        if (principal == null) return "redirect:/auth/login";
+        Long userId = currentUserResolver.requireUserId(principal);
+        String token = (String) session.getAttribute(QUEUE_TOKEN);
+        CheckoutRequest checkoutRequest = (CheckoutRequest) session.getAttribute(PENDING_CHECKOUT);
+        if (token == null || checkoutRequest == null) {
+            return "redirect:/checkout";
+        }
+
+        try (CheckoutAdmission.Decision decision = checkoutAdmission.claim(token, userId)) {
+            switch (decision.getOutcome()) {
+                case QUEUED:
+                    return "redirect:/checkout/waiting";
+                case REJECTED:
+                    session.removeAttribute(QUEUE_TOKEN);
+                    session.removeAttribute(PENDING_CHECKOUT);
+                    redirectAttributes.addFlashAttribute("error", "Lượt đặt hàng đã hết hạn, vui lòng đặt lại");
+                    return "redirect:/checkout";
+                default:
+                    session.removeAttribute(QUEUE_TOKEN);
+                    session.removeAttribute(PENDING_CHECKOUT);
+                    User user = userService.findById(userId)
+                            .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "id", userId));
+                    return submitOrder(user, checkoutRequest, redirectAttributes);
             }
+        }
+    }
+
+    // --- 3. CÁC HÀM PHỤ TRỢ ---
+
+    private String submitOrder(User user, CheckoutRequest checkoutRequest, RedirectAttributes redirectAttributes) {
+        try {
+            // Submit lặp cùng token form (double click, retry) nhận lại đúng redirect của lần đầu
+            return idempotencyStore.execute("checkout", String.valueOf(user.getId()),
+                    checkoutRequest.getIdempotencyKey(), String.class, () -> {
+                Order order = orderService.createOrder(
+                        user.getId(),
+                        checkoutRequest.getReceiverName(),
+                        checkoutRequest.getReceiverPhone(),
+                        checkoutRequest.getReceiverEmail(),
+                        checkoutRequest.getShippingAddress(),
+                        checkoutRequest.getCity(),
+                        checkoutRequest.getDistrict(),
+                        checkoutRequest.getWard(),
+                        checkoutRequest.getPaymentMethod(),
+                        checkoutRequest.getVoucherCode(),
+                        checkoutRequest.getNote()
+                );
+
+                if (order.getPaymentMethod() == PaymentMethod.COD) {
+                    return "redirect:/checkout/success?orderCode=" + order.getOrderCode();
+                } else {
+                    return "redirect:/checkout/payment?orderCode=" + order.getOrderCode();
+                }
+            });
 
         } catch (BadRequestException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -199,7 +325,14 @@ public class CheckoutController {
         }
     }
 
-    // --- 3. CÁC HÀM PHỤ TRỢ ---
+    /**
+     * Form này (cùng idempotency key) đang có vé trong phòng chờ của session
+     */
+    private static boolean isQueued(HttpSession session, String idempotencyKey) {
+        CheckoutRequest pending = (CheckoutRequest) session.getAttribute(PENDING_CHECKOUT);
+        return idempotencyKey != null && session.getAttribute(QUEUE_TOKEN) != null
+                && pending != null && idempotencyKey.equals(pending.getIdempotencyKey());
+    }
 
     private boolean isEmpty(String str) {
         return str == null || str.trim().isEmpty();
@@ -208,8 +341,8 @@ public class CheckoutController {
     @GetMapping("/payment")
     public String payment(@RequestParam String orderCode, Principal principal, Model model) {
         if (principal == null) return "redirect:/auth/login";
-        User user = userService.findByEmail(principal.getName()).orElseThrow();
-        Order order = orderService.findByOrderCodeAndUserId(orderCode, user.getId())
+        Long userId = currentUserResolver.requireUserId(principal);
+        Order order = orderService.findByOrderCodeAndUserId(orderCode, userId)
                 .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("Order", "orderCode", orderCode));
         if (order.getIsPaid()) return "redirect:/checkout/success?orderCode=" + orderCode;
         model.addAttribute("order", DtoMapper.toOrderDetailResponse(order));
@@ -219,8 +352,8 @@ public class CheckoutController {
     @GetMapping("/success")
     public String orderSuccess(@RequestParam String orderCode, Principal principal, Model model) {
         if (principal == null) return "redirect:/auth/login";
-        User user = userService.findByEmail(principal.getName()).orElseThrow();
-        Order order = orderService.findByOrderCodeAndUserId(orderCode, user.getId())
+        Long userId = currentUserResolver.requireUserId(principal);
+        Order order = orderService.findByOrderCodeAndUserId(orderCode, userId)
                 .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("Order", "orderCode", orderCode));
         model.addAttribute("order", DtoMapper.toOrderDetailResponse(order));
         return "user/order-success";
@@ -1,6 +1,5 @@
 package com.argaty.controller.user;
 
-import java.util.List;
 import java.util.regex.Pattern;
 
 import org.springframework.stereotype.Controller;
@@ -11,15 +10,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import com.argaty.entity.Banner;
-import com.argaty.entity.Category;
-import com.argaty.entity.Product;
-import com.argaty.service.BannerService;
-import com.argaty.service.BrandService;
-import com.argaty.service.CategoryService;
+import com.argaty.readmodel.HomePageSnapshot;
+import com.argaty.readmodel.HomePageSnapshotStore;
 import com.argaty.service.EmailService;
-import com.argaty.service.ProductService;
-import com.argaty.util.DtoMapper;
 
 import lombok.RequiredArgsConstructor;
 
@@ -32,10 +25,7 @@ public class HomeController {
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
 
-    private final ProductService productService;
-    private final CategoryService categoryService;
-    private final BrandService brandService;
-    private final BannerService bannerService;
+    private final HomePageSnapshotStore homePageSnapshotStore;
     private final EmailService emailService;
 
     /**
@@ -43,28 +33,15 @@ public class HomeController {
      */
     @GetMapping({"/", "/home"})
     public String home(Model model) {
-        // Banners
-        List<Banner> sliderBanners = bannerService.findActiveByPosition(Banner.POSITION_HOME_SLIDER);
-        model.addAttribute("sliderBanners", DtoMapper.toBannerResponseList(sliderBanners));
-
-        // Featured categories
-        List<Category> featuredCategories = categoryService.findFeaturedCategories();
-        model.addAttribute("featuredCategories", DtoMapper.toCategoryResponseList(featuredCategories));
-
-        // Featured products
-        List<Product> featuredProducts = productService.findFeaturedProducts(8);
-        model.addAttribute("featuredProducts", DtoMapper.toProductResponseList(featuredProducts));
-
-        // New products
-        List<Product> newProducts = productService.findNewProducts(8);
-        model.addAttribute("newProducts", DtoMapper.toProductResponseList(newProducts));
-
-        // Best seller products
-        List<Product> bestSellerProducts = productService.findBestSellerProducts(8);
-        model.addAttribute("bestSellerProducts", DtoMapper.toProductResponseList(bestSellerProducts));
-
-        // Brands
-        model.addAttribute("brands", DtoMapper.toBrandResponseList(brandService.findAllActive()));
+        // Dữ liệu đã dựng sẵn, không query DB
+        HomePageSnapshot snapshot = homePageSnapshotStore.get();
+        model.addAttribute("sliderBanners", snapshot.getSliderBanners());
+        model.addAttribute("featuredCategories", snapshot.getFeaturedCategories());
+        model.addAttribute("featuredProducts", snapshot.getFeaturedProducts());
+        model.addAttribute("newProducts", snapshot.getNewProducts());
+        model.addAttribute("bestSellerProducts", snapshot.getBestSellerProducts());
+        model.addAttribute("trendingProducts", snapshot.getTrendingProducts());
+        model.addAttribute("brands", snapshot.getBrands());
 
         model.addAttribute("currentPage", "home");
         return "user/home";
@@ -2,9 +2,11 @@ package com.argaty.controller.user;
 
 import java.math.BigDecimal;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -17,6 +19,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.argaty.analytics.ProductViewTracker;
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.dto.response.PageResponse;
 import com.argaty.dto.response.ProductDetailResponse;
 import com.argaty.dto.response.ProductResponse;
@@ -25,14 +29,17 @@ import com.argaty.entity.Brand;
 import com.argaty.entity.Category;
 import com.argaty.entity.Product;
 import com.argaty.entity.Review;
+import com.argaty.search.FacetFilter;
+import com.argaty.search.FacetResult;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.BrandService;
 import com.argaty.service.CategoryService;
 import com.argaty.service.ProductService;
 import com.argaty.service.ReviewService;
-import com.argaty.service.UserService;
 import com.argaty.service.WishlistService;
 import com.argaty.util.DtoMapper;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -48,7 +55,8 @@ public class ProductController {
     private final BrandService brandService;
     private final ReviewService reviewService;
     private final WishlistService wishlistService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
+    private final ProductViewTracker productViewTracker;
 
     private static final int PRODUCTS_PER_PAGE = 12;
 
@@ -57,62 +65,80 @@ public class ProductController {
      */
     @GetMapping
     public String products(
-            @RequestParam(required = false) String category,
-            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
             @RequestParam(required = false) String q,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false, defaultValue = "newest") String sort,
+            @RequestParam(required = false, defaultValue = "false") boolean inStock,
+            @RequestParam(required = false, defaultValue = "false") boolean onSale,
+            @RequestParam(required = false) String sort,
             @RequestParam(required = false, defaultValue = "0") int page,
             Principal principal,
             Model model) {
 
+        // Tìm kiếm mà không chọn sort -> sắp xếp theo độ liên quan
+        if (sort == null || sort.isEmpty()) {
+            sort = (q != null && !q.trim().isEmpty()) ? "relevance" : "newest";
+        }
+
         // Tạo sort
         Sort sortOrder = createSort(sort);
         Pageable pageable = PageRequest.of(page, PRODUCTS_PER_PAGE, sortOrder);
 
-        // Lấy danh sách sản phẩm
-        Page<Product> productPage;
+        // Gom các facet: nhiều danh mục / thương hiệu (OR), các facet khác nhau kết hợp AND
+        FacetFilter.FacetFilterBuilder filter = FacetFilter.builder()
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .onSale(onSale);
 
         if (q != null && !q.trim().isEmpty()) {
-            // Search
-            productPage = productService.search(q.trim(), pageable);
+            filter.keyword(q.trim());
             model.addAttribute("searchKeyword", q);
-        } else if (category != null && !category.isEmpty()) {
-            // Filter by category
-            Category cat = categoryService.findBySlug(category).orElse(null);
-            if (cat != null) {
-                productPage = productService.findByCategory(cat.getId(), pageable);
-                model.addAttribute("currentCategory", DtoMapper.toCategoryResponse(cat));
-            } else {
-                productPage = productService.findActiveProducts(pageable);
+        }
+
+        List<Category> selectedCategories = new ArrayList<>();
+        if (category != null) {
+            for (String slug : category) {
+                categoryService.findBySlug(slug).ifPresent(selectedCategories::add);
             }
-        } else if (brand != null && !brand.isEmpty()) {
-            // Filter by brand
-            Brand br = brandService.findBySlug(brand).orElse(null);
-            if (br != null) {
-                productPage = productService.findByBrand(br.getId(), pageable);
-                model.addAttribute("currentBrand", DtoMapper.toBrandResponse(br));
-            } else {
-                productPage = productService.findActiveProducts(pageable);
+        }
+        selectedCategories.forEach(cat -> filter.categoryId(cat.getId()));
+        if (selectedCategories.size() == 1) {
+            model.addAttribute("currentCategory", DtoMapper.toCategoryResponse(selectedCategories.get(0)));
+        }
+
+        List<Brand> selectedBrands = new ArrayList<>();
+        if (brand != null) {
+            for (String slug : brand) {
+                brandService.findBySlug(slug).ifPresent(selectedBrands::add);
             }
-        } else if (minPrice != null || maxPrice != null) {
-            // Filter by price
-            BigDecimal min = minPrice != null ? minPrice : BigDecimal.ZERO;
-            BigDecimal max = maxPrice != null ?  maxPrice : BigDecimal.valueOf(Long.MAX_VALUE);
-            productPage = productService.findByPriceRange(min, max, pageable);
-        } else {
-            productPage = productService.findActiveProducts(pageable);
         }
+        selectedBrands.forEach(br -> filter.brandId(br.getId()));
+        if (selectedBrands.size() == 1) {
+            model.addAttribute("currentBrand", DtoMapper.toBrandResponse(selectedBrands.get(0)));
+        }
+
+        FacetResult facets = productService.filterByFacets(filter.build(), pageable);
+        Page<ProductCardView> productPage = facets.getPage();
+
+        model.addAttribute("selectedCategories", category != null ? category : List.of());
+        model.addAttribute("selectedBrands", brand != null ? brand : List.of());
+        model.addAttribute("categoryCounts", facets.getCategoryCounts());
+        model.addAttribute("brandCounts", facets.getBrandCounts());
+        model.addAttribute("priceBuckets", facets.getPriceBuckets());
+        model.addAttribute("inStockCount", facets.getInStockCount());
+        model.addAttribute("onSaleCount", facets.getOnSaleCount());
 
         // Convert to DTO
-        PageResponse<ProductResponse> pageResponse = DtoMapper.toProductPageResponse(productPage);
+        PageResponse<ProductResponse> pageResponse = DtoMapper.toProductCardPageResponse(productPage);
         model.addAttribute("products", pageResponse);
 
         // Wishlist IDs nếu đã đăng nhập
         if (principal != null) {
-            userService.findByEmail(principal.getName()).ifPresent(user -> {
-                List<Long> wishlistIds = wishlistService.getWishlistProductIds(user.getId());
+            currentUserResolver.findUserId(principal).ifPresent(userId -> {
+                List<Long> wishlistIds = wishlistService.getWishlistProductIds(userId);
                 model.addAttribute("wishlistIds", wishlistIds);
             });
         }
@@ -125,6 +151,8 @@ public class ProductController {
         model.addAttribute("currentSort", sort);
         model.addAttribute("minPrice", minPrice);
         model.addAttribute("maxPrice", maxPrice);
+        model.addAttribute("inStock", inStock);
+        model.addAttribute("onSale", onSale);
         model.addAttribute("currentPage", "products");
 
         return "user/products";
@@ -140,16 +168,16 @@ public class ProductController {
             Model model) {
 
         Pageable pageable = PageRequest.of(page, PRODUCTS_PER_PAGE);
-        Page<Product> productPage = productService.findOnSale(pageable);
+        Page<ProductCardView> productPage = productService.findOnSaleCards(pageable);
 
-        model.addAttribute("products", DtoMapper.toProductPageResponse(productPage));
+        model.addAttribute("products", DtoMapper.toProductCardPageResponse(productPage));
         model.addAttribute("pageTitle", "Sản phẩm đang giảm giá");
         model.addAttribute("currentPage", "sale");
 
         // Wishlist IDs
         if (principal != null) {
-            userService.findByEmail(principal.getName()).ifPresent(user -> {
-                model.addAttribute("wishlistIds", wishlistService.getWishlistProductIds(user.getId()));
+            currentUserResolver.findUserId(principal).ifPresent(userId -> {
+                model.addAttribute("wishlistIds", wishlistService.getWishlistProductIds(userId));
             });
         }
 
@@ -163,15 +191,16 @@ public class ProductController {
     public String productDetail(
             @PathVariable String slug,
             Principal principal,
+            HttpServletRequest request,
             Model model) {
 
-        // Load product with all details to avoid LazyInitialization issues
-        final Product product = productService.findBySlugWithDetails(slug)
+        // DTO chi tiết (đã load đủ images / variants / category / brand)
+        final ProductDetailResponse product = productService.findDetailBySlug(slug)
             .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("Product", "slug", slug));
+        model.addAttribute("product", product);
 
-        // Product detail
-        ProductDetailResponse productDetail = DtoMapper.toProductDetailResponse(product);
-        model.addAttribute("product", productDetail);
+        Optional<Long> currentUserId = currentUserResolver.findUserId(principal);
+        productViewTracker.recordView(product.getId(), ProductViewTracker.viewerKey(currentUserId, request));
 
         // Reviews
         Page<Review> reviews = reviewService.findByProductId(product.getId(), PageRequest.of(0, 5));
@@ -191,15 +220,15 @@ public class ProductController {
         model.addAttribute("reviewStats", ReviewStatsResponse.create(avgRating, reviewCount, distribution));
 
         // Related products
-        List<Product> relatedProducts = productService.findRelatedProducts(product.getId(), 4);
-        model.addAttribute("relatedProducts", DtoMapper.toProductResponseList(relatedProducts));
+        List<ProductCardView> relatedProducts = productService.findRelatedCards(product.getId(), 4);
+        model.addAttribute("relatedProducts", DtoMapper.toProductCardResponseList(relatedProducts));
 
         // Check wishlist và can review
         if (principal != null) {
-            userService.findByEmail(principal.getName()).ifPresent(user -> {
-                model.addAttribute("isInWishlist", wishlistService.isInWishlist(user.getId(), product.getId()));
-                model.addAttribute("canReview", reviewService.canUserReviewProduct(user.getId(), product.getId()));
-                model.addAttribute("hasReviewed", reviewService.hasUserReviewedProduct(user.getId(), product.getId()));
+            currentUserId.ifPresent(userId -> {
+                model.addAttribute("isInWishlist", wishlistService.isInWishlist(userId, product.getId()));
+                model.addAttribute("canReview", reviewService.canUserReviewProduct(userId, product.getId()));
+                model.addAttribute("hasReviewed", reviewService.hasUserReviewedProduct(userId, product.getId()));
             });
         }
 
@@ -226,6 +255,8 @@ public class ProductController {
             case "name-desc" -> Sort.by(Sort.Direction.DESC, "name");
             case "bestseller" -> Sort.by(Sort.Direction.DESC, "soldCount");
             case "rating" -> Sort.by(Sort.Direction.DESC, "rating");
+            case "trending" -> Sort.by(Sort.Direction.DESC, ProductViewTracker.TRENDING_SORT);
+            case "relevance" -> Sort.unsorted(); // Xếp theo điểm BM25 của search index
             default -> Sort.by(Sort.Direction.DESC, "createdAt"); // newest
         };
     }
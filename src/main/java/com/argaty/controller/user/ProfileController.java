@@ -39,6 +39,7 @@ import com.argaty.service.UserService;
 import com.argaty.service.WishlistService;
 import com.argaty.util.DtoMapper;
 
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -102,6 +103,7 @@ public class ProfileController {
                                 BindingResult bindingResult,
                                 @RequestParam(value = "avatarFile", required = false) MultipartFile avatarFile,
                                 Principal principal,
+                                HttpSession session,
                                 RedirectAttributes redirectAttributes,
                                 Model model) {
         User user = getCurrentUser(principal);
@@ -117,7 +119,10 @@ public class ProfileController {
                 avatarPath = fileStorageService.uploadFile(avatarFile, "avatars/");
             }
 
-            userService.updateProfile(user.getId(), request.getFullName(), request.getPhone(), avatarPath);
+            User updated = userService.updateProfile(user.getId(), request.getFullName(), request.getPhone(), avatarPath);
+            // Header đọc tên / avatar từ session
+            session.setAttribute("currentUserAvatar", updated.getAvatar());
+            session.setAttribute("currentUserName", updated.getFullName());
             // Xử lý update address riêng hoặc gộp tùy logic service của bạn
             redirectAttributes.addFlashAttribute("success", "Cập nhật thông tin thành công");
         } catch (BadRequestException e) {
@@ -1,8 +1,7 @@
 package com.argaty.controller.user;
 
-import com.argaty.entity.User;
 import com.argaty.entity.Wishlist;
-import com.argaty.service.UserService;
+import com.argaty.security.CurrentUserResolver;
 import com.argaty.service.WishlistService;
 import com.argaty.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +22,7 @@ import java.util.List;
 public class WishlistController {
 
     private final WishlistService wishlistService;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
 
     @GetMapping
     public String wishlist(Principal principal, Model model) {
@@ -31,10 +30,9 @@ public class WishlistController {
             return "redirect:/auth/login?redirect=/wishlist";
         }
 
-        User user = userService.findByEmail(principal.getName())
-                .orElseThrow(() -> new com.argaty.exception.ResourceNotFoundException("User", "email", principal.getName()));
+        Long userId = currentUserResolver.requireUserId(principal);
 
-        List<Wishlist> wishlists = wishlistService.findByUserIdWithProduct(user.getId());
+        List<Wishlist> wishlists = wishlistService.findByUserIdWithProduct(userId);
         model.addAttribute("wishlists", DtoMapper.toWishlistResponseList(wishlists));
         model.addAttribute("currentPage", "wishlist");
 
@@ -0,0 +1,69 @@
+package com.argaty.dto.projection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Projection chỉ gồm các cột cần để render product card
+ * (không load description / specifications, ảnh chính + category + brand lấy trong cùng 1 query)
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCardView {
+
+    private final Long id;
+    private final String name;
+    private final String slug;
+    private final String sku;
+    private final String shortDescription;
+    private final String mainImage;
+    private final BigDecimal price;
+    private final BigDecimal salePrice;
+    private final LocalDateTime saleStartDate;
+    private final LocalDateTime saleEndDate;
+    private final BigDecimal rating;
+    private final Integer reviewCount;
+    private final Integer quantity;
+    private final Boolean isNew;
+    private final Boolean isFeatured;
+    private final Boolean isBestSeller;
+    private final Boolean isActive;
+    private final String categoryName;
+    private final String categorySlug;
+    private final String brandName;
+    private final String brandSlug;
+
+    /**
+     * Cùng quy tắc với Product.isOnSale()
+     */
+    public boolean isOnSale() {
+        if (salePrice == null || price == null || salePrice.compareTo(price) >= 0) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (saleStartDate != null && now.isBefore(saleStartDate)) {
+            return false;
+        }
+        return saleEndDate == null || !now.isAfter(saleEndDate);
+    }
+
+    public boolean isInStock() {
+        return quantity != null && quantity > 0;
+    }
+
+    /**
+     * Cùng quy tắc với Product.getCalculatedDiscountPercent()
+     */
+    public int getCalculatedDiscountPercent() {
+        if (!isOnSale() || price.compareTo(BigDecimal.ZERO) == 0) {
+            return 0;
+        }
+        return price.subtract(salePrice).multiply(BigDecimal.valueOf(100))
+                .divide(price, 0, RoundingMode.HALF_UP)
+                .intValue();
+    }
+}
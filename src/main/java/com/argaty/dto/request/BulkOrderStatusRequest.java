@@ -0,0 +1,33 @@
+package com.argaty.dto.request;
+
+import java.util.List;
+
+import com.argaty.enums.OrderStatus;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO cho request chuyển trạng thái hàng loạt (Admin)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequest {
+
+    @NotEmpty(message = "Chưa chọn đơn hàng")
+    @Size(max = 1000, message = "Tối đa 1000 đơn hàng mỗi lần")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Trạng thái không được để trống")
+    private OrderStatus status;
+
+    @Size(max = 500, message = "Ghi chú tối đa 500 ký tự")
+    private String note;
+}
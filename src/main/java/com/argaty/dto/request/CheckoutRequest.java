@@ -54,4 +54,7 @@ public class CheckoutRequest {
     private Long addressId; // ID địa chỉ đã lưu
     private Boolean saveAddress;
     private List<Long> cartItemIds;
+
+    // Token sinh khi render trang checkout, chống submit lặp
+    private String idempotencyKey;
 }
\ No newline at end of file
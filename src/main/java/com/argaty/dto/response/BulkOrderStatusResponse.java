@@ -0,0 +1,39 @@
+package com.argaty.dto.response;
+
+import java.util.List;
+
+import com.argaty.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO cho kết quả chuyển trạng thái hàng loạt, giữ thứ tự id trong request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResponse {
+
+    private OrderStatus targetStatus;
+    private int succeeded;
+    private int failed;
+    private List<Item> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private Long orderId;
+        private String orderCode;
+        private OrderStatus previousStatus;
+        private boolean success;
+        private String message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.argaty.dto.response;
+
+import java.util.List;
+
+import org.springframework.data.domain.Window;
+
+import com.argaty.util.CursorCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO cho response phân trang theo cursor (keyset), không có COUNT / tổng số trang
+ * Client gửi lại nextCursor để lấy trang tiếp theo
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public static <T, U> CursorPageResponse<U> of(Window<T> window, List<U> content) {
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? CursorCodec.encode(window.positionAt(window.size() - 1))
+                : null;
+        return CursorPageResponse.<U>builder()
+                .content(content)
+                .size(window.size())
+                .hasNext(window.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.argaty.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Tóm tắt giỏ hàng cho mini-cart ở header (immutable, dùng làm giá trị cache)
+ */
+@Getter
+@AllArgsConstructor
+public class MiniCartSummary {
+
+    public static final MiniCartSummary EMPTY = new MiniCartSummary(null, 0, BigDecimal.ZERO, List.of());
+
+    private final Long cartId;
+    private final int itemCount;
+    // Tổng tiền các item đang được chọn
+    private final BigDecimal total;
+    private final List<MiniCartItemResponse> items;
+}
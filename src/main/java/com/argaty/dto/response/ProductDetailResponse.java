@@ -18,7 +18,7 @@ import lombok.NoArgsConstructor;
  * DTO cho response chi tiết sản phẩm
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -79,7 +79,7 @@ public class ProductDetailResponse {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class VariantResponse {
@@ -2,6 +2,7 @@ package com.argaty.dto.response;
 
 import java.math.BigDecimal;
 
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.entity.Product;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
@@ -71,4 +72,31 @@ public class ProductResponse {
                 .brandSlug(product.getBrand() != null ? product.getBrand().getSlug() : null)
                 .build();
     }
+
+    public static ProductResponse fromCardView(ProductCardView card) {
+        return ProductResponse.builder()
+                .id(card.getId())
+                .name(card.getName())
+                .slug(card.getSlug())
+                .sku(card.getSku())
+                .shortDescription(card.getShortDescription())
+                .mainImage(card.getMainImage() != null ? card.getMainImage() : "/images/no-image.png")
+                .price(card.getPrice())
+                .salePrice(card.getSalePrice())
+                .discountPercent(card.getCalculatedDiscountPercent())
+                .rating(card.getRating())
+                .reviewCount(card.getReviewCount())
+                .quantity(card.getQuantity())
+                .isNew(card.getIsNew())
+                .isFeatured(card.getIsFeatured())
+                .isBestSeller(card.getIsBestSeller())
+                .isOnSale(card.isOnSale())
+                .isInStock(card.isInStock())
+                .isActive(card.getIsActive())
+                .categoryName(card.getCategoryName())
+                .categorySlug(card.getCategorySlug())
+                .brandName(card.getBrandName())
+                .brandSlug(card.getBrandSlug())
+                .build();
+    }
 }
\ No newline at end of file
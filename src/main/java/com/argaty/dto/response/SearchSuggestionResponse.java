@@ -0,0 +1,31 @@
+package com.argaty.dto.response;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO cho gợi ý tìm kiếm (autocomplete): sản phẩm, thương hiệu hoặc danh mục
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchSuggestionResponse {
+
+    // product / brand / category
+    private String type;
+    private Long id;
+    private String name;
+    private String slug;
+    private String url;
+    private String mainImage;
+    private BigDecimal price;
+    private BigDecimal salePrice;
+}
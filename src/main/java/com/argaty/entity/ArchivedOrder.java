@@ -0,0 +1,61 @@
+package com.argaty.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.argaty.enums.OrderStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity ArchivedOrder - Đơn hàng cũ đã chuyển khỏi bảng orders
+ * Chỉ giữ vài cột để tra cứu / thống kê, toàn bộ đơn (items, lịch sử) nằm trong snapshot JSON nén gzip
+ */
+@Entity
+@Table(name = "archived_orders", indexes = {
+        @Index(name = "ix_archived_orders_user_created", columnList = "user_id, created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+    // Giữ nguyên id của đơn gốc
+    @Id
+    private Long id;
+
+    @Column(name = "order_code", nullable = false, unique = true, length = 20)
+    private String orderCode;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 30)
+    private OrderStatus status;
+
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 0)
+    private BigDecimal totalAmount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(name = "snapshot", nullable = false, columnDefinition = "VARBINARY(MAX)")
+    private byte[] snapshot;
+}
@@ -0,0 +1,49 @@
+package com.argaty.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity IdempotencyRecord - Kết quả đã lưu của 1 request có Idempotency-Key
+ * Bản chính nằm trong bộ nhớ (IdempotencyStore), bảng này giúp phát lại kết quả sau khi khởi động lại
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "ix_idempotency_records_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // scope:owner:client-key
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 200)
+    private String idempotencyKey;
+
+    @Column(name = "response_body", nullable = false, columnDefinition = "NVARCHAR(MAX)")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
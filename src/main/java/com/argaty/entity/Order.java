@@ -14,6 +14,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -29,7 +30,11 @@ import lombok.Setter;
  * Entity Order - Đơn hàng
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Phân trang keyset danh sách đơn hàng (admin)
+        @Index(name = "idx_orders_created", columnList = "created_at, id"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,138 @@
+package com.argaty.entity;
+
+import java.time.LocalDateTime;
+
+import com.argaty.enums.OrderStatus;
+import com.argaty.enums.OutboxEventType;
+import com.argaty.enums.OutboxStatus;
+import com.argaty.enums.StockState;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity OutboxEvent - Side effect (thông báo, email) được ghi cùng transaction với đơn hàng
+ * và xử lý bất đồng bộ bởi OutboxDispatcher
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 40)
+    private OutboxEventType type;
+
+    // Id của đối tượng gốc (order id)
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // Dữ liệu bổ sung, vd "PENDING>CONFIRMED" cho đổi trạng thái
+    @Column(name = "payload", length = 200)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Thời điểm được phép xử lý (lần thử tiếp theo, hoặc hết hạn lease khi đang PROCESSING)
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+    }
+
+    // ========== FACTORY ==========
+
+    public static OutboxEvent orderCreated(Long orderId) {
+        return OutboxEvent.builder()
+                .type(OutboxEventType.ORDER_CREATED)
+                .aggregateId(orderId)
+                .build();
+    }
+
+    public static OutboxEvent orderStatusChanged(Long orderId, OrderStatusChange change) {
+        return OutboxEvent.builder()
+                .type(OutboxEventType.ORDER_STATUS_CHANGED)
+                .aggregateId(orderId)
+                .payload(change.encode())
+                .build();
+    }
+
+    /**
+     * Cảnh báo tồn kho: payload "STATE" hoặc "STATE:variantId"
+     */
+    public static OutboxEvent stockAlert(Long productId, Long variantId, StockState state) {
+        return OutboxEvent.builder()
+                .type(OutboxEventType.STOCK_ALERT)
+                .aggregateId(productId)
+                .payload(variantId != null ? state.name() + ":" + variantId : state.name())
+                .build();
+    }
+
+    /**
+     * Cặp trạng thái cũ / mới lưu trong payload
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class OrderStatusChange {
+        private final OrderStatus oldStatus;
+        private final OrderStatus newStatus;
+
+        public String encode() {
+            return oldStatus.name() + ">" + newStatus.name();
+        }
+
+        public static OrderStatusChange decode(String payload) {
+            String[] parts = payload.split(">", 2);
+            return new OrderStatusChange(
+                    OrderStatus.valueOf(parts[0]),
+                    OrderStatus.valueOf(parts[1]));
+        }
+    }
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -27,7 +28,11 @@ import lombok.Setter;
  * Entity Product - Sản phẩm
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Phân trang keyset theo ngày tạo / bán chạy
+        @Index(name = "idx_products_active_created", columnList = "is_active, created_at, id"),
+        @Index(name = "idx_products_active_sold", columnList = "is_active, sold_count, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
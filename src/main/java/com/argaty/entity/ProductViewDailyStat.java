@@ -0,0 +1,50 @@
+package com.argaty.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity ProductViewDailyStat - Lượt xem theo ngày × sản phẩm, kèm sketch HyperLogLog của người xem
+ * (ước lượng số người xem khác nhau mà không lưu từng user)
+ * Ghi bằng JDBC (ProductViewRepository), entity chỉ để tạo bảng
+ */
+@Entity
+@Table(name = "product_view_daily_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_view_daily", columnNames = {"view_date", "product_id"}),
+        indexes = @Index(name = "ix_product_view_daily_product", columnList = "product_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductViewDailyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "view_date", nullable = false)
+    private LocalDate viewDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "view_count", nullable = false)
+    private Long viewCount;
+
+    @Column(name = "viewer_sketch", columnDefinition = "VARBINARY(1024)")
+    private byte[] viewerSketch;
+}
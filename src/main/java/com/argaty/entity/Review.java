@@ -8,6 +8,7 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -22,7 +23,10 @@ import lombok.Setter;
  * Entity Review - Đánh giá sản phẩm
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        // Phân trang keyset đánh giá theo sản phẩm
+        @Index(name = "idx_reviews_product_visible_created", columnList = "product_id, is_visible, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -77,6 +81,10 @@ public class Review extends BaseEntity {
     @JoinColumn(name = "order_item_id")
     private OrderItem orderItem;
 
+    // Id order item sau khi đơn chuyển sang archived_orders (lúc đó order_item_id = NULL vì dòng gốc đã xóa)
+    @Column(name = "archived_order_item_id")
+    private Long archivedOrderItemId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "replied_by")
     private User repliedBy;
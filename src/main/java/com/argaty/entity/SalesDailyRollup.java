@@ -0,0 +1,38 @@
+package com.argaty.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity SalesDailyRollup - Số đơn hoàn thành và doanh thu theo ngày tạo đơn (gồm cả đơn đã lưu trữ)
+ * Ghi bằng JDBC (SalesRollupRepository), entity chỉ để tạo bảng
+ */
+@Entity
+@Table(name = "sales_daily_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyRollup {
+
+    @Id
+    @Column(name = "sale_date")
+    private LocalDate saleDate;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "revenue", nullable = false, precision = 18, scale = 0)
+    private BigDecimal revenue;
+}
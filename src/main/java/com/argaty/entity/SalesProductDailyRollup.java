@@ -0,0 +1,59 @@
+package com.argaty.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity SalesProductDailyRollup - Số lượng bán và doanh thu (subtotal item) theo ngày × sản phẩm × danh mục
+ * Ghi bằng JDBC (SalesRollupRepository), entity chỉ để tạo bảng
+ */
+@Entity
+@Table(name = "sales_product_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_product_daily", columnNames = {"sale_date", "product_id"}),
+        indexes = {
+                @Index(name = "ix_sales_product_daily_product", columnList = "product_id"),
+                @Index(name = "ix_sales_product_daily_category", columnList = "category_id, sale_date")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesProductDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "product_name", length = 200)
+    private String productName;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "revenue", nullable = false, precision = 18, scale = 0)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,82 @@
+package com.argaty.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity StockLedgerEntry - Thay đổi tồn kho đã commit nhưng chưa ghi vào products / product_variants
+ * Được insert cùng transaction với đơn hàng (không khóa dòng sản phẩm),
+ * StockLedger gộp và ghi về bảng sản phẩm theo batch rồi xóa entry
+ */
+@Entity
+@Table(name = "stock_ledger_entries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // null nghĩa là tồn kho cấp sản phẩm
+    @Column(name = "variant_id")
+    private Long variantId;
+
+    // Âm khi bán, dương khi hoàn kho
+    @Column(name = "quantity_delta", nullable = false)
+    private Integer quantityDelta;
+
+    @Column(name = "sold_delta", nullable = false)
+    @Builder.Default
+    private Integer soldDelta = 0;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    // ========== FACTORY ==========
+
+    /**
+     * Bán hàng: giống decreaseQuantity, chỉ tồn kho cấp sản phẩm mới cộng soldCount
+     */
+    public static StockLedgerEntry sale(Long productId, Long variantId, int quantity) {
+        return StockLedgerEntry.builder()
+                .productId(productId)
+                .variantId(variantId)
+                .quantityDelta(-quantity)
+                .soldDelta(variantId == null ? quantity : 0)
+                .build();
+    }
+
+    public static StockLedgerEntry restock(Long productId, Long variantId, int quantity) {
+        return StockLedgerEntry.builder()
+                .productId(productId)
+                .variantId(variantId)
+                .quantityDelta(quantity)
+                .build();
+    }
+}
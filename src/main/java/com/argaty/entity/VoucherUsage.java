@@ -57,6 +57,10 @@ public class VoucherUsage {
     @JoinColumn(name = "order_id")
     private Order order;
 
+    // Id đơn sau khi chuyển sang archived_orders (= archived_orders.id, lúc đó order_id = NULL vì đơn gốc đã xóa)
+    @Column(name = "archived_order_id")
+    private Long archivedOrderId;
+
     @PrePersist
     protected void onCreate() {
         if (usedAt == null) {
@@ -0,0 +1,20 @@
+package com.argaty.enums;
+
+/**
+ * Enum định nghĩa loại side effect được ghi vào outbox
+ */
+public enum OutboxEventType {
+    ORDER_CREATED("Đơn hàng mới"),
+    ORDER_STATUS_CHANGED("Đổi trạng thái đơn hàng"),
+    STOCK_ALERT("Cảnh báo tồn kho");
+
+    private final String displayName;
+
+    OutboxEventType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
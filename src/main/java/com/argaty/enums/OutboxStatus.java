@@ -0,0 +1,21 @@
+package com.argaty.enums;
+
+/**
+ * Enum định nghĩa trạng thái xử lý của outbox event
+ */
+public enum OutboxStatus {
+    PENDING("Chờ xử lý"),
+    PROCESSING("Đang xử lý"),
+    DONE("Đã xử lý"),
+    FAILED("Thất bại");
+
+    private final String displayName;
+
+    OutboxStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
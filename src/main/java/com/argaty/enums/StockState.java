@@ -0,0 +1,27 @@
+package com.argaty.enums;
+
+/**
+ * Enum định nghĩa trạng thái tồn kho của sản phẩm / biến thể
+ */
+public enum StockState {
+    IN_STOCK("Còn hàng"),
+    LOW_STOCK("Sắp hết hàng"),
+    OUT_OF_STOCK("Hết hàng");
+
+    private final String displayName;
+
+    StockState(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static StockState of(int quantity, int lowStockThreshold) {
+        if (quantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return quantity <= lowStockThreshold ? LOW_STOCK : IN_STOCK;
+    }
+}
@@ -0,0 +1,14 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi nội dung giỏ hàng thay đổi (thêm / sửa / xóa item, đặt hàng)
+ */
+@Getter
+@RequiredArgsConstructor
+public class CartChangedEvent {
+
+    private final Long cartId;
+}
@@ -0,0 +1,20 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi banner / danh mục / thương hiệu được tạo / cập nhật / xóa
+ * Dùng để làm mới các read model in-memory phụ thuộc vào dữ liệu catalog (trang chủ...)
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogChangedEvent {
+
+    public static final String BANNER = "BANNER";
+    public static final String CATEGORY = "CATEGORY";
+    public static final String BRAND = "BRAND";
+
+    private final String type;
+    private final Long id;
+}
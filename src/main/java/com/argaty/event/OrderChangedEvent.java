@@ -0,0 +1,24 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi đơn hàng được tạo hoặc bị xóa khỏi bảng orders (lưu trữ)
+ * Chỉ dùng cho các index in-memory, không phát khi chỉ đổi trạng thái
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderChangedEvent {
+
+    private final Long orderId;
+    private final boolean deleted;
+
+    public static OrderChangedEvent created(Long orderId) {
+        return new OrderChangedEvent(orderId, false);
+    }
+
+    public static OrderChangedEvent deleted(Long orderId) {
+        return new OrderChangedEvent(orderId, true);
+    }
+}
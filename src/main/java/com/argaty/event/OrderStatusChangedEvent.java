@@ -0,0 +1,28 @@
+package com.argaty.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.argaty.enums.OrderStatus;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi đơn hàng được tạo (oldStatus = null) hoặc đổi trạng thái
+ * Mang sẵn ngày tạo và tổng tiền để các bộ đếm in-memory cập nhật mà không query lại đơn
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final LocalDateTime orderCreatedAt;
+    private final BigDecimal totalAmount;
+    private final OrderStatus oldStatus;
+    private final OrderStatus newStatus;
+
+    public boolean isCreated() {
+        return oldStatus == null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi sản phẩm được tạo / cập nhật / xóa
+ * Các index in-memory lắng nghe event này (sau khi transaction commit) để tự đồng bộ
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    private final Long productId;
+    private final boolean deleted;
+
+    public static ProductChangedEvent updated(Long productId) {
+        return new ProductChangedEvent(productId, false);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, true);
+    }
+}
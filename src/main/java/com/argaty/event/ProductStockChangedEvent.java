@@ -0,0 +1,15 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi tồn kho của sản phẩm / biến thể thay đổi (đặt hàng, hủy, hoàn trả)
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductStockChangedEvent {
+
+    private final Long productId;
+    private final Long variantId;
+}
@@ -0,0 +1,8 @@
+package com.argaty.event;
+
+/**
+ * Event phát ra khi nhóm sản phẩm đầu bảng trending thay đổi (sau mỗi lần gộp lượt xem)
+ * Dùng để làm mới mục "Xu hướng" của trang chủ
+ */
+public class TrendingProductsChangedEvent {
+}
@@ -0,0 +1,14 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi thông tin / quyền / trạng thái của user thay đổi
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+
+    private final Long userId;
+}
@@ -0,0 +1,14 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi có tài khoản mới đăng ký (role USER)
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserRegisteredEvent {
+
+    private final Long userId;
+}
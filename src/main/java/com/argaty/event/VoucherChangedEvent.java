@@ -0,0 +1,23 @@
+package com.argaty.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Event phát ra khi voucher được tạo / cập nhật / xóa
+ */
+@Getter
+@RequiredArgsConstructor
+public class VoucherChangedEvent {
+
+    private final Long voucherId;
+    private final boolean deleted;
+
+    public static VoucherChangedEvent updated(Long voucherId) {
+        return new VoucherChangedEvent(voucherId, false);
+    }
+
+    public static VoucherChangedEvent deleted(Long voucherId) {
+        return new VoucherChangedEvent(voucherId, true);
+    }
+}
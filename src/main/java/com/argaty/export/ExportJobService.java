@@ -0,0 +1,229 @@
+package com.argaty.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.argaty.exception.BadRequestException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Xuất báo cáo chạy nền cho khoảng ngày lớn
+ * - Job ghi ra file tạm trong app.export.dir, admin theo dõi tiến độ rồi tải file khi xong
+ * - Pool worker giới hạn, hàng đợi đầy thì từ chối job mới thay vì dồn tải lên DB
+ * - Job và file quá retention-minutes bị xóa định kỳ
+ * Trạng thái job chỉ giữ trong bộ nhớ của instance đã nhận job
+ */
+@Slf4j
+@Component
+public class ExportJobService {
+
+    private final ReportExporter reportExporter;
+    private final Path directory;
+    private final long retentionMinutes;
+
+    private final ThreadPoolExecutor workers;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(ReportExporter reportExporter,
+                            @Value("${app.export.dir:${java.io.tmpdir}/argaty-exports}") String directory,
+                            @Value("${app.export.workers:1}") int workerCount,
+                            @Value("${app.export.queue-capacity:10}") int queueCapacity,
+                            @Value("${app.export.retention-minutes:120}") long retentionMinutes) {
+        this.reportExporter = reportExporter;
+        this.directory = Path.of(directory);
+        this.retentionMinutes = retentionMinutes;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "export-worker-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // ========== SUBMIT ==========
+
+    public ExportJob submit(ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), type, format, from, to);
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new BadRequestException("Đang có quá nhiều báo cáo chờ xuất, vui lòng thử lại sau");
+        }
+        return job;
+    }
+
+    public Optional<ExportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Job gần nhất trước
+     */
+    public List<ExportJob> findAll() {
+        List<ExportJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparing(ExportJob::getCreatedAt).reversed());
+        return list;
+    }
+
+    // ========== WORKER ==========
+
+    private void run(ExportJob job) {
+        job.status = ExportJob.Status.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        Path file = directory.resolve(job.getId() + "." + job.getFormat().getExtension());
+        try {
+            job.estimatedRows = reportExporter.estimateRows(job.getType(), job.getFrom(), job.getTo());
+            Files.createDirectories(directory);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                job.rowsWritten = reportExporter.export(job.getType(), job.getFormat(), job.getFrom(), job.getTo(),
+                        out, rows -> job.rowsWritten = rows);
+            }
+            job.file = file;
+            job.status = ExportJob.Status.DONE;
+        } catch (Exception e) {
+            job.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            job.status = ExportJob.Status.FAILED;
+            deleteQuietly(file);
+            log.error("Export job {} ({}) failed: {}", job.getId(), job.getType(), job.error);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @Scheduled(fixedDelayString = "${app.export.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.getFinishedAt() == null || !job.getFinishedAt().isBefore(expiredBefore)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        for (ExportJob job : jobs.values()) {
+            deleteQuietly(job.getFile());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete export file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("jobs", jobs.size());
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("queued", workers.getQueue().size());
+        stats.put("directory", directory.toString());
+        stats.put("retentionMinutes", retentionMinutes);
+        return stats;
+    }
+
+    // ========== TYPES ==========
+
+    /**
+     * Trạng thái 1 job xuất; các trường thay đổi chỉ do worker ghi, request đọc qua volatile
+     */
+    @Getter
+    public static class ExportJob {
+
+        public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+        private final String id;
+        private final ReportType type;
+        private final ReportFormat format;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+
+        private volatile Status status = Status.QUEUED;
+        private volatile long rowsWritten;
+        private volatile long estimatedRows;
+        private volatile String error;
+        private volatile Path file;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ExportJob(String id, ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+            this.id = id;
+            this.type = type;
+            this.format = format;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getFileName() {
+            return type.fileName(format, from, to);
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("type", type.getSlug());
+            map.put("format", format.getExtension());
+            map.put("from", type.isRanged() ? from : null);
+            map.put("to", type.isRanged() ? to : null);
+            map.put("status", status);
+            map.put("rowsWritten", rowsWritten);
+            map.put("estimatedRows", estimatedRows);
+            // Ước lượng có thể thấp hơn thực tế (đơn lưu trữ) nên chặn ở 99% cho tới khi xong
+            int percent = status == Status.DONE ? 100
+                    : estimatedRows > 0 ? (int) Math.min(99, rowsWritten * 100 / estimatedRows) : 0;
+            map.put("percent", percent);
+            map.put("error", error);
+            map.put("createdAt", createdAt);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("downloadUrl", status == Status.DONE ? "/admin/exports/jobs/" + id + "/download" : null);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.argaty.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import org.springframework.stereotype.Component;
+
+import com.argaty.archive.ArchivedOrderSnapshot;
+import com.argaty.archive.OrderArchive;
+import com.argaty.readmodel.SalesRollupUpdater;
+import com.argaty.repository.ReportExportRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Xuất báo cáo dạng luồng: đọc con trỏ DB và ghi từng dòng ra OutputStream
+ * - Đơn hàng: đơn đã lưu trữ (cũ hơn) trước, rồi đơn còn trong orders, mỗi phần theo ngày tạo tăng dần
+ * - Doanh thu theo ngày: đọc bảng rollup khi sẵn sàng, nếu không gom trực tiếp từ orders
+ * - Cứ FLUSH_ROWS dòng thì đẩy xuống stream (response nhận theo từng chunk) và báo tiến độ
+ * Khoảng ngày [from, to] tính cả 2 đầu
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportExporter {
+
+    private static final int FLUSH_ROWS = 1000;
+
+    private final ReportExportRepository reportExportRepository;
+    private final OrderArchive orderArchive;
+    private final SalesRollupUpdater salesRollupUpdater;
+
+    /**
+     * @param progress nhận tổng số dòng đã ghi sau mỗi lần flush, có thể null
+     * @return số dòng dữ liệu đã ghi (không tính tiêu đề)
+     */
+    public long export(ReportType type, ReportFormat format, LocalDate from, LocalDate to,
+                       OutputStream out, LongConsumer progress) throws IOException {
+        ReportWriter writer = format.open(out);
+        writer.header(type.getColumns());
+        RowSink sink = new RowSink(writer, progress);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        try {
+            switch (type) {
+                case ORDERS -> {
+                    reportExportRepository.streamArchivedOrders(start, end, row -> sink.accept(archivedOrderRow(row)));
+                    reportExportRepository.streamOrders(start, end, sink);
+                }
+                case ORDER_LINES -> {
+                    reportExportRepository.streamArchivedOrders(start, end, row -> archivedLineRows(row, sink));
+                    reportExportRepository.streamOrderLines(start, end, sink);
+                }
+                case DAILY_REVENUE -> {
+                    if (salesRollupUpdater.isReady()) {
+                        reportExportRepository.streamDailyRevenueFromRollups(from, to.plusDays(1), sink);
+                    } else {
+                        reportExportRepository.streamDailyRevenue(from, to.plusDays(1), sink);
+                    }
+                }
+                case INVENTORY -> reportExportRepository.streamInventory(sink);
+            }
+        } catch (UncheckedIOException e) {
+            // Lỗi ghi (thường do client ngắt kết nối) bị bọc lại để đi qua callback của JDBC
+            throw e.getCause();
+        }
+        writer.finish();
+        sink.report();
+        return sink.rows;
+    }
+
+    /**
+     * Số dòng ước lượng để tính phần trăm tiến độ (đơn lưu trữ chưa giải nén nên chỉ gần đúng)
+     */
+    public long estimateRows(ReportType type, LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        return switch (type) {
+            case ORDERS -> reportExportRepository.countOrders(start, end);
+            case ORDER_LINES -> reportExportRepository.countOrderLines(start, end);
+            case DAILY_REVENUE -> ChronoUnit.DAYS.between(from, to) + 1;
+            case INVENTORY -> reportExportRepository.countInventory();
+        };
+    }
+
+    // ========== ARCHIVED ==========
+
+    private Object[] archivedOrderRow(Object[] row) {
+        ArchivedOrderSnapshot order = orderArchive.decode((byte[]) row[0]);
+        return new Object[]{
+                order.getOrderCode(), order.getCreatedAt(), row[1], row[2], order.getReceiverName(),
+                order.getReceiverPhone(), order.getCity(), name(order.getPaymentMethod()),
+                Boolean.TRUE.equals(order.getIsPaid()), order.getSubtotal(), order.getShippingFee(),
+                order.getDiscountAmount(), order.getTotalAmount(), order.getVoucherCode(), name(order.getStatus()),
+                order.getCompletedAt(), order.getCancelledAt()
+        };
+    }
+
+    private void archivedLineRows(Object[] row, Consumer<Object[]> sink) {
+        ArchivedOrderSnapshot order = orderArchive.decode((byte[]) row[0]);
+        if (order.getItems() == null) {
+            return;
+        }
+        for (ArchivedOrderSnapshot.Item item : order.getItems()) {
+            sink.accept(new Object[]{
+                    order.getOrderCode(), order.getCreatedAt(), name(order.getStatus()), item.getProductId(),
+                    item.getProductName(), item.getVariantName(), item.getSku(), item.getUnitPrice(),
+                    item.getQuantity(), item.getSubtotal()
+            });
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    private static final class RowSink implements Consumer<Object[]> {
+        private final ReportWriter writer;
+        private final LongConsumer progress;
+        private long rows;
+
+        private RowSink(ReportWriter writer, LongConsumer progress) {
+            this.writer = writer;
+            this.progress = progress;
+        }
+
+        @Override
+        public void accept(Object[] row) {
+            try {
+                writer.row(row);
+                if (++rows % FLUSH_ROWS == 0) {
+                    writer.flush();
+                    report();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void report() {
+            if (progress != null) {
+                progress.accept(rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.argaty.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.argaty.exception.BadRequestException;
+
+/**
+ * Định dạng file xuất báo cáo
+ */
+public enum ReportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ReportFormat fromName(String name) {
+        for (ReportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Định dạng không hỗ trợ: " + name);
+    }
+
+    ReportWriter open(OutputStream out) throws IOException {
+        return this == XLSX ? new XlsxReportWriter(out) : new CsvReportWriter(out);
+    }
+}
@@ -0,0 +1,66 @@
+package com.argaty.export;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.argaty.exception.BadRequestException;
+
+/**
+ * Loại báo cáo xuất được, slug dùng trên URL
+ */
+public enum ReportType {
+    ORDERS("orders", true, List.of(
+            "Mã đơn", "Ngày tạo", "Khách hàng", "Email", "Người nhận", "Số điện thoại", "Tỉnh/Thành phố",
+            "Thanh toán", "Đã thanh toán", "Tạm tính", "Phí vận chuyển", "Giảm giá", "Tổng tiền", "Voucher",
+            "Trạng thái", "Ngày hoàn thành", "Ngày hủy")),
+    ORDER_LINES("order-lines", true, List.of(
+            "Mã đơn", "Ngày tạo", "Trạng thái", "Mã sản phẩm", "Tên sản phẩm", "Biến thể", "SKU",
+            "Đơn giá", "Số lượng", "Thành tiền")),
+    DAILY_REVENUE("daily-revenue", true, List.of(
+            "Ngày", "Số đơn hoàn thành", "Doanh thu")),
+    INVENTORY("inventory", false, List.of(
+            "Mã sản phẩm", "Tên sản phẩm", "SKU", "Danh mục", "Thương hiệu", "Mã biến thể", "Biến thể",
+            "SKU biến thể", "Giá", "Giá khuyến mãi", "Tồn kho", "Đã bán", "Ngưỡng sắp hết", "Đang bán"));
+
+    private final String slug;
+    private final boolean ranged;
+    private final List<String> columns;
+
+    ReportType(String slug, boolean ranged, List<String> columns) {
+        this.slug = slug;
+        this.ranged = ranged;
+        this.columns = columns;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    /**
+     * false = ảnh chụp tại thời điểm xuất, bỏ qua khoảng ngày
+     */
+    public boolean isRanged() {
+        return ranged;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Tên file tải về: slug + khoảng ngày (báo cáo không theo khoảng: ngày xuất)
+     */
+    public String fileName(ReportFormat format, LocalDate from, LocalDate to) {
+        String range = ranged ? from + "_" + to : LocalDate.now().toString();
+        return slug + "-" + range + "." + format.getExtension();
+    }
+
+    public static ReportType fromSlug(String slug) {
+        for (ReportType type : values()) {
+            if (type.slug.equalsIgnoreCase(slug)) {
+                return type;
+            }
+        }
+        throw new BadRequestException("Loại báo cáo không hợp lệ: " + slug);
+    }
+}
@@ -0,0 +1,44 @@
+package com.argaty.export;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Ghi báo cáo theo từng dòng ra OutputStream, không giữ dữ liệu trong bộ nhớ
+ * Giá trị ô: String, Number, Boolean, LocalDate, LocalDateTime hoặc null
+ */
+public interface ReportWriter {
+
+    DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    void header(List<String> columns) throws IOException;
+
+    void row(Object[] values) throws IOException;
+
+    /**
+     * Đẩy phần đã ghi xuống stream bên dưới (mỗi lần đẩy thành 1 chunk của response)
+     */
+    void flush() throws IOException;
+
+    /**
+     * Ghi phần kết thúc file; không đóng stream bên dưới
+     */
+    void finish() throws IOException;
+
+    static String text(Object value) {
+        if (value instanceof LocalDateTime time) {
+            return time.format(DATE_TIME);
+        }
+        if (value instanceof LocalDate date) {
+            return date.toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+}
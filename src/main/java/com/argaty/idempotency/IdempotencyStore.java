@@ -0,0 +1,231 @@
+package com.argaty.idempotency;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.entity.IdempotencyRecord;
+import com.argaty.exception.BadRequestException;
+import com.argaty.repository.IdempotencyRecordRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Chống xử lý lặp cho request có Idempotency-Key (double click, mobile retry)
+ * - Lần đầu: chạy work, giữ kết quả trong bộ nhớ ttl phút và ghi xuống idempotency_records
+ * - Trùng key khi lần đầu còn đang chạy: chờ kết quả của lần đầu (tối đa wait-ms), không chạy lại
+ * - Trùng key sau khi xong: trả lại kết quả cũ; sau khởi động lại thì đọc từ DB
+ * Lỗi không được lưu: lần đầu lỗi thì các request đang chờ nhận cùng lỗi, request sau đó được chạy lại
+ * Chờ in-flight chỉ trong 1 instance; giữa các instance thì dựa vào bản ghi DB sau khi lần đầu xong
+ * find() tra kết quả trước khi làm việc đắt tiền, execute() vẫn là chốt chặn cuối
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate tx;
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final long waitMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder restored = new LongAdder();
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            JsonMapper jsonMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.idempotency.enabled:true}") boolean enabled,
+                            @Value("${app.idempotency.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${app.idempotency.wait-ms:10000}") long waitMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.jsonMapper = jsonMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.ttlMs = ttlMinutes * 60_000L;
+        this.waitMs = waitMs;
+    }
+
+    /**
+     * Chạy work đúng 1 lần cho (scope, owner, clientKey)
+     * clientKey rỗng thì chạy thẳng như không có lớp idempotency
+     *
+     * @param type kiểu kết quả, dùng để đọc lại bản ghi JSON trong DB
+     */
+    public <T> T execute(String scope, String owner, String clientKey, Class<T> type, Supplier<T> work) {
+        if (!enabled || clientKey == null || clientKey.isBlank()) {
+            return work.get();
+        }
+        if (clientKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key không hợp lệ");
+        }
+        String key = key(scope, owner, clientKey);
+        long now = System.currentTimeMillis();
+
+        Entry[] created = new Entry[1];
+        Entry entry = entries.compute(key, (k, old) -> {
+            if (old != null && old.expiresAt > now) {
+                return old;
+            }
+            created[0] = new Entry(now + ttlMs);
+            return created[0];
+        });
+        if (created[0] == null) {
+            return await(entry, type);
+        }
+
+        try {
+            Optional<T> stored = load(key, type);
+            if (stored.isPresent()) {
+                restored.increment();
+                entry.result.complete(stored.get());
+                return stored.get();
+            }
+            T value = work.get();
+            executed.increment();
+            entry.result.complete(value);
+            persist(key, value, entry.expiresAt);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Kết quả của key nếu lần đầu đã xong hoặc đang chạy (chờ như execute), không chạy work
+     * Để bên gọi bỏ qua các bước tốn tài nguyên (xin lượt checkout...) cho request lặp
+     */
+    public <T> Optional<T> find(String scope, String owner, String clientKey, Class<T> type) {
+        if (!enabled || clientKey == null || clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+            return Optional.empty();
+        }
+        String key = key(scope, owner, clientKey);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            return Optional.of(await(entry, type));
+        }
+        return load(key, type);
+    }
+
+    private static String key(String scope, String owner, String clientKey) {
+        return scope + ":" + owner + ":" + clientKey.trim();
+    }
+
+    private <T> T await(Entry entry, Class<T> type) {
+        if (entry.result.isDone()) {
+            replayed.increment();
+        } else {
+            waited.increment();
+        }
+        try {
+            return type.cast(entry.result.get(waitMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new BadRequestException("Yêu cầu trước đó đang được xử lý, vui lòng thử lại sau");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Yêu cầu trước đó đang được xử lý, vui lòng thử lại sau");
+        }
+    }
+
+    // ========== PERSISTENCE ==========
+
+    private <T> Optional<T> load(String key, Class<T> type) {
+        try {
+            return idempotencyRecordRepository.findByIdempotencyKeyAndExpiresAtAfter(key, LocalDateTime.now())
+                    .map(record -> jsonMapper.readValue(record.getResponseBody(), type));
+        } catch (Exception e) {
+            log.warn("Failed to load idempotency record {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void persist(String key, Object value, long expiresAt) {
+        try {
+            IdempotencyRecord record = IdempotencyRecord.builder()
+                    .idempotencyKey(key)
+                    .responseBody(jsonMapper.writeValueAsString(value))
+                    .createdAt(LocalDateTime.now())
+                    .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()))
+                    .build();
+            tx.executeWithoutResult(status -> idempotencyRecordRepository.save(record));
+        } catch (Exception e) {
+            // Vẫn còn bản trong bộ nhớ, chỉ mất khả năng phát lại sau khởi động lại
+            log.warn("Failed to persist idempotency record {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now && e.getValue().result.isDone());
+        try {
+            Integer deleted = tx.execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                log.debug("Deleted {} expired idempotency records", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to clean up idempotency records: {}", e.getMessage());
+        }
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("waitedForInFlight", waited.sum());
+        stats.put("restoredFromDb", restored.sum());
+        return stats;
+    }
+
+    // ========== INTERNAL ==========
+
+    private static final class Entry {
+        private final long expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
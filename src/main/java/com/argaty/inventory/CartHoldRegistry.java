@@ -0,0 +1,341 @@
+package com.argaty.inventory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.entity.CartHold;
+import com.argaty.exception.BadRequestException;
+import com.argaty.inventory.TimingWheel.Timeout;
+import com.argaty.repository.CartHoldBatchRepository;
+import com.argaty.repository.CartHoldRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giữ hàng mềm cho giỏ hàng (app.inventory.cart-hold.enabled)
+ * - Thêm / sửa số lượng trong giỏ giữ đúng số lượng đó trong ttl phút, hết hạn thì tự nhả
+ * - Có thể bán = tồn kho - tổng đang giữ, tính từ bộ đếm in-memory theo SKU nên không cần query thêm
+ * - Hết hạn do TimingWheel điều khiển (1 job tick), không quét DB theo từng item
+ * - Định kỳ ghi phần thay đổi của node này vào cart_holds (upsert / xóa theo dòng giỏ), nạp lại lúc khởi động
+ * Giữ hàng là mềm: checkout vẫn trừ tồn kho thật như cũ, hold chỉ chặn người khác thêm vượt phần còn lại
+ */
+@Slf4j
+@Component
+public class CartHoldRegistry {
+
+    private final CartHoldRepository cartHoldRepository;
+    private final CartHoldBatchRepository cartHoldBatchRepository;
+    private final TransactionTemplate tx;
+
+    private final boolean enabled;
+    private final long ttlMs;
+
+    private final TimingWheel<HoldKey> wheel;
+    private final Map<HoldKey, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<SkuKey, AtomicInteger> heldBySku = new ConcurrentHashMap<>();
+    // Dòng giỏ đã đổi từ lần ghi trước -> expires_at của hold lúc đổi (dùng làm điều kiện khi xóa)
+    private final Map<HoldKey, Long> changed = new ConcurrentHashMap<>();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public CartHoldRegistry(CartHoldRepository cartHoldRepository,
+                            CartHoldBatchRepository cartHoldBatchRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.inventory.cart-hold.enabled:false}") boolean enabled,
+                            @Value("${app.inventory.cart-hold.ttl-minutes:15}") long ttlMinutes,
+                            @Value("${app.inventory.cart-hold.tick-ms:1000}") long tickMs) {
+        this.cartHoldRepository = cartHoldRepository;
+        this.cartHoldBatchRepository = cartHoldBatchRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.ttlMs = ttlMinutes * 60_000L;
+        // 64 ô / tầng: tầng 1 ~1 phút, tầng 2 ~68 phút, tầng 3 ~3 ngày (với tick 1s)
+        this.wheel = new TimingWheel<>(tickMs, 64, System.currentTimeMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ========== AVAILABILITY ==========
+
+    public int heldQuantity(Long productId, Long variantId) {
+        AtomicInteger held = heldBySku.get(new SkuKey(productId, variantId));
+        return held != null ? Math.max(0, held.get()) : 0;
+    }
+
+    /**
+     * Số lượng còn có thể bán = tồn kho - đang giữ trong giỏ
+     */
+    public int availableToSell(Long productId, Long variantId, int onHand) {
+        if (!enabled) {
+            return onHand;
+        }
+        return Math.max(0, onHand - heldQuantity(productId, variantId));
+    }
+
+    // ========== HOLD / RELEASE ==========
+
+    /**
+     * Giữ (thay thế) số lượng cho 1 dòng giỏ và gia hạn ttl
+     * Số lượng tăng thêm phải nằm trong phần chưa bị giỏ khác giữ
+     * Giữ ngay để chặn giỏ khác trong lúc transaction chạy; transaction rollback thì trả lại hold cũ
+     */
+    public void hold(Long cartId, Long productId, Long variantId, int quantity, int onHand) {
+        if (!enabled) {
+            return;
+        }
+        HoldKey key = new HoldKey(cartId, new SkuKey(productId, variantId));
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        Hold[] replaced = new Hold[1];
+
+        Hold installed = holds.compute(key, (k, old) -> {
+            int previous = old != null ? old.quantity : 0;
+            AtomicInteger held = heldBySku.computeIfAbsent(k.getSku(), s -> new AtomicInteger());
+            int total = held.addAndGet(quantity - previous);
+            if (quantity > previous && total > onHand) {
+                held.addAndGet(previous - quantity);
+                rejected.increment();
+                int available = Math.max(0, onHand - (total - quantity));
+                throw new BadRequestException("Sản phẩm đang được giữ trong giỏ hàng khác, chỉ còn " + available + " sản phẩm");
+            }
+            if (old != null) {
+                old.timeout.cancel();
+            }
+            replaced[0] = old;
+            return new Hold(quantity, wheel.schedule(k, expiresAt));
+        });
+        changed.put(key, expiresAt);
+        afterRollback(() -> revert(key, installed, replaced[0]));
+    }
+
+    /**
+     * Bỏ hold vừa đặt bởi transaction đã rollback, khôi phục hold trước đó (nếu có)
+     * Hold đã bị thay / nhả / hết hạn sau đó thì giữ nguyên
+     */
+    private void revert(HoldKey key, Hold installed, Hold previous) {
+        long[] changedExpiresAt = {-1};
+        holds.computeIfPresent(key, (k, hold) -> {
+            if (hold != installed) {
+                return hold;
+            }
+            hold.timeout.cancel();
+            int restored = previous != null ? previous.quantity : 0;
+            heldBySku.get(k.getSku()).addAndGet(restored - hold.quantity);
+            if (previous == null) {
+                changedExpiresAt[0] = hold.timeout.getExpiresAt();
+                return null;
+            }
+            // Hold cũ đã quá hạn thì tick kế tiếp sẽ nhả
+            long expiresAt = previous.timeout.getExpiresAt();
+            changedExpiresAt[0] = expiresAt;
+            return new Hold(previous.quantity, wheel.schedule(k, expiresAt));
+        });
+        if (changedExpiresAt[0] >= 0) {
+            changed.put(key, changedExpiresAt[0]);
+        }
+    }
+
+    /**
+     * Nhả hold của 1 dòng giỏ, chờ transaction hiện tại commit (nếu có)
+     */
+    public void release(Long cartId, Long productId, Long variantId) {
+        if (enabled) {
+            afterCommit(() -> remove(new HoldKey(cartId, new SkuKey(productId, variantId)), null));
+        }
+    }
+
+    public void releaseCart(Long cartId) {
+        if (enabled) {
+            afterCommit(() -> holds.keySet().stream()
+                    .filter(key -> key.getCartId().equals(cartId))
+                    .toList()
+                    .forEach(key -> remove(key, null)));
+        }
+    }
+
+    /**
+     * @param expected chỉ xóa nếu hold hiện tại đúng là timeout này (null: xóa bất kể)
+     */
+    private boolean remove(HoldKey key, Timeout<HoldKey> expected) {
+        long[] removedExpiresAt = {-1};
+        holds.computeIfPresent(key, (k, hold) -> {
+            if (expected != null && hold.timeout != expected) {
+                return hold;
+            }
+            hold.timeout.cancel();
+            // Không xóa bộ đếm về 0 khỏi map: tránh race với hold mới của giỏ khác trên cùng SKU
+            heldBySku.get(k.getSku()).addAndGet(-hold.quantity);
+            removedExpiresAt[0] = hold.timeout.getExpiresAt();
+            return null;
+        });
+        if (removedExpiresAt[0] < 0) {
+            return false;
+        }
+        changed.put(key, removedExpiresAt[0]);
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    // ========== EXPIRY ==========
+
+    @Scheduled(fixedDelayString = "${app.inventory.cart-hold.tick-ms:1000}")
+    public void expire() {
+        if (!enabled) {
+            return;
+        }
+        for (Timeout<HoldKey> timeout : wheel.advance(System.currentTimeMillis())) {
+            if (remove(timeout.getValue(), timeout)) {
+                expired.increment();
+            }
+        }
+    }
+
+    // ========== PERSISTENCE ==========
+
+    /**
+     * Chỉ ghi các dòng giỏ node này đã đổi: còn hold thì upsert, đã nhả / hết hạn thì xóa
+     * Không xóa cả bảng nên hold của node khác vẫn còn nguyên
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.cart-hold.persist-interval-ms:30000}")
+    public void persist() {
+        if (!enabled || changed.isEmpty()) {
+            return;
+        }
+        Map<HoldKey, Long> batch = new HashMap<>(changed);
+        List<CartHold> upserts = new ArrayList<>();
+        List<CartHold> deletes = new ArrayList<>();
+        batch.forEach((key, expiresAt) -> {
+            // Bỏ khỏi changed trước khi đọc hold: thay đổi xảy ra sau đó sẽ được ghi ở lần sau
+            changed.remove(key, expiresAt);
+            Hold hold = holds.get(key);
+            if (hold != null) {
+                upserts.add(toRow(key, hold.quantity, hold.timeout.getExpiresAt()));
+            } else {
+                deletes.add(toRow(key, 0, expiresAt));
+            }
+        });
+        try {
+            tx.executeWithoutResult(status -> {
+                cartHoldBatchRepository.delete(deletes);
+                cartHoldBatchRepository.upsert(upserts);
+            });
+        } catch (Exception e) {
+            batch.forEach(changed::putIfAbsent);
+            log.error("Failed to persist cart holds: {}", e.getMessage());
+        }
+    }
+
+    private static CartHold toRow(HoldKey key, int quantity, long expiresAt) {
+        return CartHold.builder()
+                .cartId(key.getCartId())
+                .productId(key.getSku().getProductId())
+                .variantId(key.getSku().getVariantId())
+                .quantity(quantity)
+                .expiresAt(toLocalDateTime(expiresAt))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Dòng hết hạn của node đã dừng không còn ai xóa
+        cartHoldBatchRepository.deleteExpired(toLocalDateTime(now));
+        int restored = 0;
+        for (CartHold row : cartHoldRepository.findAll()) {
+            long expiresAt = row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (expiresAt <= now) {
+                continue;
+            }
+            HoldKey key = new HoldKey(row.getCartId(), new SkuKey(row.getProductId(), row.getVariantId()));
+            heldBySku.computeIfAbsent(key.getSku(), s -> new AtomicInteger()).addAndGet(row.getQuantity());
+            holds.put(key, new Hold(row.getQuantity(), wheel.schedule(key, expiresAt)));
+            restored++;
+        }
+        log.info("Restored {} cart holds", restored);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("holds", holds.size());
+        stats.put("trackedSkus", heldBySku.size());
+        stats.put("rejected", rejected.sum());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    // ========== INTERNAL ==========
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class HoldKey {
+        private final Long cartId;
+        private final SkuKey sku;
+    }
+
+    @AllArgsConstructor
+    private static final class Hold {
+        private final int quantity;
+        private final Timeout<HoldKey> timeout;
+    }
+}
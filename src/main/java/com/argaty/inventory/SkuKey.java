@@ -0,0 +1,24 @@
+package com.argaty.inventory;
+
+import java.util.Comparator;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Khóa tồn kho: sản phẩm + biến thể (variantId null nghĩa là tồn kho cấp sản phẩm)
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class SkuKey {
+
+    public static final Comparator<SkuKey> ORDER = Comparator.comparing(SkuKey::getProductId)
+            .thenComparing(SkuKey::getVariantId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Long productId;
+    private final Long variantId;
+}
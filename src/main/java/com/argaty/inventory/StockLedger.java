@@ -0,0 +1,422 @@
+package com.argaty.inventory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.entity.OutboxEvent;
+import com.argaty.entity.StockLedgerEntry;
+import com.argaty.enums.StockState;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.event.ProductStockChangedEvent;
+import com.argaty.exception.BadRequestException;
+import com.argaty.repository.ClusterNodeRepository;
+import com.argaty.repository.OutboxEventRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.ProductVariantRepository;
+import com.argaty.repository.StockLedgerEntryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sổ giữ hàng in-memory cho chế độ tồn kho ledger (app.inventory.ledger.enabled)
+ * - Mỗi sản phẩm / biến thể có 1 bộ đếm, giữ hàng bằng CAS nên checkout không xếp hàng chờ khóa dòng products
+ * - Đơn hàng chỉ insert StockLedgerEntry trong transaction của mình, rollback thì trả lại bộ đếm
+ * - Job nền gộp các entry đã commit theo SKU, ghi về products / product_variants rồi xóa entry trong cùng transaction
+ * - Entry là nhật ký bền vững: crash trước khi ghi về thì lần flush sau (chạy cả lúc khởi động) vẫn áp dụng đủ
+ * - Bộ đếm được seed = quantity trong DB + entry chưa ghi về - hàng đang giữ dở, luôn ước lượng thấp (không bán vượt),
+ *   định kỳ seed lại để bù phần ước lượng thấp
+ * Chỉ dùng được khi chạy 1 instance: bộ đếm nằm trong từng JVM nên mỗi instance đều cho giữ tới toàn bộ tồn kho
+ * - Thấy từ 2 lease còn hạn trong cluster_nodes thì tự tắt (về cách trừ kho trực tiếp trong DB), 1 instance thì bật lại;
+ *   app.cluster.node-id cố định không ghi lease nên không phát hiện được, phải tự đảm bảo chỉ chạy 1 instance
+ * - Ghi về có chặn tồn kho âm: delta bị chặn thì tồn kho về 0, ghi log và gửi cảnh báo hết hàng cho admin
+ *   (entry không lưu mã đơn nên không tự hủy được đơn bán vượt)
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    private final StockLedgerEntryRepository entryRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ClusterNodeRepository clusterNodeRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate seedTx;
+
+    private final boolean enabled;
+    private final int flushBatchSize;
+    private final long leaseSeconds;
+
+    // Tắt cho tới khi kiểm tra cluster xác nhận chỉ có 1 instance
+    private volatile boolean soleInstance = false;
+
+    private final Map<SkuKey, Slot> slots = new ConcurrentHashMap<>();
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rolledBack = new LongAdder();
+    private final LongAdder seeds = new LongAdder();
+    private final LongAdder flushedEntries = new LongAdder();
+    private final LongAdder flushedUpdates = new LongAdder();
+    private final LongAdder oversoldUnits = new LongAdder();
+
+    public StockLedger(StockLedgerEntryRepository entryRepository,
+                       ProductRepository productRepository,
+                       ProductVariantRepository productVariantRepository,
+                       ClusterNodeRepository clusterNodeRepository,
+                       OutboxEventRepository outboxEventRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.inventory.ledger.enabled:false}") boolean enabled,
+                       @Value("${app.inventory.ledger.flush-batch-size:500}") int flushBatchSize,
+                       @Value("${app.cluster.node-lease-seconds:60}") long leaseSeconds) {
+        this.entryRepository = entryRepository;
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.clusterNodeRepository = clusterNodeRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.seedTx = new TransactionTemplate(transactionManager);
+        this.seedTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.seedTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Bật cấu hình và đang là instance duy nhất; false thì bên gọi trừ kho trực tiếp trong DB
+     */
+    public boolean isEnabled() {
+        return enabled && soleInstance;
+    }
+
+    // ========== CLUSTER CHECK ==========
+
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeat-ms:15000}")
+    public void checkCluster() {
+        if (!enabled) {
+            return;
+        }
+        long live;
+        try {
+            live = clusterNodeRepository.countLive(LocalDateTime.now().minusSeconds(leaseSeconds));
+        } catch (Exception e) {
+            log.error("Failed to count live instances, keeping stock ledger {}: {}",
+                    soleInstance ? "on" : "off", e.getMessage());
+            return;
+        }
+        boolean sole = live <= 1;
+        if (sole && !soleInstance) {
+            // Bộ đếm cũ không theo dõi phần trừ kho trực tiếp lúc ledger tắt
+            markAllStale();
+            log.info("Stock ledger enabled: this is the only live instance");
+        } else if (!sole && soleInstance) {
+            log.error("Stock ledger disabled: {} live instances share the database, in-memory counters would oversell", live);
+        }
+        soleInstance = sole;
+    }
+
+    // ========== RESERVATION ==========
+
+    /**
+     * Giữ hàng cho 1 dòng đơn, gọi trong transaction đặt hàng
+     * Không đủ hàng thì ném BadRequestException ngay, không chờ khóa
+     */
+    public void reserve(Long productId, Long variantId, int quantity) {
+        SkuKey key = new SkuKey(productId, variantId);
+        Slot slot;
+        while (true) {
+            slot = slotFor(key);
+            if (!slot.tryTake(quantity)) {
+                rejected.increment();
+                throw new BadRequestException("Không đủ số lượng tồn kho");
+            }
+            slot.inFlight.addAndGet(quantity);
+            if (!slot.stale) {
+                break;
+            }
+            // Slot vừa bị thay trong lúc giữ hàng: trả lại và giữ trên slot mới
+            slot.inFlight.addAndGet(-quantity);
+            slot.give(quantity);
+        }
+
+        Slot taken = slot;
+        try {
+            entryRepository.save(StockLedgerEntry.sale(productId, variantId, quantity));
+        } catch (RuntimeException e) {
+            taken.inFlight.addAndGet(-quantity);
+            taken.give(quantity);
+            throw e;
+        }
+        reserved.increment();
+
+        onCompletion(committed -> {
+            taken.inFlight.addAndGet(-quantity);
+            if (!committed) {
+                taken.give(quantity);
+                rolledBack.increment();
+            }
+        });
+    }
+
+    /**
+     * Hoàn kho (hủy đơn, trả hàng): ghi entry, cộng lại bộ đếm sau khi commit
+     */
+    public void restock(Long productId, Long variantId, int quantity) {
+        Slot slot = slots.get(new SkuKey(productId, variantId));
+        entryRepository.save(StockLedgerEntry.restock(productId, variantId, quantity));
+        if (slot != null) {
+            onCompletion(committed -> {
+                if (committed) {
+                    slot.give(quantity);
+                }
+            });
+        }
+    }
+
+    private static void onCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    // ========== SEEDING ==========
+
+    private Slot slotFor(SkuKey key) {
+        Slot slot = slots.get(key);
+        if (slot != null && !slot.stale) {
+            return slot;
+        }
+        return slots.compute(key, (k, old) -> old != null && !old.stale ? old : seed(k, old));
+    }
+
+    /**
+     * Đọc entry chưa ghi về trước rồi mới đọc quantity: flush xen giữa chỉ làm trừ 2 lần (ước lượng thấp)
+     * Entry của transaction chưa commit bị bỏ qua (READPAST) và được trừ qua inFlight của slot cũ
+     */
+    private Slot seed(SkuKey key, Slot old) {
+        int inFlight = old != null ? old.inFlight.get() : 0;
+        Integer available = seedTx.execute(status -> {
+            long pending;
+            Integer quantity;
+            if (key.getVariantId() == null) {
+                pending = entryRepository.sumPendingForProduct(key.getProductId()).longValue();
+                quantity = productRepository.findQuantityById(key.getProductId());
+            } else {
+                pending = entryRepository.sumPendingForVariant(key.getVariantId()).longValue();
+                quantity = productVariantRepository.findQuantityById(key.getVariantId());
+            }
+            if (quantity == null) {
+                return 0;
+            }
+            return (int) Math.max(0, quantity + pending - inFlight);
+        });
+        seeds.increment();
+        return new Slot(available != null ? available : 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Admin sửa tồn kho trực tiếp: seed lại ở lần giữ hàng kế tiếp
+        slots.forEach((key, slot) -> {
+            if (key.getProductId().equals(event.getProductId())) {
+                slot.stale = true;
+            }
+        });
+    }
+
+    /**
+     * Seed lại toàn bộ để bù phần ước lượng thấp tích lũy
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (isEnabled()) {
+            markAllStale();
+        }
+    }
+
+    private void markAllStale() {
+        slots.values().forEach(slot -> slot.stale = true);
+    }
+
+    // ========== WRITE-BACK ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Áp dụng entry còn sót từ lần chạy trước (crash / tắt ngang), kể cả khi đã tắt chế độ ledger
+        flush();
+        checkCluster();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:500}")
+    public void flush() {
+        int applied;
+        do {
+            applied = flushBatch();
+        } while (applied >= flushBatchSize);
+    }
+
+    private int flushBatch() {
+        Map<SkuKey, int[]> deltas = new TreeMap<>(SkuKey.ORDER);
+        Map<SkuKey, Integer> oversold = new TreeMap<>(SkuKey.ORDER);
+        Integer applied;
+        try {
+            applied = tx.execute(status -> {
+                List<Object[]> rows = entryRepository.findFlushBatch(flushBatchSize);
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                List<Long> ids = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    ids.add(((Number) row[0]).longValue());
+                    SkuKey key = new SkuKey(((Number) row[1]).longValue(),
+                            row[2] != null ? ((Number) row[2]).longValue() : null);
+                    int[] delta = deltas.computeIfAbsent(key, k -> new int[2]);
+                    delta[0] += ((Number) row[3]).intValue();
+                    delta[1] += ((Number) row[4]).intValue();
+                }
+                // Cập nhật theo thứ tự key cố định để các lần flush không deadlock với nhau
+                deltas.forEach((key, delta) -> {
+                    int updated = key.getVariantId() == null
+                            ? productRepository.applyStockDelta(key.getProductId(), delta[0], delta[1])
+                            : productVariantRepository.applyQuantityDelta(key.getVariantId(), delta[0]);
+                    if (updated == 0) {
+                        int shortage = clearOversold(key, delta);
+                        if (shortage > 0) {
+                            oversold.put(key, shortage);
+                        }
+                    }
+                });
+                if (!oversold.isEmpty()) {
+                    List<OutboxEvent> alerts = new ArrayList<>(oversold.size());
+                    oversold.keySet().forEach(key ->
+                            alerts.add(OutboxEvent.stockAlert(key.getProductId(), key.getVariantId(), StockState.OUT_OF_STOCK)));
+                    outboxEventRepository.saveAll(alerts);
+                }
+                entryRepository.deleteAllByIdInBatch(ids);
+                return rows.size();
+            });
+        } catch (Exception e) {
+            // Slot seed trong lúc flush bị rollback có thể ước lượng cao, seed lại cho chắc
+            log.error("Failed to flush stock ledger: {}", e.getMessage());
+            markAllStale();
+            return 0;
+        }
+        if (applied == null || applied == 0) {
+            return 0;
+        }
+
+        flushedEntries.add(applied);
+        flushedUpdates.add(deltas.size());
+        oversold.forEach((key, shortage) -> {
+            oversoldUnits.add(shortage);
+            Slot slot = slots.get(key);
+            if (slot != null) {
+                slot.stale = true;
+            }
+            log.error("Oversold {} units of product {} (variant {}), stock clamped to 0",
+                    shortage, key.getProductId(), key.getVariantId());
+        });
+        deltas.keySet().forEach(key ->
+                eventPublisher.publishEvent(new ProductStockChangedEvent(key.getProductId(), key.getVariantId())));
+        log.debug("Flushed {} stock ledger entries into {} rows", applied, deltas.size());
+        return applied;
+    }
+
+    /**
+     * Delta bị chặn vì tồn kho sẽ âm: đưa tồn kho về 0 (vẫn cộng số đã bán), trả về số lượng bán vượt
+     * SKU đã bị xóa thì bỏ qua
+     */
+    private int clearOversold(SkuKey key, int[] delta) {
+        Integer quantity;
+        if (key.getVariantId() == null) {
+            quantity = productRepository.findQuantityById(key.getProductId());
+            if (quantity != null) {
+                productRepository.clearOversoldStock(key.getProductId(), delta[1]);
+            }
+        } else {
+            quantity = productVariantRepository.findQuantityById(key.getVariantId());
+            if (quantity != null) {
+                productVariantRepository.clearOversoldQuantity(key.getVariantId());
+            }
+        }
+        return quantity != null ? -(quantity + delta[0]) : 0;
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("soleInstance", soleInstance);
+        stats.put("slots", slots.size());
+        stats.put("reserved", reserved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("rolledBack", rolledBack.sum());
+        stats.put("seeds", seeds.sum());
+        stats.put("flushedEntries", flushedEntries.sum());
+        stats.put("flushedUpdates", flushedUpdates.sum());
+        stats.put("oversoldUnits", oversoldUnits.sum());
+        return stats;
+    }
+
+    // ========== INTERNAL ==========
+
+    private static final class Slot {
+        private final AtomicInteger available;
+        // Số lượng đã giữ nhưng transaction chưa kết thúc
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean stale;
+
+        Slot(int available) {
+            this.available = new AtomicInteger(available);
+        }
+
+        boolean tryTake(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        void give(int quantity) {
+            available.addAndGet(quantity);
+        }
+    }
+}
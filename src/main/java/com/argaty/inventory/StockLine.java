@@ -0,0 +1,16 @@
+package com.argaty.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 1 dòng trừ / hoàn tồn kho: sản phẩm, biến thể (null nếu tồn kho cấp sản phẩm) và số lượng
+ */
+@Getter
+@AllArgsConstructor
+public class StockLine {
+
+    private final Long productId;
+    private final Long variantId;
+    private final int quantity;
+}
@@ -0,0 +1,300 @@
+package com.argaty.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.entity.OutboxEvent;
+import com.argaty.enums.StockState;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.event.ProductStockChangedEvent;
+import com.argaty.repository.OutboxEventRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.ProductVariantRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Theo dõi tập sản phẩm / biến thể sắp hết và hết hàng, thay cho các query quét toàn bảng
+ * - Build 1 lần lúc khởi động (1 query projection mỗi bảng), rebuild định kỳ để tự sửa lệch
+ * - ProductStockChangedEvent / ProductChangedEvent chỉ đánh dấu sản phẩm dirty,
+ *   job nền refresh các sản phẩm dirty theo batch (2 query / batch)
+ * - Khi 1 SKU đang hoạt động chuyển sang sắp hết / hết hàng thì ghi cảnh báo vào outbox để gửi cho admin
+ * - Đếm O(1) qua kích thước tập, danh sách lấy theo id thay vì quét bảng
+ * - Sản phẩm thay đổi trong lúc rebuild được đánh dấu dirty lại sau khi rebuild (snapshot có thể đã cũ)
+ */
+@Slf4j
+@Component
+public class StockStateTracker {
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate tx;
+
+    private final Map<Long, StockState> products = new HashMap<>();
+    private final Map<Long, StockState> variants = new HashMap<>();
+    private final Map<Long, Set<Long>> variantsByProduct = new HashMap<>();
+
+    // Đọc không khóa từ request
+    private final Set<Long> lowProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> outProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> activeLowProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> activeOutProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> lowVariants = ConcurrentHashMap.newKeySet();
+    private final Set<Long> outVariants = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    // Id thay đổi từ lúc rebuild bắt đầu đọc DB tới khi áp xong snapshot
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    public StockStateTracker(ProductRepository productRepository,
+                             ProductVariantRepository productVariantRepository,
+                             OutboxEventRepository outboxEventRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        // Listener chạy sau commit nên cần transaction mới
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== READ ==========
+
+    public long countOutOfStockProducts() {
+        return outProducts.size();
+    }
+
+    public long countLowStockProducts() {
+        return lowProducts.size();
+    }
+
+    /**
+     * Id sản phẩm đang hoạt động sắp hết hàng (giống findLowStockProducts)
+     */
+    public Set<Long> getLowStockProductIds() {
+        return Set.copyOf(activeLowProducts);
+    }
+
+    public Set<Long> getOutOfStockProductIds() {
+        return Set.copyOf(activeOutProducts);
+    }
+
+    // ========== BUILD ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.stock-state.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.inventory.stock-state.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            List<Object[]> productRows = tx.execute(status -> productRepository.findStockStates());
+            List<Object[]> variantRows = tx.execute(status -> productVariantRepository.findStockStates());
+
+            synchronized (this) {
+                products.clear();
+                variants.clear();
+                variantsByProduct.clear();
+                lowProducts.clear();
+                outProducts.clear();
+                activeLowProducts.clear();
+                activeOutProducts.clear();
+                lowVariants.clear();
+                outVariants.clear();
+                productRows.forEach(row -> applyProduct(row, null));
+                variantRows.forEach(row -> applyVariant(row, null));
+            }
+        } finally {
+            rebuilding = false;
+        }
+
+        // refreshDirty chạy xen giữa có thể đã áp trạng thái mới rồi bị snapshot cũ ghi đè: đọc lại các id đó
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        dirtyProducts.addAll(changed);
+        ready = true;
+        log.info("Stock state tracker built in {} ms: {} low, {} out of stock products ({} re-marked dirty)",
+                System.currentTimeMillis() - start, lowProducts.size(), outProducts.size(), changed.size());
+    }
+
+    // ========== INCREMENTAL ==========
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        markDirty(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        markDirty(event.getProductId());
+    }
+
+    private void markDirty(Long productId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(productId);
+        }
+        dirtyProducts.add(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.stock-state.refresh-ms:1000}")
+    public void refreshDirty() {
+        if (!ready || dirtyProducts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(dirtyProducts);
+        dirtyProducts.removeAll(ids);
+
+        List<OutboxEvent> alerts = new ArrayList<>();
+        try {
+            List<Object[]> productRows = tx.execute(status -> productRepository.findStockStatesByIds(ids));
+            List<Object[]> variantRows = tx.execute(status -> productVariantRepository.findStockStatesByProductIds(ids));
+
+            synchronized (this) {
+                Set<Long> found = new HashSet<>();
+                for (Object[] row : productRows) {
+                    found.add((Long) row[0]);
+                    applyProduct(row, alerts);
+                }
+                Map<Long, Set<Long>> variantIdsByProduct = variantRows.stream()
+                        .collect(Collectors.groupingBy(row -> (Long) row[1],
+                                Collectors.mapping(row -> (Long) row[0], Collectors.toSet())));
+                for (Long productId : ids) {
+                    if (!found.contains(productId)) {
+                        removeProduct(productId);
+                    }
+                    // Biến thể đã bị xóa khỏi sản phẩm
+                    Set<Long> current = variantIdsByProduct.getOrDefault(productId, Set.of());
+                    for (Long variantId : List.copyOf(variantsByProduct.getOrDefault(productId, Set.of()))) {
+                        if (!current.contains(variantId)) {
+                            removeVariant(variantId);
+                        }
+                    }
+                }
+                variantRows.forEach(row -> applyVariant(row, alerts));
+            }
+        } catch (Exception e) {
+            dirtyProducts.addAll(ids);
+            log.error("Failed to refresh stock state for {} products: {}", ids.size(), e.getMessage());
+            return;
+        }
+
+        if (!alerts.isEmpty()) {
+            try {
+                tx.executeWithoutResult(status -> outboxEventRepository.saveAll(alerts));
+            } catch (Exception e) {
+                log.error("Failed to enqueue {} stock alerts: {}", alerts.size(), e.getMessage());
+            }
+        }
+    }
+
+    // ========== INTERNAL (gọi trong synchronized) ==========
+
+    // row: [id, quantity, lowStockThreshold, isActive]
+    private void applyProduct(Object[] row, List<OutboxEvent> alerts) {
+        Long id = (Long) row[0];
+        StockState state = StockState.of(toInt(row[1]), toInt(row[2]));
+        boolean active = Boolean.TRUE.equals(row[3]);
+
+        StockState old = products.put(id, state);
+        setMembership(id, state, lowProducts, outProducts);
+        setMembership(id, active ? state : StockState.IN_STOCK, activeLowProducts, activeOutProducts);
+
+        if (alerts != null && active && crossedDown(old, state)) {
+            alerts.add(OutboxEvent.stockAlert(id, null, state));
+        }
+    }
+
+    // row: [id, productId, quantity, lowStockThreshold, isActive]
+    private void applyVariant(Object[] row, List<OutboxEvent> alerts) {
+        Long id = (Long) row[0];
+        Long productId = (Long) row[1];
+        StockState state = StockState.of(toInt(row[2]), toInt(row[3]));
+        boolean active = Boolean.TRUE.equals(row[4]);
+
+        StockState old = variants.put(id, state);
+        variantsByProduct.computeIfAbsent(productId, k -> new HashSet<>()).add(id);
+        setMembership(id, state, lowVariants, outVariants);
+
+        if (alerts != null && active && crossedDown(old, state)) {
+            alerts.add(OutboxEvent.stockAlert(productId, id, state));
+        }
+    }
+
+    private void removeProduct(Long id) {
+        products.remove(id);
+        lowProducts.remove(id);
+        outProducts.remove(id);
+        activeLowProducts.remove(id);
+        activeOutProducts.remove(id);
+    }
+
+    private void removeVariant(Long id) {
+        variants.remove(id);
+        lowVariants.remove(id);
+        outVariants.remove(id);
+        variantsByProduct.values().forEach(ids -> ids.remove(id));
+    }
+
+    // Chỉ cảnh báo khi xấu đi so với trạng thái đã biết (SKU mới tạo không cảnh báo)
+    private static boolean crossedDown(StockState old, StockState state) {
+        return old != null && state != StockState.IN_STOCK && state.ordinal() > old.ordinal();
+    }
+
+    private static void setMembership(Long id, StockState state, Set<Long> low, Set<Long> out) {
+        if (state == StockState.LOW_STOCK) {
+            low.add(id);
+        } else {
+            low.remove(id);
+        }
+        if (state == StockState.OUT_OF_STOCK) {
+            out.add(id);
+        } else {
+            out.remove(id);
+        }
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("lowStockProducts", lowProducts.size());
+        stats.put("outOfStockProducts", outProducts.size());
+        stats.put("lowStockVariants", lowVariants.size());
+        stats.put("outOfStockVariants", outVariants.size());
+        stats.put("pendingRefresh", dirtyProducts.size());
+        return stats;
+    }
+}
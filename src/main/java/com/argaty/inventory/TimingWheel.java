@@ -0,0 +1,162 @@
+package com.argaty.inventory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel để hẹn giờ hết hạn cho số lượng lớn đối tượng
+ * - Mỗi tầng có wheelSize ô, mỗi ô của tầng trên bao phủ trọn 1 vòng của tầng dưới (tầng trên tạo khi cần)
+ * - Thêm / hủy O(1); advance() chỉ xử lý các ô đã tới hạn (hàng đợi ưu tiên theo ô, không theo từng entry)
+ * - Entry ở tầng cao được hạ dần xuống tầng thấp khi tới gần hạn, tới tầng thấp nhất mà hết hạn thì trả về
+ * - Hủy là lazy: entry bị đánh dấu và bỏ qua khi ô chứa nó tới hạn
+ * Các method public đều synchronized
+ */
+public class TimingWheel<T> {
+
+    private final Level root;
+    private final PriorityQueue<Bucket> dueBuckets = new PriorityQueue<>(Comparator.comparingLong(b -> b.expiration));
+    // Entry thêm vào khi đã quá hạn, trả về ở lần advance() kế tiếp
+    private final List<Timeout<T>> overdue = new ArrayList<>();
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.root = new Level(tickMs, wheelSize, startMs);
+    }
+
+    public synchronized Timeout<T> schedule(T value, long expiresAtMs) {
+        Timeout<T> timeout = new Timeout<>(value, expiresAtMs);
+        if (!root.add(timeout)) {
+            overdue.add(timeout);
+        }
+        return timeout;
+    }
+
+    /**
+     * Tiến đồng hồ tới nowMs, trả về các entry (chưa hủy) đã hết hạn
+     */
+    public synchronized List<Timeout<T>> advance(long nowMs) {
+        List<Timeout<T>> expired = new ArrayList<>(overdue);
+        overdue.clear();
+
+        Bucket bucket;
+        while ((bucket = dueBuckets.peek()) != null && bucket.expiration <= nowMs) {
+            dueBuckets.poll();
+            root.advanceClock(bucket.expiration);
+            for (Timeout<T> timeout : bucket.drain()) {
+                // Hạ tầng hoặc hết hạn
+                if (!timeout.isCancelled() && !root.add(timeout)) {
+                    expired.add(timeout);
+                }
+            }
+        }
+        expired.removeIf(Timeout::isCancelled);
+        return expired;
+    }
+
+    // ========== INTERNAL ==========
+
+    private final class Level {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final List<Bucket> buckets;
+        private long currentTime;
+        private Level overflow;
+
+        Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.currentTime = startMs - (startMs % tickMs);
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket());
+            }
+        }
+
+        /**
+         * @return false nếu entry đã hết hạn (nhỏ hơn 1 tick so với đồng hồ tầng này)
+         */
+        boolean add(Timeout<T> timeout) {
+            long expiration = timeout.getExpiresAt();
+            if (expiration < currentTime + tickMs) {
+                return false;
+            }
+            if (expiration < currentTime + interval) {
+                long virtualId = expiration / tickMs;
+                Bucket bucket = buckets.get((int) (virtualId % wheelSize));
+                bucket.entries.add(timeout);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    dueBuckets.offer(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level(interval, wheelSize, currentTime);
+            }
+            return overflow.add(timeout);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    private final class Bucket {
+        private final ArrayDeque<Timeout<T>> entries = new ArrayDeque<>();
+        private long expiration = -1;
+
+        // Chỉ đổi khi ô rỗng (vừa drain), nên không làm hỏng thứ tự trong PriorityQueue
+        boolean setExpiration(long value) {
+            if (expiration == value) {
+                return false;
+            }
+            expiration = value;
+            return true;
+        }
+
+        List<Timeout<T>> drain() {
+            List<Timeout<T>> drained = new ArrayList<>(entries);
+            entries.clear();
+            expiration = -1;
+            return drained;
+        }
+    }
+
+    /**
+     * Handle của 1 entry đã hẹn giờ
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long expiresAt;
+        private volatile boolean cancelled;
+
+        Timeout(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.argaty.outbox;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.entity.OutboxEvent;
+import com.argaty.enums.OutboxStatus;
+import com.argaty.repository.OutboxEventRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Xử lý outbox bằng pool worker giới hạn
+ * - Job nền nhận (claim) từng batch event tới hạn, chỉ nhận tối đa số chỗ còn trống trong queue (backpressure)
+ * - Event đã nhận giữ lease, worker chết giữa chừng thì hết lease event sẽ được nhận lại
+ * - Thất bại thì thử lại với backoff tăng dần, quá maxAttempts thì chuyển FAILED
+ * - Event xử lý xong được gom lại và đánh dấu DONE theo batch ở lượt poll kế tiếp
+ * Đảm bảo at-least-once: crash giữa lúc xử lý xong và lúc đánh dấu DONE có thể gửi lặp 1 lần
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    // SQL Server giới hạn ~2100 tham số mỗi câu lệnh
+    private static final int MARK_DONE_CHUNK = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventHandler handler;
+    private final TransactionTemplate tx;
+
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+    private final int retentionDays;
+
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentLinkedQueue<Long> doneIds = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxEventHandler handler,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.outbox.workers:4}") int workerCount,
+                            @Value("${app.outbox.queue-capacity:200}") int queueCapacity,
+                            @Value("${app.outbox.batch-size:50}") int batchSize,
+                            @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+                            @Value("${app.outbox.base-backoff-ms:2000}") long baseBackoffMs,
+                            @Value("${app.outbox.max-backoff-ms:600000}") long maxBackoffMs,
+                            @Value("${app.outbox.lease-ms:120000}") long leaseMs,
+                            @Value("${app.outbox.retention-days:7}") int retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handler = handler;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        this.retentionDays = retentionDays;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "outbox-worker-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // ========== POLLING ==========
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        flushDone();
+
+        int free = queueCapacity - workers.getQueue().size();
+        if (free <= 0) {
+            return;
+        }
+
+        List<OutboxEvent> claimed;
+        try {
+            claimed = claimBatch(Math.min(batchSize, free));
+        } catch (Exception e) {
+            log.error("Failed to claim outbox events: {}", e.getMessage());
+            return;
+        }
+
+        for (OutboxEvent event : claimed) {
+            try {
+                workers.execute(() -> process(event));
+            } catch (RejectedExecutionException e) {
+                tx.executeWithoutResult(status -> outboxEventRepository.release(event.getId(), LocalDateTime.now()));
+            }
+        }
+    }
+
+    private List<OutboxEvent> claimBatch(int limit) {
+        return tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            List<Long> ids = outboxEventRepository.findDueIds(now, Limit.of(limit));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            // Lease duy nhất cho batch này, dùng để lọc đúng các dòng vừa nhận được
+            LocalDateTime leaseUntil = now.plus(leaseMs, ChronoUnit.MILLIS);
+            outboxEventRepository.claim(ids, now, leaseUntil);
+            return outboxEventRepository.findByIdInAndStatusAndNextAttemptAt(ids, OutboxStatus.PROCESSING, leaseUntil);
+        });
+    }
+
+    // ========== WORKER ==========
+
+    private void process(OutboxEvent event) {
+        try {
+            handler.handle(event);
+            doneIds.add(event.getId());
+            processed.increment();
+        } catch (Exception e) {
+            onFailure(event, e);
+        }
+    }
+
+    private void onFailure(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts();
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        boolean giveUp = attempts >= maxAttempts;
+
+        OutboxStatus status = giveUp ? OutboxStatus.FAILED : OutboxStatus.PENDING;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoffMs(attempts), ChronoUnit.MILLIS);
+        try {
+            tx.executeWithoutResult(s -> outboxEventRepository.markFailedAttempt(event.getId(), status, nextAttemptAt, error));
+        } catch (Exception ex) {
+            // Không ghi được thì để lease hết hạn, event sẽ được nhận lại
+            log.error("Failed to record outbox failure for event {}: {}", event.getId(), ex.getMessage());
+        }
+
+        if (giveUp) {
+            deadLettered.increment();
+            log.error("Outbox event {} ({}) failed after {} attempts: {}", event.getId(), event.getType(), attempts, error);
+        } else {
+            retried.increment();
+            log.warn("Outbox event {} ({}) failed, attempt {}/{}: {}", event.getId(), event.getType(), attempts, maxAttempts, error);
+        }
+    }
+
+    private long backoffMs(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(maxBackoffMs, baseBackoffMs << shift);
+    }
+
+    private void flushDone() {
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = doneIds.poll()) != null) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < ids.size(); from += MARK_DONE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MARK_DONE_CHUNK, ids.size()));
+            try {
+                tx.executeWithoutResult(status -> outboxEventRepository.markDone(chunk, now));
+            } catch (Exception e) {
+                log.error("Failed to mark {} outbox events as done: {}", chunk.size(), e.getMessage());
+                doneIds.addAll(chunk);
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    // ========== MAINTENANCE ==========
+
+    /**
+     * Xóa event đã xử lý xong quá thời gian lưu (3h sáng mỗi ngày)
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 0 3 * * *}")
+    public void cleanup() {
+        Integer deleted = tx.execute(status ->
+                outboxEventRepository.deleteDoneBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Deleted {} processed outbox events older than {} days", deleted, retentionDays);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        flushDone();
+    }
+
+    // ========== STATS ==========
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxEventRepository.countByStatus(OutboxStatus.PENDING));
+        stats.put("processing", outboxEventRepository.countByStatus(OutboxStatus.PROCESSING));
+        stats.put("failed", outboxEventRepository.countByStatus(OutboxStatus.FAILED));
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("queued", workers.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("processed", processed.sum());
+        stats.put("retried", retried.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("awaitingFlush", doneIds.size());
+        return stats;
+    }
+}
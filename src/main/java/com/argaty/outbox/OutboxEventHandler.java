@@ -0,0 +1,79 @@
+package com.argaty.outbox;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.argaty.entity.Order;
+import com.argaty.entity.OutboxEvent;
+import com.argaty.entity.OutboxEvent.OrderStatusChange;
+import com.argaty.entity.Product;
+import com.argaty.entity.User;
+import com.argaty.enums.NotificationType;
+import com.argaty.enums.Role;
+import com.argaty.enums.StockState;
+import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.repository.OrderRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.ProductVariantRepository;
+import com.argaty.repository.UserRepository;
+import com.argaty.service.NotificationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Thực thi side effect của 1 outbox event, mỗi event trong transaction riêng
+ * Ném exception khi thất bại để OutboxDispatcher lên lịch thử lại
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventHandler {
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+
+    @Transactional
+    public void handle(OutboxEvent event) {
+        switch (event.getType()) {
+            case ORDER_CREATED -> notificationService.sendOrderCreatedNotification(loadOrder(event));
+            case ORDER_STATUS_CHANGED -> {
+                OrderStatusChange change = OrderStatusChange.decode(event.getPayload());
+                notificationService.sendOrderStatusNotification(loadOrder(event), change.getOldStatus(), change.getNewStatus());
+            }
+            case STOCK_ALERT -> sendStockAlert(event);
+        }
+    }
+
+    private Order loadOrder(OutboxEvent event) {
+        return orderRepository.findById(event.getAggregateId())
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", event.getAggregateId()));
+    }
+
+    // Payload: "STATE" hoặc "STATE:variantId"
+    private void sendStockAlert(OutboxEvent event) {
+        Product product = productRepository.findById(event.getAggregateId()).orElse(null);
+        if (product == null) {
+            // Sản phẩm đã bị xóa, bỏ qua cảnh báo
+            return;
+        }
+
+        String[] parts = event.getPayload().split(":", 2);
+        StockState state = StockState.valueOf(parts[0]);
+        String name = product.getName();
+        if (parts.length > 1) {
+            name = productVariantRepository.findById(Long.valueOf(parts[1]))
+                    .map(variant -> product.getName() + " - " + variant.getName())
+                    .orElse(name);
+        }
+
+        String title = state == StockState.OUT_OF_STOCK ? "Sản phẩm hết hàng" : "Sản phẩm sắp hết hàng";
+        String message = String.format("%s: %s", name, state.getDisplayName());
+        String link = "/admin/products/" + product.getId() + "/edit";
+
+        for (User admin : userRepository.findByRole(Role.ADMIN)) {
+            notificationService.sendNotification(admin.getId(), title, message, NotificationType.SYSTEM, link);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.argaty.readmodel;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.archive.OrderArchive;
+import com.argaty.enums.OrderStatus;
+import com.argaty.enums.Role;
+import com.argaty.event.OrderStatusChangedEvent;
+import com.argaty.event.UserRegisteredEvent;
+import com.argaty.repository.OrderRepository;
+import com.argaty.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bộ đếm in-memory cho dashboard admin (doanh thu, số đơn theo trạng thái / theo ngày, user mới)
+ * - Cập nhật sau commit qua OrderStatusChangedEvent / UserRegisteredEvent, đọc không query DB
+ * - Theo ngày: giữ RETENTION_DAYS ngày gần nhất (đủ cho "tháng này" và thống kê 7 ngày)
+ * - Đối soát với DB định kỳ: sửa lệch do instance khác ghi, lưu trữ đơn, đổi quyền user, event trùng lúc đối soát
+ * Doanh thu tính theo ngày tạo đơn của đơn COMPLETED, giống các query thống kê cũ
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardMetricsStore {
+
+    public static final int RETENTION_DAYS = 62;
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final OrderArchive orderArchive;
+
+    // Toàn bộ state dưới đây được bảo vệ bởi lock của store
+    private final Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+    private final NavigableMap<LocalDate, Day> days = new TreeMap<>();
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private long totalUsers = 0;
+
+    private volatile boolean ready = false;
+    private volatile long lastReconcileMillis = 0;
+    private volatile LocalDateTime lastReconciledAt;
+
+    // ========== RECONCILE ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Tải lại toàn bộ từ DB rồi thay state (vài query GROUP BY, không phụ thuộc lúc dashboard được mở)
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        try {
+            LocalDate from = LocalDate.now().minusDays(RETENTION_DAYS - 1);
+
+            Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+            for (Object[] row : orderRepository.countGroupByStatus()) {
+                counts.put((OrderStatus) row[0], ((Number) row[1]).longValue());
+            }
+            NavigableMap<LocalDate, Day> loaded = new TreeMap<>();
+            for (Object[] row : orderRepository.getDailyTotals(from.atStartOfDay())) {
+                Day day = loaded.computeIfAbsent(toLocalDate(row[0]), d -> new Day());
+                day.orders = ((Number) row[1]).longValue();
+                day.completedOrders = ((Number) row[2]).longValue();
+                day.revenue = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+            }
+            for (Object[] row : userRepository.countNewUsersByDay(from.atStartOfDay())) {
+                loaded.computeIfAbsent(toLocalDate(row[0]), d -> new Day()).newUsers = ((Number) row[1]).longValue();
+            }
+            BigDecimal revenue = orderRepository.getTotalRevenue();
+            revenue = (revenue != null ? revenue : BigDecimal.ZERO).add(orderArchive.getTotalRevenue());
+            long users = userRepository.countByRole(Role.USER);
+
+            synchronized (this) {
+                statusCounts.clear();
+                statusCounts.putAll(counts);
+                days.clear();
+                days.putAll(loaded);
+                totalRevenue = revenue;
+                totalUsers = users;
+                ready = true;
+            }
+            lastReconcileMillis = System.currentTimeMillis() - start;
+            lastReconciledAt = LocalDateTime.now();
+        } catch (Exception e) {
+            log.error("Failed to reconcile dashboard metrics: {}", e.getMessage());
+        }
+    }
+
+    // ========== EVENTS ==========
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        OrderStatus oldStatus = event.getOldStatus();
+        OrderStatus newStatus = event.getNewStatus();
+        Day day = day(event.getOrderCreatedAt() != null ? event.getOrderCreatedAt().toLocalDate() : LocalDate.now());
+
+        if (event.isCreated()) {
+            if (day != null) {
+                day.orders++;
+            }
+        } else {
+            statusCounts.merge(oldStatus, -1L, Long::sum);
+        }
+        statusCounts.merge(newStatus, 1L, Long::sum);
+
+        BigDecimal amount = event.getTotalAmount() != null ? event.getTotalAmount() : BigDecimal.ZERO;
+        if (newStatus == OrderStatus.COMPLETED && oldStatus != OrderStatus.COMPLETED) {
+            totalRevenue = totalRevenue.add(amount);
+            if (day != null) {
+                day.completedOrders++;
+                day.revenue = day.revenue.add(amount);
+            }
+        } else if (oldStatus == OrderStatus.COMPLETED && newStatus != OrderStatus.COMPLETED) {
+            totalRevenue = totalRevenue.subtract(amount);
+            if (day != null) {
+                day.completedOrders--;
+                day.revenue = day.revenue.subtract(amount);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserRegistered(UserRegisteredEvent event) {
+        if (!ready) {
+            return;
+        }
+        totalUsers++;
+        Day day = day(LocalDate.now());
+        if (day != null) {
+            day.newUsers++;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== QUERY ==========
+
+    public synchronized BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public synchronized long countByStatus(OrderStatus status) {
+        return Math.max(0, statusCounts.getOrDefault(status, 0L));
+    }
+
+    public synchronized long getTotalUsers() {
+        return totalUsers;
+    }
+
+    public synchronized BigDecimal getRevenueFrom(LocalDate from) {
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Day day : days.tailMap(from, true).values()) {
+            revenue = revenue.add(day.revenue);
+        }
+        return revenue;
+    }
+
+    public synchronized long countOrdersFrom(LocalDate from) {
+        long count = 0;
+        for (Day day : days.tailMap(from, true).values()) {
+            count += day.orders;
+        }
+        return count;
+    }
+
+    public synchronized long countNewUsersFrom(LocalDate from) {
+        long count = 0;
+        for (Day day : days.tailMap(from, true).values()) {
+            count += day.newUsers;
+        }
+        return count;
+    }
+
+    /**
+     * Cùng dạng với OrderRepository.getDailyStatistics: [ngày, số đơn hoàn thành, doanh thu], mới nhất trước
+     */
+    public synchronized List<Object[]> getDailyStatistics(LocalDate from) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<LocalDate, Day> entry : days.tailMap(from, true).descendingMap().entrySet()) {
+            Day day = entry.getValue();
+            if (day.completedOrders > 0) {
+                rows.add(new Object[]{entry.getKey(), day.completedOrders, day.revenue});
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Ngày sớm nhất còn giữ số liệu theo ngày
+     */
+    public LocalDate getRetainedFrom() {
+        return LocalDate.now().minusDays(RETENTION_DAYS - 1);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("ready", ready);
+            stats.put("statusCounts", new EnumMap<>(statusCounts));
+            stats.put("days", days.size());
+            stats.put("totalRevenue", totalRevenue);
+            stats.put("totalUsers", totalUsers);
+        }
+        stats.put("lastReconcileMillis", lastReconcileMillis);
+        stats.put("lastReconciledAt", lastReconciledAt);
+        return stats;
+    }
+
+    // ========== HELPERS ==========
+
+    /**
+     * Accumulator của ngày (tạo mới nếu chưa có), null nếu ngày đã ra khỏi cửa sổ giữ lại
+     */
+    private Day day(LocalDate date) {
+        LocalDate retainedFrom = getRetainedFrom();
+        days.headMap(retainedFrom, false).clear();
+        if (date.isBefore(retainedFrom)) {
+            return null;
+        }
+        return days.computeIfAbsent(date, d -> new Day());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    private static final class Day {
+        private long orders;
+        private long completedOrders;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long newUsers;
+    }
+}
@@ -0,0 +1,38 @@
+package com.argaty.readmodel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.argaty.dto.response.BannerResponse;
+import com.argaty.dto.response.BrandResponse;
+import com.argaty.dto.response.CategoryResponse;
+import com.argaty.dto.response.ProductResponse;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Dữ liệu trang chủ đã map sẵn sang DTO (immutable)
+ * Được thay thế nguyên khối khi rebuild, request chỉ đọc tham chiếu hiện tại
+ */
+@Getter
+@Builder
+public class HomePageSnapshot {
+
+    private final List<BannerResponse> sliderBanners;
+    private final List<CategoryResponse> featuredCategories;
+    private final List<ProductResponse> featuredProducts;
+    private final List<ProductResponse> newProducts;
+    private final List<ProductResponse> bestSellerProducts;
+    private final List<ProductResponse> trendingProducts;
+    private final List<BrandResponse> brands;
+
+    private final LocalDateTime builtAt;
+
+    // Thời điểm gần nhất 1 banner / đợt sale trong snapshot bắt đầu hoặc kết thúc (null = không có)
+    private final LocalDateTime validUntil;
+
+    public boolean isExpired(LocalDateTime now) {
+        return validUntil != null && !now.isBefore(validUntil);
+    }
+}
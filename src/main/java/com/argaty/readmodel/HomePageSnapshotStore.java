@@ -0,0 +1,178 @@
+package com.argaty.readmodel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.dto.projection.ProductCardView;
+import com.argaty.entity.Banner;
+import com.argaty.event.CatalogChangedEvent;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.event.ProductStockChangedEvent;
+import com.argaty.event.TrendingProductsChangedEvent;
+import com.argaty.repository.BannerRepository;
+import com.argaty.service.BannerService;
+import com.argaty.service.BrandService;
+import com.argaty.service.CategoryService;
+import com.argaty.service.ProductService;
+import com.argaty.util.DtoMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Giữ HomePageSnapshot hiện tại cho trang chủ
+ * - Các event thay đổi sản phẩm / tồn kho / catalog chỉ đánh dấu dirty (gộp nhiều thay đổi liên tiếp)
+ * - Job nền rebuild khi dirty hoặc khi tới mốc bắt đầu / kết thúc của banner hay đợt sale
+ * - Request đọc snapshot qua AtomicReference, không query DB khi đã có snapshot
+ */
+@Slf4j
+@Component
+public class HomePageSnapshotStore {
+
+    public static final int SECTION_SIZE = 8;
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final BrandService brandService;
+    private final BannerService bannerService;
+    private final BannerRepository bannerRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private final AtomicReference<HomePageSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final Object buildLock = new Object();
+
+    public HomePageSnapshotStore(ProductService productService,
+                                 CategoryService categoryService,
+                                 BrandService brandService,
+                                 BannerService bannerService,
+                                 BannerRepository bannerRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.brandService = brandService;
+        this.bannerService = bannerService;
+        this.bannerRepository = bannerRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Snapshot hiện tại, chỉ build đồng bộ nếu chưa từng build
+     */
+    public HomePageSnapshot get() {
+        HomePageSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (buildLock) {
+            snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    // ========== REFRESH ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshIfStale();
+    }
+
+    @Scheduled(fixedDelayString = "${app.home.refresh-check-ms:2000}")
+    public void refreshIfStale() {
+        HomePageSnapshot snapshot = current.get();
+        boolean expired = snapshot != null && snapshot.isExpired(LocalDateTime.now());
+        if (!dirty.get() && !expired && snapshot != null) {
+            return;
+        }
+        synchronized (buildLock) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                // Giữ snapshot cũ, lần kiểm tra sau thử lại
+                dirty.set(true);
+                log.warn("Failed to rebuild home page snapshot: {}", e.getMessage());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @EventListener
+    public void onTrendingChanged(TrendingProductsChangedEvent event) {
+        dirty.set(true);
+    }
+
+    private HomePageSnapshot rebuild() {
+        long start = System.currentTimeMillis();
+        // Xóa cờ trước khi đọc: thay đổi xảy ra trong lúc build sẽ bật lại cờ cho lần sau
+        dirty.set(false);
+        HomePageSnapshot snapshot = readOnlyTx.execute(status -> build());
+        current.set(snapshot);
+        log.debug("Rebuilt home page snapshot in {} ms (valid until {})",
+                System.currentTimeMillis() - start, snapshot.getValidUntil());
+        return snapshot;
+    }
+
+    private HomePageSnapshot build() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Banner> sliderBanners = bannerService.findActiveByPosition(Banner.POSITION_HOME_SLIDER);
+        List<ProductCardView> featured = productService.findFeaturedCards(SECTION_SIZE);
+        List<ProductCardView> newest = productService.findNewCards(SECTION_SIZE);
+        List<ProductCardView> bestSellers = productService.findBestSellerCards(SECTION_SIZE);
+        List<ProductCardView> trending = productService.findTrendingCards(SECTION_SIZE);
+
+        LocalDateTime validUntil = earliest(Stream.concat(
+                Stream.of(
+                        bannerRepository.findNextStartDate(Banner.POSITION_HOME_SLIDER, now),
+                        bannerRepository.findNextEndDate(Banner.POSITION_HOME_SLIDER, now)),
+                Stream.of(featured, newest, bestSellers, trending)
+                        .flatMap(List::stream)
+                        .flatMap(card -> Stream.of(card.getSaleStartDate(), card.getSaleEndDate()))
+                        .filter(Objects::nonNull)
+                        .filter(time -> time.isAfter(now))));
+
+        return HomePageSnapshot.builder()
+                .sliderBanners(DtoMapper.toBannerResponseList(sliderBanners))
+                .featuredCategories(DtoMapper.toCategoryResponseList(categoryService.findFeaturedCategories()))
+                .featuredProducts(DtoMapper.toProductCardResponseList(featured))
+                .newProducts(DtoMapper.toProductCardResponseList(newest))
+                .bestSellerProducts(DtoMapper.toProductCardResponseList(bestSellers))
+                .trendingProducts(DtoMapper.toProductCardResponseList(trending))
+                .brands(DtoMapper.toBrandResponseList(brandService.findAllActive()))
+                .builtAt(now)
+                .validUntil(validUntil)
+                .build();
+    }
+
+    private static LocalDateTime earliest(Stream<LocalDateTime> times) {
+        return times.filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+    }
+}
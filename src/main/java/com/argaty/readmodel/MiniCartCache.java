@@ -0,0 +1,90 @@
+package com.argaty.readmodel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.dto.response.MiniCartSummary;
+import com.argaty.event.CartChangedEvent;
+import com.argaty.event.ProductChangedEvent;
+
+/**
+ * Cache tóm tắt mini-cart theo cart id
+ * - Xóa entry khi giỏ thay đổi (sau commit) hoặc khi có sản phẩm bị sửa / xóa
+ * - Entry tự hết hạn sau TTL để giá sale bắt đầu / kết thúc được cập nhật
+ * - Giới hạn số entry (LRU) để giỏ của khách vãng lai không làm phình bộ nhớ
+ */
+@Component
+public class MiniCartCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Tăng mỗi lần evict / clear, được bảo vệ bởi lock của entries
+    private long generation = 0;
+
+    public MiniCartSummary get(Long cartId, Supplier<MiniCartSummary> loader) {
+        long now = System.currentTimeMillis();
+        long generationAtLoad;
+        synchronized (entries) {
+            Entry entry = entries.get(cartId);
+            if (entry != null && now - entry.loadedAt < TTL_MILLIS) {
+                return entry.summary;
+            }
+            generationAtLoad = generation;
+        }
+        // Load ngoài lock; có evict xảy ra trong lúc load thì không lưu kết quả (có thể đã cũ)
+        MiniCartSummary summary = loader.get();
+        synchronized (entries) {
+            if (generation == generationAtLoad) {
+                entries.put(cartId, new Entry(summary, now));
+            }
+        }
+        return summary;
+    }
+
+    public void evict(Long cartId) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(cartId);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        evict(event.getCartId());
+    }
+
+    // Tên / giá / ảnh sản phẩm đổi hoặc sản phẩm bị xóa khỏi mọi giỏ
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        clear();
+    }
+
+    private static class Entry {
+        private final MiniCartSummary summary;
+        private final long loadedAt;
+
+        private Entry(MiniCartSummary summary, long loadedAt) {
+            this.summary = summary;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.argaty.readmodel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.argaty.archive.ArchivedOrderSnapshot;
+import com.argaty.archive.OrderArchive;
+import com.argaty.enums.OrderStatus;
+import com.argaty.event.OrderStatusChangedEvent;
+import com.argaty.repository.ArchivedOrderRepository;
+import com.argaty.repository.OrderItemRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.SalesRollupRepository;
+import com.argaty.repository.SalesRollupRepository.ProductSale;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Duy trì bảng rollup doanh số theo ngày tạo đơn (tổng đơn và theo sản phẩm × danh mục)
+ * - Cộng khi đơn chuyển sang COMPLETED, trừ khi rời COMPLETED; chạy trong chính transaction đổi trạng thái
+ *   (BEFORE_COMMIT) nên rollup luôn khớp với orders
+ * - Khởi động: bảng rỗng (lần đầu triển khai) hoặc bật rebuild-on-startup thì dựng lại từ toàn bộ lịch sử,
+ *   gồm cả đơn đã lưu trữ
+ * Trước khi dựng xong, isReady() = false và OrderService đọc thẳng từ orders như cũ
+ */
+@Slf4j
+@Component
+public class SalesRollupUpdater {
+
+    private static final int ARCHIVE_PAGE_SIZE = 500;
+    private static final int ID_CHUNK = 1000;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ProductRepository productRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate tx;
+
+    private final boolean rebuildOnStartup;
+
+    private volatile boolean ready = false;
+    private volatile long lastRebuildMillis = 0;
+    private volatile LocalDateTime lastRebuiltAt;
+
+    public SalesRollupUpdater(SalesRollupRepository salesRollupRepository,
+                              OrderItemRepository orderItemRepository,
+                              ArchivedOrderRepository archivedOrderRepository,
+                              ProductRepository productRepository,
+                              OrderArchive orderArchive,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.sales-rollup.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.productRepository = productRepository;
+        this.orderArchive = orderArchive;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== INCREMENTAL ==========
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        int sign;
+        if (event.getNewStatus() == OrderStatus.COMPLETED && event.getOldStatus() != OrderStatus.COMPLETED) {
+            sign = 1;
+        } else if (event.getOldStatus() == OrderStatus.COMPLETED && event.getNewStatus() != OrderStatus.COMPLETED) {
+            sign = -1;
+        } else {
+            return;
+        }
+        LocalDate day = event.getOrderCreatedAt() != null ? event.getOrderCreatedAt().toLocalDate() : LocalDate.now();
+        BigDecimal amount = event.getTotalAmount() != null ? event.getTotalAmount() : BigDecimal.ZERO;
+
+        salesRollupRepository.addDaily(day, sign, amount.multiply(BigDecimal.valueOf(sign)));
+        salesRollupRepository.addProducts(day, productSales(event.getOrderId()), sign);
+    }
+
+    private List<ProductSale> productSales(Long orderId) {
+        Map<Long, ProductSale> byProduct = new LinkedHashMap<>();
+        for (Object[] row : orderItemRepository.findSaleRowsByOrderId(orderId)) {
+            Long productId = (Long) row[0];
+            ProductSale current = new ProductSale(productId, (Long) row[1], (String) row[2],
+                    ((Number) row[3]).longValue(), (BigDecimal) row[4]);
+            byProduct.merge(productId, current, SalesRollupUpdater::combine);
+        }
+        return new ArrayList<>(byProduct.values());
+    }
+
+    // ========== BACKFILL ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            if (rebuildOnStartup || salesRollupRepository.isEmpty()) {
+                rebuild();
+            }
+            ready = true;
+        } catch (Exception e) {
+            log.error("Failed to build sales rollups, reports keep reading orders directly: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ rollup trong 1 transaction: phần đơn còn trong orders bằng INSERT ... SELECT,
+     * phần sản phẩm của đơn đã lưu trữ bằng cách giải nén snapshot theo từng trang
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        tx.executeWithoutResult(status -> {
+            salesRollupRepository.rebuildFromOrders();
+            addArchivedProducts();
+        });
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        lastRebuiltAt = LocalDateTime.now();
+        log.info("Rebuilt sales rollups in {} ms", lastRebuildMillis);
+    }
+
+    private void addArchivedProducts() {
+        Map<LocalDate, Map<Long, ProductSale>> byDay = new TreeMap<>();
+        long lastId = 0;
+        while (true) {
+            List<Object[]> page = archivedOrderRepository.findSnapshotPage(
+                    OrderStatus.COMPLETED, lastId, Limit.of(ARCHIVE_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Object[] row : page) {
+                Map<Long, ProductSale> sales = byDay.computeIfAbsent(
+                        ((LocalDateTime) row[1]).toLocalDate(), d -> new HashMap<>());
+                ArchivedOrderSnapshot snapshot = orderArchive.decode((byte[]) row[2]);
+                for (ArchivedOrderSnapshot.Item item : snapshot.getItems()) {
+                    sales.merge(item.getProductId(), new ProductSale(item.getProductId(), null, item.getProductName(),
+                            item.getQuantity(), item.getSubtotal()), SalesRollupUpdater::combine);
+                }
+                lastId = (Long) row[0];
+            }
+        }
+        if (byDay.isEmpty()) {
+            return;
+        }
+
+        // Snapshot không lưu danh mục: lấy danh mục hiện tại của sản phẩm (giống phần backfill từ orders)
+        Set<Long> productIds = new HashSet<>();
+        byDay.values().forEach(sales -> productIds.addAll(sales.keySet()));
+        List<Long> ids = new ArrayList<>(productIds);
+        Map<Long, Long> categories = new HashMap<>();
+        // SQL Server giới hạn ~2100 tham số mỗi câu lệnh
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            for (Object[] row : productRepository.findCategoryIdsByIdIn(ids.subList(from, Math.min(from + ID_CHUNK, ids.size())))) {
+                categories.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        for (Map.Entry<LocalDate, Map<Long, ProductSale>> day : byDay.entrySet()) {
+            List<ProductSale> sales = new ArrayList<>(day.getValue().size());
+            for (ProductSale sale : day.getValue().values()) {
+                sales.add(new ProductSale(sale.getProductId(), categories.get(sale.getProductId()),
+                        sale.getProductName(), sale.getQuantity(), sale.getRevenue()));
+            }
+            salesRollupRepository.addProducts(day.getKey(), sales, 1);
+        }
+    }
+
+    private static ProductSale combine(ProductSale a, ProductSale b) {
+        return new ProductSale(a.getProductId(), a.getCategoryId() != null ? a.getCategoryId() : b.getCategoryId(),
+                a.getProductName(), a.getQuantity() + b.getQuantity(), a.getRevenue().add(b.getRevenue()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("lastRebuiltAt", lastRebuiltAt);
+        return stats;
+    }
+}
@@ -0,0 +1,94 @@
+package com.argaty.readmodel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Gộp các lần đọc giống nhau đang chạy đồng thời (single-flight)
+ * - Request đầu tiên cho 1 key thực thi loader, các request đến trong lúc đó chờ và dùng chung kết quả
+ * - Không cache: loader xong là key được giải phóng, lần gọi sau chạy lại từ đầu
+ * - Kết quả được chia sẻ giữa các thread nên chỉ dùng cho giá trị chỉ đọc
+ *   (DTO, projection, entity đã fetch đủ quan hệ cần dùng)
+ */
+@Component
+public class SingleFlightLoader {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param namespace nhóm truy vấn (dùng cho thống kê), vd "product.detail"
+     * @param key       tham số phân biệt truy vấn trong nhóm
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String namespace, Object key, Supplier<T> loader) {
+        Counters stats = counters.computeIfAbsent(namespace, n -> new Counters());
+        stats.calls.increment();
+
+        String flightKey = namespace + ':' + key;
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, own);
+        if (existing != null) {
+            stats.collapsed.increment();
+            return (T) await(existing);
+        }
+
+        stats.executions.increment();
+        try {
+            T value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, own);
+        }
+    }
+
+    /**
+     * Số lần gọi / số lần thực thi thật / số lần được gộp theo từng nhóm
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        counters.forEach((namespace, c) -> {
+            Map<String, Long> row = new LinkedHashMap<>();
+            row.put("calls", c.calls.sum());
+            row.put("executions", c.executions.sum());
+            row.put("collapsed", c.collapsed.sum());
+            stats.put(namespace, row);
+        });
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Ném lại đúng exception của loader (ResourceNotFoundException...)
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder collapsed = new LongAdder();
+    }
+}
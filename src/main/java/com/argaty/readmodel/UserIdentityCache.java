@@ -0,0 +1,65 @@
+package com.argaty.readmodel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.event.UserChangedEvent;
+import com.argaty.security.UserIdentity;
+
+/**
+ * Cache định danh user theo email (LRU, giới hạn số entry)
+ * Entry bị xóa sau commit khi user được cập nhật / khóa / đổi quyền / xóa
+ */
+@Component
+public class UserIdentityCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Map<String, UserIdentity> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UserIdentity> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Tăng mỗi lần evict, được bảo vệ bởi lock của entries
+    private long generation = 0;
+
+    public Optional<UserIdentity> get(String email, Supplier<Optional<UserIdentity>> loader) {
+        long generationAtLoad;
+        synchronized (entries) {
+            UserIdentity identity = entries.get(email);
+            if (identity != null) {
+                return Optional.of(identity);
+            }
+            generationAtLoad = generation;
+        }
+        // Không cache kết quả rỗng (email chưa đăng ký có thể được tạo ngay sau đó)
+        Optional<UserIdentity> loaded = loader.get();
+        loaded.ifPresent(identity -> {
+            synchronized (entries) {
+                if (generation == generationAtLoad) {
+                    entries.put(email, identity);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    public void evictById(Long userId) {
+        synchronized (entries) {
+            generation++;
+            entries.values().removeIf(identity -> identity.getId().equals(userId));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evictById(event.getUserId());
+    }
+}
@@ -0,0 +1,50 @@
+package com.argaty.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.ArchivedOrder;
+import com.argaty.enums.OrderStatus;
+
+/**
+ * Repository cho ArchivedOrder
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    Optional<ArchivedOrder> findByOrderCode(String orderCode);
+
+    Optional<ArchivedOrder> findByOrderCodeAndUserId(String orderCode, Long userId);
+
+    long countByUserId(Long userId);
+
+    /**
+     * [id, createdAt, snapshot] theo id tăng dần (keyset), không nạp entity vào persistence context
+     */
+    @Query("SELECT a.id, a.createdAt, a.snapshot FROM ArchivedOrder a " +
+           "WHERE a.status = :status AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findSnapshotPage(@Param("status") OrderStatus status, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Lịch sử đơn của user, offset tùy ý (nối tiếp sau các đơn còn trong bảng orders)
+     */
+    @Query(value = "SELECT * FROM archived_orders WHERE user_id = :userId " +
+                   "ORDER BY created_at DESC, id DESC OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY",
+           nativeQuery = true)
+    List<ArchivedOrder> findPageByUserId(@Param("userId") Long userId,
+                                         @Param("offset") long offset,
+                                         @Param("limit") int limit);
+
+    @Query("SELECT SUM(a.totalAmount) FROM ArchivedOrder a WHERE a.status = 'COMPLETED'")
+    BigDecimal getTotalRevenue();
+
+    @Query("SELECT SUM(a.totalAmount) FROM ArchivedOrder a WHERE a.userId = :userId AND a.status = 'COMPLETED'")
+    BigDecimal getTotalSpentByUser(@Param("userId") Long userId);
+}
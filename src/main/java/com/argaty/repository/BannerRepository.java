@@ -32,6 +32,20 @@ public interface BannerRepository extends JpaRepository<Banner, Long> {
     @Query("SELECT b FROM Banner b WHERE b.position = :position ORDER BY b.displayOrder ASC")
     List<Banner> findByPosition(@Param("position") String position);
 
+    /**
+     * Thời điểm gần nhất có banner bắt đầu hiển thị (sau now)
+     */
+    @Query("SELECT MIN(b.startDate) FROM Banner b WHERE b.position = :position AND b.isActive = true " +
+           "AND b.startDate > :now")
+    LocalDateTime findNextStartDate(@Param("position") String position, @Param("now") LocalDateTime now);
+
+    /**
+     * Thời điểm gần nhất có banner hết hạn hiển thị (sau now)
+     */
+    @Query("SELECT MIN(b.endDate) FROM Banner b WHERE b.position = :position AND b.isActive = true " +
+           "AND b.endDate > :now")
+    LocalDateTime findNextEndDate(@Param("position") String position, @Param("now") LocalDateTime now);
+
     @Query("SELECT b FROM Banner b WHERE b.endDate < CURRENT_TIMESTAMP AND b.isActive = true")
     List<Banner> findExpiredBanners();
 }
\ No newline at end of file
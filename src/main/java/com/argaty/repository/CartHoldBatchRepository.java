@@ -0,0 +1,89 @@
+package com.argaty.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.CartHold;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ghi phần thay đổi của cart_holds bằng JDBC batch, khóa theo (cart_id, product_id, variant_id)
+ * - Mỗi node chỉ ghi các dòng mình vừa đổi, không đụng dòng của node khác
+ * - Dòng có expires_at mới hơn thắng: node giữ lâu hơn không bị node cũ ghi đè / xóa mất
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartHoldBatchRepository {
+
+    private static final String LINE_MATCH =
+            "t.cart_id = s.cart_id AND t.product_id = s.product_id " +
+            "AND (t.variant_id = s.variant_id OR (t.variant_id IS NULL AND s.variant_id IS NULL))";
+
+    private static final String MERGE_SQL =
+            "MERGE cart_holds WITH (HOLDLOCK) AS t " +
+            "USING (VALUES (?, ?, ?, ?, ?)) AS s (cart_id, product_id, variant_id, quantity, expires_at) " +
+            "ON " + LINE_MATCH + " " +
+            "WHEN MATCHED AND t.expires_at <= s.expires_at THEN UPDATE SET quantity = s.quantity, expires_at = s.expires_at " +
+            "WHEN NOT MATCHED THEN INSERT (cart_id, product_id, variant_id, quantity, expires_at) " +
+            "VALUES (s.cart_id, s.product_id, s.variant_id, s.quantity, s.expires_at);";
+
+    private static final String DELETE_SQL =
+            "DELETE t FROM cart_holds t " +
+            "INNER JOIN (VALUES (?, ?, ?, ?)) AS s (cart_id, product_id, variant_id, expires_at) ON " + LINE_MATCH + " " +
+            "WHERE t.expires_at <= s.expires_at";
+
+    // Số câu lệnh tối đa mỗi lần gửi JDBC batch
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Thêm hoặc cập nhật số lượng giữ của từng dòng giỏ
+     */
+    public void upsert(List<CartHold> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(MERGE_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            setLine(ps, row);
+            ps.setInt(4, row.getQuantity());
+            ps.setTimestamp(5, Timestamp.valueOf(row.getExpiresAt()));
+        });
+    }
+
+    /**
+     * Xóa hold đã nhả / hết hạn
+     * Chỉ xóa nếu expires_at trong DB không mới hơn hold đã bị xóa (nghĩa là không có node khác vừa gia hạn)
+     */
+    public void delete(List<CartHold> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            setLine(ps, row);
+            ps.setTimestamp(4, Timestamp.valueOf(row.getExpiresAt()));
+        });
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM cart_holds WHERE expires_at <= ?", Timestamp.valueOf(now));
+    }
+
+    private static void setLine(PreparedStatement ps, CartHold row) throws SQLException {
+        ps.setLong(1, row.getCartId());
+        ps.setLong(2, row.getProductId());
+        if (row.getVariantId() != null) {
+            ps.setLong(3, row.getVariantId());
+        } else {
+            ps.setNull(3, Types.BIGINT);
+        }
+    }
+}
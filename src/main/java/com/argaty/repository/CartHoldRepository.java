@@ -0,0 +1,13 @@
+package com.argaty.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.CartHold;
+
+/**
+ * Repository cho CartHold
+ */
+@Repository
+public interface CartHoldRepository extends JpaRepository<CartHold, Long> {
+}
@@ -28,6 +28,13 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
            "ORDER BY ci.addedAt DESC")
     List<CartItem> findByCartIdWithProductAndVariant(@Param("cartId") Long cartId);
 
+    @Query("SELECT ci FROM CartItem ci " +
+           "JOIN FETCH ci.product " +
+           "LEFT JOIN FETCH ci.variant " +
+           "WHERE ci.cart.id = :cartId AND ci.isSelected = true " +
+           "ORDER BY ci.id")
+    List<CartItem> findSelectedWithProductAndVariant(@Param("cartId") Long cartId);
+
     Optional<CartItem> findByCartIdAndProductIdAndVariantId(Long cartId, Long productId, Long variantId);
 
     Optional<CartItem> findByCartIdAndProductIdAndVariantIsNull(Long cartId, Long productId);
@@ -60,4 +67,7 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     @Query("SELECT SUM(ci.quantity) FROM CartItem ci WHERE ci.cart.id = :cartId")
     Integer getTotalQuantity(@Param("cartId") Long cartId);
+
+    @Query("SELECT DISTINCT ci.product.id FROM CartItem ci WHERE ci.cart.user.id = :userId AND ci.isSelected = true")
+    List<Long> findSelectedProductIdsByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
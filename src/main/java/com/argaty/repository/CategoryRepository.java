@@ -82,6 +82,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
            "ORDER BY c.displayOrder ASC")
     List<Category> findRootCategoriesWithChildren();
 
+    // Cặp (id, parentId) của toàn bộ danh mục, dùng cho index facet in-memory
+    @Query("SELECT c.id, p.id FROM Category c LEFT JOIN c.parent p")
+    List<Object[]> findAllParentLinks();
+
     // ========== STATISTICS ==========
 
     @Query("SELECT COUNT(c) FROM Category c WHERE c.isActive = true")
@@ -0,0 +1,59 @@
+package com.argaty.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.ClusterNode;
+
+/**
+ * Repository cho ClusterNode
+ */
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, Integer> {
+
+    @Query("SELECT n.nodeId FROM ClusterNode n WHERE n.heartbeatAt < :staleBefore ORDER BY n.nodeId")
+    List<Integer> findStaleNodeIds(@Param("staleBefore") LocalDateTime staleBefore, Limit limit);
+
+    @Query("SELECT MAX(n.nodeId) FROM ClusterNode n")
+    Integer findMaxNodeId();
+
+    /**
+     * Số instance còn giữ lease (heartbeat chưa quá hạn)
+     */
+    @Query("SELECT COUNT(n) FROM ClusterNode n WHERE n.heartbeatAt >= :liveAfter")
+    long countLive(@Param("liveAfter") LocalDateTime liveAfter);
+
+    /**
+     * Chiếm node id đã quá hạn - chỉ 1 instance thắng nhờ điều kiện heartbeat trong WHERE
+     */
+    @Modifying
+    @Query("UPDATE ClusterNode n SET n.instanceId = :instanceId, n.heartbeatAt = :now " +
+           "WHERE n.nodeId = :nodeId AND n.heartbeatAt < :staleBefore")
+    int takeOver(@Param("nodeId") Integer nodeId,
+                 @Param("instanceId") String instanceId,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Insert node id mới; trùng khóa chính nghĩa là instance khác vừa lấy trước
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cluster_nodes (node_id, instance_id, heartbeat_at) VALUES (:nodeId, :instanceId, :now)",
+           nativeQuery = true)
+    int insertNode(@Param("nodeId") Integer nodeId,
+                   @Param("instanceId") String instanceId,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ClusterNode n SET n.heartbeatAt = :now WHERE n.nodeId = :nodeId AND n.instanceId = :instanceId")
+    int heartbeat(@Param("nodeId") Integer nodeId,
+                  @Param("instanceId") String instanceId,
+                  @Param("now") LocalDateTime now);
+}
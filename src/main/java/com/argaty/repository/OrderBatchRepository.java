@@ -0,0 +1,278 @@
+package com.argaty.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.IntFunction;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.ArchivedOrder;
+import com.argaty.entity.OrderItem;
+import com.argaty.entity.OutboxEvent.OrderStatusChange;
+import com.argaty.enums.OrderStatus;
+import com.argaty.enums.OutboxEventType;
+import com.argaty.enums.OutboxStatus;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ghi theo batch cho luồng đặt hàng, chuyển trạng thái hàng loạt và lưu trữ đơn cũ (JDBC trực tiếp, chạy trong transaction hiện tại)
+ * - Order item: 1 JDBC batch thay vì 1 INSERT + đọc IDENTITY cho mỗi dòng
+ * - Trừ tồn kho: 1 câu UPDATE set-based cho mọi dòng, khóa các dòng theo thứ tự id tăng dần
+ *   (FORCE ORDER + LOOP JOIN: duyệt VALUES đã sắp xếp rồi seek từng dòng) để 2 đơn trùng sản phẩm không deadlock
+ * - SQL Server giới hạn ~2100 tham số mỗi câu lệnh: câu lệnh theo danh sách id được chia tối đa ID_CHUNK dòng,
+ *   các phần chạy lần lượt theo id tăng dần nên vẫn giữ thứ tự khóa
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, variant_id, product_name, product_image, variant_name, " +
+            "sku, unit_price, quantity, subtotal, is_reviewed, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO order_status_history (status, note, created_at, order_id, changed_by) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO outbox_events (type, aggregate_id, payload, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, ?, 0, ?, ?)";
+
+    private static final String INSERT_ARCHIVED_SQL =
+            "INSERT INTO archived_orders (id, order_code, user_id, status, total_amount, created_at, archived_at, snapshot) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // VALUES 2 tham số / dòng: 1000 dòng = 2000 tham số
+    private static final int ID_CHUNK = 1000;
+    // Số câu lệnh tối đa mỗi lần gửi JDBC batch
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertItems(Long orderId, List<OrderItem> items) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items, BATCH_SIZE, (ps, item) -> {
+            ps.setLong(1, orderId);
+            ps.setLong(2, item.getProduct().getId());
+            if (item.getVariant() != null) {
+                ps.setLong(3, item.getVariant().getId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, item.getProductName());
+            ps.setString(5, item.getProductImage());
+            ps.setString(6, item.getVariantName());
+            ps.setString(7, item.getSku());
+            ps.setBigDecimal(8, item.getUnitPrice());
+            ps.setInt(9, item.getQuantity());
+            ps.setBigDecimal(10, item.getSubtotal());
+            ps.setBoolean(11, false);
+            ps.setTimestamp(12, now);
+        });
+    }
+
+    /**
+     * Trừ tồn kho cấp sản phẩm (kèm cộng sold_count) cho nhiều sản phẩm trong 1 câu lệnh
+     * @param quantities productId -> số lượng, đã sắp xếp theo id
+     * @return số dòng được cập nhật, nhỏ hơn quantities.size() nghĩa là có sản phẩm không đủ hàng
+     */
+    public int decreaseProductStock(SortedMap<Long, Integer> quantities) {
+        return updateInChunks(quantities, rows ->
+                "UPDATE p SET p.quantity = p.quantity - v.qty, p.sold_count = p.sold_count + v.qty " +
+                "FROM " + valuesTable(rows) + " INNER JOIN products p ON p.id = v.id " +
+                "WHERE p.quantity >= v.qty OPTION (FORCE ORDER, LOOP JOIN)");
+    }
+
+    /**
+     * Trừ tồn kho biến thể cho nhiều biến thể trong 1 câu lệnh
+     * @param quantities variantId -> số lượng, đã sắp xếp theo id
+     */
+    public int decreaseVariantStock(SortedMap<Long, Integer> quantities) {
+        return updateInChunks(quantities, rows ->
+                "UPDATE pv SET pv.quantity = pv.quantity - v.qty " +
+                "FROM " + valuesTable(rows) + " INNER JOIN product_variants pv ON pv.id = v.id " +
+                "WHERE pv.quantity >= v.qty OPTION (FORCE ORDER, LOOP JOIN)");
+    }
+
+    /**
+     * Chạy câu UPDATE theo bảng VALUES cho từng phần ID_CHUNK dòng, theo id tăng dần
+     * Phần trước thiếu hàng thì dừng luôn (caller ném lỗi và rollback cả transaction)
+     */
+    private int updateInChunks(SortedMap<Long, Integer> quantities, IntFunction<String> sqlForRows) {
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(quantities.entrySet());
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += ID_CHUNK) {
+            List<Map.Entry<Long, Integer>> chunk = rows.subList(from, Math.min(from + ID_CHUNK, rows.size()));
+            int chunkUpdated = jdbcTemplate.update(sqlForRows.apply(chunk.size()), flatten(chunk));
+            updated += chunkUpdated;
+            if (chunkUpdated < chunk.size()) {
+                break;
+            }
+        }
+        return updated;
+    }
+
+    // ========== BULK STATUS ==========
+
+    /**
+     * Đổi trạng thái nhiều đơn trong 1 JDBC batch, mỗi dòng chỉ cập nhật nếu trạng thái vẫn là trạng thái đã đọc
+     * @param previous orderId -> trạng thái hiện tại, đã sắp xếp theo id (khóa dòng theo thứ tự)
+     * @return số dòng cập nhật theo đúng thứ tự của previous (0 = đơn vừa bị đổi trạng thái ở nơi khác)
+     */
+    public int[] updateStatuses(SortedMap<Long, OrderStatus> previous, OrderStatus newStatus, LocalDateTime now) {
+        String timestampColumn = switch (newStatus) {
+            case CONFIRMED -> "confirmed_at";
+            case SHIPPING -> "shipped_at";
+            case DELIVERED -> "delivered_at";
+            case COMPLETED -> "completed_at";
+            case CANCELLED -> "cancelled_at";
+            default -> null;
+        };
+        StringBuilder sql = new StringBuilder("UPDATE orders SET status = ?, updated_at = ?");
+        if (timestampColumn != null) {
+            sql.append(", ").append(timestampColumn).append(" = ?");
+        }
+        if (newStatus == OrderStatus.COMPLETED) {
+            // Đơn COD hoàn thành coi như đã thu tiền (giống completeOrder)
+            sql.append(", paid_at = CASE WHEN payment_method = 'COD' AND is_paid = 0 THEN ? ELSE paid_at END")
+               .append(", is_paid = CASE WHEN payment_method = 'COD' THEN 1 ELSE is_paid END");
+        }
+        sql.append(" WHERE id = ? AND status = ?");
+
+        List<Map.Entry<Long, OrderStatus>> rows = new ArrayList<>(previous.entrySet());
+        Timestamp ts = Timestamp.valueOf(now);
+        return jdbcTemplate.batchUpdate(sql.toString(), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int idx = 1;
+                ps.setString(idx++, newStatus.name());
+                ps.setTimestamp(idx++, ts);
+                if (timestampColumn != null) {
+                    ps.setTimestamp(idx++, ts);
+                }
+                if (newStatus == OrderStatus.COMPLETED) {
+                    ps.setTimestamp(idx++, ts);
+                }
+                ps.setLong(idx++, rows.get(i).getKey());
+                ps.setString(idx, rows.get(i).getValue().name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    public void insertStatusHistory(List<Long> orderIds, OrderStatus status, String note, Long changedBy, LocalDateTime now) {
+        Timestamp ts = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, orderIds, BATCH_SIZE, (ps, orderId) -> {
+            ps.setString(1, status.name());
+            ps.setString(2, note);
+            ps.setTimestamp(3, ts);
+            ps.setLong(4, orderId);
+            if (changedBy != null) {
+                ps.setLong(5, changedBy);
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+        });
+    }
+
+    /**
+     * Ghi outbox ORDER_STATUS_CHANGED cho nhiều đơn, thông báo do OutboxDispatcher gửi sau commit
+     */
+    public void insertStatusChangedEvents(Map<Long, OrderStatusChange> changes, LocalDateTime now) {
+        List<Map.Entry<Long, OrderStatusChange>> rows = new ArrayList<>(changes.entrySet());
+        Timestamp ts = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setString(1, OutboxEventType.ORDER_STATUS_CHANGED.name());
+            ps.setLong(2, row.getKey());
+            ps.setString(3, row.getValue().encode());
+            ps.setString(4, OutboxStatus.PENDING.name());
+            ps.setTimestamp(5, ts);
+            ps.setTimestamp(6, ts);
+        });
+    }
+
+    // ========== ARCHIVE ==========
+
+    public void insertArchivedOrders(List<ArchivedOrder> rows) {
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVED_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.getId());
+            ps.setString(2, row.getOrderCode());
+            ps.setLong(3, row.getUserId());
+            ps.setString(4, row.getStatus().name());
+            ps.setBigDecimal(5, row.getTotalAmount());
+            ps.setTimestamp(6, Timestamp.valueOf(row.getCreatedAt()));
+            ps.setTimestamp(7, Timestamp.valueOf(row.getArchivedAt()));
+            ps.setBytes(8, row.getSnapshot());
+        });
+    }
+
+    /**
+     * Xóa đơn đã lưu trữ khỏi các bảng nóng; tham chiếu từ reviews / voucher_usage chuyển sang cột archived_*
+     * @return số đơn bị xóa, nhỏ hơn orderIds.size() nghĩa là có đơn vừa đổi trạng thái (caller nên rollback)
+     */
+    public int deleteArchivedOrders(List<Long> orderIds, Collection<OrderStatus> statuses) {
+        List<Long> sorted = new ArrayList<>(orderIds);
+        Collections.sort(sorted);
+        int deleted = 0;
+        for (int from = 0; from < sorted.size(); from += ID_CHUNK) {
+            deleted += deleteArchivedChunk(sorted.subList(from, Math.min(from + ID_CHUNK, sorted.size())), statuses);
+        }
+        return deleted;
+    }
+
+    private int deleteArchivedChunk(List<Long> orderIds, Collection<OrderStatus> statuses) {
+        String ids = placeholders(orderIds.size());
+        Object[] args = orderIds.toArray();
+
+        // Giữ liên kết review / voucher: chuyển id sang cột archived_* (không FK) trước khi xóa dòng gốc
+        jdbcTemplate.update("UPDATE reviews SET archived_order_item_id = order_item_id, order_item_id = NULL " +
+                "WHERE order_item_id IN (SELECT id FROM order_items WHERE order_id IN " + ids + ")", args);
+        jdbcTemplate.update("UPDATE voucher_usage SET archived_order_id = order_id, order_id = NULL " +
+                "WHERE order_id IN " + ids, args);
+        jdbcTemplate.update("DELETE FROM order_status_history WHERE order_id IN " + ids, args);
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN " + ids, args);
+
+        List<Object> orderArgs = new ArrayList<>(orderIds);
+        statuses.forEach(status -> orderArgs.add(status.name()));
+        return jdbcTemplate.update("DELETE FROM orders WHERE id IN " + ids +
+                " AND status IN " + placeholders(statuses.size()), orderArgs.toArray());
+    }
+
+    // (?, ?, ...)
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    // (VALUES (?, ?), (?, ?), ...) AS v(id, qty)
+    private static String valuesTable(int rows) {
+        StringBuilder sb = new StringBuilder("(VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sb.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+        }
+        return sb.append(") AS v(id, qty)").toString();
+    }
+
+    private static Object[] flatten(List<Map.Entry<Long, Integer>> rows) {
+        List<Object> args = new ArrayList<>(rows.size() * 2);
+        for (Map.Entry<Long, Integer> row : rows) {
+            args.add(row.getKey());
+            args.add(row.getValue());
+        }
+        return args.toArray();
+    }
+}
@@ -1,5 +1,7 @@
 package com.argaty.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Pageable;
@@ -10,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.argaty.entity.OrderItem;
+import com.argaty.enums.OrderStatus;
 
 /**
  * Repository cho OrderItem Entity
@@ -53,4 +56,16 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
            "GROUP BY oi.product.category.id, oi.product.category.name " +
            "ORDER BY totalSold DESC")
     List<Object[]> getSalesByCategory();
+
+    // [productId, categoryId, productName, quantity, subtotal] cho rollup doanh số
+    @Query("SELECT p.id, c.id, oi.productName, oi.quantity, oi.subtotal " +
+           "FROM OrderItem oi JOIN oi.product p LEFT JOIN p.category c WHERE oi.order.id = :orderId")
+    List<Object[]> findSaleRowsByOrderId(@Param("orderId") Long orderId);
+
+    // [createdAt, productId, categoryId, productName, quantity] của đơn gần đây cho bảng xếp hạng top-K
+    @Query("SELECT o.createdAt, p.id, c.id, oi.productName, oi.quantity " +
+           "FROM OrderItem oi JOIN oi.order o JOIN oi.product p LEFT JOIN p.category c " +
+           "WHERE o.createdAt >= :from AND o.status NOT IN :excluded")
+    List<Object[]> findSaleRowsSince(@Param("from") LocalDateTime from,
+                                     @Param("excluded") Collection<OrderStatus> excluded);
 }
\ No newline at end of file
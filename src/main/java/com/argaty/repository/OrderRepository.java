@@ -2,11 +2,16 @@ package com.argaty.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -48,6 +53,11 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
 
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
+    // Phân trang keyset (không COUNT)
+    Window<Order> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Order> findByStatus(OrderStatus status, ScrollPosition position, Limit limit, Sort sort);
+
     List<Order> findByStatusIn(List<OrderStatus> statuses);
 
     @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt ASC")
@@ -67,6 +77,13 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
             "o.receiverPhone LIKE CONCAT('%', :keyword, '%')")
     Page<Order> searchOrders(@Param("keyword") String keyword, Pageable pageable);
 
+    // Dữ liệu cho index tìm kiếm admin: [id, orderCode, receiverName, receiverPhone]
+    @Query("SELECT o.id, o.orderCode, o.receiverName, o.receiverPhone FROM Order o")
+    List<Object[]> findAdminSearchRows();
+
+    @Query("SELECT o.id, o.orderCode, o.receiverName, o.receiverPhone FROM Order o WHERE o.id = :id")
+    List<Object[]> findAdminSearchRowById(@Param("id") Long id);
+
     // [SỬA] Fix lỗi khoảng trắng ": keyword" thành ":keyword"
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND " +
             "(o.orderCode LIKE CONCAT('%', :keyword, '%') OR " +
@@ -98,6 +115,34 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.orderCode = :orderCode")
     Optional<Order> findByOrderCodeWithItems(@Param("orderCode") String orderCode);
 
+    /**
+     * [id, orderCode, status, createdAt, totalAmount] cho chuyển trạng thái hàng loạt
+     */
+    @Query("SELECT o.id, o.orderCode, o.status, o.createdAt, o.totalAmount FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findStatusRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.user.id FROM Order o WHERE o.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /**
+     * [createdAt, userId, totalAmount] của đơn gần đây cho bảng xếp hạng top-K khách hàng
+     */
+    @Query("SELECT o.createdAt, o.user.id, o.totalAmount FROM Order o " +
+           "WHERE o.createdAt >= :from AND o.status NOT IN :excluded")
+    List<Object[]> findCustomerSaleRowsSince(@Param("from") LocalDateTime from,
+                                             @Param("excluded") Collection<OrderStatus> excluded);
+
+    // ========== ARCHIVE ==========
+
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.createdAt < :before ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("before") LocalDateTime before,
+                                 Limit limit);
+
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product " +
+           "WHERE o.id IN :ids")
+    List<Order> findForArchive(@Param("ids") Collection<Long> ids);
+
     // ========== UPDATE ==========
 
     @Modifying
@@ -126,6 +171,19 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :startDate")
     long countOrdersFromDate(@Param("startDate") LocalDateTime startDate);
 
+    // [status, count]
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
+
+    // [ngày, số đơn, số đơn hoàn thành, doanh thu đơn hoàn thành] theo ngày tạo đơn
+    @Query(value = "SELECT CAST(o.created_at AS DATE) as orderDate, COUNT(*) as orderCount, " +
+            "SUM(CASE WHEN o.status = 'COMPLETED' THEN 1 ELSE 0 END) as completedCount, " +
+            "SUM(CASE WHEN o.status = 'COMPLETED' THEN o.total_amount ELSE 0 END) as revenue " +
+            "FROM orders o WHERE o.created_at >= :startDate " +
+            "GROUP BY CAST(o.created_at AS DATE)",
+            nativeQuery = true)
+    List<Object[]> getDailyTotals(@Param("startDate") LocalDateTime startDate);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
     long countOrdersBetween(@Param("startDate") LocalDateTime startDate,
                             @Param("endDate") LocalDateTime endDate);
@@ -154,9 +212,11 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
             nativeQuery = true)
     List<Object[]> getDailyStatistics(@Param("startDate") LocalDateTime startDate);
 
+    // Gộp cả đơn đã lưu trữ (archived_orders)
     @Query(value = "SELECT YEAR(o.created_at) as year, MONTH(o.created_at) as month, " +
             "COUNT(*) as orderCount, SUM(o.total_amount) as revenue " +
-            "FROM orders o WHERE o.status = 'COMPLETED' " +
+            "FROM (SELECT created_at, total_amount FROM orders WHERE status = 'COMPLETED' " +
+            "UNION ALL SELECT created_at, total_amount FROM archived_orders WHERE status = 'COMPLETED') o " +
             "GROUP BY YEAR(o.created_at), MONTH(o.created_at) " +
             "ORDER BY year DESC, month DESC",
             nativeQuery = true)
@@ -1,8 +1,11 @@
 package com.argaty.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.argaty.entity.OrderStatusHistory;
@@ -16,4 +19,8 @@ public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusH
     List<OrderStatusHistory> findByOrderIdOrderByCreatedAtDesc(Long orderId);
 
     List<OrderStatusHistory> findByOrderIdOrderByCreatedAtAsc(Long orderId);
+
+    @Query("SELECT h FROM OrderStatusHistory h LEFT JOIN FETCH h.changedBy " +
+           "WHERE h.order.id IN :orderIds ORDER BY h.createdAt DESC")
+    List<OrderStatusHistory> findByOrderIdInWithChangedBy(@Param("orderIds") Collection<Long> orderIds);
 }
\ No newline at end of file
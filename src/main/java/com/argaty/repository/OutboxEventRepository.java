@@ -0,0 +1,72 @@
+package com.argaty.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.OutboxEvent;
+import com.argaty.enums.OutboxStatus;
+
+/**
+ * Repository cho OutboxEvent
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Id các event tới hạn xử lý: PENDING tới lượt thử, hoặc PROCESSING đã hết lease (worker chết giữa chừng)
+     */
+    @Query("SELECT e.id FROM OutboxEvent e " +
+           "WHERE e.status IN (com.argaty.enums.OutboxStatus.PENDING, com.argaty.enums.OutboxStatus.PROCESSING) " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC, e.id ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Nhận xử lý 1 batch: chuyển sang PROCESSING và giữ lease tới leaseUntil
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.argaty.enums.OutboxStatus.PROCESSING, " +
+           "e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 " +
+           "WHERE e.id IN :ids AND e.status IN (com.argaty.enums.OutboxStatus.PENDING, com.argaty.enums.OutboxStatus.PROCESSING) " +
+           "AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxEvent> findByIdInAndStatusAndNextAttemptAt(Collection<Long> ids, OutboxStatus status,
+                                                          LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.argaty.enums.OutboxStatus.DONE, e.processedAt = :now, " +
+           "e.lastError = null WHERE e.id IN :ids")
+    int markDone(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int markFailedAttempt(@Param("id") Long id,
+                          @Param("status") OutboxStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    /**
+     * Trả lại event chưa kịp giao cho worker (queue đầy) mà không tính lượt thử
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.argaty.enums.OutboxStatus.PENDING, " +
+           "e.nextAttemptAt = :now, e.attempts = e.attempts - 1 WHERE e.id = :id")
+    int release(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    long countByStatus(OutboxStatus status);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.argaty.enums.OutboxStatus.DONE AND e.processedAt < :before")
+    int deleteDoneBefore(@Param("before") LocalDateTime before);
+}
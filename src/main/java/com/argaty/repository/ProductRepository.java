@@ -1,6 +1,7 @@
 package com.argaty.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +15,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.entity.Product;
 
 /**
@@ -22,6 +24,17 @@ import com.argaty.entity.Product;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
+    // Ảnh chính của sản phẩm (không có thì lấy ảnh bất kỳ)
+    String MAIN_IMAGE = "COALESCE((SELECT MIN(i.imageUrl) FROM ProductImage i WHERE i.product = p AND i.isMain = true), " +
+                        "(SELECT MIN(i2.imageUrl) FROM ProductImage i2 WHERE i2.product = p))";
+
+    // Projection cho product card: 1 query / trang, không load description / specifications
+    String CARD_SELECT = "SELECT new com.argaty.dto.projection.ProductCardView(" +
+                         "p.id, p.name, p.slug, p.sku, p.shortDescription, " + MAIN_IMAGE + ", " +
+                         "p.price, p.salePrice, p.saleStartDate, p.saleEndDate, p.rating, p.reviewCount, p.quantity, " +
+                         "p.isNew, p.isFeatured, p.isBestSeller, p.isActive, c.name, c.slug, b.name, b.slug) " +
+                         "FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b ";
+
     // ========== FIND ALL FOR ADMIN ==========
     
     @EntityGraph(attributePaths = {"category", "brand"})
@@ -48,6 +61,8 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     boolean existsBySku(String sku);
 
+    boolean existsByIdAndIsActiveTrue(Long id);
+
     // ========== FIND BY CATEGORY ==========
 
     Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
@@ -57,6 +72,17 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     List<Product> findTop10ByCategoryIdAndIsActiveTrueAndIdNot(Long categoryId, Long excludeId);
 
+    @Query("SELECT p.category.id FROM Product p WHERE p.id = :id")
+    Optional<Long> findCategoryIdById(@Param("id") Long id);
+
+    // Ảnh chính của nhiều sản phẩm trong 1 query: [productId, imageUrl]
+    @Query("SELECT p.id, " + MAIN_IMAGE + " FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findMainImages(@Param("ids") Collection<Long> ids);
+
+    // Danh mục hiện tại của nhiều sản phẩm: [productId, categoryId]
+    @Query("SELECT p.id, c.id FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<Object[]> findCategoryIdsByIdIn(@Param("ids") Collection<Long> ids);
+
     // ========== FIND BY BRAND ==========
 
     Page<Product> findByBrandIdAndIsActiveTrue(Long brandId, Pageable pageable);
@@ -70,6 +96,43 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId OR p.category.parent.id = :categoryId")
     Page<Product> findAllByCategoryAndSubcategories(@Param("categoryId") Long categoryId, Pageable pageable);
 
+    // ========== PRODUCT CARDS (projection) ==========
+
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<ProductCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + "WHERE p.isFeatured = true AND p.isActive = true ORDER BY p.createdAt DESC")
+    List<ProductCardView> findFeaturedCards(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.isNew = true AND p.isActive = true ORDER BY p.createdAt DESC")
+    List<ProductCardView> findNewCards(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.isBestSeller = true AND p.isActive = true ORDER BY p.soldCount DESC")
+    List<ProductCardView> findBestSellerCards(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.isActive = true ORDER BY p.createdAt DESC")
+    List<ProductCardView> findLatestCards(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE p.isActive = true ORDER BY p.soldCount DESC")
+    List<ProductCardView> findTopSellingCards(Pageable pageable);
+
+    @Query(value = CARD_SELECT + "WHERE p.salePrice IS NOT NULL AND p.salePrice < p.price " +
+                   "AND p.isActive = true AND " +
+                   "(p.saleStartDate IS NULL OR p.saleStartDate <= CURRENT_TIMESTAMP) AND " +
+                   "(p.saleEndDate IS NULL OR p.saleEndDate >= CURRENT_TIMESTAMP) " +
+                   "ORDER BY p.discountPercent DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.salePrice IS NOT NULL AND p.salePrice < p.price " +
+                        "AND p.isActive = true AND " +
+                        "(p.saleStartDate IS NULL OR p.saleStartDate <= CURRENT_TIMESTAMP) AND " +
+                        "(p.saleEndDate IS NULL OR p.saleEndDate >= CURRENT_TIMESTAMP)")
+    Page<ProductCardView> findOnSaleCards(Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE c.id = :categoryId AND p.id <> :productId " +
+           "AND p.isActive = true ORDER BY p.soldCount DESC")
+    List<ProductCardView> findRelatedCards(@Param("categoryId") Long categoryId,
+                                           @Param("productId") Long productId,
+                                           Pageable pageable);
+
     // ========== FIND FEATURED / NEW / BESTSELLER ==========
 
     @Query("SELECT p FROM Product p WHERE p.isFeatured = true AND p.isActive = true " +
@@ -129,6 +192,43 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
                                            @Param("categoryId") Long categoryId,
                                            Pageable pageable);
 
+    // ========== SEARCH INDEX (in-memory) ==========
+
+    // Chỉ lấy các cột cần cho index, không load description/specifications
+    @Query("SELECT p.id, p.name, p.shortDescription, p.sku, p.isActive, c.id, " +
+           "p.price, p.soldCount, p.rating, p.createdAt " +
+           "FROM Product p LEFT JOIN p.category c")
+    List<Object[]> findAllSearchRows();
+
+    @Query("SELECT p.id, p.name, p.shortDescription, p.sku, p.isActive, c.id, " +
+           "p.price, p.soldCount, p.rating, p.createdAt " +
+           "FROM Product p LEFT JOIN p.category c WHERE p.id = :id")
+    List<Object[]> findSearchRowById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"category", "brand"})
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.id, p.isActive, c.id, b.id, p.price, p.salePrice, p.saleStartDate, p.saleEndDate, " +
+           "p.quantity, p.name, p.soldCount, p.rating, p.createdAt " +
+           "FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b")
+    List<Object[]> findAllFacetRows();
+
+    @Query("SELECT p.id, p.isActive, c.id, b.id, p.price, p.salePrice, p.saleStartDate, p.saleEndDate, " +
+           "p.quantity, p.name, p.soldCount, p.rating, p.createdAt " +
+           "FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b WHERE p.id = :id")
+    List<Object[]> findFacetRowById(@Param("id") Long id);
+
+    // Gợi ý tìm kiếm: kèm sẵn ảnh chính (hoặc ảnh bất kỳ) để không phải query khi gợi ý
+    @Query("SELECT p.id, p.name, p.slug, p.price, p.salePrice, p.saleStartDate, p.saleEndDate, " +
+           "p.soldCount, p.rating, p.isActive, " +
+           MAIN_IMAGE + " FROM Product p")
+    List<Object[]> findAllSuggestionRows();
+
+    @Query("SELECT p.id, p.name, p.slug, p.price, p.salePrice, p.saleStartDate, p.saleEndDate, " +
+           "p.soldCount, p.rating, p.isActive, " +
+           MAIN_IMAGE + " FROM Product p WHERE p.id = :id")
+    List<Object[]> findSuggestionRowById(@Param("id") Long id);
+
     // ========== FILTER BY PRICE ==========
 
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
@@ -146,6 +246,13 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.quantity = 0 AND p.isActive = true")
     List<Product> findOutOfStockProducts();
 
+    // Trạng thái tồn kho cho StockStateTracker: [id, quantity, lowStockThreshold, isActive]
+    @Query("SELECT p.id, p.quantity, p.lowStockThreshold, p.isActive FROM Product p")
+    List<Object[]> findStockStates();
+
+    @Query("SELECT p.id, p.quantity, p.lowStockThreshold, p.isActive FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockStatesByIds(@Param("ids") Collection<Long> ids);
+
     // ========== RELATED PRODUCTS ==========
 
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.id <> :productId " +
@@ -171,6 +278,27 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("UPDATE Product p SET p.quantity = p.quantity + :quantity WHERE p.id = :productId")
     void increaseQuantity(@Param("productId") Long productId, @Param("quantity") int quantity);
 
+    /**
+     * Ghi delta đã gộp từ StockLedger; trả về 0 nếu tồn kho sẽ âm (bán vượt), khi đó không cập nhật gì
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :quantityDelta, " +
+           "p.soldCount = p.soldCount + :soldDelta " +
+           "WHERE p.id = :productId AND p.quantity + :quantityDelta >= 0")
+    int applyStockDelta(@Param("productId") Long productId,
+                        @Param("quantityDelta") int quantityDelta,
+                        @Param("soldDelta") int soldDelta);
+
+    /**
+     * Bù cho delta bị chặn ở applyStockDelta: tồn kho về 0, vẫn cộng số đã bán
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = 0, p.soldCount = p.soldCount + :soldDelta WHERE p.id = :productId")
+    int clearOversoldStock(@Param("productId") Long productId, @Param("soldDelta") int soldDelta);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :productId")
+    Integer findQuantityById(@Param("productId") Long productId);
+
     @Modifying
     @Query("UPDATE Product p SET p.rating = :rating, p.reviewCount = :reviewCount WHERE p.id = :productId")
     void updateRating(@Param("productId") Long productId,
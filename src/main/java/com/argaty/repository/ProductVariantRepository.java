@@ -1,5 +1,6 @@
 package com.argaty.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +39,36 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Query("UPDATE ProductVariant pv SET pv.quantity = pv.quantity + :quantity WHERE pv.id = :variantId")
     void increaseQuantity(@Param("variantId") Long variantId, @Param("quantity") int quantity);
 
+    /**
+     * Ghi delta đã gộp từ StockLedger; trả về 0 nếu tồn kho sẽ âm (bán vượt), khi đó không cập nhật gì
+     */
+    @Modifying
+    @Query("UPDATE ProductVariant pv SET pv.quantity = pv.quantity + :quantityDelta " +
+           "WHERE pv.id = :variantId AND pv.quantity + :quantityDelta >= 0")
+    int applyQuantityDelta(@Param("variantId") Long variantId, @Param("quantityDelta") int quantityDelta);
+
+    @Modifying
+    @Query("UPDATE ProductVariant pv SET pv.quantity = 0 WHERE pv.id = :variantId")
+    int clearOversoldQuantity(@Param("variantId") Long variantId);
+
+    @Query("SELECT pv.quantity FROM ProductVariant pv WHERE pv.id = :variantId")
+    Integer findQuantityById(@Param("variantId") Long variantId);
+
+    // Trạng thái tồn kho cho StockStateTracker: [id, productId, quantity, lowStockThreshold của sản phẩm, isActive]
+    @Query("SELECT pv.id, p.id, pv.quantity, p.lowStockThreshold, pv.isActive FROM ProductVariant pv JOIN pv.product p")
+    List<Object[]> findStockStates();
+
+    @Query("SELECT pv.id, p.id, pv.quantity, p.lowStockThreshold, pv.isActive FROM ProductVariant pv JOIN pv.product p " +
+           "WHERE p.id IN :productIds")
+    List<Object[]> findStockStatesByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Ảnh chính của nhiều biến thể trong 1 query: [variantId, imageUrl], null nếu biến thể không có ảnh riêng
+    @Query("SELECT pv.id, COALESCE(" +
+           "(SELECT MIN(i.imageUrl) FROM VariantImage i WHERE i.variant = pv AND i.isMain = true), " +
+           "(SELECT MIN(i2.imageUrl) FROM VariantImage i2 WHERE i2.variant = pv)) " +
+           "FROM ProductVariant pv WHERE pv.id IN :ids")
+    List<Object[]> findMainImages(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT SUM(pv.quantity) FROM ProductVariant pv WHERE pv.product.id = :productId AND pv.isActive = true")
     Integer getTotalQuantityByProductId(@Param("productId") Long productId);
 
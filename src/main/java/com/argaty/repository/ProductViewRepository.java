@@ -0,0 +1,112 @@
+package com.argaty.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Đọc / ghi bảng product_view_daily_stats bằng JDBC
+ * Lượt xem cộng dồn bằng MERGE ... WITH (HOLDLOCK); sketch người xem do bên gọi gộp sẵn rồi ghi đè
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductViewRepository {
+
+    // SQL Server giới hạn ~2100 tham số mỗi câu lệnh
+    private static final int ID_CHUNK = 1000;
+
+    private static final String MERGE_SQL =
+            "MERGE product_view_daily_stats WITH (HOLDLOCK) AS t " +
+            "USING (VALUES (?, ?, ?, ?)) AS s (view_date, product_id, view_count, viewer_sketch) " +
+            "ON t.view_date = s.view_date AND t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET view_count = t.view_count + s.view_count, " +
+            "viewer_sketch = COALESCE(s.viewer_sketch, t.viewer_sketch) " +
+            "WHEN NOT MATCHED THEN INSERT (view_date, product_id, view_count, viewer_sketch) " +
+            "VALUES (s.view_date, s.product_id, s.view_count, s.viewer_sketch);";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cộng lượt xem của 1 ngày cho nhiều sản phẩm trong 1 JDBC batch
+     */
+    public void addViews(LocalDate day, List<ViewDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Date date = Date.valueOf(day);
+        jdbcTemplate.batchUpdate(MERGE_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setDate(1, date);
+            ps.setLong(2, delta.getProductId());
+            ps.setLong(3, delta.getViews());
+            ps.setBytes(4, delta.getViewerSketch());
+        });
+    }
+
+    /**
+     * Sketch người xem đã lưu của các sản phẩm trong ngày
+     */
+    public Map<Long, byte[]> findViewerSketches(LocalDate day, Collection<Long> productIds) {
+        Map<Long, byte[]> sketches = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(Date.valueOf(day));
+            args.addAll(chunk);
+            jdbcTemplate.query(
+                    "SELECT product_id, viewer_sketch FROM product_view_daily_stats " +
+                    "WHERE view_date = ? AND viewer_sketch IS NOT NULL AND product_id IN (" +
+                    String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                    rs -> {
+                        sketches.put(rs.getLong(1), rs.getBytes(2));
+                    },
+                    args.toArray());
+        }
+        return sketches;
+    }
+
+    /**
+     * [productId, ngày, lượt xem] từ ngày from trở đi
+     */
+    public List<Object[]> findViewsSince(LocalDate from) {
+        return jdbcTemplate.query(
+                "SELECT product_id, view_date, view_count FROM product_view_daily_stats WHERE view_date >= ?",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getLong(3)},
+                Date.valueOf(from));
+    }
+
+    /**
+     * [ngày, lượt xem, sketch người xem] của 1 sản phẩm từ ngày from trở đi, mới nhất trước
+     */
+    public List<Object[]> findProductDays(Long productId, LocalDate from) {
+        return jdbcTemplate.query(
+                "SELECT view_date, view_count, viewer_sketch FROM product_view_daily_stats " +
+                "WHERE product_id = ? AND view_date >= ? ORDER BY view_date DESC",
+                (rs, i) -> new Object[]{rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getBytes(3)},
+                productId, Date.valueOf(from));
+    }
+
+    // ========== TYPES ==========
+
+    /**
+     * Lượt xem mới của 1 sản phẩm kể từ lần ghi trước, kèm sketch người xem đã gộp (null = giữ nguyên)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class ViewDelta {
+        private final Long productId;
+        private final long views;
+        private final byte[] viewerSketch;
+    }
+}
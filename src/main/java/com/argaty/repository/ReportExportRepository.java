@@ -0,0 +1,195 @@
+package com.argaty.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Đọc dữ liệu xuất báo cáo bằng con trỏ JDBC forward-only, read-only
+ * - Driver đọc kết quả theo từng đợt fetch thay vì nạp cả tập, bộ nhớ không phụ thuộc số dòng
+ * - Mỗi dòng được chuyển thành Object[] và đưa ngay cho bên gọi (ghi ra file / response)
+ * Khoảng thời gian là nửa mở [from, to)
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReportExportRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String ORDERS_SQL =
+            "SELECT o.order_code, o.created_at, u.full_name, u.email, o.receiver_name, o.receiver_phone, o.city, " +
+            "o.payment_method, o.is_paid, o.subtotal, o.shipping_fee, o.discount_amount, o.total_amount, " +
+            "o.voucher_code, o.status, o.completed_at, o.cancelled_at " +
+            "FROM orders o LEFT JOIN users u ON u.id = o.user_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.id";
+
+    private static final String ORDER_LINES_SQL =
+            "SELECT o.order_code, o.created_at, o.status, oi.product_id, oi.product_name, oi.variant_name, oi.sku, " +
+            "oi.unit_price, oi.quantity, oi.subtotal " +
+            "FROM order_items oi INNER JOIN orders o ON o.id = oi.order_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.id, oi.id";
+
+    private static final String ARCHIVED_ORDERS_SQL =
+            "SELECT a.snapshot, u.full_name, u.email " +
+            "FROM archived_orders a LEFT JOIN users u ON u.id = a.user_id " +
+            "WHERE a.created_at >= ? AND a.created_at < ? ORDER BY a.created_at, a.id";
+
+    private static final String DAILY_REVENUE_ROLLUP_SQL =
+            "SELECT sale_date, order_count, revenue FROM sales_daily_rollups " +
+            "WHERE sale_date >= ? AND sale_date < ? AND order_count > 0 ORDER BY sale_date";
+
+    // Đơn còn trong orders + đơn đã lưu trữ (chỉ cần cột tổng tiền, không giải nén snapshot)
+    private static final String DAILY_REVENUE_SQL =
+            "SELECT CAST(o.created_at AS DATE) as sale_date, COUNT(*), SUM(o.total_amount) " +
+            "FROM (SELECT created_at, total_amount FROM orders " +
+            "WHERE status = 'COMPLETED' AND created_at >= ? AND created_at < ? " +
+            "UNION ALL SELECT created_at, total_amount FROM archived_orders " +
+            "WHERE status = 'COMPLETED' AND created_at >= ? AND created_at < ?) o " +
+            "GROUP BY CAST(o.created_at AS DATE) ORDER BY sale_date";
+
+    // Tồn kho = số trong bảng + entry ledger chưa ghi về (entry có variant_id chỉ áp dụng cho biến thể)
+    private static final String INVENTORY_SQL =
+            "SELECT p.id, p.name, p.sku, c.name, b.name, v.id, v.name, v.sku, " +
+            "p.price + COALESCE(v.additional_price, 0), p.sale_price, " +
+            "CASE WHEN v.id IS NULL THEN p.quantity + COALESCE(lp.quantity_delta, 0) " +
+            "ELSE v.quantity + COALESCE(lv.quantity_delta, 0) END, " +
+            "p.sold_count + COALESCE(ls.sold_delta, 0), p.low_stock_threshold, " +
+            "CASE WHEN v.id IS NULL THEN p.is_active ELSE CAST(CASE WHEN p.is_active = 1 AND v.is_active = 1 " +
+            "THEN 1 ELSE 0 END AS BIT) END " +
+            "FROM products p " +
+            "LEFT JOIN categories c ON c.id = p.category_id " +
+            "LEFT JOIN brands b ON b.id = p.brand_id " +
+            "LEFT JOIN product_variants v ON v.product_id = p.id " +
+            "LEFT JOIN (SELECT product_id, SUM(quantity_delta) as quantity_delta FROM stock_ledger_entries " +
+            "WHERE variant_id IS NULL GROUP BY product_id) lp ON lp.product_id = p.id " +
+            "LEFT JOIN (SELECT variant_id, SUM(quantity_delta) as quantity_delta FROM stock_ledger_entries " +
+            "WHERE variant_id IS NOT NULL GROUP BY variant_id) lv ON lv.variant_id = v.id " +
+            "LEFT JOIN (SELECT product_id, SUM(sold_delta) as sold_delta FROM stock_ledger_entries " +
+            "GROUP BY product_id) ls ON ls.product_id = p.id " +
+            "ORDER BY p.id, v.display_order, v.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ========== STREAM ==========
+
+    /**
+     * [mã đơn, ngày tạo, tên khách, email, người nhận, SĐT, tỉnh/TP, phương thức thanh toán, đã thanh toán,
+     * tạm tính, phí ship, giảm giá, tổng tiền, voucher, trạng thái, ngày hoàn thành, ngày hủy]
+     */
+    public void streamOrders(LocalDateTime from, LocalDateTime to, Consumer<Object[]> consumer) {
+        stream(ORDERS_SQL, rs -> new Object[]{
+                rs.getString(1), time(rs, 2), rs.getString(3), rs.getString(4), rs.getString(5),
+                rs.getString(6), rs.getString(7), rs.getString(8), rs.getBoolean(9), rs.getBigDecimal(10),
+                rs.getBigDecimal(11), rs.getBigDecimal(12), rs.getBigDecimal(13), rs.getString(14),
+                rs.getString(15), time(rs, 16), time(rs, 17)
+        }, consumer, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * [mã đơn, ngày tạo, trạng thái, productId, tên sản phẩm, biến thể, SKU, đơn giá, số lượng, thành tiền]
+     */
+    public void streamOrderLines(LocalDateTime from, LocalDateTime to, Consumer<Object[]> consumer) {
+        stream(ORDER_LINES_SQL, rs -> new Object[]{
+                rs.getString(1), time(rs, 2), rs.getString(3), rs.getLong(4), rs.getString(5),
+                rs.getString(6), rs.getString(7), rs.getBigDecimal(8), rs.getInt(9), rs.getBigDecimal(10)
+        }, consumer, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * [snapshot nén, tên khách, email] của đơn đã lưu trữ, cũ nhất trước
+     */
+    public void streamArchivedOrders(LocalDateTime from, LocalDateTime to, Consumer<Object[]> consumer) {
+        stream(ARCHIVED_ORDERS_SQL, rs -> new Object[]{rs.getBytes(1), rs.getString(2), rs.getString(3)},
+                consumer, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * [ngày, số đơn hoàn thành, doanh thu] từ bảng rollup, cũ nhất trước
+     */
+    public void streamDailyRevenueFromRollups(LocalDate from, LocalDate to, Consumer<Object[]> consumer) {
+        stream(DAILY_REVENUE_ROLLUP_SQL, rs -> new Object[]{rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getBigDecimal(3)},
+                consumer, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Như streamDailyRevenueFromRollups nhưng gom trực tiếp từ orders + archived_orders
+     */
+    public void streamDailyRevenue(LocalDate from, LocalDate to, Consumer<Object[]> consumer) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+        stream(DAILY_REVENUE_SQL, rs -> new Object[]{rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getBigDecimal(3)},
+                consumer, start, end, start, end);
+    }
+
+    /**
+     * [productId, tên, SKU, danh mục, thương hiệu, variantId, biến thể, SKU biến thể, giá, giá KM,
+     * tồn kho, đã bán, ngưỡng sắp hết, đang bán]; sản phẩm có biến thể ra 1 dòng mỗi biến thể
+     */
+    public void streamInventory(Consumer<Object[]> consumer) {
+        stream(INVENTORY_SQL, rs -> new Object[]{
+                rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                rs.getObject(6) != null ? rs.getLong(6) : null, rs.getString(7), rs.getString(8),
+                rs.getBigDecimal(9), rs.getBigDecimal(10), rs.getInt(11), rs.getInt(12),
+                rs.getObject(13) != null ? rs.getInt(13) : null, rs.getBoolean(14)
+        }, consumer);
+    }
+
+    // ========== COUNT ==========
+
+    public long countOrders(LocalDateTime from, LocalDateTime to) {
+        return count("SELECT (SELECT COUNT_BIG(*) FROM orders WHERE created_at >= ? AND created_at < ?) + " +
+                "(SELECT COUNT_BIG(*) FROM archived_orders WHERE created_at >= ? AND created_at < ?)",
+                Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Số dòng sản phẩm của đơn trong orders; đơn đã lưu trữ tính 1 dòng mỗi đơn (không giải nén để đếm)
+     */
+    public long countOrderLines(LocalDateTime from, LocalDateTime to) {
+        return count("SELECT (SELECT COUNT_BIG(*) FROM order_items oi INNER JOIN orders o ON o.id = oi.order_id " +
+                "WHERE o.created_at >= ? AND o.created_at < ?) + " +
+                "(SELECT COUNT_BIG(*) FROM archived_orders WHERE created_at >= ? AND created_at < ?)",
+                Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public long countInventory() {
+        return count("SELECT COUNT_BIG(*) FROM products p LEFT JOIN product_variants v ON v.product_id = p.id");
+    }
+
+    // ========== HELPERS ==========
+
+    private void stream(String sql, RowMapper mapper, Consumer<Object[]> consumer, Object... args) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            return ps;
+        }, (ResultSet rs) -> consumer.accept(mapper.map(rs)));
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count != null ? count : 0;
+    }
+
+    private static LocalDateTime time(ResultSet rs, int column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    @FunctionalInterface
+    private interface RowMapper {
+        Object[] map(ResultSet rs) throws SQLException;
+    }
+}
@@ -3,8 +3,12 @@ package com.argaty.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -25,6 +29,9 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     List<Review> findByProductIdAndIsVisibleTrueOrderByCreatedAtDesc(Long productId);
 
+    // Phân trang keyset (không COUNT)
+    Window<Review> findByProductIdAndIsVisibleTrue(Long productId, ScrollPosition position, Limit limit, Sort sort);
+
     @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.isVisible = true " +
            "AND r.rating = :rating ORDER BY r.createdAt DESC")
     Page<Review> findByProductIdAndRating(@Param("productId") Long productId,
@@ -0,0 +1,165 @@
+package com.argaty.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Đọc / ghi bảng rollup doanh số (sales_daily_rollups, sales_product_daily_rollups) bằng JDBC
+ * - Cộng dồn bằng MERGE ... WITH (HOLDLOCK): 2 transaction cùng ngày / sản phẩm không tạo trùng dòng
+ * - Delta âm khi đơn rời trạng thái COMPLETED (đổi trả)
+ * Các hàm đọc trả về Object[] cùng dạng với query thống kê cũ trên orders / order_items
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private static final String MERGE_DAILY_SQL =
+            "MERGE sales_daily_rollups WITH (HOLDLOCK) AS t " +
+            "USING (VALUES (?, ?, ?)) AS s (sale_date, order_count, revenue) ON t.sale_date = s.sale_date " +
+            "WHEN MATCHED THEN UPDATE SET order_count = t.order_count + s.order_count, revenue = t.revenue + s.revenue " +
+            "WHEN NOT MATCHED THEN INSERT (sale_date, order_count, revenue) VALUES (s.sale_date, s.order_count, s.revenue);";
+
+    private static final String MERGE_PRODUCT_SQL =
+            "MERGE sales_product_daily_rollups WITH (HOLDLOCK) AS t " +
+            "USING (VALUES (?, ?, ?, ?, ?, ?)) AS s (sale_date, product_id, category_id, product_name, quantity, revenue) " +
+            "ON t.sale_date = s.sale_date AND t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.quantity, revenue = t.revenue + s.revenue " +
+            "WHEN NOT MATCHED THEN INSERT (sale_date, product_id, category_id, product_name, quantity, revenue) " +
+            "VALUES (s.sale_date, s.product_id, s.category_id, s.product_name, s.quantity, s.revenue);";
+
+    // Đơn còn trong orders + đơn đã lưu trữ (chỉ cần cột tổng tiền, không giải nén snapshot)
+    private static final String BACKFILL_DAILY_SQL =
+            "INSERT INTO sales_daily_rollups (sale_date, order_count, revenue) " +
+            "SELECT CAST(o.created_at AS DATE), COUNT(*), SUM(o.total_amount) " +
+            "FROM (SELECT created_at, total_amount FROM orders WHERE status = 'COMPLETED' " +
+            "UNION ALL SELECT created_at, total_amount FROM archived_orders WHERE status = 'COMPLETED') o " +
+            "GROUP BY CAST(o.created_at AS DATE)";
+
+    private static final String BACKFILL_PRODUCT_SQL =
+            "INSERT INTO sales_product_daily_rollups (sale_date, product_id, category_id, product_name, quantity, revenue) " +
+            "SELECT CAST(o.created_at AS DATE), oi.product_id, MAX(p.category_id), MAX(oi.product_name), " +
+            "SUM(oi.quantity), SUM(oi.subtotal) " +
+            "FROM order_items oi INNER JOIN orders o ON o.id = oi.order_id " +
+            "LEFT JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.status = 'COMPLETED' " +
+            "GROUP BY CAST(o.created_at AS DATE), oi.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ========== WRITE ==========
+
+    public void addDaily(LocalDate day, long orderCount, BigDecimal revenue) {
+        jdbcTemplate.update(MERGE_DAILY_SQL, Date.valueOf(day), orderCount, revenue);
+    }
+
+    /**
+     * Cộng dồn nhiều dòng sản phẩm của cùng 1 ngày trong 1 JDBC batch
+     * @param sign 1 khi đơn hoàn thành, -1 khi đơn rời trạng thái hoàn thành
+     */
+    public void addProducts(LocalDate day, List<ProductSale> sales, int sign) {
+        if (sales.isEmpty()) {
+            return;
+        }
+        Date date = Date.valueOf(day);
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        jdbcTemplate.batchUpdate(MERGE_PRODUCT_SQL, sales, sales.size(), (ps, sale) -> {
+            ps.setDate(1, date);
+            ps.setLong(2, sale.getProductId());
+            if (sale.getCategoryId() != null) {
+                ps.setLong(3, sale.getCategoryId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, sale.getProductName());
+            ps.setLong(5, sign * sale.getQuantity());
+            ps.setBigDecimal(6, sale.getRevenue().multiply(factor));
+        });
+    }
+
+    /**
+     * Xóa và dựng lại rollup từ đơn COMPLETED còn trong orders; theo ngày gồm cả đơn đã lưu trữ
+     * Dòng sản phẩm của đơn đã lưu trữ do bên gọi cộng thêm (nằm trong snapshot nén)
+     */
+    public void rebuildFromOrders() {
+        jdbcTemplate.update("DELETE FROM sales_product_daily_rollups");
+        jdbcTemplate.update("DELETE FROM sales_daily_rollups");
+        jdbcTemplate.update(BACKFILL_DAILY_SQL);
+        jdbcTemplate.update(BACKFILL_PRODUCT_SQL);
+    }
+
+    public boolean isEmpty() {
+        List<Integer> rows = jdbcTemplate.queryForList("SELECT TOP 1 1 FROM sales_daily_rollups", Integer.class);
+        return rows.isEmpty();
+    }
+
+    // ========== READ ==========
+
+    /**
+     * [ngày, số đơn hoàn thành, doanh thu], mới nhất trước
+     */
+    public List<Object[]> findDaily(LocalDate from) {
+        return jdbcTemplate.query(
+                "SELECT sale_date, order_count, revenue FROM sales_daily_rollups " +
+                "WHERE sale_date >= ? AND order_count > 0 ORDER BY sale_date DESC",
+                (rs, i) -> new Object[]{rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getBigDecimal(3)},
+                Date.valueOf(from));
+    }
+
+    /**
+     * [năm, tháng, số đơn hoàn thành, doanh thu], mới nhất trước
+     */
+    public List<Object[]> findMonthly() {
+        return jdbcTemplate.query(
+                "SELECT YEAR(sale_date) as year, MONTH(sale_date) as month, SUM(order_count), SUM(revenue) " +
+                "FROM sales_daily_rollups GROUP BY YEAR(sale_date), MONTH(sale_date) " +
+                "HAVING SUM(order_count) > 0 ORDER BY year DESC, month DESC",
+                (rs, i) -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getLong(3), rs.getBigDecimal(4)});
+    }
+
+    /**
+     * [productId, tên sản phẩm, tổng số lượng bán]
+     */
+    public List<Object[]> findTopProducts(int limit) {
+        return jdbcTemplate.query(
+                "SELECT TOP (?) product_id, MAX(product_name), SUM(quantity) as totalSold " +
+                "FROM sales_product_daily_rollups GROUP BY product_id " +
+                "HAVING SUM(quantity) > 0 ORDER BY totalSold DESC",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getLong(3)},
+                limit);
+    }
+
+    /**
+     * [categoryId, tên danh mục, tổng số lượng bán]
+     */
+    public List<Object[]> findSalesByCategory() {
+        return jdbcTemplate.query(
+                "SELECT r.category_id, c.name, SUM(r.quantity) as totalSold " +
+                "FROM sales_product_daily_rollups r INNER JOIN categories c ON c.id = r.category_id " +
+                "GROUP BY r.category_id, c.name HAVING SUM(r.quantity) > 0 ORDER BY totalSold DESC",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getLong(3)});
+    }
+
+    // ========== TYPES ==========
+
+    /**
+     * Doanh số của 1 sản phẩm trong 1 đơn (đã gộp các biến thể)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class ProductSale {
+        private final Long productId;
+        private final Long categoryId;
+        private final String productName;
+        private final long quantity;
+        private final BigDecimal revenue;
+    }
+}
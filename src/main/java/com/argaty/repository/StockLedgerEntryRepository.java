@@ -0,0 +1,37 @@
+package com.argaty.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.argaty.entity.StockLedgerEntry;
+
+/**
+ * Repository cho StockLedgerEntry
+ * Các query dùng READPAST (SQL Server) để bỏ qua entry của transaction chưa commit thay vì chờ khóa
+ */
+@Repository
+public interface StockLedgerEntryRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+    /**
+     * Batch entry đã commit cần ghi về bảng sản phẩm
+     * Trả về [id, productId, variantId, quantityDelta, soldDelta]
+     */
+    @Query(value = "SELECT TOP (:limit) id, product_id, variant_id, quantity_delta, sold_delta " +
+                   "FROM stock_ledger_entries WITH (READPAST) ORDER BY id",
+            nativeQuery = true)
+    List<Object[]> findFlushBatch(@Param("limit") int limit);
+
+    @Query(value = "SELECT COALESCE(SUM(quantity_delta), 0) FROM stock_ledger_entries WITH (READPAST) " +
+                   "WHERE product_id = :productId AND variant_id IS NULL",
+            nativeQuery = true)
+    Number sumPendingForProduct(@Param("productId") Long productId);
+
+    @Query(value = "SELECT COALESCE(SUM(quantity_delta), 0) FROM stock_ledger_entries WITH (READPAST) " +
+                   "WHERE variant_id = :variantId",
+            nativeQuery = true)
+    Number sumPendingForVariant(@Param("variantId") Long variantId);
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Repository;
 
 import com.argaty.entity.User;
 import com.argaty.enums.Role;
+import com.argaty.security.UserIdentity;
 
 /**
  * Repository cho User Entity
@@ -27,6 +28,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByPhone(String phone);
 
+    @Query("SELECT new com.argaty.security.UserIdentity(u.id, u.email, u.fullName, u.avatar, u.role) " +
+           "FROM User u WHERE u.email = :email")
+    Optional<UserIdentity> findIdentityByEmail(@Param("email") String email);
+
     Optional<User> findByEmailAndIsEnabledTrue(String email);
 
     boolean existsByEmail(String email);
@@ -57,6 +62,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "u.phone LIKE CONCAT('%', :keyword, '%')")
     Page<User> searchUsers(@Param("keyword") String keyword, Pageable pageable);
 
+    // Dữ liệu cho index tìm kiếm admin: [id, fullName, email, phone]
+    @Query("SELECT u.id, u.fullName, u.email, u.phone FROM User u")
+    List<Object[]> findAdminSearchRows();
+
+    @Query("SELECT u.id, u.fullName, u.email, u.phone FROM User u WHERE u.id = :id")
+    List<Object[]> findAdminSearchRowById(@Param("id") Long id);
+
     @Query("SELECT u FROM User u WHERE u.role = :role AND " +
            "(LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')))")
@@ -69,6 +81,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :startDate")
     long countNewUsersFromDate(@Param("startDate") LocalDateTime startDate);
 
+    // [ngày, số user mới]
+    @Query(value = "SELECT CAST(u.created_at AS DATE) as createdDate, COUNT(*) as userCount " +
+            "FROM users u WHERE u.created_at >= :startDate " +
+            "GROUP BY CAST(u.created_at AS DATE)",
+            nativeQuery = true)
+    List<Object[]> countNewUsersByDay(@Param("startDate") LocalDateTime startDate);
+
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt BETWEEN :startDate AND :endDate")
     long countNewUsersBetween(@Param("startDate") LocalDateTime startDate,
                                @Param("endDate") LocalDateTime endDate);
@@ -48,6 +48,13 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long> {
            "LOWER(v.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Voucher> searchVouchers(@Param("keyword") String keyword, Pageable pageable);
 
+    // Dữ liệu cho index tìm kiếm admin: [id, code, name]
+    @Query("SELECT v.id, v.code, v.name FROM Voucher v")
+    List<Object[]> findAdminSearchRows();
+
+    @Query("SELECT v.id, v.code, v.name FROM Voucher v WHERE v.id = :id")
+    List<Object[]> findAdminSearchRowById(@Param("id") Long id);
+
     // ========== FIND BY STATUS ==========
 
     Page<Voucher> findByIsActiveTrue(Pageable pageable);
@@ -0,0 +1,275 @@
+package com.argaty.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.entity.Order;
+import com.argaty.entity.User;
+import com.argaty.entity.Voucher;
+import com.argaty.event.OrderChangedEvent;
+import com.argaty.event.UserChangedEvent;
+import com.argaty.event.VoucherChangedEvent;
+import com.argaty.repository.OrderRepository;
+import com.argaty.repository.UserRepository;
+import com.argaty.repository.VoucherRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index trigram in-memory cho 3 màn hình tìm kiếm admin (đơn hàng, người dùng, voucher)
+ * - Đơn hàng: mã đơn, tên / SĐT người nhận; người dùng: họ tên, email, SĐT; voucher: mã, tên
+ * - Khớp chuỗi con không phân biệt hoa thường và dấu, không quét bảng
+ * - Kết quả xếp mới nhất trước (id giảm dần ~ createdAt giảm dần), chỉ query DB đúng các id của trang
+ * - Cập nhật tăng dần qua OrderChangedEvent / UserChangedEvent / VoucherChangedEvent, rebuild định kỳ
+ * - Bản ghi thay đổi trong lúc rebuild được đọc lại vào index mới sau khi hoán đổi
+ * Đơn đã lưu trữ (archived_orders) không nằm trong index, giống danh sách đơn của admin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdminSearchIndex {
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final VoucherRepository voucherRepository;
+
+    private volatile Indexes indexes = new Indexes();
+    private volatile boolean ready = false;
+    private volatile long lastBuildMillis = 0;
+    private volatile LocalDateTime lastBuiltAt;
+
+    // Id thay đổi từ lúc rebuild bắt đầu đọc DB tới khi hoán đổi (event lúc đó ghi vào bộ index cũ)
+    private final Set<Long> changedOrders = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedVouchers = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    // ========== BUILD ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin-search.rebuild-interval-ms:1800000}",
+               initialDelayString = "${app.admin-search.rebuild-interval-ms:1800000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        changedOrders.clear();
+        changedUsers.clear();
+        changedVouchers.clear();
+        rebuilding = true;
+
+        // Build ngoài lock rồi hoán đổi, tìm kiếm không bị chặn trong lúc build
+        Indexes built = new Indexes();
+        try {
+            for (Object[] row : orderRepository.findAdminSearchRows()) {
+                putOrder(built.orders, row);
+            }
+            for (Object[] row : userRepository.findAdminSearchRows()) {
+                putUser(built.users, row);
+            }
+            for (Object[] row : voucherRepository.findAdminSearchRows()) {
+                putVoucher(built.vouchers, row);
+            }
+            indexes = built;
+            ready = true;
+        } finally {
+            rebuilding = false;
+        }
+
+        // Thay đổi commit sau lúc đọc DB: đọc lại từng bản ghi vào bộ index mới
+        int replayed = replay(changedOrders, id -> refreshOrder(id, false))
+                + replay(changedUsers, this::refreshUser)
+                + replay(changedVouchers, id -> refreshVoucher(id, false));
+
+        lastBuildMillis = System.currentTimeMillis() - start;
+        lastBuiltAt = LocalDateTime.now();
+        log.info("Built admin search index: {} orders, {} users, {} vouchers, ~{} KB ({} replayed) in {} ms",
+                built.orders.size(), built.users.size(), built.vouchers.size(),
+                (built.orders.estimateBytes() + built.users.estimateBytes() + built.vouchers.estimateBytes()) / 1024,
+                replayed, lastBuildMillis);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (rebuilding) {
+            changedOrders.add(event.getOrderId());
+        }
+        if (ready) {
+            refreshOrder(event.getOrderId(), event.isDeleted());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (rebuilding) {
+            changedUsers.add(event.getUserId());
+        }
+        if (ready) {
+            refreshUser(event.getUserId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoucherChanged(VoucherChangedEvent event) {
+        if (rebuilding) {
+            changedVouchers.add(event.getVoucherId());
+        }
+        if (ready) {
+            refreshVoucher(event.getVoucherId(), event.isDeleted());
+        }
+    }
+
+    private void refreshOrder(Long orderId, boolean deleted) {
+        List<Object[]> rows = deleted ? List.of() : orderRepository.findAdminSearchRowById(orderId);
+        TrigramIndex orders = indexes.orders;
+        synchronized (orders) {
+            if (rows.isEmpty()) {
+                orders.remove(orderId);
+            } else {
+                putOrder(orders, rows.get(0));
+            }
+        }
+    }
+
+    private void refreshUser(Long userId) {
+        List<Object[]> rows = userRepository.findAdminSearchRowById(userId);
+        TrigramIndex users = indexes.users;
+        synchronized (users) {
+            if (rows.isEmpty()) {
+                users.remove(userId);
+            } else {
+                putUser(users, rows.get(0));
+            }
+        }
+    }
+
+    private void refreshVoucher(Long voucherId, boolean deleted) {
+        List<Object[]> rows = deleted ? List.of() : voucherRepository.findAdminSearchRowById(voucherId);
+        TrigramIndex vouchers = indexes.vouchers;
+        synchronized (vouchers) {
+            if (rows.isEmpty()) {
+                vouchers.remove(voucherId);
+            } else {
+                putVoucher(vouchers, rows.get(0));
+            }
+        }
+    }
+
+    private static int replay(Set<Long> changed, Consumer<Long> refresh) {
+        List<Long> ids = new ArrayList<>(changed);
+        changed.removeAll(ids);
+        ids.forEach(refresh);
+        return ids.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== SEARCH ==========
+
+    public Page<Order> searchOrders(String keyword, Pageable pageable) {
+        return load(search(indexes.orders, keyword), pageable, orderRepository::findAllById, Order::getId);
+    }
+
+    public Page<User> searchUsers(String keyword, Pageable pageable) {
+        return load(search(indexes.users, keyword), pageable, userRepository::findAllById, User::getId);
+    }
+
+    public Page<Voucher> searchVouchers(String keyword, Pageable pageable) {
+        return load(search(indexes.vouchers, keyword), pageable, voucherRepository::findAllById, Voucher::getId);
+    }
+
+    public Map<String, Object> getStats() {
+        Indexes current = indexes;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("orders", stats(current.orders));
+        stats.put("users", stats(current.users));
+        stats.put("vouchers", stats(current.vouchers));
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("lastBuiltAt", lastBuiltAt);
+        return stats;
+    }
+
+    // ========== HELPERS ==========
+
+    private static List<Long> search(TrigramIndex index, String keyword) {
+        synchronized (index) {
+            return index.search(keyword);
+        }
+    }
+
+    private static Map<String, Object> stats(TrigramIndex index) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (index) {
+            stats.put("documents", index.size());
+            stats.put("trigrams", index.getGramCount());
+            stats.put("estimatedBytes", index.estimateBytes());
+        }
+        return stats;
+    }
+
+    private static <T> Page<T> load(List<Long> orderedIds, Pageable pageable,
+                                    Function<Collection<Long>, List<T>> loader, Function<T, Long> idOf) {
+        int total = orderedIds.size();
+        int from = (int) Math.min(pageable.getOffset(), total);
+        int to = Math.min(from + pageable.getPageSize(), total);
+        List<Long> pageIds = orderedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        Map<Long, T> byId = loader.apply(pageIds).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            T item = byId.get(id);
+            if (item != null) {
+                content.add(item);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static void putOrder(TrigramIndex index, Object[] row) {
+        index.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+    }
+
+    private static void putUser(TrigramIndex index, Object[] row) {
+        index.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+    }
+
+    private static void putVoucher(TrigramIndex index, Object[] row) {
+        index.put((Long) row[0], (String) row[1], (String) row[2]);
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    // Mỗi index tự đồng bộ bằng synchronized trên chính nó; rebuild thay cả bộ
+    private static final class Indexes {
+        private final TrigramIndex orders = new TrigramIndex();
+        private final TrigramIndex users = new TrigramIndex();
+        private final TrigramIndex vouchers = new TrigramIndex();
+    }
+}
@@ -0,0 +1,43 @@
+package com.argaty.search;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+/**
+ * Bộ lọc facet cho trang danh sách sản phẩm
+ * - Trong cùng 1 facet: OR (nhiều danh mục / nhiều thương hiệu)
+ * - Giữa các facet: AND
+ */
+@Getter
+@Builder
+public class FacetFilter {
+
+    private final String keyword;
+
+    // Danh mục đã chọn (bao gồm cả danh mục con)
+    @Singular
+    private final Set<Long> categoryIds;
+
+    @Singular
+    private final Set<Long> brandIds;
+
+    private final BigDecimal minPrice;
+
+    private final BigDecimal maxPrice;
+
+    private final boolean inStock;
+
+    private final boolean onSale;
+
+    public boolean hasKeyword() {
+        return keyword != null && !keyword.isBlank();
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.argaty.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+
+import com.argaty.dto.projection.ProductCardView;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Kết quả lọc facet: trang sản phẩm + số lượng theo từng giá trị facet
+ * Số lượng của mỗi facet được tính với mọi bộ lọc khác trừ chính nó,
+ * nên chọn thêm 1 giá trị trong cùng facet không làm các giá trị còn lại về 0
+ */
+@Getter
+@AllArgsConstructor
+public class FacetResult {
+
+    private final Page<ProductCardView> page;
+
+    // categoryId -> số sản phẩm (đã gộp danh mục con)
+    private final Map<Long, Integer> categoryCounts;
+
+    private final Map<Long, Integer> brandCounts;
+
+    private final List<PriceBucket> priceBuckets;
+
+    private final int inStockCount;
+
+    private final int onSaleCount;
+
+    public static FacetResult ofPage(Page<ProductCardView> page) {
+        return new FacetResult(page, Map.of(), Map.of(), List.of(), 0, 0);
+    }
+
+    /**
+     * Khoảng giá [min, max) - null nghĩa là không giới hạn
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private final BigDecimal min;
+        private final BigDecimal max;
+        private final int count;
+    }
+}
@@ -0,0 +1,495 @@
+package com.argaty.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.analytics.ProductViewTracker;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.event.ProductStockChangedEvent;
+import com.argaty.repository.CategoryRepository;
+import com.argaty.repository.ProductRepository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index facet in-memory cho trang danh sách sản phẩm
+ * - Mỗi giá trị facet (danh mục, thương hiệu, khoảng giá, còn hàng, đang sale) là 1 bitmap theo product id
+ * - Lọc = AND giữa các facet, OR trong cùng facet; đếm facet = cardinality của phép giao
+ * - Bitmap danh mục đã gộp sẵn sản phẩm của các danh mục con
+ * - Tự cập nhật qua ProductChangedEvent / ProductStockChangedEvent, rebuild định kỳ
+ * - Sản phẩm thay đổi trong lúc rebuild được đọc lại sau khi thay index (dữ liệu rebuild có thể đã cũ)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    // Ranh giới khoảng giá (VNĐ), khớp với các nút lọc nhanh trên trang danh sách
+    private static final long[] PRICE_BOUNDS = {500_000L, 1_000_000L, 2_000_000L};
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductPageLoader productPageLoader;
+    private final ProductViewTracker productViewTracker;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, FacetDocument> documents = new HashMap<>();
+    private final Map<Long, Long> categoryParents = new HashMap<>();
+    private final BitSet active = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> byBrand = new HashMap<>();
+    private final BitSet[] byPriceBucket = new BitSet[PRICE_BOUNDS.length + 1];
+    private final BitSet inStock = new BitSet();
+    // Sản phẩm có salePrice < price; thời gian sale được kiểm tra lúc query
+    private final BitSet saleCandidates = new BitSet();
+    private volatile boolean ready = false;
+
+    // Id sản phẩm thay đổi từ lúc rebuild bắt đầu đọc DB tới khi thay xong index
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    // ========== BUILD ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        List<Object[]> rows;
+        try {
+            List<Object[]> categoryRows = categoryRepository.findAllParentLinks();
+            rows = productRepository.findAllFacetRows();
+
+            lock.writeLock().lock();
+            try {
+                documents.clear();
+                categoryParents.clear();
+                active.clear();
+                byCategory.clear();
+                byBrand.clear();
+                for (int i = 0; i < byPriceBucket.length; i++) {
+                    byPriceBucket[i] = new BitSet();
+                }
+                inStock.clear();
+                saleCandidates.clear();
+
+                for (Object[] row : categoryRows) {
+                    if (row[1] != null) {
+                        categoryParents.put((Long) row[0], (Long) row[1]);
+                    }
+                }
+                for (Object[] row : rows) {
+                    addDocument(toDocument(row));
+                }
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuilding = false;
+        }
+
+        // Thay đổi commit sau lúc đọc DB đã bị ghi đè bởi dữ liệu cũ: đọc lại từng sản phẩm
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        for (Long productId : changed) {
+            refresh(productId, false);
+        }
+
+        log.info("Built product facet index: {} products, {} categories, {} brands ({} replayed) in {} ms",
+                rows.size(), byCategory.size(), byBrand.size(), changed.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        refresh(event.getProductId(), event.isDeleted());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        refresh(event.getProductId(), false);
+    }
+
+    /**
+     * Query có từ khóa còn cần ProductSearchIndex đã sẵn sàng (bên gọi kiểm tra cả hai)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void refresh(Long productId, boolean deleted) {
+        if (!ready) {
+            return;
+        }
+        List<Object[]> rows = deleted ? List.of() : productRepository.findFacetRowById(productId);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            if (!rows.isEmpty()) {
+                addDocument(toDocument(rows.get(0)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== QUERY ==========
+
+    /**
+     * Lọc sản phẩm đang active theo facet, kèm số lượng cho từng giá trị facet
+     *
+     * @param pageable phân trang; không có sort thì sắp theo độ liên quan (nếu có từ khóa) hoặc mới nhất
+     */
+    public FacetResult query(FacetFilter filter, Pageable pageable) {
+        // Từ khóa được xử lý bởi search index, kết quả chuyển thành bitmap để giao với các facet
+        Map<Long, Integer> relevanceRank = null;
+        BitSet keywordMask = null;
+        if (filter.hasKeyword()) {
+            List<Long> rankedIds = productSearchIndex.searchIds(filter.getKeyword(), null, true, Sort.unsorted());
+            relevanceRank = new HashMap<>(rankedIds.size() * 2);
+            keywordMask = new BitSet();
+            for (int i = 0; i < rankedIds.size(); i++) {
+                relevanceRank.put(rankedIds.get(i), i);
+                keywordMask.set(toBit(rankedIds.get(i)));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FacetDocument> matches = new ArrayList<>();
+        Map<Long, Integer> categoryCounts = new LinkedHashMap<>();
+        Map<Long, Integer> brandCounts = new LinkedHashMap<>();
+        int[] priceCounts = new int[byPriceBucket.length];
+        int inStockCount;
+        int onSaleCount;
+
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) active.clone();
+            if (keywordMask != null) {
+                base.and(keywordMask);
+            }
+
+            BitSet categoryMask = union(byCategory, filter.getCategoryIds());
+            BitSet brandMask = union(byBrand, filter.getBrandIds());
+            BitSet priceMask = filter.hasPriceRange() ? priceMask(filter.getMinPrice(), filter.getMaxPrice(), now) : null;
+            BitSet stockMask = filter.isInStock() ? inStock : null;
+            BitSet saleMask = onSaleNow(now);
+            BitSet saleFilter = filter.isOnSale() ? saleMask : null;
+
+            // Số lượng mỗi facet: giao mọi bộ lọc trừ chính facet đó
+            BitSet withoutCategory = intersect(base, brandMask, priceMask, stockMask, saleFilter);
+            for (Map.Entry<Long, BitSet> entry : byCategory.entrySet()) {
+                int count = intersectionCount(withoutCategory, entry.getValue());
+                if (count > 0) {
+                    categoryCounts.put(entry.getKey(), count);
+                }
+            }
+
+            BitSet withoutBrand = intersect(base, categoryMask, priceMask, stockMask, saleFilter);
+            for (Map.Entry<Long, BitSet> entry : byBrand.entrySet()) {
+                int count = intersectionCount(withoutBrand, entry.getValue());
+                if (count > 0) {
+                    brandCounts.put(entry.getKey(), count);
+                }
+            }
+
+            BitSet withoutPrice = intersect(base, categoryMask, brandMask, stockMask, saleFilter);
+            for (int bit = withoutPrice.nextSetBit(0); bit >= 0; bit = withoutPrice.nextSetBit(bit + 1)) {
+                BigDecimal price = documents.get((long) bit).getEffectivePrice(now);
+                if (price != null) {
+                    priceCounts[bucketOf(price)]++;
+                }
+            }
+
+            inStockCount = intersectionCount(intersect(base, categoryMask, brandMask, priceMask, saleFilter), inStock);
+            onSaleCount = intersectionCount(intersect(base, categoryMask, brandMask, priceMask, stockMask), saleMask);
+
+            BitSet result = intersect(base, categoryMask, brandMask, priceMask, stockMask, saleFilter);
+            for (int bit = result.nextSetBit(0); bit >= 0; bit = result.nextSetBit(bit + 1)) {
+                matches.add(documents.get((long) bit));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(comparatorFor(pageable.getSort(), relevanceRank));
+        List<Long> orderedIds = new ArrayList<>(matches.size());
+        for (FacetDocument doc : matches) {
+            orderedIds.add(doc.getId());
+        }
+
+        List<FacetResult.PriceBucket> priceBuckets = new ArrayList<>(priceCounts.length);
+        for (int i = 0; i < priceCounts.length; i++) {
+            priceBuckets.add(new FacetResult.PriceBucket(
+                    i == 0 ? null : BigDecimal.valueOf(PRICE_BOUNDS[i - 1]),
+                    i == PRICE_BOUNDS.length ? null : BigDecimal.valueOf(PRICE_BOUNDS[i]),
+                    priceCounts[i]));
+        }
+
+        return new FacetResult(productPageLoader.loadCards(orderedIds, pageable),
+                categoryCounts, brandCounts, priceBuckets, inStockCount, onSaleCount);
+    }
+
+    private Comparator<FacetDocument> comparatorFor(Sort sort, Map<Long, Integer> relevanceRank) {
+        if (sort != null && sort.getOrderFor(ProductViewTracker.TRENDING_SORT) != null) {
+            Map<Long, Double> scores = productViewTracker.getTrendingScores();
+            return Comparator.comparingDouble((FacetDocument doc) -> scores.getOrDefault(doc.getId(), 0.0))
+                    .reversed()
+                    .thenComparing(FacetDocument::getCreatedAt,
+                            Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                    .thenComparing(FacetDocument::getId, Comparator.reverseOrder());
+        }
+        Comparator<FacetDocument> bySort = ProductSortable.comparator(sort);
+        if (bySort != null) {
+            return bySort.thenComparing(FacetDocument::getId);
+        }
+        if (relevanceRank != null) {
+            return Comparator.comparing(doc -> relevanceRank.getOrDefault(doc.getId(), Integer.MAX_VALUE));
+        }
+        return Comparator.comparing(FacetDocument::getCreatedAt,
+                Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                .thenComparing(FacetDocument::getId, Comparator.reverseOrder());
+    }
+
+    /**
+     * Bitmap các sản phẩm có giá hiệu lực trong [min, max]
+     * Chỉ các bucket nằm ở biên mới cần kiểm tra giá từng sản phẩm
+     */
+    private BitSet priceMask(BigDecimal min, BigDecimal max, LocalDateTime now) {
+        int fromBucket = min == null ? 0 : bucketOf(min);
+        int toBucket = max == null ? byPriceBucket.length - 1 : bucketOf(max);
+        BitSet mask = new BitSet();
+        for (int i = fromBucket; i <= toBucket; i++) {
+            mask.or(byPriceBucket[i]);
+        }
+
+        for (int bit = mask.nextSetBit(0); bit >= 0; bit = mask.nextSetBit(bit + 1)) {
+            FacetDocument doc = documents.get((long) bit);
+            BigDecimal price = doc.getEffectivePrice(now);
+            boolean inRange = price != null
+                    && (min == null || price.compareTo(min) >= 0)
+                    && (max == null || price.compareTo(max) <= 0);
+            if (!inRange) {
+                mask.clear(bit);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet onSaleNow(LocalDateTime now) {
+        BitSet mask = (BitSet) saleCandidates.clone();
+        for (int bit = mask.nextSetBit(0); bit >= 0; bit = mask.nextSetBit(bit + 1)) {
+            if (!documents.get((long) bit).isOnSale(now)) {
+                mask.clear(bit);
+            }
+        }
+        return mask;
+    }
+
+    // ========== BITMAP HELPERS ==========
+
+    /**
+     * OR các bitmap của những giá trị đã chọn; null nếu facet không được lọc
+     */
+    private static BitSet union(Map<Long, BitSet> bitmaps, Set<Long> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (Long id : selected) {
+            BitSet bitmap = bitmaps.get(id);
+            if (bitmap != null) {
+                mask.or(bitmap);
+            }
+        }
+        return mask;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) a.clone();
+        copy.and(b);
+        return copy.cardinality();
+    }
+
+    private static int bucketOf(BigDecimal price) {
+        long value = price.longValue();
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDS.length && value >= PRICE_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static int toBit(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    // ========== INDEX MAINTENANCE (gọi khi đang giữ write lock) ==========
+
+    private void addDocument(FacetDocument doc) {
+        int bit = toBit(doc.getId());
+        documents.put(doc.getId(), doc);
+        if (doc.active) {
+            active.set(bit);
+        }
+
+        // Gán vào danh mục và toàn bộ danh mục cha (giới hạn độ sâu để tránh vòng lặp dữ liệu lỗi)
+        Long categoryId = doc.categoryId;
+        for (int depth = 0; categoryId != null && depth < 16; depth++) {
+            byCategory.computeIfAbsent(categoryId, k -> new BitSet()).set(bit);
+            categoryId = categoryParents.get(categoryId);
+        }
+
+        if (doc.brandId != null) {
+            byBrand.computeIfAbsent(doc.brandId, k -> new BitSet()).set(bit);
+        }
+
+        // Sản phẩm đang có sale được gán vào cả bucket giá gốc và bucket giá sale
+        if (doc.price != null) {
+            byPriceBucket[bucketOf(doc.price)].set(bit);
+        }
+        if (doc.isSaleCandidate()) {
+            byPriceBucket[bucketOf(doc.salePrice)].set(bit);
+            saleCandidates.set(bit);
+        }
+
+        if (doc.quantity > 0) {
+            inStock.set(bit);
+        }
+    }
+
+    private void removeDocument(Long id) {
+        if (documents.remove(id) == null) {
+            return;
+        }
+        int bit = toBit(id);
+        active.clear(bit);
+        byCategory.values().forEach(bitmap -> bitmap.clear(bit));
+        byBrand.values().forEach(bitmap -> bitmap.clear(bit));
+        for (BitSet bitmap : byPriceBucket) {
+            bitmap.clear(bit);
+        }
+        inStock.clear(bit);
+        saleCandidates.clear(bit);
+    }
+
+    private FacetDocument toDocument(Object[] row) {
+        return new FacetDocument(
+                (Long) row[0],
+                Boolean.TRUE.equals(row[1]),
+                (Long) row[2],
+                (Long) row[3],
+                (BigDecimal) row[4],
+                (BigDecimal) row[5],
+                (LocalDateTime) row[6],
+                (LocalDateTime) row[7],
+                row[8] != null ? (Integer) row[8] : 0,
+                (String) row[9],
+                row[10] != null ? (Integer) row[10] : 0,
+                (BigDecimal) row[11],
+                (LocalDateTime) row[12]);
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    @Getter
+    private static final class FacetDocument implements ProductSortable {
+        private final Long id;
+        private final boolean active;
+        private final Long categoryId;
+        private final Long brandId;
+        private final BigDecimal price;
+        private final BigDecimal salePrice;
+        private final LocalDateTime saleStartDate;
+        private final LocalDateTime saleEndDate;
+        private final int quantity;
+        private final String name;
+        private final int soldCount;
+        private final BigDecimal rating;
+        private final LocalDateTime createdAt;
+
+        private FacetDocument(Long id, boolean active, Long categoryId, Long brandId,
+                              BigDecimal price, BigDecimal salePrice,
+                              LocalDateTime saleStartDate, LocalDateTime saleEndDate,
+                              int quantity, String name, int soldCount, BigDecimal rating,
+                              LocalDateTime createdAt) {
+            this.id = id;
+            this.active = active;
+            this.categoryId = categoryId;
+            this.brandId = brandId;
+            this.price = price;
+            this.salePrice = salePrice;
+            this.saleStartDate = saleStartDate;
+            this.saleEndDate = saleEndDate;
+            this.quantity = quantity;
+            this.name = name;
+            this.soldCount = soldCount;
+            this.rating = rating;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isSaleCandidate() {
+            return salePrice != null && price != null && salePrice.compareTo(price) < 0;
+        }
+
+        // Cùng quy tắc với Product.isOnSale()
+        private boolean isOnSale(LocalDateTime now) {
+            if (!isSaleCandidate()) {
+                return false;
+            }
+            if (saleStartDate != null && now.isBefore(saleStartDate)) {
+                return false;
+            }
+            return saleEndDate == null || !now.isAfter(saleEndDate);
+        }
+
+        private BigDecimal getEffectivePrice(LocalDateTime now) {
+            return isOnSale(now) ? salePrice : price;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.argaty.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.argaty.dto.projection.ProductCardView;
+import com.argaty.entity.Product;
+import com.argaty.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hydrate trang kết quả từ danh sách id đã sắp xếp bởi các index in-memory
+ * Chỉ query DB đúng các id của trang hiện tại, không cần COUNT
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductPageLoader {
+
+    private final ProductRepository productRepository;
+
+    public Page<Product> load(List<Long> orderedIds, Pageable pageable) {
+        return slice(orderedIds, pageable, productRepository::findByIdIn, Product::getId);
+    }
+
+    /**
+     * Như load() nhưng chỉ lấy projection cho product card
+     */
+    public Page<ProductCardView> loadCards(List<Long> orderedIds, Pageable pageable) {
+        return slice(orderedIds, pageable, productRepository::findCardsByIdIn, ProductCardView::getId);
+    }
+
+    /**
+     * Lấy card theo đúng thứ tự id truyền vào
+     */
+    public List<ProductCardView> loadCards(List<Long> orderedIds) {
+        if (orderedIds.isEmpty()) {
+            return List.of();
+        }
+        return inOrder(orderedIds, productRepository.findCardsByIdIn(orderedIds), ProductCardView::getId);
+    }
+
+    private <T> Page<T> slice(List<Long> orderedIds, Pageable pageable,
+                              Function<Collection<Long>, List<T>> loader, Function<T, Long> idOf) {
+        int total = orderedIds.size();
+        int from = (int) Math.min(pageable.getOffset(), total);
+        int to = Math.min(from + pageable.getPageSize(), total);
+        List<Long> pageIds = orderedIds.subList(from, to);
+
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        return new PageImpl<>(inOrder(pageIds, loader.apply(pageIds), idOf), pageable, total);
+    }
+
+    // Giữ nguyên thứ tự do index xếp hạng
+    private static <T> List<T> inOrder(List<Long> ids, List<T> loaded, Function<T, Long> idOf) {
+        Map<Long, T> byId = loaded.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item != null) {
+                content.add(item);
+            }
+        }
+        return content;
+    }
+}
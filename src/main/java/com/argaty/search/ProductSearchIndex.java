@@ -0,0 +1,392 @@
+package com.argaty.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.entity.Product;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.repository.ProductRepository;
+import com.argaty.util.TextNormalizer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inverted index in-memory cho tìm kiếm sản phẩm
+ * - Token hóa có bỏ dấu tiếng Việt ("ban phim" khớp "Bàn phím")
+ * - Xếp hạng theo BM25 (tên sản phẩm có trọng số cao hơn SKU và mô tả ngắn)
+ * - Mỗi token của từ khóa được so khớp theo tiền tố, tất cả token phải khớp (AND)
+ * - Tự cập nhật qua ProductChangedEvent, rebuild định kỳ để đồng bộ soldCount/rating
+ * - Sản phẩm thay đổi trong lúc rebuild được đọc lại sau khi thay index (dữ liệu rebuild có thể đã cũ)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Giới hạn số term mở rộng cho mỗi tiền tố để tránh quét quá rộng với tiền tố 1 ký tự,
+    // vượt giới hạn thì giữ các term có nhiều document nhất
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductPageLoader productPageLoader;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private long totalLength = 0;
+    private volatile boolean ready = false;
+
+    // Id sản phẩm thay đổi từ lúc rebuild bắt đầu đọc DB tới khi thay xong index
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    // ========== BUILD ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild toàn bộ index (đồng bộ lại soldCount, rating thay đổi qua đơn hàng / đánh giá)
+     */
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        List<Object[]> rows;
+        try {
+            rows = productRepository.findAllSearchRows();
+
+            lock.writeLock().lock();
+            try {
+                documents.clear();
+                postings.clear();
+                totalLength = 0;
+                for (Object[] row : rows) {
+                    addDocument(toDocument(row));
+                }
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuilding = false;
+        }
+
+        // Thay đổi commit sau lúc đọc DB đã bị ghi đè bởi dữ liệu cũ: đọc lại từng sản phẩm
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        for (Long productId : changed) {
+            refresh(productId, false);
+        }
+
+        log.info("Built product search index: {} products, {} terms ({} replayed) in {} ms",
+                rows.size(), postings.size(), changed.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Đồng bộ 1 sản phẩm sau khi transaction commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        if (!ready) {
+            return;
+        }
+        refresh(event.getProductId(), event.isDeleted());
+    }
+
+    private void refresh(Long productId, boolean deleted) {
+        List<Object[]> rows = deleted ? List.of() : productRepository.findSearchRowById(productId);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            if (!rows.isEmpty()) {
+                addDocument(toDocument(rows.get(0)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Sản phẩm có trong index và đang active
+     */
+    public boolean containsActive(Long productId) {
+        lock.readLock().lock();
+        try {
+            Document document = documents.get(productId);
+            return document != null && document.active;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Tìm kiếm sản phẩm
+     *
+     * @param keyword     từ khóa
+     * @param categoryId  lọc theo danh mục (null = tất cả)
+     * @param activeOnly  chỉ lấy sản phẩm đang active
+     * @param pageable    phân trang; nếu có sort thì sắp theo sort, ngược lại theo độ liên quan
+     */
+    public Page<Product> search(String keyword, Long categoryId, boolean activeOnly, Pageable pageable) {
+        return productPageLoader.load(searchIds(keyword, categoryId, activeOnly, pageable.getSort()), pageable);
+    }
+
+    /**
+     * Trả về danh sách id sản phẩm khớp từ khóa, đã sắp xếp
+     */
+    public List<Long> searchIds(String keyword, Long categoryId, boolean activeOnly, Sort sort) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        List<ScoredDocument> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : queryTokens) {
+                Map<Long, Double> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND: chỉ giữ các document khớp tất cả token
+                    Map<Long, Double> finalTokenScores = tokenScores;
+                    scores.keySet().retainAll(finalTokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + finalTokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Document doc = documents.get(entry.getKey());
+                if (activeOnly && !doc.active) {
+                    continue;
+                }
+                if (categoryId != null && !categoryId.equals(doc.categoryId)) {
+                    continue;
+                }
+                matches.add(new ScoredDocument(doc, entry.getValue()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(comparatorFor(sort));
+        return matches.stream().map(m -> m.document.id).collect(Collectors.toList());
+    }
+
+    /**
+     * Tính điểm BM25 của 1 token (mở rộng theo tiền tố), lấy điểm cao nhất cho mỗi document
+     */
+    private Map<Long, Double> scoreToken(String token) {
+        Map<Long, Double> result = new HashMap<>();
+        int documentCount = documents.size();
+        double avgLength = documentCount == 0 ? 1.0 : (double) totalLength / documentCount;
+
+        for (Map.Entry<String, Map<Long, Integer>> entry : expand(token)) {
+            Map<Long, Integer> posting = entry.getValue();
+            double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+            // Khớp chính xác được ưu tiên hơn khớp tiền tố
+            double exactBoost = entry.getKey().length() == token.length() ? 1.0 : 0.8;
+
+            for (Map.Entry<Long, Integer> p : posting.entrySet()) {
+                Document doc = documents.get(p.getKey());
+                double tf = p.getValue();
+                double norm = tf + K1 * (1 - B + B * doc.length / avgLength);
+                double score = exactBoost * idf * (tf * (K1 + 1)) / norm;
+                result.merge(p.getKey(), score, Math::max);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Các term bắt đầu bằng token; quá MAX_PREFIX_EXPANSIONS thì giữ khớp chính xác
+     * và các term xuất hiện trong nhiều document nhất (thay vì cắt theo thứ tự chữ cái)
+     */
+    private Collection<Map.Entry<String, Map<Long, Integer>>> expand(String token) {
+        NavigableMap<String, Map<Long, Integer>> range = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        if (range.size() <= MAX_PREFIX_EXPANSIONS) {
+            return range.entrySet();
+        }
+        Comparator<Map.Entry<String, Map<Long, Integer>>> byFrequency =
+                Comparator.comparingInt((Map.Entry<String, Map<Long, Integer>> e) -> e.getValue().size())
+                        .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        // Min-heap theo số document: phần tử đầu là term yếu nhất đang giữ
+        PriorityQueue<Map.Entry<String, Map<Long, Integer>>> top = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS, byFrequency);
+        Map<Long, Integer> exact = range.get(token);
+        for (Map.Entry<String, Map<Long, Integer>> entry : range.entrySet()) {
+            if (entry.getKey().equals(token)) {
+                continue;
+            }
+            top.offer(entry);
+            if (top.size() > MAX_PREFIX_EXPANSIONS - (exact != null ? 1 : 0)) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<String, Map<Long, Integer>>> selected = new ArrayList<>(top);
+        if (exact != null) {
+            selected.add(Map.entry(token, exact));
+        }
+        return selected;
+    }
+
+    private Comparator<ScoredDocument> comparatorFor(Sort sort) {
+        Comparator<ScoredDocument> byScore = Comparator.comparingDouble((ScoredDocument m) -> m.score).reversed();
+        Comparator<Document> bySort = ProductSortable.comparator(sort);
+        if (bySort == null) {
+            return byScore.thenComparing(m -> m.document.id);
+        }
+        return Comparator.comparing((ScoredDocument m) -> m.document, bySort).thenComparing(byScore);
+    }
+
+    // ========== INDEX MAINTENANCE (gọi khi đang giữ write lock) ==========
+
+    private void addDocument(Document doc) {
+        documents.put(doc.id, doc);
+        totalLength += doc.length;
+        for (Map.Entry<String, Integer> term : doc.termFrequencies.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(doc.id, term.getValue());
+        }
+    }
+
+    private void removeDocument(Long id) {
+        Document old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        totalLength -= old.length;
+        for (String term : old.termFrequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private Document toDocument(Object[] row) {
+        Long id = (Long) row[0];
+        String name = (String) row[1];
+        String shortDescription = (String) row[2];
+        String sku = (String) row[3];
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        length += addTerms(termFrequencies, name, NAME_WEIGHT);
+        length += addTerms(termFrequencies, sku, SKU_WEIGHT);
+        length += addTerms(termFrequencies, shortDescription, DESCRIPTION_WEIGHT);
+
+        return new Document(
+                id,
+                name,
+                Boolean.TRUE.equals(row[4]),
+                (Long) row[5],
+                (BigDecimal) row[6],
+                row[7] != null ? (Integer) row[7] : 0,
+                (BigDecimal) row[8],
+                (LocalDateTime) row[9],
+                termFrequencies,
+                Math.max(length, 1));
+    }
+
+    private int addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        for (String token : tokens) {
+            termFrequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    @Getter
+    private static final class Document implements ProductSortable {
+        private final Long id;
+        private final String name;
+        private final boolean active;
+        private final Long categoryId;
+        private final BigDecimal price;
+        private final int soldCount;
+        private final BigDecimal rating;
+        private final LocalDateTime createdAt;
+        private final Map<String, Integer> termFrequencies;
+        private final int length;
+
+        private Document(Long id, String name, boolean active, Long categoryId, BigDecimal price,
+                         int soldCount, BigDecimal rating, LocalDateTime createdAt,
+                         Map<String, Integer> termFrequencies, int length) {
+            this.id = id;
+            this.name = name;
+            this.active = active;
+            this.categoryId = categoryId;
+            this.price = price;
+            this.soldCount = soldCount;
+            this.rating = rating;
+            this.createdAt = createdAt;
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    private static final class ScoredDocument {
+        private final Document document;
+        private final double score;
+
+        private ScoredDocument(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.argaty.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Các khóa sắp xếp của sản phẩm được giữ trong index in-memory
+ * (tương ứng các sort trên trang danh sách: newest, price, name, bestseller, rating)
+ */
+interface ProductSortable {
+
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    int getSoldCount();
+
+    BigDecimal getRating();
+
+    LocalDateTime getCreatedAt();
+
+    /**
+     * Tạo comparator từ Sort của Pageable
+     *
+     * @return null nếu Sort không chứa thuộc tính nào được hỗ trợ
+     */
+    static <T extends ProductSortable> Comparator<T> comparator(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return null;
+        }
+
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = switch (order.getProperty()) {
+                case "createdAt" -> Comparator.comparing(T::getCreatedAt,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "price" -> Comparator.comparing(T::getPrice,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "name" -> Comparator.comparing(T::getName,
+                        Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+                case "soldCount" -> Comparator.comparingInt(T::getSoldCount);
+                case "rating" -> Comparator.comparing(T::getRating,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> null;
+            };
+            if (next == null) {
+                continue;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+}
@@ -0,0 +1,337 @@
+package com.argaty.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.argaty.dto.response.SearchSuggestionResponse;
+import com.argaty.entity.Brand;
+import com.argaty.entity.Category;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.repository.BrandRepository;
+import com.argaty.repository.CategoryRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.util.TextNormalizer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index gợi ý tìm kiếm (autocomplete) in-memory
+ * - Trie trên tên đã bỏ dấu của sản phẩm, thương hiệu, danh mục
+ * - Sản phẩm được đánh chỉ mục theo mọi hậu tố bắt đầu ở đầu từ ("phim co" vẫn gợi ý "Bàn phím cơ")
+ * - Xếp hạng sản phẩm theo lượt bán và đánh giá, không query DB khi gợi ý
+ * - Sản phẩm cập nhật tăng dần qua ProductChangedEvent; thương hiệu / danh mục theo lịch rebuild
+ * - Sản phẩm thay đổi trong lúc rebuild được đọc lại sau khi hoán đổi trie
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestionIndex {
+
+    private static final int TOP_K = 10;
+    // Số hậu tố tối đa cho mỗi tên sản phẩm
+    private static final int MAX_SUFFIXES = 6;
+    private static final int MAX_CATALOG_SUGGESTIONS = 2;
+
+    private final ProductRepository productRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Suggestion> products = new HashMap<>();
+    private SuggestionTrie<Suggestion> productTrie = newTrie();
+    private SuggestionTrie<Suggestion> catalogTrie = newTrie();
+    private volatile boolean ready = false;
+    private volatile long lastBuildMillis = 0;
+    private volatile LocalDateTime lastBuiltAt;
+
+    // Id sản phẩm thay đổi từ lúc rebuild bắt đầu đọc DB tới khi hoán đổi trie
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    // ========== BUILD ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            build();
+        } finally {
+            rebuilding = false;
+        }
+
+        // Thay đổi commit sau lúc đọc DB đã bị ghi đè bởi dữ liệu cũ: đọc lại từng sản phẩm
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        for (Long productId : changed) {
+            refresh(productId, false);
+        }
+
+        lastBuildMillis = System.currentTimeMillis() - start;
+        lastBuiltAt = LocalDateTime.now();
+        lock.readLock().lock();
+        try {
+            log.info("Built suggestion index: {} products, {} nodes, ~{} KB ({} replayed) in {} ms",
+                    products.size(), productTrie.getNodeCount() + catalogTrie.getNodeCount(),
+                    (productTrie.estimateBytes() + catalogTrie.estimateBytes()) / 1024, changed.size(), lastBuildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void build() {
+        // Build trie mới ngoài lock rồi hoán đổi, request gợi ý không bị chặn trong lúc build
+        Map<Long, Suggestion> newProducts = new HashMap<>();
+        SuggestionTrie<Suggestion> newProductTrie = newTrie();
+        for (Object[] row : productRepository.findAllSuggestionRows()) {
+            Suggestion suggestion = toProductSuggestion(row);
+            if (suggestion != null) {
+                newProducts.put(suggestion.id, suggestion);
+                addProduct(newProductTrie, suggestion);
+            }
+        }
+
+        SuggestionTrie<Suggestion> newCatalogTrie = newTrie();
+        for (Brand brand : brandRepository.findByIsActiveTrueOrderByDisplayOrderAsc()) {
+            Suggestion suggestion = new Suggestion("brand", brand.getId(), brand.getName(), brand.getSlug(),
+                    "/products?brand=" + brand.getSlug(), brand.getLogo(),
+                    null, null, null, null, brand.getDisplayOrder() != null ? -brand.getDisplayOrder() : 0);
+            newCatalogTrie.add(String.join(" ", TextNormalizer.tokenize(brand.getName())), suggestion);
+        }
+        for (Category category : categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc()) {
+            Suggestion suggestion = new Suggestion("category", category.getId(), category.getName(), category.getSlug(),
+                    "/products?category=" + category.getSlug(), category.getImage(),
+                    null, null, null, null, category.getDisplayOrder() != null ? -category.getDisplayOrder() : 0);
+            for (String key : suffixKeys(category.getName())) {
+                newCatalogTrie.add(key, suggestion);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            products.putAll(newProducts);
+            productTrie = newProductTrie;
+            catalogTrie = newCatalogTrie;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+        }
+        if (!ready) {
+            return;
+        }
+        refresh(event.getProductId(), event.isDeleted());
+    }
+
+    private void refresh(Long productId, boolean deleted) {
+        Suggestion updated = null;
+        if (!deleted) {
+            List<Object[]> rows = productRepository.findSuggestionRowById(productId);
+            updated = rows.isEmpty() ? null : toProductSuggestion(rows.get(0));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Suggestion old = products.remove(productId);
+            if (old != null) {
+                for (String key : suffixKeys(old.name)) {
+                    productTrie.remove(key, old);
+                }
+            }
+            if (updated != null) {
+                products.put(updated.id, updated);
+                addProduct(productTrie, updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========== QUERY ==========
+
+    /**
+     * Gợi ý theo tiền tố: tối đa 2 thương hiệu / danh mục, còn lại là sản phẩm
+     */
+    public List<SearchSuggestionResponse> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        List<Suggestion> catalogMatches;
+        List<Suggestion> productMatches;
+        lock.readLock().lock();
+        try {
+            catalogMatches = catalogTrie.complete(prefix, Math.min(MAX_CATALOG_SUGGESTIONS, limit));
+            productMatches = productTrie.complete(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SearchSuggestionResponse> result = new ArrayList<>(limit);
+        for (Suggestion suggestion : catalogMatches) {
+            result.add(suggestion.toResponse(now));
+        }
+        for (Suggestion suggestion : productMatches) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(suggestion.toResponse(now));
+        }
+        return result;
+    }
+
+    /**
+     * Thông số của index (thời gian build, số node, bộ nhớ ước lượng)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("ready", ready);
+            stats.put("products", products.size());
+            stats.put("productNodes", productTrie.getNodeCount());
+            stats.put("catalogNodes", catalogTrie.getNodeCount());
+            stats.put("keys", productTrie.getKeyCount() + catalogTrie.getKeyCount());
+            stats.put("estimatedBytes", productTrie.estimateBytes() + catalogTrie.estimateBytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("lastBuildMillis", lastBuildMillis);
+        stats.put("lastBuiltAt", lastBuiltAt);
+        return stats;
+    }
+
+    // ========== HELPERS ==========
+
+    private static SuggestionTrie<Suggestion> newTrie() {
+        return new SuggestionTrie<>(TOP_K,
+                Comparator.comparingDouble((Suggestion s) -> s.weight).reversed()
+                        .thenComparing(s -> s.id));
+    }
+
+    private static void addProduct(SuggestionTrie<Suggestion> trie, Suggestion suggestion) {
+        for (String key : suffixKeys(suggestion.name)) {
+            trie.add(key, suggestion);
+        }
+    }
+
+    /**
+     * Các hậu tố bắt đầu ở đầu mỗi từ của tên đã chuẩn hóa
+     */
+    private static List<String> suffixKeys(String name) {
+        List<String> tokens = TextNormalizer.tokenize(name);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < tokens.size() && keys.size() < MAX_SUFFIXES; i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private static String normalize(String query) {
+        String joined = String.join(" ", TextNormalizer.tokenize(query));
+        // Giữ khoảng trắng cuối để "ban " chỉ khớp từ "ban" trọn vẹn
+        if (!joined.isEmpty() && query != null && Character.isWhitespace(query.charAt(query.length() - 1))) {
+            return joined + " ";
+        }
+        return joined;
+    }
+
+    private Suggestion toProductSuggestion(Object[] row) {
+        if (!Boolean.TRUE.equals(row[9])) {
+            return null;
+        }
+        int soldCount = row[7] != null ? (Integer) row[7] : 0;
+        BigDecimal rating = (BigDecimal) row[8];
+        // Lượt bán theo thang log để sản phẩm bán chạy không lấn át hoàn toàn đánh giá
+        double weight = Math.log1p(soldCount) * 2 + (rating != null ? rating.doubleValue() : 0);
+        String slug = (String) row[2];
+        return new Suggestion("product", (Long) row[0], (String) row[1], slug, "/products/" + slug,
+                row[10] != null ? (String) row[10] : "/images/no-image.png",
+                (BigDecimal) row[3], (BigDecimal) row[4], (LocalDateTime) row[5], (LocalDateTime) row[6], weight);
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    private static final class Suggestion {
+        private final String type;
+        private final Long id;
+        private final String name;
+        private final String slug;
+        private final String url;
+        private final String image;
+        private final BigDecimal price;
+        private final BigDecimal salePrice;
+        private final LocalDateTime saleStartDate;
+        private final LocalDateTime saleEndDate;
+        private final double weight;
+
+        private Suggestion(String type, Long id, String name, String slug, String url, String image,
+                           BigDecimal price, BigDecimal salePrice,
+                           LocalDateTime saleStartDate, LocalDateTime saleEndDate, double weight) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.slug = slug;
+            this.url = url;
+            this.image = image;
+            this.price = price;
+            this.salePrice = salePrice;
+            this.saleStartDate = saleStartDate;
+            this.saleEndDate = saleEndDate;
+            this.weight = weight;
+        }
+
+        private SearchSuggestionResponse toResponse(LocalDateTime now) {
+            boolean onSale = salePrice != null && price != null && salePrice.compareTo(price) < 0
+                    && (saleStartDate == null || !now.isBefore(saleStartDate))
+                    && (saleEndDate == null || !now.isAfter(saleEndDate));
+            return SearchSuggestionResponse.builder()
+                    .type(type)
+                    .id(id)
+                    .name(name)
+                    .slug(slug)
+                    .url(url)
+                    .mainImage(image)
+                    .price(price)
+                    .salePrice(onSale ? salePrice : null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.argaty.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trie theo ký tự, mỗi node lưu sẵn top-K entry có trọng số cao nhất trong cây con
+ * -> tra cứu tiền tố chỉ cần đi theo độ dài tiền tố rồi trả về danh sách có sẵn
+ * Thêm / xóa chỉ tính lại top-K trên đường đi từ node lá lên gốc
+ * Không thread-safe, bên gọi tự đồng bộ
+ */
+final class SuggestionTrie<T> {
+
+    private final int topK;
+    private final Comparator<T> byWeight;
+    private final Node<T> root = new Node<>();
+    private int nodeCount = 1;
+    private int keyCount = 0;
+    private long keyChars = 0;
+
+    SuggestionTrie(int topK, Comparator<T> byWeight) {
+        this.topK = topK;
+        this.byWeight = byWeight;
+    }
+
+    /**
+     * Top-K entry có key bắt đầu bằng prefix (prefix đã được chuẩn hóa)
+     */
+    List<T> complete(String prefix, int limit) {
+        Node<T> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+    }
+
+    void add(String key, T value) {
+        List<Node<T>> path = new ArrayList<>(key.length() + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Node<T> child = node.children.get(c);
+            if (child == null) {
+                child = new Node<>();
+                node.children.put(c, child);
+                nodeCount++;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.values.add(value);
+        keyCount++;
+        keyChars += key.length();
+        recomputeTop(path);
+    }
+
+    void remove(String key, T value) {
+        List<Node<T>> path = new ArrayList<>(key.length() + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return;
+        }
+        keyCount--;
+        keyChars -= key.length();
+
+        // Cắt bỏ các node rỗng ở cuối nhánh
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node<T> current = path.get(i);
+            if (!current.values.isEmpty() || !current.children.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).children.remove(key.charAt(i - 1));
+            path.remove(i);
+            nodeCount--;
+        }
+        recomputeTop(path);
+    }
+
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Ước lượng bộ nhớ (byte): header node + bảng children + mảng top-K + ký tự của key
+     */
+    long estimateBytes() {
+        return nodeCount * (48L + 32L + 8L * topK) + keyChars * 2L + keyCount * 16L;
+    }
+
+    private void recomputeTop(List<Node<T>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<T> node = path.get(i);
+            // 1 entry có thể có nhiều key trong cùng cây con (các hậu tố của tên) -> loại trùng
+            Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<T> candidates = new ArrayList<>();
+            for (T value : node.values) {
+                if (seen.add(value)) {
+                    candidates.add(value);
+                }
+            }
+            for (Node<T> child : node.children.values()) {
+                for (T value : child.top) {
+                    if (seen.add(value)) {
+                        candidates.add(value);
+                    }
+                }
+            }
+            candidates.sort(byWeight);
+            node.top = candidates.size() > topK
+                    ? List.copyOf(candidates.subList(0, topK))
+                    : List.copyOf(candidates);
+        }
+    }
+
+    private static final class Node<T> {
+        private final Map<Character, Node<T>> children = new HashMap<>(4);
+        private final List<T> values = new ArrayList<>(1);
+        private List<T> top = List.of();
+    }
+}
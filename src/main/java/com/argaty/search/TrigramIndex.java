@@ -0,0 +1,207 @@
+package com.argaty.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.argaty.util.TextNormalizer;
+
+/**
+ * Index trigram cho tìm kiếm chuỗi con (thay cho LIKE '%keyword%')
+ * - Mỗi document gồm vài trường, mỗi trường đã bỏ dấu + chữ thường được cắt thành các trigram
+ * - Posting list là mảng id tăng dần; truy vấn giao các posting list (từ list ngắn nhất)
+ *   rồi kiểm tra lại chuỗi con trên các document ứng viên
+ * - Từ khóa dưới 3 ký tự không có trigram: quét toàn bộ document trong bộ nhớ
+ * Kết quả trả về theo id giảm dần (mới nhất trước)
+ * Không thread-safe, bên gọi tự đồng bộ
+ */
+final class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Thêm hoặc thay thế document
+     */
+    void put(long id, String... fields) {
+        remove(id);
+        String[] folded = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            folded[i] = TextNormalizer.fold(fields[i]);
+        }
+        documents.put(id, folded);
+        for (long gram : grams(folded)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String[] old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (long gram : grams(old)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Id các document có ít nhất 1 trường chứa query, id giảm dần
+     */
+    List<Long> search(String query) {
+        String needle = TextNormalizer.fold(query).trim();
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        if (needle.length() < GRAM) {
+            return scan(needle);
+        }
+
+        Set<Long> queryGrams = new HashSet<>();
+        addGrams(needle, queryGrams);
+        List<Postings> lists = new ArrayList<>(queryGrams.size());
+        for (long gram : queryGrams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        Postings smallest = lists.get(0);
+        List<Long> result = new ArrayList<>();
+        for (int i = smallest.size - 1; i >= 0; i--) {
+            long id = smallest.ids[i];
+            if (inAll(lists, id) && matches(documents.get(id), needle)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    int getGramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Ước lượng bộ nhớ (byte) của posting list và document
+     */
+    long estimateBytes() {
+        long bytes = 0;
+        for (Postings list : postings.values()) {
+            bytes += 64 + (long) list.ids.length * Long.BYTES;
+        }
+        for (String[] fields : documents.values()) {
+            bytes += 48;
+            for (String field : fields) {
+                bytes += 40 + field.length();
+            }
+        }
+        return bytes;
+    }
+
+    // ========== HELPERS ==========
+
+    private List<Long> scan(String needle) {
+        List<Long> result = new ArrayList<>();
+        for (Map.Entry<Long, String[]> entry : documents.entrySet()) {
+            if (matches(entry.getValue(), needle)) {
+                result.add(entry.getKey());
+            }
+        }
+        result.sort((a, b) -> Long.compare(b, a));
+        return result;
+    }
+
+    private static boolean inAll(List<Postings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Trigram chỉ cho biết "có thể khớp", kiểm tra lại để đúng ngữ nghĩa chuỗi con
+    private static boolean matches(String[] fields, String needle) {
+        for (String field : fields) {
+            if (field.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<Long> grams(String[] fields) {
+        Set<Long> grams = new HashSet<>();
+        for (String field : fields) {
+            addGrams(field, grams);
+        }
+        return grams;
+    }
+
+    private static void addGrams(String text, Set<Long> out) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            out.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    // ========== INTERNAL TYPES ==========
+
+    /**
+     * Mảng id tăng dần; id mới thường lớn nhất nên thêm vào cuối là O(1)
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && id <= ids[size - 1]) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int pos, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.argaty.security;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.exception.UnauthorizedException;
+import com.argaty.service.UserService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lấy id của user đang đăng nhập
+ * Ưu tiên id có sẵn trong UserPrincipal, chỉ dùng cache định danh theo email khi principal là loại khác
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserService userService;
+
+    public Optional<Long> findUserId(Principal principal) {
+        if (principal == null) {
+            return Optional.empty();
+        }
+        UserPrincipal userPrincipal = unwrap(principal);
+        if (userPrincipal != null) {
+            return Optional.of(userPrincipal.getId());
+        }
+        return userService.findIdentityByEmail(principal.getName()).map(UserIdentity::getId);
+    }
+
+    public Long requireUserId(Principal principal) {
+        if (principal == null) {
+            throw new UnauthorizedException("Vui lòng đăng nhập");
+        }
+        return findUserId(principal)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", principal.getName()));
+    }
+
+    private static UserPrincipal unwrap(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal;
+        }
+        return null;
+    }
+}
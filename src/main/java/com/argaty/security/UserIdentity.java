@@ -0,0 +1,20 @@
+package com.argaty.security;
+
+import com.argaty.enums.Role;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Thông tin định danh tối thiểu của user (immutable, dùng làm giá trị cache)
+ */
+@Getter
+@AllArgsConstructor
+public class UserIdentity {
+
+    private final Long id;
+    private final String email;
+    private final String fullName;
+    private final String avatar;
+    private final Role role;
+}
@@ -0,0 +1,37 @@
+package com.argaty.security;
+
+import java.util.Collections;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.argaty.entity.User;
+import com.argaty.enums.Role;
+
+import lombok.Getter;
+
+/**
+ * Principal sau khi đăng nhập, mang sẵn id / role / thông tin hiển thị
+ * để controller không phải tìm lại user theo email ở mỗi request
+ */
+@Getter
+public class UserPrincipal extends org.springframework.security.core.userdetails.User {
+
+    private final Long id;
+    private final Role role;
+    private final String fullName;
+    private final String avatar;
+
+    public UserPrincipal(User user) {
+        super(user.getEmail(),
+              user.getPassword(),
+              Boolean.TRUE.equals(user.getIsEnabled()),     // enabled
+              true,                                         // accountNonExpired
+              true,                                         // credentialsNonExpired
+              !Boolean.TRUE.equals(user.getIsBanned()),     // accountNonLocked (use banned flag)
+              Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        this.id = user.getId();
+        this.role = user.getRole();
+        this.fullName = user.getFullName();
+        this.avatar = user.getAvatar();
+    }
+}
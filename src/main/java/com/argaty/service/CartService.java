@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+import com.argaty.dto.response.MiniCartSummary;
 import com.argaty.entity.Cart;
 import com.argaty.entity.CartItem;
 
@@ -52,6 +53,13 @@ public interface CartService {
 
     BigDecimal getSelectedItemsTotal(Long cartId);
 
+    List<Long> getSelectedProductIds(Long userId);
+
+    /**
+     * Tóm tắt mini-cart (có cache, bị xóa khi giỏ thay đổi)
+     */
+    MiniCartSummary getMiniCart(Long cartId);
+
     // ========== MERGE CART ==========
 
     void mergeGuestCartToUser(String sessionId, Long userId);
@@ -1,8 +1,5 @@
 package com.argaty.service;
 
-import java.util.Collections;
-
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,6 +8,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.argaty.entity.User;
 import com.argaty.repository.UserRepository;
+import com.argaty.security.UserPrincipal;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,14 +39,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Tài khoản đã bị khóa");
         }
         
-        return new org.springframework.security.core.userdetails.User(
-            user.getEmail(),
-            user.getPassword(),
-            user.getIsEnabled(),                  // enabled
-            true,                                 // accountNonExpired
-            true,                                 // credentialsNonExpired
-            !Boolean.TRUE.equals(user.getIsBanned()), // accountNonLocked (use banned flag)
-            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-        );
+        // Principal mang sẵn id / role / tên hiển thị cho các request sau
+        return new UserPrincipal(user);
     }
 }
\ No newline at end of file
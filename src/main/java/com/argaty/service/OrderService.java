@@ -1,5 +1,6 @@
 package com.argaty.service;
 
+import com.argaty.dto.response.BulkOrderStatusResponse;
 import com.argaty.entity.Order;
 import com.argaty.entity.OrderItem;
 import com.argaty.entity.User;
@@ -7,6 +8,8 @@ import com.argaty.enums.OrderStatus;
 import com.argaty.enums.PaymentMethod;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -65,6 +68,11 @@ public interface OrderService {
 
     Order cancelOrder(Long orderId, User changedBy, String reason);
 
+    /**
+     * Chuyển trạng thái hàng loạt (xác nhận / giao / đã giao / hoàn thành), trả kết quả từng đơn
+     */
+    BulkOrderStatusResponse bulkUpdateStatus(List<Long> orderIds, OrderStatus newStatus, User changedBy, String note);
+
     Order requestReturn(Long orderId, User user, String reason);
 
     Order approveReturn(Long orderId, User changedBy, String note);
@@ -77,6 +85,9 @@ public interface OrderService {
 
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
+    // Phân trang keyset, mới nhất trước (status null = tất cả)
+    Window<Order> scroll(OrderStatus status, ScrollPosition position, int size);
+
     Page<Order> searchOrders(String keyword, Pageable pageable);
 
     Page<Order> findByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
@@ -105,5 +116,7 @@ public interface OrderService {
 
     List<Object[]> getTopSellingProducts(int limit);
 
+    List<Object[]> getSalesByCategory();
+
     List<Object[]> getTopCustomers(int limit);
 }
\ No newline at end of file
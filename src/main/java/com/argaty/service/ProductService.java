@@ -6,9 +6,17 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.dto.request.ProductRequest;
+import com.argaty.dto.response.ProductDetailResponse;
 import com.argaty.entity.Product;
+import com.argaty.inventory.StockLine;
+import com.argaty.search.FacetFilter;
+import com.argaty.search.FacetResult;
 import com.argaty.entity.ProductImage;
 import com.argaty.entity.ProductVariant;
 import com.argaty.entity.VariantImage;
@@ -28,6 +36,12 @@ public interface ProductService {
 
     Optional<Product> findBySlugWithDetails(String slug);
 
+    /**
+     * Chi tiết sản phẩm đã map sang DTO cho trang chi tiết
+     * Các request đồng thời cùng slug chỉ chạy 1 lần query
+     */
+    Optional<ProductDetailResponse> findDetailBySlug(String slug);
+
     Optional<Product> findByIdWithDetails(Long id);
 
     Page<Product> findAll(Pageable pageable);
@@ -38,6 +52,11 @@ public interface ProductService {
 
     boolean existsBySku(String sku);
 
+    /**
+     * Sản phẩm tồn tại và đang active (đọc từ search index, index chưa sẵn sàng thì hỏi DB)
+     */
+    boolean isActiveProduct(Long id);
+
     // ========== FIND PRODUCTS ==========
 
     Page<Product> findActiveProducts(Pageable pageable);
@@ -68,6 +87,26 @@ public interface ProductService {
     Page<Product> filterProducts(String keyword, Long categoryId, Long brandId, 
                                  BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
+    // Lọc facet cho trang danh sách (nhiều danh mục / thương hiệu, kèm số lượng mỗi facet)
+    FacetResult filterByFacets(FacetFilter filter, Pageable pageable);
+
+    // Phân trang keyset cho infinite scroll (bỏ qua từ khóa, không COUNT)
+    Window<ProductCardView> scrollActive(FacetFilter filter, ScrollPosition position, int size, Sort sort);
+
+    // ========== PRODUCT CARDS (projection, dùng cho các trang hiển thị dạng lưới) ==========
+
+    List<ProductCardView> findFeaturedCards(int limit);
+
+    List<ProductCardView> findNewCards(int limit);
+
+    List<ProductCardView> findBestSellerCards(int limit);
+
+    List<ProductCardView> findTrendingCards(int limit);
+
+    Page<ProductCardView> findOnSaleCards(Pageable pageable);
+
+    List<ProductCardView> findRelatedCards(Long productId, int limit);
+
     // ========== ADMIN METHODS (bao gồm cả inactive) ==========
 
     Page<Product> searchAll(String keyword, Pageable pageable);
@@ -121,6 +160,11 @@ public interface ProductService {
 
     void decreaseStock(Long productId, Long variantId, int quantity);
 
+    /**
+     * Trừ tồn kho cho cả đơn hàng trong số câu lệnh cố định (không phụ thuộc số dòng)
+     */
+    void decreaseStock(List<StockLine> lines);
+
     void increaseStock(Long productId, Long variantId, int quantity);
 
     List<Product> findLowStockProducts();
@@ -137,5 +181,7 @@ public interface ProductService {
 
     long countOutOfStockProducts();
 
+    long countLowStockProducts();
+
     Long getTotalStock();
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import com.argaty.entity.Review;
 
@@ -19,6 +21,8 @@ public interface ReviewService {
 
     Page<Review> findByProductId(Long productId, Pageable pageable);
 
+    Window<Review> scrollByProductId(Long productId, ScrollPosition position, int size);
+
     Page<Review> findByProductIdAndRating(Long productId, int rating, Pageable pageable);
 
     Page<Review> findByUserId(Long userId, Pageable pageable);
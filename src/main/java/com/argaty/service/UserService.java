@@ -2,6 +2,7 @@ package com.argaty.service;
 
 import com.argaty.entity.User;
 import com.argaty.enums.Role;
+import com.argaty.security.UserIdentity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -20,6 +21,11 @@ public interface UserService {
     Optional<User> findById(Long id);
     
     Optional<User> findByEmail(String email);
+
+    /**
+     * Định danh user theo email (có cache, bị xóa khi user thay đổi)
+     */
+    Optional<UserIdentity> findIdentityByEmail(String email);
     
     Optional<User> findByPhone(String phone);
     
@@ -1,11 +1,14 @@
 package com.argaty.service.impl;
 
 import com.argaty.entity.Banner;
+import com.argaty.event.CatalogChangedEvent;
 import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.readmodel.SingleFlightLoader;
 import com.argaty.repository.BannerRepository;
 import com.argaty.service.BannerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,10 +28,14 @@ import java.util.Optional;
 public class BannerServiceImpl implements BannerService {
 
     private final BannerRepository bannerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlightLoader singleFlightLoader;
 
     @Override
     public Banner save(Banner banner) {
-        return bannerRepository.save(banner);
+        Banner saved = bannerRepository.save(banner);
+        publishChanged(saved.getId());
+        return saved;
     }
 
     @Override
@@ -46,7 +53,8 @@ public class BannerServiceImpl implements BannerService {
     @Override
     @Transactional(readOnly = true)
     public List<Banner> findActiveByPosition(String position) {
-        return bannerRepository.findActiveBannersByPosition(position, LocalDateTime.now());
+        return singleFlightLoader.load("banner.active", position,
+                () -> bannerRepository.findActiveBannersByPosition(position, LocalDateTime.now()));
     }
 
     @Override
@@ -61,6 +69,7 @@ public class BannerServiceImpl implements BannerService {
             throw new ResourceNotFoundException("Banner", "id", id);
         }
         bannerRepository.deleteById(id);
+        publishChanged(id);
         log.info("Deleted banner: {}", id);
     }
 
@@ -81,8 +90,10 @@ public class BannerServiceImpl implements BannerService {
                 .endDate(endDate)
                 .build();
 
+        Banner saved = bannerRepository.save(banner);
+        publishChanged(saved.getId());
         log.info("Created banner: {}", title);
-        return bannerRepository.save(banner);
+        return saved;
     }
 
     @Override
@@ -108,8 +119,10 @@ public class BannerServiceImpl implements BannerService {
         banner.setStartDate(startDate);
         banner.setEndDate(endDate);
 
+        Banner saved = bannerRepository.save(banner);
+        publishChanged(id);
         log.info("Updated banner: {}", id);
-        return bannerRepository.save(banner);
+        return saved;
     }
 
     @Override
@@ -119,6 +132,7 @@ public class BannerServiceImpl implements BannerService {
 
         banner.setIsActive(!banner.getIsActive());
         bannerRepository.save(banner);
+        publishChanged(id);
         log.info("Toggled banner active status: {} -> {}", id, banner.getIsActive());
     }
 
@@ -129,5 +143,10 @@ public class BannerServiceImpl implements BannerService {
 
         banner.setDisplayOrder(displayOrder);
         bannerRepository.save(banner);
+        publishChanged(id);
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long id) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.BANNER, id));
+    }
+}
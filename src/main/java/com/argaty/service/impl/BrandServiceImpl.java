@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -12,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import com.argaty.entity.Brand;
+import com.argaty.event.CatalogChangedEvent;
 import com.argaty.exception.BadRequestException;
 import com.argaty.exception.ResourceNotFoundException;
 import com.argaty.repository.BrandRepository;
@@ -30,10 +32,13 @@ import lombok.extern.slf4j.Slf4j;
 public class BrandServiceImpl implements BrandService {
 
     private final BrandRepository brandRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Brand save(Brand brand) {
-        return brandRepository.save(brand);
+        Brand saved = brandRepository.save(brand);
+        publishChanged(saved.getId());
+        return saved;
     }
 
     @Override
@@ -81,6 +86,7 @@ public class BrandServiceImpl implements BrandService {
         
         try {
             brandRepository.deleteById(id);
+            publishChanged(id);
             log.info("Deleted brand: {}", id);
         } catch (Exception e) {
             // Ném lỗi rõ ràng hơn để Controller hiển thị
@@ -120,6 +126,7 @@ public class BrandServiceImpl implements BrandService {
                 .orElseThrow(() -> new ResourceNotFoundException("Brand", "id", id));
         brand.setIsActive(!brand.getIsActive());
         brandRepository.save(brand);
+        publishChanged(id);
         log.info("Toggled brand active status: {} -> {}", id, brand.getIsActive());
     }
 
@@ -149,6 +156,7 @@ public class BrandServiceImpl implements BrandService {
         brand.setDisplayOrder(0); 
 
         Brand savedBrand = brandRepository.save(brand);
+        publishChanged(savedBrand.getId());
         log.info("Created brand: {}", name);
         return savedBrand;
     }
@@ -178,8 +186,10 @@ public class BrandServiceImpl implements BrandService {
             brand.setLogo(logo);
         }
 
+        Brand saved = brandRepository.save(brand);
+        publishChanged(id);
         log.info("Updated brand: {}", id);
-        return brandRepository.save(brand);
+        return saved;
     }
 
     private String toSlug(String input) {
@@ -189,4 +199,8 @@ public class BrandServiceImpl implements BrandService {
         Pattern pattern = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
         return pattern.matcher(normalized).replaceAll("").toLowerCase();
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long id) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.BRAND, id));
+    }
+}
@@ -1,18 +1,27 @@
 package com.argaty.service.impl;
 
+import com.argaty.dto.response.MiniCartItemResponse;
+import com.argaty.dto.response.MiniCartSummary;
 import com.argaty.entity.*;
+import com.argaty.event.CartChangedEvent;
 import com.argaty.exception.ResourceNotFoundException;
 import com.argaty.exception.BadRequestException;
+import com.argaty.inventory.CartHoldRegistry;
+import com.argaty.readmodel.MiniCartCache;
 import com.argaty.repository.*;
 import com.argaty.service.CartService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Implementation của CartService
@@ -28,6 +37,9 @@ public class CartServiceImpl implements CartService {
     private final ProductRepository productRepository;
     private final ProductVariantRepository productVariantRepository;
     private final UserRepository userRepository;
+    private final MiniCartCache miniCartCache;
+    private final CartHoldRegistry cartHoldRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ========== CART OPERATIONS ==========
 
@@ -133,11 +145,14 @@ public class CartServiceImpl implements CartService {
                 throw new BadRequestException("Số lượng trong giỏ vượt quá tồn kho");
             }
 
+            cartHoldRegistry.hold(cartId, productId, variantId, newQuantity, availableQty);
             cartItem.setQuantity(newQuantity);
             cartItem = cartItemRepository.save(cartItem);
+            publishChanged(cartId);
             log.info("Updated cart item quantity: {} -> {}", cartItem.getId(), newQuantity);
         } else {
             // Thêm mới
+            cartHoldRegistry.hold(cartId, productId, variantId, quantity, availableQty);
             cartItem = CartItem.builder()
                     .cart(cart)
                     .product(product)
@@ -147,6 +162,7 @@ public class CartServiceImpl implements CartService {
                     .build();
 
             cartItem = cartItemRepository.save(cartItem);
+            publishChanged(cartId);
             log.info("Added item to cart: product={}, variant={}, qty={}", productId, variantId, quantity);
         }
 
@@ -168,18 +184,24 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Số lượng yêu cầu vượt quá tồn kho (" + availableQty + ")");
         }
 
+        cartHoldRegistry.hold(cartItem.getCart().getId(), cartItem.getProduct().getId(),
+                cartItem.getVariant() != null ? cartItem.getVariant().getId() : null, quantity, availableQty);
         cartItem.setQuantity(quantity);
         log.info("Updated cart item quantity: {} -> {}", cartItemId, quantity);
 
-        return cartItemRepository.save(cartItem);
+        CartItem saved = cartItemRepository.save(cartItem);
+        publishChanged(cartItem.getCart().getId());
+        return saved;
     }
 
     @Override
     public void removeItem(Long cartItemId) {
-        if (!cartItemRepository.existsById(cartItemId)) {
-            throw new ResourceNotFoundException("CartItem", "id", cartItemId);
-        }
-        cartItemRepository.deleteById(cartItemId);
+        CartItem cartItem = cartItemRepository.findById(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
+        cartItemRepository.delete(cartItem);
+        cartHoldRegistry.release(cartItem.getCart().getId(), cartItem.getProduct().getId(),
+                cartItem.getVariant() != null ? cartItem.getVariant().getId() : null);
+        publishChanged(cartItem.getCart().getId());
         log.info("Removed cart item: {}", cartItemId);
     }
 
@@ -190,22 +212,33 @@ public class CartServiceImpl implements CartService {
 
         cartItem.setIsSelected(!cartItem.getIsSelected());
         cartItemRepository.save(cartItem);
+        publishChanged(cartItem.getCart().getId());
     }
 
     @Override
     public void selectAllItems(Long cartId, boolean selected) {
         cartItemRepository.updateAllSelected(cartId, selected);
+        publishChanged(cartId);
     }
 
     @Override
     public void clearCart(Long cartId) {
         cartItemRepository.deleteByCartId(cartId);
+        cartHoldRegistry.releaseCart(cartId);
+        publishChanged(cartId);
         log.info("Cleared cart: {}", cartId);
     }
 
     @Override
     public void clearSelectedItems(Long cartId) {
+        if (cartHoldRegistry.isEnabled()) {
+            for (CartItem item : cartItemRepository.findByCartIdAndIsSelectedTrue(cartId)) {
+                cartHoldRegistry.release(cartId, item.getProduct().getId(),
+                        item.getVariant() != null ? item.getVariant().getId() : null);
+            }
+        }
         cartItemRepository.deleteSelectedItems(cartId);
+        publishChanged(cartId);
         log.info("Cleared selected items from cart: {}", cartId);
     }
 
@@ -242,9 +275,53 @@ public class CartServiceImpl implements CartService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    // ========== MERGE CART ==========
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getSelectedProductIds(Long userId) {
+        return cartItemRepository.findSelectedProductIdsByUserId(userId);
+    }
 
-        // ========== MERGE CART (tiếp tục) ==========
+    @Override
+    @Transactional(readOnly = true)
+    public MiniCartSummary getMiniCart(Long cartId) {
+        return miniCartCache.get(cartId, () -> buildMiniCart(cartId));
+    }
+
+    // 2 query: item (kèm product, variant) + ảnh chính của các sản phẩm
+    private MiniCartSummary buildMiniCart(Long cartId) {
+        List<CartItem> items = cartItemRepository.findByCartIdWithProductAndVariant(cartId);
+        if (items.isEmpty()) {
+            return new MiniCartSummary(cartId, 0, BigDecimal.ZERO, List.of());
+        }
+
+        Map<Long, String> images = new HashMap<>();
+        List<Long> productIds = items.stream().map(item -> item.getProduct().getId()).distinct().toList();
+        for (Object[] row : productRepository.findMainImages(productIds)) {
+            if (row[1] != null) {
+                images.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        List<MiniCartItemResponse> miniItems = items.stream()
+                .map(item -> MiniCartItemResponse.builder()
+                        .name(item.getProduct().getName())
+                        .slug(item.getProduct().getSlug())
+                        .imageUrl(images.getOrDefault(item.getProduct().getId(), "/images/no-image.png"))
+                        .quantity(item.getQuantity())
+                        .price(item.getUnitPrice())
+                        .build())
+                .collect(Collectors.toList());
+
+        int itemCount = items.stream().mapToInt(CartItem::getQuantity).sum();
+        BigDecimal total = items.stream()
+                .filter(CartItem::getIsSelected)
+                .map(CartItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return new MiniCartSummary(cartId, itemCount, total, List.copyOf(miniItems));
+    }
+
+    // ========== MERGE CART ==========
 
     @Override
     public void mergeGuestCartToUser(String sessionId, Long userId) {
@@ -271,6 +348,8 @@ public class CartServiceImpl implements CartService {
 
         // Xóa guest cart
         cartRepository.delete(guestCart);
+        cartHoldRegistry.releaseCart(guestCart.getId());
+        publishChanged(guestCart.getId());
         log.info("Merged guest cart {} to user cart {}", sessionId, userId);
     }
 
@@ -300,4 +379,8 @@ public class CartServiceImpl implements CartService {
 
         return true;
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long cartId) {
+        eventPublisher.publishEvent(new CartChangedEvent(cartId));
+    }
+}
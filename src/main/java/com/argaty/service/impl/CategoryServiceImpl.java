@@ -5,12 +5,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.argaty.entity.Category;
+import com.argaty.event.CatalogChangedEvent;
 import com.argaty.exception.BadRequestException;
 import com.argaty.exception.ResourceNotFoundException;
 import com.argaty.repository.CategoryRepository;
@@ -26,10 +28,13 @@ import lombok.extern.slf4j.Slf4j;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Category save(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        publishChanged(saved.getId());
+        return saved;
     }
 
     @Override
@@ -98,6 +103,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.deleteById(id);
+        publishChanged(id);
         log.info("Deleted category: {}", id);
     }
 
@@ -134,6 +140,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        publishChanged(savedCategory.getId());
         log.info("Created category: {}", name);
         return savedCategory;
     }
@@ -175,8 +182,10 @@ public class CategoryServiceImpl implements CategoryService {
             category.setParent(null);
         }
 
+        Category saved = categoryRepository.save(category);
+        publishChanged(id);
         log.info("Updated category: {}", id);
-        return categoryRepository.save(category);
+        return saved;
     }
 
     @Override
@@ -185,6 +194,7 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         category.setIsActive(!category.getIsActive());
         categoryRepository.save(category);
+        publishChanged(id);
     }
 
     @Override
@@ -193,6 +203,7 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
         category.setIsFeatured(!category.getIsFeatured());
         categoryRepository.save(category);
+        publishChanged(id);
     }
 
     @Override
@@ -215,4 +226,8 @@ public class CategoryServiceImpl implements CategoryService {
         Pattern pattern = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
         return pattern.matcher(normalized).replaceAll("").toLowerCase();
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long id) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.CATEGORY, id));
+    }
+}
@@ -1,37 +1,76 @@
 package com.argaty.service.impl;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.argaty.analytics.HeavyHitter;
+import com.argaty.analytics.SalesHeavyHitters;
+import com.argaty.analytics.SalesWindow;
+import com.argaty.archive.OrderArchive;
+import com.argaty.dto.response.BulkOrderStatusResponse;
 import com.argaty.entity.Cart;
 import com.argaty.entity.CartItem;
 import com.argaty.entity.Order;
 import com.argaty.entity.OrderItem;
+import com.argaty.entity.OutboxEvent;
+import com.argaty.entity.OutboxEvent.OrderStatusChange;
 import com.argaty.entity.User;
 import com.argaty.entity.Voucher;
 import com.argaty.enums.OrderStatus;
 import com.argaty.enums.PaymentMethod;
+import com.argaty.event.CartChangedEvent;
+import com.argaty.event.OrderChangedEvent;
+import com.argaty.event.OrderStatusChangedEvent;
 import com.argaty.exception.BadRequestException;
 import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.inventory.CartHoldRegistry;
+import com.argaty.inventory.StockLine;
+import com.argaty.readmodel.DashboardMetricsStore;
+import com.argaty.readmodel.SalesRollupUpdater;
 import com.argaty.repository.CartItemRepository;
 import com.argaty.repository.CartRepository;
+import com.argaty.repository.OrderBatchRepository;
 import com.argaty.repository.OrderItemRepository;
 import com.argaty.repository.OrderRepository;
+import com.argaty.repository.OutboxEventRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.ProductVariantRepository;
+import com.argaty.repository.SalesRollupRepository;
 import com.argaty.repository.UserRepository;
-import com.argaty.service.NotificationService;
+import com.argaty.search.AdminSearchIndex;
 import com.argaty.service.OrderService;
 import com.argaty.service.ProductService;
 import com.argaty.service.ShippingFeeService;
 import com.argaty.service.VoucherService;
+import com.argaty.util.CursorCodec;
 import com.argaty.util.OrderCodeGenerator;
 
 import lombok.RequiredArgsConstructor;
@@ -46,6 +85,22 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    // Trạng thái đích -> các trạng thái được phép chuyển hàng loạt (hủy đơn cần hoàn kho nên không hỗ trợ)
+    private static final Map<OrderStatus, Set<OrderStatus>> BULK_TRANSITIONS = Map.of(
+            OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.PENDING),
+            OrderStatus.SHIPPING, EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PROCESSING),
+            OrderStatus.DELIVERED, EnumSet.of(OrderStatus.SHIPPING),
+            OrderStatus.COMPLETED, EnumSet.of(OrderStatus.DELIVERED));
+
+    private static final Map<OrderStatus, String> BULK_NOTES = Map.of(
+            OrderStatus.CONFIRMED, "Đơn hàng đã được xác nhận",
+            OrderStatus.SHIPPING, "Đơn hàng đang được giao",
+            OrderStatus.DELIVERED, "Đơn hàng đã được giao thành công",
+            OrderStatus.COMPLETED, "Đơn hàng hoàn thành");
+
+    // Số đơn mỗi transaction: giới hạn thời gian giữ lock dòng orders
+    private static final int BULK_CHUNK_SIZE = 200;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
@@ -53,8 +108,21 @@ public class OrderServiceImpl implements OrderService {
     private final CartItemRepository cartItemRepository;
     private final ProductService productService;
     private final VoucherService voucherService;
-    private final NotificationService notificationService;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderBatchRepository orderBatchRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final CartHoldRegistry cartHoldRegistry;
+    private final OrderCodeGenerator orderCodeGenerator;
     private final ShippingFeeService shippingFeeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final OrderArchive orderArchive;
+    private final AdminSearchIndex adminSearchIndex;
+    private final DashboardMetricsStore dashboardMetricsStore;
+    private final SalesRollupUpdater salesRollupUpdater;
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesHeavyHitters salesHeavyHitters;
 
     // ========== CRUD ==========
 
@@ -72,7 +140,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public Optional<Order> findByOrderCode(String orderCode) {
-        return orderRepository.findByOrderCode(orderCode);
+        Optional<Order> order = orderRepository.findByOrderCode(orderCode);
+        return order.isPresent() ? order : orderArchive.findByOrderCode(orderCode);
     }
 
     @Override
@@ -92,7 +161,21 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public Page<Order> findByUserId(Long userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable);
+        Page<Order> hot = orderRepository.findByUserId(userId, pageable);
+        long archivedCount = orderArchive.countByUserId(userId);
+        if (archivedCount == 0) {
+            return hot;
+        }
+        // Đơn lưu trữ luôn cũ hơn: nối sau đơn còn trong bảng orders
+        long total = hot.getTotalElements() + archivedCount;
+        int missing = pageable.getPageSize() - hot.getNumberOfElements();
+        if (missing <= 0) {
+            return new PageImpl<>(hot.getContent(), pageable, total);
+        }
+        long archiveOffset = Math.max(0, pageable.getOffset() - hot.getTotalElements());
+        List<Order> content = new ArrayList<>(hot.getContent());
+        content.addAll(orderArchive.findByUserId(userId, archiveOffset, missing));
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Override
@@ -104,7 +187,8 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public Optional<Order> findByOrderCodeAndUserId(String orderCode, Long userId) {
-        return orderRepository.findByOrderCodeAndUserId(orderCode, userId);
+        Optional<Order> order = orderRepository.findByOrderCodeAndUserId(orderCode, userId);
+        return order.isPresent() ? order : orderArchive.findByOrderCodeAndUserId(orderCode, userId);
     }
 
     // ========== CREATE ORDER ==========
@@ -119,15 +203,15 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
         // Lấy giỏ hàng
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
+        Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new BadRequestException("Giỏ hàng trống"));
 
-        List<CartItem> selectedItems = cartItemRepository.findByCartIdAndIsSelectedTrue(cart.getId());
+        List<CartItem> selectedItems = cartItemRepository.findSelectedWithProductAndVariant(cart.getId());
         if (selectedItems.isEmpty()) {
             throw new BadRequestException("Vui lòng chọn sản phẩm để đặt hàng");
         }
 
-        return createOrderFromCartItems(user, selectedItems, receiverName, receiverPhone,
+        return createOrderFromCartItems(user, cart.getId(), selectedItems, receiverName, receiverPhone,
                 receiverEmail, shippingAddress, city, district, ward,
                 paymentMethod, voucherCode, note);
     }
@@ -142,17 +226,21 @@ public class OrderServiceImpl implements OrderService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
-        List<CartItem> selectedItems = cartItemRepository.findByCartIdAndIsSelectedTrue(cartId);
+        List<CartItem> selectedItems = cartItemRepository.findSelectedWithProductAndVariant(cartId);
         if (selectedItems.isEmpty()) {
             throw new BadRequestException("Vui lòng chọn sản phẩm để đặt hàng");
         }
 
-        return createOrderFromCartItems(user, selectedItems, receiverName, receiverPhone,
+        return createOrderFromCartItems(user, cartId, selectedItems, receiverName, receiverPhone,
                 receiverEmail, shippingAddress, city, district, ward,
                 paymentMethod, voucherCode, note);
     }
 
-    private Order createOrderFromCartItems(User user, List<CartItem> cartItems,
+    /**
+     * Số round trip cố định theo đơn, không phụ thuộc số dòng:
+     * cart item đã fetch sẵn product / variant, ảnh lấy 1-2 query, tồn kho trừ set-based, item ghi 1 JDBC batch
+     */
+    private Order createOrderFromCartItems(User user, Long cartId, List<CartItem> cartItems,
                                            String receiverName, String receiverPhone,
                                            String receiverEmail, String shippingAddress,
                                            String city, String district, String ward,
@@ -198,7 +286,7 @@ public class OrderServiceImpl implements OrderService {
 
         // Tạo đơn hàng
         Order order = Order.builder()
-                .orderCode(OrderCodeGenerator.generate())
+                .orderCode(orderCodeGenerator.generate())
                 .user(user)
                 .receiverName(receiverName)
                 .receiverPhone(receiverPhone)
@@ -219,31 +307,56 @@ public class OrderServiceImpl implements OrderService {
                 .build();
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.created(savedOrder.getId()));
+
+        // Trừ tồn kho trước khi ghi item: không đủ hàng thì dừng sớm
+        List<StockLine> stockLines = new ArrayList<>(cartItems.size());
+        for (CartItem cartItem : cartItems) {
+            stockLines.add(new StockLine(
+                    cartItem.getProduct().getId(),
+                    cartItem.getVariant() != null ? cartItem.getVariant().getId() : null,
+                    cartItem.getQuantity()));
+        }
+        productService.decreaseStock(stockLines);
 
         // Tạo order items
+        Map<Long, String> productImages = new HashMap<>();
+        for (Object[] row : productRepository.findMainImages(
+                cartItems.stream().map(item -> item.getProduct().getId()).distinct().toList())) {
+            productImages.put((Long) row[0], (String) row[1]);
+        }
+        Map<Long, String> variantImages = new HashMap<>();
+        List<Long> variantIds = cartItems.stream()
+                .filter(item -> item.getVariant() != null)
+                .map(item -> item.getVariant().getId())
+                .distinct()
+                .toList();
+        if (!variantIds.isEmpty()) {
+            for (Object[] row : productVariantRepository.findMainImages(variantIds)) {
+                variantImages.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
         for (CartItem cartItem : cartItems) {
-            OrderItem orderItem = OrderItem.builder()
+            String image = cartItem.getVariant() != null ? variantImages.get(cartItem.getVariant().getId()) : null;
+            if (image == null) {
+                image = productImages.get(cartItem.getProduct().getId());
+            }
+            orderItems.add(OrderItem.builder()
                     .order(savedOrder)
                     .product(cartItem.getProduct())
                     .variant(cartItem.getVariant())
                     .productName(cartItem.getProduct().getName())
-                    .productImage(cartItem.getImage())
+                    .productImage(image != null ? image : "/static/images/no-image.png")
                     .variantName(cartItem.getVariant() != null ? cartItem.getVariant().getName() : null)
                     .sku(cartItem.getVariant() != null ? cartItem.getVariant().getSku() : cartItem.getProduct().getSku())
                     .unitPrice(cartItem.getUnitPrice())
                     .quantity(cartItem.getQuantity())
                     .subtotal(cartItem.getSubtotal())
-                    .build();
-
-            orderItemRepository.save(orderItem);
-
-            // Giảm tồn kho
-            productService.decreaseStock(
-                    cartItem.getProduct().getId(),
-                    cartItem.getVariant() != null ? cartItem.getVariant().getId() : null,
-                    cartItem.getQuantity()
-            );
+                    .build());
         }
+        orderBatchRepository.insertItems(savedOrder.getId(), orderItems);
 
         // Áp dụng voucher (đánh dấu đã sử dụng)
         if (voucher != null) {
@@ -251,13 +364,14 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // Xóa items đã đặt hàng khỏi giỏ
-        Cart cart = cartRepository.findByUserId(user.getId()).orElse(null);
-        if (cart != null) {
-            cartItemRepository.deleteSelectedItems(cart.getId());
-        }
+        cartItemRepository.deleteSelectedItems(cartId);
+        stockLines.forEach(line -> cartHoldRegistry.release(cartId, line.getProductId(), line.getVariantId()));
+        eventPublisher.publishEvent(new CartChangedEvent(cartId));
 
-        // Gửi thông báo
-        notificationService.sendOrderCreatedNotification(savedOrder);
+        // Thông báo được gửi bất đồng bộ qua outbox, ghi cùng transaction với đơn hàng
+        outboxEventRepository.save(OutboxEvent.orderCreated(savedOrder.getId()));
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder.getId(), savedOrder.getCreatedAt(),
+                savedOrder.getTotalAmount(), null, savedOrder.getStatus()));
 
         log.info("Created order: {} for user: {}", savedOrder.getOrderCode(), user.getId());
         return savedOrder;
@@ -274,8 +388,11 @@ public class OrderServiceImpl implements OrderService {
         order.updateStatus(newStatus, changedBy, note);
         Order savedOrder = orderRepository.save(order);
 
-        // Gửi thông báo
-        notificationService.sendOrderStatusNotification(savedOrder, oldStatus, newStatus);
+        // Thông báo được gửi bất đồng bộ qua outbox
+        outboxEventRepository.save(OutboxEvent.orderStatusChanged(
+                savedOrder.getId(), new OrderStatusChange(oldStatus, newStatus)));
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder.getId(), savedOrder.getCreatedAt(),
+                savedOrder.getTotalAmount(), oldStatus, newStatus));
 
         log.info("Updated order {} status: {} -> {}", order.getOrderCode(), oldStatus, newStatus);
         return savedOrder;
@@ -359,6 +476,116 @@ public class OrderServiceImpl implements OrderService {
         return updateStatus(orderId, OrderStatus.CANCELLED, changedBy, "Đơn hàng đã bị hủy: " + reason);
     }
 
+    // ========== BULK STATUS ==========
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOrderStatusResponse bulkUpdateStatus(List<Long> orderIds, OrderStatus newStatus, User changedBy, String note) {
+        Set<OrderStatus> allowedFrom = BULK_TRANSITIONS.get(newStatus);
+        if (allowedFrom == null) {
+            throw new BadRequestException("Không hỗ trợ chuyển hàng loạt sang trạng thái " + newStatus.getDisplayName());
+        }
+        String historyNote = note != null && !note.isBlank() ? note : BULK_NOTES.get(newStatus);
+        Long changedById = changedBy != null ? changedBy.getId() : null;
+
+        // Sắp xếp id: các chunk khóa dòng theo cùng thứ tự, không deadlock với nhau
+        List<Long> sortedIds = orderIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        Map<Long, BulkOrderStatusResponse.Item> results = new HashMap<>();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        for (int from = 0; from < sortedIds.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = sortedIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, sortedIds.size()));
+            try {
+                tx.executeWithoutResult(status ->
+                        applyBulkChunk(chunk, newStatus, allowedFrom, historyNote, changedById, results));
+            } catch (RuntimeException e) {
+                log.error("Bulk status chunk failed ({} orders): {}", chunk.size(), e.getMessage());
+                for (Long id : chunk) {
+                    results.put(id, BulkOrderStatusResponse.Item.builder()
+                            .orderId(id).success(false).message("Lỗi hệ thống, vui lòng thử lại").build());
+                }
+            }
+        }
+
+        List<BulkOrderStatusResponse.Item> ordered = orderIds.stream()
+                .filter(Objects::nonNull).distinct().map(results::get).toList();
+        int succeeded = (int) ordered.stream().filter(BulkOrderStatusResponse.Item::isSuccess).count();
+        log.info("Bulk updated {} / {} orders to {}", succeeded, ordered.size(), newStatus);
+
+        return BulkOrderStatusResponse.builder()
+                .targetStatus(newStatus)
+                .succeeded(succeeded)
+                .failed(ordered.size() - succeeded)
+                .results(ordered)
+                .build();
+    }
+
+    /**
+     * Kiểm tra chuyển trạng thái trong bộ nhớ, rồi ghi status + lịch sử + outbox bằng JDBC batch
+     */
+    private void applyBulkChunk(List<Long> ids, OrderStatus newStatus, Set<OrderStatus> allowedFrom,
+                                String note, Long changedById, Map<Long, BulkOrderStatusResponse.Item> results) {
+        Map<Long, String> codes = new HashMap<>();
+        Map<Long, Object[]> rows = new HashMap<>();
+        SortedMap<Long, OrderStatus> valid = new TreeMap<>();
+
+        for (Object[] row : orderRepository.findStatusRowsByIdIn(ids)) {
+            Long id = (Long) row[0];
+            OrderStatus current = (OrderStatus) row[2];
+            codes.put(id, (String) row[1]);
+            rows.put(id, row);
+            if (allowedFrom.contains(current)) {
+                valid.put(id, current);
+            } else {
+                results.put(id, failedItem(id, (String) row[1], current,
+                        "Không thể chuyển từ " + current.getDisplayName() + " sang " + newStatus.getDisplayName()));
+            }
+        }
+        for (Long id : ids) {
+            if (!codes.containsKey(id)) {
+                results.put(id, failedItem(id, null, null, "Không tìm thấy đơn hàng"));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int[] counts = orderBatchRepository.updateStatuses(valid, newStatus, now);
+
+        List<Long> updated = new ArrayList<>(valid.size());
+        Map<Long, OrderStatusChange> changes = new LinkedHashMap<>();
+        int i = 0;
+        for (Map.Entry<Long, OrderStatus> entry : valid.entrySet()) {
+            Long id = entry.getKey();
+            // SUCCESS_NO_INFO (-2): driver không trả số dòng, coi là thành công
+            if (counts[i++] != 0) {
+                updated.add(id);
+                changes.put(id, new OrderStatusChange(entry.getValue(), newStatus));
+                results.put(id, BulkOrderStatusResponse.Item.builder()
+                        .orderId(id).orderCode(codes.get(id)).previousStatus(entry.getValue())
+                        .success(true).build());
+            } else {
+                results.put(id, failedItem(id, codes.get(id), entry.getValue(),
+                        "Trạng thái đơn hàng vừa thay đổi, vui lòng tải lại"));
+            }
+        }
+        if (!updated.isEmpty()) {
+            orderBatchRepository.insertStatusHistory(updated, newStatus, note, changedById, now);
+            orderBatchRepository.insertStatusChangedEvents(changes, now);
+            for (Map.Entry<Long, OrderStatusChange> change : changes.entrySet()) {
+                Object[] row = rows.get(change.getKey());
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(change.getKey(), (LocalDateTime) row[3],
+                        (BigDecimal) row[4], change.getValue().getOldStatus(), newStatus));
+            }
+        }
+    }
+
+    private static BulkOrderStatusResponse.Item failedItem(Long id, String code, OrderStatus current, String message) {
+        return BulkOrderStatusResponse.Item.builder()
+                .orderId(id).orderCode(code).previousStatus(current).success(false).message(message).build();
+    }
+
     @Override
     public Order requestReturn(Long orderId, User user, String reason) {
         Order order = orderRepository.findById(orderId)
@@ -424,9 +651,22 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByStatus(status, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Order> scroll(OrderStatus status, ScrollPosition position, int size) {
+        Sort sort = CursorCodec.withTieBreaker(Sort.unsorted());
+        if (status != null) {
+            return orderRepository.findByStatus(status, position, Limit.of(size), sort);
+        }
+        return orderRepository.findAllBy(position, Limit.of(size), sort);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Order> searchOrders(String keyword, Pageable pageable) {
+        if (adminSearchIndex.isReady()) {
+            return adminSearchIndex.searchOrders(keyword, pageable);
+        }
         return orderRepository.searchOrders(keyword, pageable);
     }
 
@@ -441,18 +681,24 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public long countByStatus(OrderStatus status) {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.countByStatus(status);
+        }
         return orderRepository.countByStatus(status);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countByUserId(Long userId) {
-        return orderRepository.countByUserId(userId);
+        return orderRepository.countByUserId(userId) + orderArchive.countByUserId(userId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countOrdersToday() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.countOrdersFrom(LocalDate.now());
+        }
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         return orderRepository.countOrdersFromDate(startOfDay);
     }
@@ -460,6 +706,9 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public long countOrdersThisMonth() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.countOrdersFrom(LocalDate.now().withDayOfMonth(1));
+        }
         LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).with(LocalTime.MIN);
         return orderRepository.countOrdersFromDate(startOfMonth);
     }
@@ -467,13 +716,19 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalRevenue() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.getTotalRevenue();
+        }
         BigDecimal revenue = orderRepository.getTotalRevenue();
-        return revenue != null ? revenue : BigDecimal.ZERO;
+        return (revenue != null ? revenue : BigDecimal.ZERO).add(orderArchive.getTotalRevenue());
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getRevenueToday() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.getRevenueFrom(LocalDate.now());
+        }
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         BigDecimal revenue = orderRepository.getRevenueFromDate(startOfDay);
         return revenue != null ? revenue : BigDecimal.ZERO;
@@ -482,6 +737,9 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getRevenueThisMonth() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.getRevenueFrom(LocalDate.now().withDayOfMonth(1));
+        }
         LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).with(LocalTime.MIN);
         BigDecimal revenue = orderRepository.getRevenueFromDate(startOfMonth);
         return revenue != null ? revenue : BigDecimal.ZERO;
@@ -491,12 +749,19 @@ public class OrderServiceImpl implements OrderService {
     @Transactional(readOnly = true)
     public BigDecimal getTotalSpentByUser(Long userId) {
         BigDecimal spent = orderRepository.getTotalSpentByUser(userId);
-        return spent != null ? spent : BigDecimal.ZERO;
+        return (spent != null ? spent : BigDecimal.ZERO).add(orderArchive.getTotalSpentByUser(userId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getDailyStatistics(int days) {
+        LocalDate from = LocalDate.now().minusDays(days);
+        if (dashboardMetricsStore.isReady() && !from.isBefore(dashboardMetricsStore.getRetainedFrom())) {
+            return dashboardMetricsStore.getDailyStatistics(from);
+        }
+        if (salesRollupUpdater.isReady()) {
+            return salesRollupRepository.findDaily(from);
+        }
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         return orderRepository.getDailyStatistics(startDate);
     }
@@ -504,18 +769,49 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getMonthlyStatistics() {
+        if (salesRollupUpdater.isReady()) {
+            return salesRollupRepository.findMonthly();
+        }
         return orderRepository.getMonthlyStatistics();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getTopSellingProducts(int limit) {
+        if (salesRollupUpdater.isReady()) {
+            return salesRollupRepository.findTopProducts(limit);
+        }
         return orderItemRepository.getTopSellingProducts(PageRequest.of(0, limit));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Object[]> getSalesByCategory() {
+        if (salesRollupUpdater.isReady()) {
+            return salesRollupRepository.findSalesByCategory();
+        }
+        return orderItemRepository.getSalesByCategory();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getTopCustomers(int limit) {
+        if (salesHeavyHitters.isReady()) {
+            // 30 ngày gần nhất từ bảng xếp hạng in-memory, chỉ query đúng các user trong top
+            List<HeavyHitter> top = salesHeavyHitters.topCustomers(SalesWindow.DAYS_30, limit);
+            Map<Long, User> users = new HashMap<>();
+            userRepository.findAllById(top.stream().map(HeavyHitter::getKey).toList())
+                    .forEach(user -> users.put(user.getId(), user));
+            List<Object[]> rows = new ArrayList<>(top.size());
+            for (HeavyHitter hit : top) {
+                User user = users.get(hit.getKey());
+                if (user != null) {
+                    rows.add(new Object[]{user.getId(), user.getFullName(), user.getEmail(),
+                            hit.getEvents(), BigDecimal.valueOf(hit.getCount())});
+                }
+            }
+            return rows;
+        }
         return orderRepository.getTopCustomers(PageRequest.of(0, limit));
     }
 }
\ No newline at end of file
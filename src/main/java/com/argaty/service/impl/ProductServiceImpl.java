@@ -2,40 +2,75 @@ package com.argaty.service.impl;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.argaty.analytics.ProductViewTracker;
+import com.argaty.analytics.SalesHeavyHitters;
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.dto.request.ProductRequest;
 import com.argaty.dto.request.ProductVariantDTO;
+import com.argaty.dto.response.ProductDetailResponse;
 import com.argaty.entity.Brand;
 import com.argaty.entity.Category; // Cần import DTO này
 import com.argaty.entity.Product;
 import com.argaty.entity.ProductImage;
 import com.argaty.entity.ProductVariant;
 import com.argaty.entity.VariantImage;
+import com.argaty.event.ProductChangedEvent;
+import com.argaty.event.ProductStockChangedEvent;
 import com.argaty.exception.BadRequestException;
 import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.inventory.CartHoldRegistry;
+import com.argaty.inventory.StockLedger;
+import com.argaty.inventory.StockLine;
+import com.argaty.inventory.StockStateTracker;
+import com.argaty.readmodel.SingleFlightLoader;
 import com.argaty.repository.BrandRepository;
 import com.argaty.repository.CategoryRepository;
+import com.argaty.repository.OrderBatchRepository;
 import com.argaty.repository.ProductImageRepository;
 import com.argaty.repository.ProductRepository;
 import com.argaty.repository.ProductVariantRepository;
 import com.argaty.repository.ReviewRepository;
 import com.argaty.repository.VariantImageRepository;
+import com.argaty.search.FacetFilter;
+import com.argaty.search.FacetResult;
+import com.argaty.search.ProductFacetIndex;
+import com.argaty.search.ProductPageLoader;
+import com.argaty.search.ProductSearchIndex;
 import com.argaty.service.ProductService;
+import com.argaty.util.CursorCodec;
+import com.argaty.util.DtoMapper;
 import com.argaty.util.SlugUtil;
 
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -56,12 +91,25 @@ public class ProductServiceImpl implements ProductService {
     private final BrandRepository brandRepository;
     private final ReviewRepository reviewRepository;
     private final ProductDeletionTxService productDeletionTxService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductPageLoader productPageLoader;
+    private final SingleFlightLoader singleFlightLoader;
+    private final StockLedger stockLedger;
+    private final OrderBatchRepository orderBatchRepository;
+    private final CartHoldRegistry cartHoldRegistry;
+    private final StockStateTracker stockStateTracker;
+    private final SalesHeavyHitters salesHeavyHitters;
+    private final ProductViewTracker productViewTracker;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ========== CRUD ==========
 
     @Override
     public Product save(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -82,6 +130,41 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findBySlugWithAllDetails(slug);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ProductDetailResponse> findDetailBySlug(String slug) {
+        // Map sang DTO ngay trong loader để kết quả chia sẻ giữa các thread không còn lazy proxy
+        return singleFlightLoader.load("product.detail", slug, () ->
+                productRepository.findBySlugWithAllDetails(slug).map(DtoMapper::toProductDetailResponse))
+                .map(this::withAvailability);
+    }
+
+    /**
+     * Trừ số lượng đang được giữ trong giỏ (nếu bật cart hold)
+     * Trả bản sao vì DTO gốc được chia sẻ giữa các request gộp
+     */
+    private ProductDetailResponse withAvailability(ProductDetailResponse detail) {
+        if (!cartHoldRegistry.isEnabled()) {
+            return detail;
+        }
+        int available = cartHoldRegistry.availableToSell(detail.getId(), null, detail.getQuantity());
+        List<ProductDetailResponse.VariantResponse> variants = detail.getVariants() == null ? null
+                : detail.getVariants().stream()
+                        .map(v -> {
+                            int variantAvailable = cartHoldRegistry.availableToSell(detail.getId(), v.getId(), v.getQuantity());
+                            return v.toBuilder()
+                                    .quantity(variantAvailable)
+                                    .isInStock(variantAvailable > 0)
+                                    .build();
+                        })
+                        .collect(Collectors.toList());
+        return detail.toBuilder()
+                .quantity(available)
+                .isInStock(available > 0)
+                .variants(variants)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Product> findByIdWithDetails(Long id) {
@@ -102,6 +185,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productDeletionTxService.hardDelete(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     @Override
@@ -116,6 +200,14 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.existsBySku(sku);
     }
 
+    @Override
+    public boolean isActiveProduct(Long id) {
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.containsActive(id);
+        }
+        return productRepository.existsByIdAndIsActiveTrue(id);
+    }
+
     // ========== FIND PRODUCTS ==========
 
     @Override
@@ -188,17 +280,101 @@ public class ProductServiceImpl implements ProductService {
         );
     }
 
+    // ========== PRODUCT CARDS ==========
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductCardView> findFeaturedCards(int limit) {
+        List<ProductCardView> cards = productRepository.findFeaturedCards(PageRequest.of(0, limit));
+        if (cards.isEmpty()) {
+            // Fallback: Lấy sản phẩm active mới nhất nếu chưa set featured
+            return productRepository.findLatestCards(PageRequest.of(0, limit));
+        }
+        return cards;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductCardView> findNewCards(int limit) {
+        List<ProductCardView> cards = productRepository.findNewCards(PageRequest.of(0, limit));
+        if (cards.isEmpty()) {
+            return productRepository.findLatestCards(PageRequest.of(0, limit));
+        }
+        return cards;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductCardView> findBestSellerCards(int limit) {
+        List<ProductCardView> cards = productRepository.findBestSellerCards(PageRequest.of(0, limit));
+        if (cards.isEmpty()) {
+            cards = productRepository.findTopSellingCards(PageRequest.of(0, limit));
+        }
+        if (!salesHeavyHitters.isReady()) {
+            return cards;
+        }
+
+        // Bán chạy tự động theo bảng xếp hạng gần đây (lấy dư để bỏ sản phẩm đã ẩn),
+        // sản phẩm gắn cờ isBestSeller bù vào khi chưa đủ
+        Map<Long, ProductCardView> ranked = new LinkedHashMap<>();
+        for (ProductCardView card : productPageLoader.loadCards(salesHeavyHitters.bestSellerIds(limit * 2))) {
+            if (Boolean.TRUE.equals(card.getIsActive()) && ranked.size() < limit) {
+                ranked.put(card.getId(), card);
+            }
+        }
+        for (ProductCardView card : cards) {
+            if (ranked.size() >= limit) {
+                break;
+            }
+            ranked.putIfAbsent(card.getId(), card);
+        }
+        return new ArrayList<>(ranked.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductCardView> findTrendingCards(int limit) {
+        // Lấy dư để bỏ sản phẩm đã ẩn; chưa có lượt xem nào thì trả rỗng (trang chủ ẩn mục này)
+        return productPageLoader.loadCards(productViewTracker.getTrendingIds(limit * 2)).stream()
+                .filter(card -> Boolean.TRUE.equals(card.getIsActive()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductCardView> findOnSaleCards(Pageable pageable) {
+        return productRepository.findOnSaleCards(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductCardView> findRelatedCards(Long productId, int limit) {
+        return singleFlightLoader.load("product.related", productId + ":" + limit, () -> {
+            Long categoryId = productRepository.findCategoryIdById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+            return productRepository.findRelatedCards(categoryId, productId, PageRequest.of(0, limit));
+        });
+    }
+
     // ========== SEARCH & FILTER ==========
 
     @Override
     @Transactional(readOnly = true)
     public Page<Product> search(String keyword, Pageable pageable) {
+        // Index chưa build xong (vừa khởi động) thì fallback về query LIKE
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, null, true, pageable);
+        }
         return productRepository.searchProducts(keyword, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Product> searchByCategory(String keyword, Long categoryId, Pageable pageable) {
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, categoryId, true, pageable);
+        }
         return productRepository.searchProductsByCategory(keyword, categoryId, pageable);
     }
 
@@ -213,6 +389,9 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public Page<Product> searchAll(String keyword, Pageable pageable) {
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, null, false, pageable);
+        }
         return productRepository.searchAllProducts(keyword, pageable);
     }
 
@@ -284,6 +463,7 @@ public class ProductServiceImpl implements ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(savedProduct.getId()));
         log.info("Created product: {}", name);
 
         return savedProduct;
@@ -422,7 +602,9 @@ public class ProductServiceImpl implements ProductService {
             product.setQuantity(totalVariantStock);
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
+        return savedProduct;
     }
     private void updateBasicInfo(Product product, ProductRequest request) {
         // Cập nhật Slug nếu tên đổi
@@ -484,6 +666,7 @@ public class ProductServiceImpl implements ProductService {
 
         product.setIsActive(!product.getIsActive());
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
         log.info("Toggled product active status: {} -> {}", id, product.getIsActive());
     }
 
@@ -494,6 +677,7 @@ public class ProductServiceImpl implements ProductService {
 
         product.setIsFeatured(!product.getIsFeatured());
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
         log.info("Toggled product featured status: {} -> {}", id, product.getIsFeatured());
     }
 
@@ -504,6 +688,7 @@ public class ProductServiceImpl implements ProductService {
 
         product.setIsNew(!product.getIsNew());
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
         log.info("Toggled product isNew status: {} -> {}", id, product.getIsNew());
     }
 
@@ -531,7 +716,9 @@ public class ProductServiceImpl implements ProductService {
                 .displayOrder(product.getImages().size())
                 .build();
 
-        return productImageRepository.save(image);
+        ProductImage saved = productImageRepository.save(image);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+        return saved;
     }
 
     @Override
@@ -552,6 +739,7 @@ public class ProductServiceImpl implements ProductService {
             }
         }
 
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
         log.info("Removed product image: {}", imageId);
     }
 
@@ -559,6 +747,7 @@ public class ProductServiceImpl implements ProductService {
     public void setMainImage(Long productId, Long imageId) {
         productImageRepository.clearMainImage(productId);
         productImageRepository.setMainImage(imageId);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
         log.info("Set main image for product {}: {}", productId, imageId);
     }
 
@@ -584,6 +773,8 @@ public class ProductServiceImpl implements ProductService {
                 .build();
 
         ProductVariant savedVariant = productVariantRepository.save(variant);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, savedVariant.getId()));
         log.info("Added variant to product {}: {}", productId, name);
 
         return savedVariant;
@@ -624,20 +815,29 @@ public class ProductServiceImpl implements ProductService {
         if (additionalPrice != null) {
             variant.setAdditionalPrice(additionalPrice);
         }
+        boolean stockChanged = quantity != null && !quantity.equals(variant.getQuantity());
         if (quantity != null) {
             variant.setQuantity(quantity);
         }
 
+        ProductVariant saved = productVariantRepository.save(variant);
+        Long productId = variant.getProduct().getId();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+        if (stockChanged) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(productId, variantId));
+        }
         log.info("Updated variant: {}", variantId);
-        return productVariantRepository.save(variant);
+        return saved;
     }
 
     @Override
     public void removeVariant(Long variantId) {
-        if (!productVariantRepository.existsById(variantId)) {
-            throw new ResourceNotFoundException("ProductVariant", "id", variantId);
-        }
-        productVariantRepository.deleteById(variantId);
+        ProductVariant variant = productVariantRepository.findById(variantId)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductVariant", "id", variantId));
+        Long productId = variant.getProduct().getId();
+        productVariantRepository.delete(variant);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, variantId));
         log.info("Removed variant: {}", variantId);
     }
 
@@ -645,6 +845,12 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public void decreaseStock(Long productId, Long variantId, int quantity) {
+        if (stockLedger.isEnabled()) {
+            // Giữ hàng in-memory, ghi về bảng sản phẩm theo batch
+            stockLedger.reserve(productId, variantId, quantity);
+            log.info("Reserved stock for product {} (variant {}): -{}", productId, variantId, quantity);
+            return;
+        }
         if (variantId != null) {
             int updated = productVariantRepository.decreaseQuantity(variantId, quantity);
             if (updated == 0) {
@@ -656,28 +862,70 @@ public class ProductServiceImpl implements ProductService {
                 throw new BadRequestException("Không đủ số lượng tồn kho");
             }
         }
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, variantId));
         log.info("Decreased stock for product {} (variant {}): -{}", productId, variantId, quantity);
     }
 
+    @Override
+    public void decreaseStock(List<StockLine> lines) {
+        if (stockLedger.isEnabled()) {
+            lines.forEach(line -> decreaseStock(line.getProductId(), line.getVariantId(), line.getQuantity()));
+            return;
+        }
+
+        // Gộp theo id, sắp xếp tăng dần để mọi đơn khóa dòng theo cùng thứ tự
+        SortedMap<Long, Integer> productQuantities = new TreeMap<>();
+        SortedMap<Long, Integer> variantQuantities = new TreeMap<>();
+        for (StockLine line : lines) {
+            if (line.getVariantId() != null) {
+                variantQuantities.merge(line.getVariantId(), line.getQuantity(), Integer::sum);
+            } else {
+                productQuantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            }
+        }
+
+        if (orderBatchRepository.decreaseVariantStock(variantQuantities) < variantQuantities.size()
+                || orderBatchRepository.decreaseProductStock(productQuantities) < productQuantities.size()) {
+            throw new BadRequestException("Không đủ số lượng tồn kho");
+        }
+
+        lines.forEach(line ->
+                eventPublisher.publishEvent(new ProductStockChangedEvent(line.getProductId(), line.getVariantId())));
+        log.info("Decreased stock for {} lines ({} products, {} variants)",
+                lines.size(), productQuantities.size(), variantQuantities.size());
+    }
+
     @Override
     public void increaseStock(Long productId, Long variantId, int quantity) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.restock(productId, variantId, quantity);
+            log.info("Restocked via ledger for product {} (variant {}): +{}", productId, variantId, quantity);
+            return;
+        }
         if (variantId != null) {
             productVariantRepository.increaseQuantity(variantId, quantity);
         } else {
             productRepository.increaseQuantity(productId, quantity);
         }
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, variantId));
         log.info("Increased stock for product {} (variant {}): +{}", productId, variantId, quantity);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> findLowStockProducts() {
+        if (stockStateTracker.isReady()) {
+            return productRepository.findAllById(stockStateTracker.getLowStockProductIds());
+        }
         return productRepository.findLowStockProducts();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> findOutOfStockProducts() {
+        if (stockStateTracker.isReady()) {
+            return productRepository.findAllById(stockStateTracker.getOutOfStockProductIds());
+        }
         return productRepository.findOutOfStockProducts();
     }
 
@@ -707,7 +955,17 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public long countOutOfStockProducts() {
-        return productRepository.countOutOfStockProducts();
+        return stockStateTracker.isReady()
+                ? stockStateTracker.countOutOfStockProducts()
+                : productRepository.countOutOfStockProducts();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countLowStockProducts() {
+        return stockStateTracker.isReady()
+                ? stockStateTracker.countLowStockProducts()
+                : productRepository.countLowStockProducts();
     }
 
     @Override
@@ -723,5 +981,99 @@ public class ProductServiceImpl implements ProductService {
         String finalKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
         return productRepository.filterProducts(finalKeyword, categoryId, brandId, minPrice, maxPrice, pageable);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FacetResult filterByFacets(FacetFilter filter, Pageable pageable) {
+        // Từ khóa do search index xử lý: 2 index build độc lập lúc khởi động nên phải chờ cả hai
+        if (productFacetIndex.isReady() && (!filter.hasKeyword() || productSearchIndex.isReady())) {
+            return productFacetIndex.query(filter, pageable);
+        }
+
+        // Index chưa build xong (lúc khởi động): lọc bằng DB theo facet đầu tiên được chọn, không có số lượng
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), withoutTrending(pageable.getSort()));
+        Page<Product> page;
+        if (filter.hasKeyword()) {
+            page = search(filter.getKeyword().trim(), pageable);
+        } else if (!filter.getCategoryIds().isEmpty()) {
+            page = findByCategory(filter.getCategoryIds().iterator().next(), pageable);
+        } else if (!filter.getBrandIds().isEmpty()) {
+            page = findByBrand(filter.getBrandIds().iterator().next(), pageable);
+        } else if (filter.hasPriceRange()) {
+            BigDecimal min = filter.getMinPrice() != null ? filter.getMinPrice() : BigDecimal.ZERO;
+            BigDecimal max = filter.getMaxPrice() != null ? filter.getMaxPrice() : BigDecimal.valueOf(Long.MAX_VALUE);
+            page = findByPriceRange(min, max, pageable);
+        } else {
+            page = findActiveProducts(pageable);
+        }
+        return FacetResult.ofPage(new PageImpl<>(
+                productPageLoader.loadCards(page.map(Product::getId).getContent()), pageable, page.getTotalElements()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ProductCardView> scrollActive(FacetFilter filter, ScrollPosition position, int size, Sort sort) {
+        Sort keysetSort = CursorCodec.withTieBreaker(withoutTrending(sort));
+        Window<Product> window = productRepository.findBy(activeProductSpec(filter),
+                query -> query.sortBy(keysetSort).limit(size).scroll(position));
+
+        // Card của cả trang lấy trong 1 query thay vì đọc ảnh / category / brand từng sản phẩm
+        Map<Long, ProductCardView> cards = productPageLoader.loadCards(
+                window.getContent().stream().map(Product::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(ProductCardView::getId, Function.identity()));
+        return window.map(product -> cards.get(product.getId()));
+    }
+
+    /**
+     * Điểm trending chỉ có trong bộ nhớ, query DB không sắp được: dùng mới nhất thay thế
+     */
+    private static Sort withoutTrending(Sort sort) {
+        if (sort.getOrderFor(ProductViewTracker.TRENDING_SORT) != null) {
+            return Sort.by(Sort.Direction.DESC, "createdAt");
+        }
+        return sort;
+    }
+
+    /**
+     * Điều kiện lọc cho phân trang keyset (cùng ý nghĩa với facet: OR trong facet, AND giữa các facet)
+     */
+    private Specification<Product> activeProductSpec(FacetFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("isActive")));
+
+            if (!filter.getCategoryIds().isEmpty()) {
+                Join<Product, Category> category = root.join("category", JoinType.LEFT);
+                Join<Category, Category> parent = category.join("parent", JoinType.LEFT);
+                predicates.add(cb.or(
+                        category.get("id").in(filter.getCategoryIds()),
+                        parent.get("id").in(filter.getCategoryIds())));
+            }
+            if (!filter.getBrandIds().isEmpty()) {
+                predicates.add(root.get("brand").get("id").in(filter.getBrandIds()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(
+                        cb.coalesce(root.get("salePrice"), root.<BigDecimal>get("price")), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(
+                        cb.coalesce(root.get("salePrice"), root.<BigDecimal>get("price")), filter.getMaxPrice()));
+            }
+            if (filter.isInStock()) {
+                predicates.add(cb.greaterThan(root.get("quantity"), 0));
+            }
+            if (filter.isOnSale()) {
+                LocalDateTime now = LocalDateTime.now();
+                predicates.add(cb.isNotNull(root.get("salePrice")));
+                predicates.add(cb.lessThan(root.get("salePrice"), root.<BigDecimal>get("price")));
+                predicates.add(cb.or(cb.isNull(root.get("saleStartDate")),
+                        cb.lessThanOrEqualTo(root.get("saleStartDate"), now)));
+                predicates.add(cb.or(cb.isNull(root.get("saleEndDate")),
+                        cb.greaterThanOrEqualTo(root.get("saleEndDate"), now)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
      
 }
\ No newline at end of file
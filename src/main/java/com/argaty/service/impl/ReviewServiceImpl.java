@@ -4,8 +4,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +20,7 @@ import com.argaty.entity.ReviewImage;
 import com.argaty.entity.User;
 import com.argaty.exception.BadRequestException;
 import com.argaty.exception.ResourceNotFoundException;
+import com.argaty.readmodel.SingleFlightLoader;
 import com.argaty.repository.OrderItemRepository;
 import com.argaty.repository.ProductRepository;
 import com.argaty.repository.ReviewImageRepository;
@@ -23,6 +28,7 @@ import com.argaty.repository.ReviewRepository;
 import com.argaty.repository.UserRepository;
 import com.argaty.service.ProductService;
 import com.argaty.service.ReviewService;
+import com.argaty.util.CursorCodec;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +48,7 @@ public class ReviewServiceImpl implements ReviewService {
     private final ProductRepository productRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductService productService;
+    private final SingleFlightLoader singleFlightLoader;
 
     @Override
     public Review save(Review review) {
@@ -60,6 +67,13 @@ public class ReviewServiceImpl implements ReviewService {
         return reviewRepository.findByProductIdAndIsVisibleTrueOrderByCreatedAtDesc(productId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Review> scrollByProductId(Long productId, ScrollPosition position, int size) {
+        return reviewRepository.findByProductIdAndIsVisibleTrue(productId, position, Limit.of(size),
+                CursorCodec.withTieBreaker(Sort.unsorted()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Review> findByProductIdAndRating(Long productId, int rating, Pageable pageable) {
@@ -225,19 +239,22 @@ public class ReviewServiceImpl implements ReviewService {
     @Override
     @Transactional(readOnly = true)
     public Double getAverageRating(Long productId) {
-        return reviewRepository.getAverageRatingByProductId(productId);
+        return singleFlightLoader.load("review.average", productId,
+                () -> reviewRepository.getAverageRatingByProductId(productId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public long getReviewCount(Long productId) {
-        return reviewRepository.countByProductId(productId);
+        return singleFlightLoader.load("review.count", productId,
+                () -> reviewRepository.countByProductId(productId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getRatingDistribution(Long productId) {
-        return reviewRepository.getRatingDistribution(productId);
+        return singleFlightLoader.load("review.distribution", productId,
+                () -> reviewRepository.getRatingDistribution(productId));
     }
 
     // ========== ADMIN ==========
@@ -3,21 +3,29 @@ package com.argaty.service.impl;
 import com.argaty.entity.PasswordResetToken;
 import com.argaty.entity.User;
 import com.argaty.enums.Role;
+import com.argaty.event.UserChangedEvent;
+import com.argaty.event.UserRegisteredEvent;
 import com.argaty.exception.ResourceNotFoundException;
 import com.argaty.exception.BadRequestException;
+import com.argaty.readmodel.DashboardMetricsStore;
+import com.argaty.readmodel.UserIdentityCache;
 import com.argaty.repository.PasswordResetTokenRepository;
 import com.argaty.repository.UserRepository;
+import com.argaty.search.AdminSearchIndex;
 import com.argaty.service.EmailService;
 import com.argaty.service.NotificationService;
+import com.argaty.security.UserIdentity;
 import com.argaty.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
@@ -37,12 +45,18 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final NotificationService notificationService;
+    private final UserIdentityCache userIdentityCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AdminSearchIndex adminSearchIndex;
+    private final DashboardMetricsStore dashboardMetricsStore;
 
     // ========== CRUD ==========
 
     @Override
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        publishChanged(saved.getId());
+        return saved;
     }
 
     @Override
@@ -57,6 +71,12 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByEmail(email);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserIdentity> findIdentityByEmail(String email) {
+        return userIdentityCache.get(email, () -> userRepository.findIdentityByEmail(email));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByPhone(String phone) {
@@ -81,6 +101,7 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User", "id", id);
         }
         userRepository.deleteById(id);
+        publishChanged(id);
         log.info("Deleted user with id: {}", id);
     }
 
@@ -122,6 +143,8 @@ public class UserServiceImpl implements UserService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        publishChanged(savedUser.getId());
+        eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getId()));
         log.info("Registered new user: {}", email);
 
         try {
@@ -226,6 +249,9 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public Page<User> searchUsers(String keyword, Pageable pageable) {
+        if (adminSearchIndex.isReady()) {
+            return adminSearchIndex.searchUsers(keyword, pageable);
+        }
         return userRepository.searchUsers(keyword, pageable);
     }
 
@@ -236,18 +262,21 @@ public class UserServiceImpl implements UserService {
 
         user.setRole(role);
         userRepository.save(user);
+        publishChanged(userId);
         log.info("Updated role to {} for user: {}", role, userId);
     }
 
     @Override
     public void banUser(Long userId, String reason) {
         userRepository.updateBanStatus(userId, true, reason);
+        publishChanged(userId);
         log.info("Banned user: {} - Reason: {}", userId, reason);
     }
 
     @Override
     public void unbanUser(Long userId) {
         userRepository.updateBanStatus(userId, false, null);
+        publishChanged(userId);
         log.info("Unbanned user: {}", userId);
     }
 
@@ -257,6 +286,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         user.setIsEnabled(true);
         userRepository.save(user);
+        publishChanged(userId);
     }
 
     @Override
@@ -265,6 +295,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         user.setIsEnabled(false);
         userRepository.save(user);
+        publishChanged(userId);
     }
 
     // ========== PROFILE ==========
@@ -290,7 +321,9 @@ public class UserServiceImpl implements UserService {
             user.setAvatar(avatar);
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        publishChanged(userId);
+        return saved;
     }
 
     @Override
@@ -311,12 +344,18 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public long countByRole(Role role) {
+        if (role == Role.USER && dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.getTotalUsers();
+        }
         return userRepository.countByRole(role);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countNewUsersToday() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.countNewUsersFrom(LocalDate.now());
+        }
         LocalDateTime startOfDay = LocalDateTime.now().with(LocalTime.MIN);
         return userRepository.countNewUsersFromDate(startOfDay);
     }
@@ -324,7 +363,14 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public long countNewUsersThisMonth() {
+        if (dashboardMetricsStore.isReady()) {
+            return dashboardMetricsStore.countNewUsersFrom(LocalDate.now().withDayOfMonth(1));
+        }
         LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).with(LocalTime.MIN);
         return userRepository.countNewUsersFromDate(startOfMonth);
     }
-}
\ No newline at end of file
+
+    private void publishChanged(Long userId) {
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+    }
+}
@@ -5,15 +5,18 @@ import com.argaty.entity.User;
 import com.argaty.entity.Voucher;
 import com.argaty.entity.VoucherUsage;
 import com.argaty.enums.DiscountType;
+import com.argaty.event.VoucherChangedEvent;
 import com.argaty.exception.ResourceNotFoundException;
 import com.argaty.exception.BadRequestException;
 import com.argaty.repository.OrderRepository;
 import com.argaty.repository.UserRepository;
 import com.argaty.repository.VoucherRepository;
 import com.argaty.repository.VoucherUsageRepository;
+import com.argaty.search.AdminSearchIndex;
 import com.argaty.service.VoucherService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -38,12 +41,16 @@ public class VoucherServiceImpl implements VoucherService {
     private final VoucherUsageRepository voucherUsageRepository;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
+    private final AdminSearchIndex adminSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ========== CRUD ==========
 
     @Override
     public Voucher save(Voucher voucher) {
-        return voucherRepository.save(voucher);
+        Voucher saved = voucherRepository.save(voucher);
+        eventPublisher.publishEvent(VoucherChangedEvent.updated(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -67,6 +74,9 @@ public class VoucherServiceImpl implements VoucherService {
     @Override
     @Transactional(readOnly = true)
     public Page<Voucher> search(String keyword, Pageable pageable) {
+        if (adminSearchIndex.isReady()) {
+            return adminSearchIndex.searchVouchers(keyword, pageable);
+        }
         return voucherRepository.searchVouchers(keyword, pageable);
     }
 
@@ -76,6 +86,7 @@ public class VoucherServiceImpl implements VoucherService {
             throw new ResourceNotFoundException("Voucher", "id", id);
         }
         voucherRepository.deleteById(id);
+        eventPublisher.publishEvent(VoucherChangedEvent.deleted(id));
         log.info("Deleted voucher:  {}", id);
     }
 
@@ -122,6 +133,7 @@ public class VoucherServiceImpl implements VoucherService {
                 .build();
 
         Voucher savedVoucher = voucherRepository.save(voucher);
+        eventPublisher.publishEvent(VoucherChangedEvent.updated(savedVoucher.getId()));
         log.info("Created voucher: {}", upperCode);
 
         return savedVoucher;
@@ -154,7 +166,9 @@ public class VoucherServiceImpl implements VoucherService {
         }
 
         log.info("Updated voucher: {}", id);
-        return voucherRepository.save(voucher);
+        Voucher saved = voucherRepository.save(voucher);
+        eventPublisher.publishEvent(VoucherChangedEvent.updated(id));
+        return saved;
     }
 
     @Override
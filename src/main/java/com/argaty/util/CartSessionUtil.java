@@ -0,0 +1,66 @@
+package com.argaty.util;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Ghi nhớ cart id của người dùng hiện tại trong HTTP session
+ * Cart id gắn với chủ sở hữu (email hoặc guest) để đăng nhập / đăng xuất không dùng nhầm giỏ
+ */
+public class CartSessionUtil {
+
+    public static final String CART_SESSION_ID = "CART_SESSION_ID";
+
+    private static final String CART_ID = "CART_ID";
+    private static final String CART_OWNER = "CART_OWNER";
+    private static final String GUEST_OWNER = "guest";
+
+    private CartSessionUtil() {
+    }
+
+    /**
+     * Đã xác định được giỏ của owner hiện tại chưa (kể cả trường hợp guest chưa có giỏ)
+     */
+    public static boolean isResolved(HttpSession session, String email) {
+        return Objects.equals(session.getAttribute(CART_OWNER), ownerKey(email));
+    }
+
+    /**
+     * Cart id đã ghi nhớ cho owner hiện tại, null nếu chưa có giỏ / chưa xác định
+     */
+    public static Long getCartId(HttpSession session, String email) {
+        return isResolved(session, email) ? (Long) session.getAttribute(CART_ID) : null;
+    }
+
+    /**
+     * @param cartId null = owner chưa có giỏ (guest chưa thêm sản phẩm nào)
+     */
+    public static void remember(HttpSession session, String email, Long cartId) {
+        session.setAttribute(CART_OWNER, ownerKey(email));
+        if (cartId != null) {
+            session.setAttribute(CART_ID, cartId);
+        } else {
+            session.removeAttribute(CART_ID);
+        }
+    }
+
+    public static void forget(HttpSession session) {
+        session.removeAttribute(CART_OWNER);
+        session.removeAttribute(CART_ID);
+    }
+
+    public static String getOrCreateGuestSessionId(HttpSession session) {
+        String sessionId = (String) session.getAttribute(CART_SESSION_ID);
+        if (sessionId == null) {
+            sessionId = UUID.randomUUID().toString();
+            session.setAttribute(CART_SESSION_ID, sessionId);
+        }
+        return sessionId;
+    }
+
+    private static String ownerKey(String email) {
+        return email != null ? email : GUEST_OWNER;
+    }
+}
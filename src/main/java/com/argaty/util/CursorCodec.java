@@ -0,0 +1,119 @@
+package com.argaty.util;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.argaty.exception.BadRequestException;
+
+/**
+ * Mã hóa / giải mã cursor cho phân trang keyset
+ * Cursor là chuỗi Base64 (URL-safe) chứa giá trị các khóa sắp xếp + id của phần tử cuối trang trước,
+ * mỗi giá trị kèm kiểu dữ liệu để khôi phục đúng khi so sánh trong query
+ */
+public final class CursorCodec {
+
+    private CursorCodec() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Chỉ hỗ trợ KeysetScrollPosition");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> entry : keyset.getKeys().entrySet()) {
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            Object value = entry.getValue();
+            sb.append(entry.getKey()).append('=')
+              .append(typeOf(value)).append(':')
+              .append(value == null ? "" : URLEncoder.encode(valueOf(value), StandardCharsets.UTF_8));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã cursor; cursor rỗng = trang đầu tiên
+     *
+     * @throws BadRequestException nếu cursor không hợp lệ
+     */
+    public static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String part : raw.split("&")) {
+                int eq = part.indexOf('=');
+                int colon = part.indexOf(':', eq);
+                String key = part.substring(0, eq);
+                char type = part.charAt(eq + 1);
+                String value = URLDecoder.decode(part.substring(colon + 1), StandardCharsets.UTF_8);
+                keys.put(key, parse(type, value));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor không hợp lệ");
+        }
+    }
+
+    /**
+     * Thêm id làm khóa phụ để thứ tự keyset luôn xác định (các sản phẩm trùng giá / trùng ngày tạo)
+     * Sort rỗng = mới nhất trước
+     */
+    public static Sort withTieBreaker(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        }
+        if (sort.getOrderFor("id") != null) {
+            return sort;
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        for (Sort.Order order : sort) {
+            direction = order.getDirection();
+        }
+        return sort.and(Sort.by(direction, "id"));
+    }
+
+    private static char typeOf(Object value) {
+        if (value == null) return 'N';
+        if (value instanceof Long) return 'L';
+        if (value instanceof Integer) return 'I';
+        if (value instanceof BigDecimal) return 'D';
+        if (value instanceof LocalDateTime) return 'T';
+        if (value instanceof Boolean) return 'B';
+        if (value instanceof Enum<?>) throw new IllegalArgumentException("Không hỗ trợ sắp xếp theo enum");
+        return 'S';
+    }
+
+    private static String valueOf(Object value) {
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private static Object parse(char type, String value) {
+        return switch (type) {
+            case 'N' -> null;
+            case 'L' -> Long.valueOf(value);
+            case 'I' -> Integer.valueOf(value);
+            case 'D' -> new BigDecimal(value);
+            case 'T' -> LocalDateTime.parse(value);
+            case 'B' -> Boolean.valueOf(value);
+            case 'S' -> value;
+            default -> throw new IllegalArgumentException("Unknown cursor value type: " + type);
+        };
+    }
+}
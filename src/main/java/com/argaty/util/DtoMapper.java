@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 
+import com.argaty.dto.projection.ProductCardView;
 import com.argaty.dto.response.BannerResponse;
 import com.argaty.dto.response.BrandResponse;
 import com.argaty.dto.response.CartItemResponse;
@@ -105,6 +106,16 @@ public class DtoMapper {
         return PageResponse.of(page, content);
     }
 
+    public static List<ProductResponse> toProductCardResponseList(List<ProductCardView> cards) {
+        return cards.stream()
+                .map(ProductResponse::fromCardView)
+                .collect(Collectors.toList());
+    }
+
+    public static PageResponse<ProductResponse> toProductCardPageResponse(Page<ProductCardView> page) {
+        return PageResponse.of(page, toProductCardResponseList(page.getContent()));
+    }
+
     public static ProductDetailResponse toProductDetailResponse(Product product) {
         // 1. Map thông tin cơ bản
         ProductDetailResponse response = ProductDetailResponse.builder()
@@ -1,25 +1,100 @@
 package com.argaty.util;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.argaty.cluster.NodeIdAllocator;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
- * Utility class để tạo mã đơn hàng
+ * Tạo mã đơn hàng kiểu Snowflake: thời gian (ms) + node id + sequence, không lock, không trùng giữa các node
+ * - Mỗi ms tối đa 4096 mã / node; hết sequence thì mượn ms kế tiếp (vẫn tăng dần)
+ * - Đồng hồ lùi thì tiếp tục từ mốc thời gian cuối cùng đã cấp, không chờ và không sinh trùng
+ * - Lease node id quá hạn thì từ chối cấp mã (IllegalStateException) thay vì cấp trùng với node khác
  */
+@Slf4j
+@Component
 public class OrderCodeGenerator {
 
-    private static final AtomicInteger counter = new AtomicInteger(0);
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int TIME_SHIFT = SEQUENCE_BITS + NodeIdAllocator.NODE_BITS;
+
+    // 2024-01-01T00:00:00Z - đủ 41 bit thời gian tới ~2093
+    private static final long EPOCH_MS = 1_704_067_200_000L;
+
+    private static final int SUFFIX_LENGTH = 8;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyMMddHHmm");
 
+    private final NodeIdAllocator nodeIdAllocator;
+    private final LongSupplier clock;
+
+    // Offset cố định lúc khởi động: đổi giờ DST không làm 1 phút lặp lại trong mã
+    private final ZoneOffset offset = ZoneId.systemDefault().getRules().getOffset(Instant.now());
+
+    // (thời gian đã cấp << SEQUENCE_BITS) | sequence
+    private final AtomicLong state = new AtomicLong();
+    private volatile long lastRollbackWarnAt = Long.MIN_VALUE / 2;
+
+    @Autowired
+    public OrderCodeGenerator(NodeIdAllocator nodeIdAllocator) {
+        this(nodeIdAllocator, System::currentTimeMillis);
+    }
+
+    OrderCodeGenerator(NodeIdAllocator nodeIdAllocator, LongSupplier clock) {
+        this.nodeIdAllocator = nodeIdAllocator;
+        this.clock = clock;
+    }
+
     /**
      * Tạo mã đơn hàng
-     * Format: AG + yyMMddHHmm + 3 số random
-     * VD: AG2412251430001
+     * Format: AG + yyMMddHHmm + 8 ký tự base36 (ms trong phút, node id, sequence)
+     * VD: AG24122514300A1B2C3D
      */
-    public static String generate() {
-        String timestamp = LocalDateTime.now().format(formatter);
-        int count = counter.incrementAndGet() % 1000;
-        return String.format("AG%s%03d", timestamp, count);
+    public String generate() {
+        return format(nextId());
+    }
+
+    public long nextId() {
+        long nodeId = nodeIdAllocator.getLeasedNodeId();
+        long now = clock.getAsLong() - EPOCH_MS;
+        while (true) {
+            long current = state.get();
+            long lastTime = current >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTime) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Cùng ms, hoặc đồng hồ lùi: tăng sequence (tràn sang ms kế tiếp)
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                if (lastTime - now > 1000 && now - lastRollbackWarnAt > 60_000) {
+                    lastRollbackWarnAt = now;
+                    log.warn("Clock moved backwards by {} ms, continuing from last issued timestamp", lastTime - now);
+                }
+                long time = next >>> SEQUENCE_BITS;
+                return (time << TIME_SHIFT) | (nodeId << NODE_SHIFT) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public String format(long id) {
+        long epochMs = (id >>> TIME_SHIFT) + EPOCH_MS;
+        long suffix = ((epochMs % 60_000) << TIME_SHIFT) | (id & ((1L << TIME_SHIFT) - 1));
+
+        String minute = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), offset).format(formatter);
+        String encoded = Long.toString(suffix, 36).toUpperCase();
+        return "AG" + minute + "0".repeat(SUFFIX_LENGTH - encoded.length()) + encoded;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.argaty.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class để chuẩn hóa text tiếng Việt phục vụ tìm kiếm
+ * VD: "Bàn phím Đỏ" -> "ban phim do"
+ */
+public class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+        // Private constructor để prevent instantiation
+    }
+
+    /**
+     * Bỏ dấu tiếng Việt và chuyển về chữ thường
+     * Lưu ý: "đ/Đ" không tách được bằng NFD nên phải thay thủ công
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return stripped.replace('đ', 'd').replace('Đ', 'D').toLowerCase();
+    }
+
+    /**
+     * Tách text thành các token (đã bỏ dấu, chữ thường, chỉ gồm chữ và số)
+     * VD: "Chuột Logitech G-502" -> [chuot, logitech, g, 502]
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(folded.substring(start));
+        }
+        return tokens;
+    }
+}
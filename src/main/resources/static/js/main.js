@@ -35,6 +35,33 @@ async function fetchWithCsrf(url, options = {}) {
 
 // ========== GLOBAL UTILITIES ==========
 
+// Key cho header Idempotency-Key: retry cùng key không bị server xử lý lại
+function newIdempotencyKey() {
+  if (window.crypto && crypto.randomUUID) {
+    return crypto.randomUUID();
+  }
+  return Date.now().toString(36) + "-" + Math.random().toString(36).slice(2);
+}
+
+// Gửi request với 1 Idempotency-Key tạo sẵn cho mỗi thao tác của người dùng
+// Lỗi mạng / 5xx thì thử lại với CÙNG key để server không xử lý 2 lần
+async function fetchIdempotent(url, options, idempotencyKey, retries = 2) {
+  for (let attempt = 0; ; attempt++) {
+    try {
+      const response = await fetchWithCsrf(url, {
+        ...options,
+        headers: { ...options.headers, "Idempotency-Key": idempotencyKey },
+      });
+      if (response.status < 500 || attempt >= retries) {
+        return response;
+      }
+    } catch (error) {
+      if (attempt >= retries) throw error;
+    }
+    await new Promise((resolve) => setTimeout(resolve, 500 * (attempt + 1)));
+  }
+}
+
 // Format currency VND
 function formatCurrency(amount) {
   return new Intl.NumberFormat("vi-VN").format(amount) + " ₫";
@@ -211,16 +238,25 @@ function initWishlistButtons() {
 // ========== ADD TO CART ==========
 
 // Quick add to cart
-async function quickAddToCart(productId, quantity = 1, variantId = null) {
+// button: nút vừa bấm, khóa lại trong lúc gửi để 1 lần bấm chỉ là 1 request
+async function quickAddToCart(productId, quantity = 1, variantId = null, button = null) {
+  if (button) {
+    if (button.disabled) return;
+    button.disabled = true;
+  }
   try {
-    const response = await fetchWithCsrf("/api/cart/items", {
-      method: "POST",
-      body: JSON.stringify({
-        productId: productId,
-        variantId: variantId,
-        quantity: quantity,
-      }),
-    });
+    const response = await fetchIdempotent(
+      "/api/cart/items",
+      {
+        method: "POST",
+        body: JSON.stringify({
+          productId: productId,
+          variantId: variantId,
+          quantity: quantity,
+        }),
+      },
+      newIdempotencyKey()
+    );
 
     const data = await response.json();
 
@@ -244,6 +280,8 @@ async function quickAddToCart(productId, quantity = 1, variantId = null) {
     }
   } catch (error) {
     showToast("error", "Lỗi", "Đã có lỗi xảy ra");
+  } finally {
+    if (button) button.disabled = false;
   }
 }
 
@@ -254,7 +292,7 @@ function initAddToCartButtons() {
       e.preventDefault();
       e.stopPropagation();
       const productId = this.dataset.productId;
-      quickAddToCart(productId);
+      quickAddToCart(productId, 1, null, this);
     });
   });
 }
@@ -335,7 +373,7 @@ function initSearchAutocomplete() {
 
     products.forEach((product) => {
       const item = document.createElement("a");
-      item.href = `/products/${product.slug}`;
+      item.href = product.url || `/products/${product.slug}`;
       item.className = "search-suggestion-item";
       item.style.cssText = `
                 display: flex;
@@ -355,7 +393,11 @@ function initSearchAutocomplete() {
                         ${product.name}
                     </div>
                     <div style="color: var(--accent-cyan); font-weight: 600;">
-                        ${formatCurrency(product.salePrice || product.price)}
+                        ${
+                          product.price != null
+                            ? formatCurrency(product.salePrice || product.price)
+                            : product.type === "brand" ? "Thương hiệu" : "Danh mục"
+                        }
                     </div>
                 </div>
             `;
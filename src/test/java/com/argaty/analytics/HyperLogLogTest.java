@@ -0,0 +1,79 @@
+package com.argaty.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    // Sai số chuẩn ~3.3%, cho phép 4 lần
+    private static final double TOLERANCE = 4 * 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void estimatesStayWithinTolerance() {
+        for (int n : new int[]{10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                sketch.offer("viewer-" + i);
+            }
+            assertThat((double) sketch.estimate()).as("n = %d", n).isCloseTo(n, within(Math.max(1, n * TOLERANCE)));
+        }
+    }
+
+    @Test
+    void duplicatesDoNotChangeTheEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.offer("user:" + i);
+        }
+        long estimate = sketch.estimate();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                sketch.offer("user:" + i);
+            }
+        }
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        // 2 tập giao nhau 10k phần tử, hợp = 30k
+        for (int i = 0; i < 20_000; i++) {
+            left.offer("v" + i);
+            union.offer("v" + i);
+        }
+        for (int i = 10_000; i < 30_000; i++) {
+            right.offer("v" + i);
+            union.offer("v" + i);
+        }
+
+        left.merge(right);
+
+        assertThat(left.toBytes()).isEqualTo(union.toBytes());
+        assertThat((double) left.estimate()).isCloseTo(30_000, within(30_000 * TOLERANCE));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 2_000; i++) {
+            sketch.offer("s" + i);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+        assertThat(HyperLogLog.fromBytes(new byte[7]).estimate()).isZero();
+        assertThat(HyperLogLog.fromBytes(null).estimate()).isZero();
+    }
+}
@@ -0,0 +1,81 @@
+package com.argaty.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SlidingTopKTest {
+
+    // DAY_1: 24 bucket × 1 giờ
+    private static final SalesWindow WINDOW = SalesWindow.DAY_1;
+    private static final long BUCKET_MS = WINDOW.getBucket().toMillis();
+    private static final long START = 1_000 * BUCKET_MS;
+
+    @Test
+    void mergedCountsStayWithinErrorBounds() {
+        SlidingTopK topK = new SlidingTopK(WINDOW, 20);
+        Map<Long, Long> truth = new HashMap<>();
+        Random random = new Random(3);
+        long now = START + WINDOW.getBucketCount() * BUCKET_MS - 1;
+        for (int i = 0; i < 50_000; i++) {
+            long key = (long) Math.floor(Math.pow(random.nextDouble(), 3) * 500);
+            long time = START + (long) (random.nextDouble() * WINDOW.getSpan().toMillis());
+            topK.add(key, "p" + key, 1, Math.min(time, now), now);
+            truth.merge(key, 1L, Long::sum);
+        }
+
+        List<HeavyHitter> top = topK.top(10, now);
+
+        assertThat(top).hasSize(10);
+        assertThat(top).extracting(HeavyHitter::getCount).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        for (HeavyHitter hitter : top) {
+            long actual = truth.get(hitter.getKey());
+            // Bucket không còn giữ key thì không cộng, nên chỉ có cận dưới chắc chắn
+            assertThat(hitter.getCount() - hitter.getError()).isLessThanOrEqualTo(actual);
+            // Mỗi bucket đếm thừa tối đa (tổng của bucket) / capacity
+            assertThat(hitter.getCount() - actual).isLessThanOrEqualTo(50_000 / 20);
+        }
+        // Key nặng nhất thật sự đứng đầu
+        long heaviest = truth.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        assertThat(top.get(0).getKey()).isEqualTo(heaviest);
+    }
+
+    @Test
+    void dropsBucketsThatSlideOutOfTheWindow() {
+        SlidingTopK topK = new SlidingTopK(WINDOW, 10);
+        topK.add(1, "old", 100, START, START);
+        topK.add(2, "new", 5, START + 5 * BUCKET_MS, START + 5 * BUCKET_MS);
+
+        long stillInside = START + (WINDOW.getBucketCount() - 1) * BUCKET_MS;
+        assertThat(topK.top(10, stillInside)).extracting(HeavyHitter::getKey).containsExactly(1L, 2L);
+
+        long slidOut = START + WINDOW.getBucketCount() * BUCKET_MS;
+        assertThat(topK.top(10, slidOut)).extracting(HeavyHitter::getKey).containsExactly(2L);
+
+        // Ghi vào thời điểm đã ra khỏi cửa sổ bị bỏ qua, slot cũ được dùng lại cho bucket mới
+        topK.add(3, "late", 50, START, slidOut);
+        topK.add(4, "reuse", 7, slidOut, slidOut);
+        assertThat(topK.top(10, slidOut)).extracting(HeavyHitter::getKey).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void subtractOnlyTouchesTheBucketOfTheOriginalEvent() {
+        SlidingTopK topK = new SlidingTopK(WINDOW, 10);
+        long now = START + 3 * BUCKET_MS;
+        topK.add(1, "p1", 4, START, now);
+        topK.add(1, "p1", 6, START + 2 * BUCKET_MS, now);
+
+        topK.subtract(1, 4, START, now);
+
+        List<HeavyHitter> top = topK.top(10, now);
+        assertThat(top).singleElement().satisfies(h -> {
+            assertThat(h.getCount()).isEqualTo(6);
+            assertThat(h.getEvents()).isEqualTo(1);
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.argaty.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+
+    private static final int CAPACITY = 50;
+
+    @Test
+    void countsStayWithinErrorBounds() {
+        SpaceSaving sketch = new SpaceSaving(CAPACITY);
+        Map<Long, Long> truth = new HashMap<>();
+        long total = feedSkewedStream(sketch, truth, 100_000, new Random(1));
+
+        long tracked = 0;
+        for (SpaceSaving.Counter c : sketch.counters()) {
+            long actual = truth.getOrDefault(c.key, 0L);
+            assertThat(c.count).isGreaterThanOrEqualTo(actual);
+            assertThat(c.count - c.error).isLessThanOrEqualTo(actual);
+            // Sai số không vượt quá tổng / capacity
+            assertThat(c.error).isLessThanOrEqualTo(total / CAPACITY);
+            tracked += c.count;
+        }
+        // Không có trừ: tổng counter bằng đúng tổng trọng số
+        assertThat(tracked).isEqualTo(total);
+        assertThat(sketch.size()).isEqualTo(CAPACITY);
+
+        long minCount = sketch.getMinCount();
+        assertThat(minCount).isLessThanOrEqualTo(total / CAPACITY);
+        truth.forEach((key, actual) -> {
+            boolean isTracked = sketch.counters().stream().anyMatch(c -> c.key == key);
+            if (!isTracked) {
+                assertThat(actual).isLessThanOrEqualTo(minCount);
+            }
+        });
+    }
+
+    @Test
+    void keepsEveryKeyAboveTheGuaranteedThreshold() {
+        SpaceSaving sketch = new SpaceSaving(CAPACITY);
+        Map<Long, Long> truth = new HashMap<>();
+        long total = feedSkewedStream(sketch, truth, 100_000, new Random(2));
+
+        truth.forEach((key, actual) -> {
+            if (actual > total / CAPACITY) {
+                assertThat(sketch.counters()).anyMatch(c -> c.key == key);
+            }
+        });
+    }
+
+    @Test
+    void subtractLowersCountAndKeepsEmptyCounters() {
+        SpaceSaving sketch = new SpaceSaving(2);
+        sketch.add(1, "a", 5);
+        sketch.add(2, "b", 3);
+        // Đầy: key 3 thay key 2 (nhỏ nhất) và kế thừa 3 làm sai số
+        sketch.add(3, "c", 1);
+
+        SpaceSaving.Counter c3 = counter(sketch, 3);
+        assertThat(c3.count).isEqualTo(4);
+        assertThat(c3.error).isEqualTo(3);
+
+        sketch.subtract(3, 2);
+        assertThat(c3.count).isEqualTo(2);
+        assertThat(c3.error).isEqualTo(2);
+
+        // Counter về 0 vẫn giữ chỗ nên sketch vẫn đầy
+        sketch.subtract(1, 5);
+        assertThat(counter(sketch, 1).count).isZero();
+        assertThat(sketch.size()).isEqualTo(2);
+        // Key không còn theo dõi: bỏ qua
+        sketch.subtract(2, 1);
+        assertThat(sketch.size()).isEqualTo(2);
+    }
+
+    @Test
+    void minCountKeepsEvictedFloorAfterSubtract() {
+        SpaceSaving sketch = new SpaceSaving(2);
+        sketch.add(1, "a", 5);
+        sketch.add(2, "b", 3);
+        // Key 2 (giá trị thật 3) bị thay
+        sketch.add(3, "c", 1);
+
+        sketch.subtract(1, 5);
+        sketch.subtract(3, 4);
+        // Mọi counter đã về 0 nhưng key 2 ngoài sketch vẫn có thể tới 3
+        assertThat(sketch.getMinCount()).isEqualTo(3);
+
+        // Key 2 quay lại thay counter rỗng: kế thừa mức sàn nên count vẫn >= giá trị thật
+        sketch.add(2, "b", 1);
+        SpaceSaving.Counter c2 = counter(sketch, 2);
+        assertThat(c2.count).isEqualTo(4);
+        assertThat(c2.error).isEqualTo(3);
+    }
+
+    private static long feedSkewedStream(SpaceSaving sketch, Map<Long, Long> truth, int events, Random random) {
+        long total = 0;
+        for (int i = 0; i < events; i++) {
+            // Phân phối lệch: vài key rất nặng, đuôi dài 1000 key
+            long key = (long) Math.floor(Math.pow(random.nextDouble(), 3) * 1000);
+            long weight = 1 + random.nextInt(3);
+            sketch.add(key, "p" + key, weight);
+            truth.merge(key, weight, Long::sum);
+            total += weight;
+        }
+        return total;
+    }
+
+    private static SpaceSaving.Counter counter(SpaceSaving sketch, long key) {
+        return sketch.counters().stream().filter(c -> c.key == key).findFirst().orElseThrow();
+    }
+}
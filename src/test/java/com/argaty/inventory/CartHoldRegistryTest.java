@@ -0,0 +1,89 @@
+package com.argaty.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.argaty.exception.BadRequestException;
+import com.argaty.repository.CartHoldBatchRepository;
+import com.argaty.repository.CartHoldRepository;
+
+class CartHoldRegistryTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private CartHoldRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CartHoldRegistry(mock(CartHoldRepository.class), mock(CartHoldBatchRepository.class),
+                mock(PlatformTransactionManager.class), true, 15, 1000);
+    }
+
+    @Test
+    void rollbackDropsNewHold() {
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> registry.hold(10L, PRODUCT_ID, null, 3, 5));
+
+        assertThat(registry.heldQuantity(PRODUCT_ID, null)).isZero();
+        assertThat(registry.getStats().get("holds")).isEqualTo(0);
+        // Giỏ khác lấy được toàn bộ tồn kho
+        registry.hold(11L, PRODUCT_ID, null, 5, 5);
+    }
+
+    @Test
+    void rollbackRestoresPreviousQuantity() {
+        registry.hold(10L, PRODUCT_ID, null, 2, 5);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> registry.hold(10L, PRODUCT_ID, null, 4, 5));
+
+        assertThat(registry.heldQuantity(PRODUCT_ID, null)).isEqualTo(2);
+        assertThatThrownBy(() -> registry.hold(11L, PRODUCT_ID, null, 4, 5)).isInstanceOf(BadRequestException.class);
+        registry.hold(11L, PRODUCT_ID, null, 3, 5);
+    }
+
+    @Test
+    void commitKeepsHold() {
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> registry.hold(10L, PRODUCT_ID, null, 3, 5));
+
+        assertThat(registry.heldQuantity(PRODUCT_ID, null)).isEqualTo(3);
+    }
+
+    @Test
+    void rollbackLeavesLaterHoldUntouched() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registry.hold(10L, PRODUCT_ID, null, 3, 5);
+            // Request sau (đã commit) thay hold trước khi transaction đầu rollback
+            registry.hold(10L, PRODUCT_ID, null, 1, 5);
+            List<TransactionSynchronization> synchronizations = List.of(TransactionSynchronizationManager.getSynchronizations().get(0));
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(registry.heldQuantity(PRODUCT_ID, null)).isEqualTo(1);
+    }
+
+    private static void inTransaction(int status, Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), status);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.argaty.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.argaty.entity.StockLedgerEntry;
+import com.argaty.exception.BadRequestException;
+import com.argaty.repository.ClusterNodeRepository;
+import com.argaty.repository.OutboxEventRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.ProductVariantRepository;
+import com.argaty.repository.StockLedgerEntryRepository;
+
+/**
+ * So sánh throughput đặt hàng trên 1 SKU nóng: đường decreaseStock cũ và StockLedger.
+ * <p>
+ * Đường cũ: UPDATE products ... WHERE quantity >= ? giữ khóa dòng tới khi commit,
+ * nên mô phỏng bằng 1 khóa cho dòng sản phẩm, giữ trong suốt phần việc còn lại của transaction.
+ * Ledger: giữ hàng bằng CAS, transaction chỉ insert entry riêng nên không chờ nhau.
+ * Phần việc còn lại của transaction (insert đơn, chi tiết, voucher...) mô phỏng bằng TX_WORK_NANOS.
+ * <p>
+ * Chỉ in kết quả, không so ngưỡng. Chạy bằng: mvn test -Pbenchmark -Dtest=StockLedgerBenchmarkTest
+ */
+@Tag("benchmark")
+class StockLedgerBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerBenchmarkTest.class);
+
+    private static final long PRODUCT_ID = 1L;
+    private static final long TX_WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int ORDERS_PER_THREAD = 300;
+    private static final int[] THREAD_COUNTS = {1, 8, 32};
+
+    @Test
+    void reportsHotSkuThroughputAgainstRowLockBaseline() throws Exception {
+        // Vòng đầu để JIT làm nóng, không tính
+        measure(new RowLockPath(), 8);
+        measure(new LedgerPath(), 8);
+
+        for (int threads : THREAD_COUNTS) {
+            double baseline = measure(new RowLockPath(), threads);
+            double ledger = measure(new LedgerPath(), threads);
+            log.info("Hot SKU, {} threads: decreaseStock (row lock) {} orders/s, ledger {} orders/s, x{}",
+                    threads, Math.round(baseline), Math.round(ledger), String.format("%.1f", ledger / baseline));
+        }
+    }
+
+    private static double measure(OrderPath path, int threads) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        path.placeOrder();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            // Tồn kho đủ cho mọi đơn: số đơn giữ hàng phải khớp, nếu không thì số đo vô nghĩa
+            assertThat(path.placed()).isEqualTo(threads * ORDERS_PER_THREAD);
+            return threads * ORDERS_PER_THREAD / seconds;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Phần việc còn lại của transaction đặt hàng */
+    private static void transactionWork() {
+        LockSupport.parkNanos(TX_WORK_NANOS);
+    }
+
+    // ========== PATHS ==========
+
+    private interface OrderPath {
+
+        void placeOrder();
+
+        int placed();
+    }
+
+    /** decreaseStock khi tắt ledger: khóa dòng sản phẩm từ lúc UPDATE tới lúc commit */
+    private static final class RowLockPath implements OrderPath {
+
+        private final ReentrantLock rowLock = new ReentrantLock();
+        private final AtomicInteger placed = new AtomicInteger();
+        private int quantity = Integer.MAX_VALUE;
+
+        @Override
+        public void placeOrder() {
+            rowLock.lock();
+            try {
+                if (quantity < 1) {
+                    throw new BadRequestException("Không đủ số lượng tồn kho");
+                }
+                quantity--;
+                transactionWork();
+                placed.incrementAndGet();
+            } finally {
+                rowLock.unlock();
+            }
+        }
+
+        @Override
+        public int placed() {
+            return placed.get();
+        }
+    }
+
+    /** decreaseStock khi bật ledger: CAS trên bộ đếm, insert entry, không khóa dòng */
+    private static final class LedgerPath implements OrderPath {
+
+        private final StockLedger ledger;
+        private final AtomicInteger placed = new AtomicInteger();
+
+        LedgerPath() {
+            // stubOnly: không ghi lại lời gọi, tránh mock tự thành điểm nghẽn
+            StockLedgerEntryRepository entryRepository = mock(StockLedgerEntryRepository.class, withSettings().stubOnly());
+            ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+            ClusterNodeRepository clusterNodeRepository = mock(ClusterNodeRepository.class, withSettings().stubOnly());
+            when(entryRepository.save(any(StockLedgerEntry.class))).thenReturn(null);
+            when(entryRepository.sumPendingForProduct(anyLong())).thenReturn(0L);
+            when(productRepository.findQuantityById(PRODUCT_ID)).thenReturn(Integer.MAX_VALUE);
+            when(clusterNodeRepository.countLive(any())).thenReturn(1L);
+
+            ledger = new StockLedger(entryRepository, productRepository,
+                    mock(ProductVariantRepository.class, withSettings().stubOnly()), clusterNodeRepository,
+                    mock(OutboxEventRepository.class, withSettings().stubOnly()),
+                    mock(ApplicationEventPublisher.class, withSettings().stubOnly()),
+                    mock(PlatformTransactionManager.class, withSettings().stubOnly()), true, 500, 60);
+            ledger.checkCluster();
+        }
+
+        @Override
+        public void placeOrder() {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                ledger.reserve(PRODUCT_ID, null, 1);
+                transactionWork();
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+                TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+                placed.incrementAndGet();
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+
+        @Override
+        public int placed() {
+            return placed.get();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.argaty.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.argaty.entity.StockLedgerEntry;
+import com.argaty.exception.BadRequestException;
+import com.argaty.repository.ClusterNodeRepository;
+import com.argaty.repository.OutboxEventRepository;
+import com.argaty.repository.ProductRepository;
+import com.argaty.repository.ProductVariantRepository;
+import com.argaty.repository.StockLedgerEntryRepository;
+
+class StockLedgerTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private StockLedgerEntryRepository entryRepository;
+    private ProductRepository productRepository;
+    private ProductVariantRepository productVariantRepository;
+    private ClusterNodeRepository clusterNodeRepository;
+    private OutboxEventRepository outboxEventRepository;
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        entryRepository = mock(StockLedgerEntryRepository.class);
+        productRepository = mock(ProductRepository.class);
+        productVariantRepository = mock(ProductVariantRepository.class);
+        clusterNodeRepository = mock(ClusterNodeRepository.class);
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        when(entryRepository.sumPendingForProduct(anyLong())).thenReturn(0L);
+        when(entryRepository.sumPendingForVariant(anyLong())).thenReturn(0L);
+        when(clusterNodeRepository.countLive(any())).thenReturn(1L);
+
+        ledger = new StockLedger(entryRepository, productRepository, productVariantRepository,
+                clusterNodeRepository, outboxEventRepository, mock(ApplicationEventPublisher.class),
+                mock(PlatformTransactionManager.class), true, 500, 60);
+        ledger.checkCluster();
+    }
+
+    // ========== RESERVE / RELEASE ==========
+
+    @Test
+    void concurrentReservationsNeverExceedStock() throws Exception {
+        when(productRepository.findQuantityById(PRODUCT_ID)).thenReturn(1000);
+        int threads = 8;
+        int attemptsPerThread = 500;
+        AtomicInteger reservedCount = new AtomicInteger();
+        AtomicInteger rejectedCount = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            ledger.reserve(PRODUCT_ID, null, 1);
+                            reservedCount.incrementAndGet();
+                        } catch (BadRequestException e) {
+                            rejectedCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(reservedCount.get()).isEqualTo(1000);
+        assertThat(rejectedCount.get()).isEqualTo(threads * attemptsPerThread - 1000);
+        verify(entryRepository, times(1000)).save(any(StockLedgerEntry.class));
+    }
+
+    @Test
+    void rollbackReleasesReservation() {
+        when(productRepository.findQuantityById(PRODUCT_ID)).thenReturn(5);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.reserve(PRODUCT_ID, null, 5);
+            assertThatThrownBy(() -> ledger.reserve(PRODUCT_ID, null, 1)).isInstanceOf(BadRequestException.class);
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ledger.reserve(PRODUCT_ID, null, 5);
+        assertThat(ledger.getStats().get("rolledBack")).isEqualTo(1L);
+    }
+
+    @Test
+    void restockAfterCommitMakesStockAvailableAgain() {
+        when(productRepository.findQuantityById(PRODUCT_ID)).thenReturn(2);
+        ledger.reserve(PRODUCT_ID, null, 2);
+        assertThatThrownBy(() -> ledger.reserve(PRODUCT_ID, null, 1)).isInstanceOf(BadRequestException.class);
+
+        ledger.restock(PRODUCT_ID, null, 1);
+        ledger.reserve(PRODUCT_ID, null, 1);
+    }
+
+    @Test
+    void failedEntryInsertReturnsStock() {
+        when(productRepository.findQuantityById(PRODUCT_ID)).thenReturn(1);
+        when(entryRepository.save(any(StockLedgerEntry.class))).thenThrow(new IllegalStateException("db down"));
+        assertThatThrownBy(() -> ledger.reserve(PRODUCT_ID, null, 1)).isInstanceOf(IllegalStateException.class);
+
+        when(entryRepository.save(any(StockLedgerEntry.class))).thenReturn(null);
+        ledger.reserve(PRODUCT_ID, null, 1);
+    }
+
+    // ========== FLUSH ==========
+
+    @Test
+    void flushAggregatesEntriesPerSkuInKeyOrder() {
+        when(entryRepository.findFlushBatch(500)).thenReturn(List.of(
+                new Object[]{10L, 2L, null, -1, 1},
+                new Object[]{11L, 1L, 5L, -2, 0},
+                new Object[]{12L, 2L, null, -3, 3},
+                new Object[]{13L, 1L, null, 4, 0}));
+        when(productRepository.applyStockDelta(anyLong(), anyInt(), anyInt())).thenReturn(1);
+        when(productVariantRepository.applyQuantityDelta(anyLong(), anyInt())).thenReturn(1);
+
+        ledger.flush();
+
+        InOrder order = inOrder(productRepository, productVariantRepository);
+        order.verify(productRepository).applyStockDelta(1L, 4, 0);
+        order.verify(productVariantRepository).applyQuantityDelta(5L, -2);
+        order.verify(productRepository).applyStockDelta(2L, -4, 4);
+        verify(entryRepository).deleteAllByIdInBatch(List.of(10L, 11L, 12L, 13L));
+        verify(outboxEventRepository, never()).saveAll(any());
+        assertThat(ledger.getStats().get("flushedEntries")).isEqualTo(4L);
+    }
+
+    @Test
+    void flushClampsOversoldStockAndRaisesAlert() {
+        when(entryRepository.findFlushBatch(500)).thenReturn(List.<Object[]>of(new Object[]{20L, 3L, null, -5, 5}));
+        // Guard chặn vì tồn kho chỉ còn 2
+        when(productRepository.applyStockDelta(3L, -5, 5)).thenReturn(0);
+        when(productRepository.findQuantityById(3L)).thenReturn(2);
+
+        ledger.flush();
+
+        verify(productRepository).clearOversoldStock(3L, 5);
+        verify(outboxEventRepository).saveAll(any());
+        verify(entryRepository).deleteAllByIdInBatch(List.of(20L));
+        assertThat(ledger.getStats().get("oversoldUnits")).isEqualTo(3L);
+    }
+
+    // ========== CLUSTER ==========
+
+    @Test
+    void disablesItselfWhenOtherInstancesAreLive() {
+        assertThat(ledger.isEnabled()).isTrue();
+
+        when(clusterNodeRepository.countLive(any())).thenReturn(2L);
+        ledger.checkCluster();
+        assertThat(ledger.isEnabled()).isFalse();
+
+        when(clusterNodeRepository.countLive(any())).thenReturn(1L);
+        ledger.checkCluster();
+        assertThat(ledger.isEnabled()).isTrue();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
@@ -0,0 +1,103 @@
+package com.argaty.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.argaty.inventory.TimingWheel.Timeout;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    // 8 ô / tầng: tầng 1 = 80ms, tầng 2 = 640ms, tầng 3 = 5120ms... nên hạn tới 100s đi qua nhiều tầng
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void expiresEachEntryOnceInTheTickItIsDue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> expiresAt = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long at = TICK_MS + random.nextInt(100_000);
+            expiresAt.put(i, at);
+            wheel.schedule(i, at);
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        long previousNow = 0;
+        for (long now = TICK_MS; now <= 100_000 + TICK_MS; now += TICK_MS) {
+            for (Timeout<Integer> timeout : wheel.advance(now)) {
+                long dueTick = tickOf(expiresAt.get(timeout.getValue()));
+                // Tới hạn ở đúng bước đầu tiên mà đồng hồ vượt qua tick chứa hạn, không sớm hơn
+                assertThat(dueTick).isLessThanOrEqualTo(now).isGreaterThan(previousNow);
+                assertThat(seen.add(timeout.getValue())).isTrue();
+            }
+            previousNow = now;
+        }
+        assertThat(seen).hasSize(expiresAt.size());
+    }
+
+    @Test
+    void returnsEntriesInExpiryOrderWhenAdvancingFarAhead() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            long at = TICK_MS + random.nextInt(50_000);
+            wheel.schedule(at, at);
+        }
+
+        List<Timeout<Long>> expired = wheel.advance(60_000);
+
+        assertThat(expired).hasSize(2_000);
+        List<Long> ticks = new ArrayList<>();
+        expired.forEach(timeout -> ticks.add(tickOf(timeout.getExpiresAt())));
+        assertThat(ticks).isSorted();
+    }
+
+    @Test
+    void skipsCancelledEntries() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        Timeout<String> kept = wheel.schedule("kept", 500);
+        Timeout<String> cancelled = wheel.schedule("cancelled", 500);
+        Timeout<String> cancelledFar = wheel.schedule("cancelled-far", 20_000);
+        cancelled.cancel();
+        cancelledFar.cancel();
+
+        assertThat(wheel.advance(400)).isEmpty();
+        assertThat(wheel.advance(500)).containsExactly(kept);
+        assertThat(wheel.advance(30_000)).isEmpty();
+    }
+
+    @Test
+    void returnsOverdueEntryOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 1_000);
+        Timeout<String> overdue = wheel.schedule("overdue", 995);
+
+        assertThat(wheel.advance(1_000)).containsExactly(overdue);
+        assertThat(wheel.advance(2_000)).isEmpty();
+    }
+
+    @Test
+    void reschedulingAfterCancelKeepsOnlyTheNewTimeout() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        Timeout<String> first = wheel.schedule("cart", 300);
+        first.cancel();
+        Timeout<String> renewed = wheel.schedule("cart", 3_000);
+
+        assertThat(wheel.advance(300)).isEmpty();
+        assertThat(wheel.advance(2_990)).isEmpty();
+        assertThat(wheel.advance(3_000)).containsExactly(renewed);
+    }
+
+    private static long tickOf(long expiresAt) {
+        return expiresAt - expiresAt % TICK_MS;
+    }
+}
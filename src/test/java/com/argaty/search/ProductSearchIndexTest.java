@@ -0,0 +1,67 @@
+package com.argaty.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.argaty.repository.ProductRepository;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void prefixExpansionKeepsMostFrequentTermsPastTheCap() {
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1;
+        // 100 term hiếm đứng đầu theo thứ tự chữ cái, mỗi term 1 sản phẩm
+        for (int i = 0; i < 100; i++) {
+            rows.add(row(id++, String.format("ba%03d", i)));
+        }
+        // Term phổ biến đứng cuối theo thứ tự chữ cái
+        List<Long> popular = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            popular.add(id);
+            rows.add(row(id++, "bzzz"));
+        }
+
+        List<Long> ids = index(rows).searchIds("b", null, true, Sort.unsorted());
+
+        assertThat(ids).containsAll(popular);
+    }
+
+    @Test
+    void prefixExpansionAlwaysKeepsExactMatch() {
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 100; i++) {
+            for (int copy = 0; copy < 2; copy++) {
+                rows.add(row(id++, String.format("bo%03d", i)));
+            }
+        }
+        long exact = id;
+        rows.add(row(exact, "bo"));
+
+        List<Long> ids = index(rows).searchIds("bo", null, true, Sort.unsorted());
+
+        assertThat(ids).first().isEqualTo(exact);
+    }
+
+    private static ProductSearchIndex index(List<Object[]> rows) {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSearchRows()).thenReturn(rows);
+        ProductSearchIndex index = new ProductSearchIndex(productRepository, mock(ProductPageLoader.class));
+        index.rebuild();
+        return index;
+    }
+
+    private static Object[] row(long id, String name) {
+        return new Object[]{id, name, null, null, true, null, BigDecimal.ONE, 0, BigDecimal.ZERO, LocalDateTime.now()};
+    }
+}
@@ -0,0 +1,123 @@
+package com.argaty.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTest {
+
+    private static final int TOP_K = 8;
+    private static final Comparator<Entry> BY_WEIGHT =
+            Comparator.comparingInt(Entry::weight).reversed().thenComparing(Entry::name);
+
+    @Test
+    void completeMatchesBruteForceTopKAfterAddsAndRemoves() {
+        SuggestionTrie<Entry> trie = new SuggestionTrie<>(TOP_K, BY_WEIGHT);
+        Map<Entry, List<String>> keysByEntry = new IdentityHashMap<>();
+        Random random = new Random(5);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            Entry entry = new Entry("e" + i, random.nextInt(10_000));
+            entries.add(entry);
+            // Mỗi entry có 1-3 key (tên và vài hậu tố), như ProductSuggestionIndex
+            List<String> keys = new ArrayList<>();
+            for (int k = 1 + random.nextInt(3); k > 0; k--) {
+                keys.add(randomKey(random));
+            }
+            keys.forEach(key -> trie.add(key, entry));
+            keysByEntry.put(entry, keys);
+        }
+        for (int i = 0; i < 500; i++) {
+            Entry entry = entries.remove(random.nextInt(entries.size()));
+            keysByEntry.remove(entry).forEach(key -> trie.remove(key, entry));
+        }
+
+        for (String prefix : prefixes()) {
+            for (int limit : new int[]{1, 5, TOP_K}) {
+                assertThat(trie.complete(prefix, limit))
+                        .as("prefix '%s' limit %d", prefix, limit)
+                        .isEqualTo(bruteForce(keysByEntry, prefix, limit));
+            }
+        }
+    }
+
+    @Test
+    void entryWithSeveralMatchingKeysAppearsOnce() {
+        SuggestionTrie<Entry> trie = new SuggestionTrie<>(TOP_K, BY_WEIGHT);
+        Entry mouse = new Entry("chuot gaming", 10);
+        Entry pad = new Entry("lot chuot", 5);
+        trie.add("chuot gaming", mouse);
+        trie.add("gaming", mouse);
+        trie.add("lot chuot", pad);
+        trie.add("chuot", pad);
+
+        assertThat(trie.complete("chuot", 10)).containsExactly(mouse, pad);
+        assertThat(trie.complete("", 10)).containsExactly(mouse, pad);
+        assertThat(trie.complete("gam", 10)).containsExactly(mouse);
+        assertThat(trie.complete("x", 10)).isEmpty();
+    }
+
+    @Test
+    void removingEveryKeyPrunesTheTrie() {
+        SuggestionTrie<Entry> trie = new SuggestionTrie<>(TOP_K, BY_WEIGHT);
+        Entry a = new Entry("a", 1);
+        Entry b = new Entry("b", 2);
+        trie.add("ban phim", a);
+        trie.add("ban", b);
+        trie.remove("ban phim", a);
+
+        assertThat(trie.complete("ban", 10)).containsExactly(b);
+        assertThat(trie.getNodeCount()).isEqualTo(1 + "ban".length());
+
+        trie.remove("ban", b);
+        // Key không tồn tại: bỏ qua
+        trie.remove("tai nghe", a);
+
+        assertThat(trie.getNodeCount()).isEqualTo(1);
+        assertThat(trie.getKeyCount()).isZero();
+        assertThat(trie.complete("", 10)).isEmpty();
+    }
+
+    private static List<Entry> bruteForce(Map<Entry, List<String>> keysByEntry, String prefix, int limit) {
+        Set<Entry> matched = new LinkedHashSet<>();
+        keysByEntry.forEach((entry, keys) -> {
+            if (keys.stream().anyMatch(key -> key.startsWith(prefix))) {
+                matched.add(entry);
+            }
+        });
+        return matched.stream().sorted(BY_WEIGHT).limit(limit).toList();
+    }
+
+    private static List<String> prefixes() {
+        List<String> prefixes = new ArrayList<>(List.of(""));
+        for (char a = 'a'; a <= 'e'; a++) {
+            prefixes.add(String.valueOf(a));
+            for (char b = 'a'; b <= 'e'; b++) {
+                prefixes.add("" + a + b);
+                prefixes.add("" + a + b + 'c');
+            }
+        }
+        return prefixes;
+    }
+
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(6);
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(5)));
+        }
+        return key.toString();
+    }
+
+    private record Entry(String name, int weight) {
+    }
+}
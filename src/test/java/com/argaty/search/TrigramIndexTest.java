@@ -0,0 +1,117 @@
+package com.argaty.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.argaty.util.TextNormalizer;
+
+class TrigramIndexTest {
+
+    private static final String ALPHABET = "abcdeghiklmnoprstuvy0123456789 -@.";
+
+    @Test
+    void matchesBruteForceSubstringSearch() {
+        TrigramIndex index = new TrigramIndex();
+        Map<Long, String[]> documents = new HashMap<>();
+        Random random = new Random(11);
+        for (long id = 1; id <= 2_000; id++) {
+            String[] fields = {randomText(random, 6, 20), randomText(random, 0, 12)};
+            documents.put(id, fields);
+            index.put(id, fields);
+        }
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // Chuỗi con lấy từ document (chắc chắn có kết quả) xen với chuỗi ngẫu nhiên
+            String[] fields = documents.get(1L + random.nextInt(documents.size()));
+            String field = fields[0];
+            int from = random.nextInt(field.length());
+            queries.add(field.substring(from, Math.min(field.length(), from + 1 + random.nextInt(6))));
+            queries.add(randomText(random, 1, 5));
+        }
+
+        for (String query : queries) {
+            assertThat(index.search(query)).as("query '%s'", query).isEqualTo(bruteForce(documents, query));
+        }
+    }
+
+    @Test
+    void foldsDiacriticsAndCase() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Nguyễn Văn Đức", "duc.nguyen@argaty.vn");
+        index.put(2, "Trần Thị Hoa", null);
+
+        assertThat(index.search("nguyen van")).containsExactly(1L);
+        assertThat(index.search("ĐỨC")).containsExactly(1L);
+        assertThat(index.search("thi hoa")).containsExactly(2L);
+        assertThat(index.search("argaty.vn")).containsExactly(1L);
+        // Có đủ trigram nhưng không liền nhau: kiểm tra lại loại bỏ
+        assertThat(index.search("hoa thi")).isEmpty();
+    }
+
+    @Test
+    void replaceAndRemoveUpdatePostings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(5, "AG2024000001");
+        index.put(7, "AG2024000002");
+        assertThat(index.search("2024")).containsExactly(7L, 5L);
+
+        index.put(5, "AG2025000001");
+        assertThat(index.search("2024")).containsExactly(7L);
+        assertThat(index.search("2025")).containsExactly(5L);
+
+        index.remove(7);
+        assertThat(index.search("2024")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(5);
+        assertThat(index.getGramCount()).isZero();
+    }
+
+    @Test
+    void shortQueriesScanAllDocumentsNewestFirst() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "ab1");
+        index.put(3, "xab");
+        index.put(2, "zzz");
+
+        assertThat(index.search("ab")).containsExactly(3L, 1L);
+        assertThat(index.search("Z")).containsExactly(2L);
+        assertThat(index.search("   ")).isEmpty();
+    }
+
+    private static List<Long> bruteForce(Map<Long, String[]> documents, String query) {
+        String needle = TextNormalizer.fold(query).trim();
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>();
+        documents.forEach((id, fields) -> {
+            for (String field : fields) {
+                if (TextNormalizer.fold(field).contains(needle)) {
+                    result.add(id);
+                    return;
+                }
+            }
+        });
+        result.sort(Comparator.reverseOrder());
+        return result;
+    }
+
+    private static String randomText(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+}
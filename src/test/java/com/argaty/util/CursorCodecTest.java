@@ -0,0 +1,89 @@
+package com.argaty.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.argaty.exception.BadRequestException;
+
+class CursorCodecTest {
+
+    @Test
+    void roundTripsEverySupportedType() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", new BigDecimal("1250000.50"));
+        keys.put("createdAt", LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000));
+        keys.put("soldCount", 42);
+        keys.put("isFeatured", true);
+        // Ký tự phân cách của cursor nằm trong giá trị
+        keys.put("name", "Chuột & bàn phím: a=b 100%");
+        keys.put("deletedAt", null);
+        keys.put("id", 9_007_199_254_740_993L);
+
+        KeysetScrollPosition decoded = decode(CursorCodec.encode(ScrollPosition.forward(keys)));
+
+        assertThat(decoded.getKeys()).containsExactlyEntriesOf(keys);
+        assertThat(decoded.getKeys().get("price")).isInstanceOf(BigDecimal.class);
+        assertThat(decoded.getKeys().get("soldCount")).isInstanceOf(Integer.class);
+        assertThat(decoded.getKeys().get("id")).isInstanceOf(Long.class);
+        assertThat(decoded.scrollsForward()).isTrue();
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("name", "???>>>~~~ ///");
+        keys.put("id", 1L);
+
+        String cursor = CursorCodec.encode(ScrollPosition.forward(keys));
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(decode(cursor).getKeys()).containsExactlyEntriesOf(keys);
+    }
+
+    @Test
+    void blankCursorIsTheFirstPage() {
+        assertThat(CursorCodec.decode(null)).isEqualTo(ScrollPosition.keyset());
+        assertThat(CursorCodec.decode("  ")).isEqualTo(ScrollPosition.keyset());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String unknownType = Base64.getUrlEncoder().withoutPadding().encodeToString("id=X:1".getBytes());
+        String badNumber = Base64.getUrlEncoder().withoutPadding().encodeToString("id=L:abc".getBytes());
+
+        assertThatThrownBy(() -> CursorCodec.decode("%%%")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(unknownType)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(badNumber)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorCodec.encode(ScrollPosition.offset(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tieBreakerAddsIdInTheLastDirection() {
+        assertThat(CursorCodec.withTieBreaker(Sort.unsorted()))
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        assertThat(CursorCodec.withTieBreaker(Sort.by(Sort.Direction.ASC, "price")))
+                .isEqualTo(Sort.by(Sort.Direction.ASC, "price", "id"));
+        assertThat(CursorCodec.withTieBreaker(Sort.by(Sort.Order.asc("name"), Sort.Order.desc("soldCount"))))
+                .isEqualTo(Sort.by(Sort.Order.asc("name"), Sort.Order.desc("soldCount"), Sort.Order.desc("id")));
+        Sort withId = Sort.by(Sort.Direction.ASC, "id");
+        assertThat(CursorCodec.withTieBreaker(withId)).isSameAs(withId);
+    }
+
+    private static KeysetScrollPosition decode(String cursor) {
+        ScrollPosition position = CursorCodec.decode(cursor);
+        assertThat(position).isInstanceOf(KeysetScrollPosition.class);
+        return (KeysetScrollPosition) position;
+    }
+}
@@ -0,0 +1,82 @@
+package com.argaty.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.argaty.cluster.NodeIdAllocator;
+import com.argaty.repository.ClusterNodeRepository;
+
+/**
+ * Đo tốc độ sinh mã đơn hàng khi nhiều luồng gọi cùng lúc.
+ * Chỉ in kết quả, không so ngưỡng vì số đo phụ thuộc máy chạy. Chạy bằng: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class OrderCodeGeneratorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderCodeGeneratorBenchmarkTest.class);
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 200_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void reportsConcurrentGenerationRate() throws Exception {
+        NodeIdAllocator allocator = new NodeIdAllocator(mock(ClusterNodeRepository.class),
+                mock(PlatformTransactionManager.class), 7, 60, 15_000);
+        allocator.init();
+        try {
+            OrderCodeGenerator generator = new OrderCodeGenerator(allocator);
+            // Vòng đầu để JIT làm nóng, không tính
+            run(generator);
+            for (int round = 1; round <= ROUNDS; round++) {
+                double seconds = run(generator);
+                log.info("OrderCodeGenerator round {}: {} threads x {} codes in {} ms = {} codes/s",
+                        round, THREADS, PER_THREAD, Math.round(seconds * 1000),
+                        Math.round(THREADS * PER_THREAD / seconds));
+            }
+        } finally {
+            allocator.shutdown();
+        }
+    }
+
+    private static double run(OrderCodeGenerator generator) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    String last = null;
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        last = generator.generate();
+                    }
+                    return last;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<String> future : futures) {
+                // Dùng kết quả để JIT không bỏ qua vòng lặp
+                assertThat(future.get(5, TimeUnit.MINUTES)).isNotNull();
+            }
+            return (System.nanoTime() - begin) / 1e9;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.argaty.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.argaty.cluster.NodeIdAllocator;
+import com.argaty.repository.ClusterNodeRepository;
+
+class OrderCodeGeneratorTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    private final List<NodeIdAllocator> allocators = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        allocators.forEach(NodeIdAllocator::shutdown);
+    }
+
+    @Test
+    void concurrentGenerationHasNoCollisions() throws Exception {
+        OrderCodeGenerator generator = new OrderCodeGenerator(allocator(7, 60));
+        int threads = 8;
+        int perThread = 50_000;
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        codes.add(generator.generate());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(codes).hasSize(threads * perThread);
+    }
+
+    @Test
+    void sequenceOverflowBorrowsNextMillisecond() {
+        // Đồng hồ đứng yên: hơn 4096 mã trong cùng 1 ms
+        OrderCodeGenerator generator = new OrderCodeGenerator(allocator(3, 60), () -> NOW);
+        long previous = -1;
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(nodeOf(id)).isEqualTo(3);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(10_000);
+        assertThat(timeOf(previous)).isEqualTo(timeOf(generator.nextId()));
+        assertThat(timeOf(previous) - timeOf(firstId(NOW))).isEqualTo(10_000 / 4096);
+    }
+
+    @Test
+    void clockRollbackKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderCodeGenerator generator = new OrderCodeGenerator(allocator(5, 60), clock::get);
+        long beforeRollback = generator.nextId();
+
+        clock.set(NOW - 5_000);
+        long afterRollback = generator.nextId();
+        assertThat(afterRollback).isGreaterThan(beforeRollback);
+        assertThat(timeOf(afterRollback)).isEqualTo(timeOf(beforeRollback));
+
+        clock.set(NOW + 1);
+        assertThat(timeOf(generator.nextId())).isEqualTo(timeOf(beforeRollback) + 1);
+    }
+
+    @Test
+    void codesKeepFormat() {
+        OrderCodeGenerator generator = new OrderCodeGenerator(allocator(1023, 60));
+        assertThat(generator.generate()).matches("AG\\d{10}[0-9A-Z]{8}");
+    }
+
+    @Test
+    void refusesToIssueIdsAfterLeaseExpires() {
+        // Lease 5 s trừ hao 5 s: hết hạn ngay sau khi cấp
+        OrderCodeGenerator generator = new OrderCodeGenerator(allocator(-1, 5));
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void issuesIdsWhileLeaseIsValid() {
+        NodeIdAllocator allocator = allocator(-1, 60);
+        OrderCodeGenerator generator = new OrderCodeGenerator(allocator);
+        assertThat(nodeOf(generator.nextId())).isEqualTo(allocator.getNodeId());
+    }
+
+    // ========== HELPERS ==========
+
+    private NodeIdAllocator allocator(int configuredNodeId, long leaseSeconds) {
+        // Repository mock: không có id quá hạn nên luôn insert id mới, giao dịch không làm gì
+        NodeIdAllocator allocator = new NodeIdAllocator(mock(ClusterNodeRepository.class),
+                mock(PlatformTransactionManager.class), configuredNodeId, leaseSeconds, 15_000);
+        allocator.init();
+        allocators.add(allocator);
+        return allocator;
+    }
+
+    private static long firstId(long epochMs) {
+        return (epochMs - 1_704_067_200_000L) << 22;
+    }
+
+    private static long timeOf(long id) {
+        return id >>> 22;
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> 12) & 1023;
+    }
+}